@@ -0,0 +1,96 @@
+package orm.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import orm.model.CourseStatus;
+import orm.search.CourseDocument;
+import orm.search.CourseSearchIndex;
+import orm.search.CourseSearchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск по индексу без БД: 100 000 курсов, слова распределены по Ципфу — несколько очень частых
+ * и длинный хвост редких. Запросы: редкое слово; самое частое слово, у которого ещё и тысячи
+ * продолжений (w10…w19999); два частых слова; частое + редкое слово.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CourseSearchBenchmark {
+
+    private static final int COURSES = 100_000;
+    private static final int VOCABULARY = 20_000;
+
+    @Param({"w15000", "w1", "w3 w7", "w2 w15000"})
+    public String query;
+
+    private CourseSearchIndex index;
+    private String[] words;
+    private double[] cumulative;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        words = new String[VOCABULARY];
+        cumulative = new double[VOCABULARY];
+        double total = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "w" + (i + 1);
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        index = new CourseSearchIndex(null, null);
+        for (long id = 1; id <= COURSES; id++) {
+            List<CourseDocument.TagRef> tags = List.of(
+                    new CourseDocument.TagRef(1L, word(random, total)),
+                    new CourseDocument.TagRef(2L, word(random, total)));
+            index.index(new CourseDocument(id, text(random, total, 4), text(random, total, 20),
+                    CourseStatus.PUBLISHED, 1L, word(random, total), tags));
+        }
+    }
+
+    private String text(Random random, double total, int length) {
+        List<String> text = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            text.add(word(random, total));
+        }
+        return String.join(" ", text);
+    }
+
+    private String word(Random random, double total) {
+        double point = random.nextDouble() * total;
+        int low = 0;
+        int high = VOCABULARY - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < point) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return words[low];
+    }
+
+    @Benchmark
+    public CourseSearchResult search() {
+        return index.search(query, 20);
+    }
+}
@@ -0,0 +1,94 @@
+package orm.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.dto.CourseStructureSnapshot;
+import orm.entity.Category;
+import orm.entity.Course;
+import orm.entity.Lesson;
+import orm.entity.Module;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.model.Role;
+import orm.repository.CategoryRepository;
+import orm.repository.CourseRepository;
+import orm.repository.UserRepository;
+import orm.service.CourseService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка структуры курса: загрузка из БД (два запроса + снимок) и чтение снимка из кэша.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CourseStructureBenchmark {
+
+    @Param({"5", "20"})
+    int modules;
+
+    @Param({"5"})
+    int lessonsPerModule;
+
+    private ConfigurableApplicationContext context;
+    private CourseService courseService;
+    private TransactionTemplate readOnly;
+    private Long courseId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JmhContexts.start("jmh-structure-" + modules + "-" + lessonsPerModule);
+        courseService = context.getBean(CourseService.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        User teacher = context.getBean(UserRepository.class).save(User.builder()
+                .name("Teacher").email("jmh.structure@example.com").password("x").role(Role.TEACHER).build());
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder().name("JMH").build());
+
+        Course course = Course.builder()
+                .title("JMH course").status(CourseStatus.PUBLISHED).teacher(teacher).category(category).build();
+        for (int m = 0; m < modules; m++) {
+            Module module = Module.builder().title("Module " + m).orderIndex(m).course(course).build();
+            for (int l = 0; l < lessonsPerModule; l++) {
+                module.getLessons().add(Lesson.builder()
+                        .title("Lesson " + l).content("content").orderIndex(l).module(module).build());
+            }
+            course.getModules().add(module);
+        }
+        courseId = context.getBean(CourseRepository.class).save(course).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CourseStructureSnapshot loadFromDatabase() {
+        return readOnly.execute(status -> CourseStructureSnapshot.of(courseService.getCourseWithStructure(courseId), 0));
+    }
+
+    @Benchmark
+    public CourseStructureSnapshot cached() {
+        return courseService.getCourseStructure(courseId);
+    }
+}
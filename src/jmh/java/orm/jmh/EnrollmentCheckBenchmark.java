@@ -0,0 +1,88 @@
+package orm.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import orm.entity.Category;
+import orm.entity.Course;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.model.Role;
+import orm.repository.CategoryRepository;
+import orm.repository.CourseRepository;
+import orm.repository.UserRepository;
+import orm.service.EnrollmentService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EnrollmentService.isStudentEnrolled на H2: запись есть и записи нет.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnrollmentCheckBenchmark {
+
+    private static final int STUDENTS = 200;
+
+    private ConfigurableApplicationContext context;
+    private EnrollmentService enrollmentService;
+
+    private Long courseId;
+    private Long enrolledStudentId;
+    private Long otherStudentId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JmhContexts.start("jmh-enrollment");
+        enrollmentService = context.getBean(EnrollmentService.class);
+        UserRepository users = context.getBean(UserRepository.class);
+
+        User teacher = users.save(User.builder()
+                .name("Teacher").email("jmh.teacher@example.com").password("x").role(Role.TEACHER).build());
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder().name("JMH").build());
+        Course course = context.getBean(CourseRepository.class).save(Course.builder()
+                .title("JMH course").status(CourseStatus.PUBLISHED).teacher(teacher).category(category).build());
+        courseId = course.getId();
+
+        for (int i = 0; i < STUDENTS; i++) {
+            User student = users.save(User.builder()
+                    .name("Student " + i).email("jmh.student" + i + "@example.com").password("x")
+                    .role(Role.STUDENT).build());
+            if (i % 2 == 0) {
+                enrollmentService.enrollStudent(courseId, student.getId());
+                enrolledStudentId = student.getId();
+            } else {
+                otherStudentId = student.getId();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean enrolled() {
+        return enrollmentService.isStudentEnrolled(courseId, enrolledStudentId);
+    }
+
+    @Benchmark
+    public boolean notEnrolled() {
+        return enrollmentService.isStudentEnrolled(courseId, otherStudentId);
+    }
+}
@@ -0,0 +1,163 @@
+package orm.jmh;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.entity.Category;
+import orm.entity.Course;
+import orm.entity.Enrollment;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.model.EnrollmentStatus;
+import orm.model.Role;
+import orm.repository.CategoryRepository;
+import orm.repository.CourseRepository;
+import orm.repository.EnrollmentRepository;
+import orm.repository.UserRepository;
+import orm.service.EnrollmentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Открытие записи на популярный курс на H2: 500 студентов одновременно записываются на один курс.
+ * Одна операция — все 500 запросов к свежему курсу; capacity — число мест (500 — хватает всем).
+ * Сравнение: места в памяти без обновления строки курса и прежняя схема — INSERT и условный UPDATE
+ * счётчика курса в одной транзакции, где все запросы ждут блокировку строки курса до коммита.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotCourseEnrollmentBenchmark {
+
+    private static final int REQUESTERS = 500;
+
+    @Param({"50", "500"})
+    public int capacity;
+
+    private ConfigurableApplicationContext context;
+    private EnrollmentService enrollmentService;
+    private CourseRepository courseRepository;
+    private EnrollmentRepository enrollmentRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transaction;
+    private ExecutorService requesters;
+
+    private User teacher;
+    private Category category;
+    private final List<Long> studentIds = new ArrayList<>(REQUESTERS);
+    private Long courseId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JmhContexts.start("jmh-hot-course");
+        enrollmentService = context.getBean(EnrollmentService.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        enrollmentRepository = context.getBean(EnrollmentRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        UserRepository users = context.getBean(UserRepository.class);
+
+        teacher = users.save(User.builder()
+                .name("Teacher").email("jmh.hot.teacher@example.com").password("x").role(Role.TEACHER).build());
+        category = context.getBean(CategoryRepository.class).save(Category.builder().name("JMH hot").build());
+        for (int i = 0; i < REQUESTERS; i++) {
+            studentIds.add(users.save(User.builder()
+                    .name("Student " + i).email("jmh.hot.student" + i + "@example.com").password("x")
+                    .role(Role.STUDENT).build()).getId());
+        }
+        // все запросы действительно одновременны: у каждого свой поток
+        requesters = Executors.newFixedThreadPool(REQUESTERS);
+    }
+
+    @Setup(Level.Invocation)
+    public void openCourse() {
+        courseId = courseRepository.save(Course.builder()
+                .title("Hot course").status(CourseStatus.PUBLISHED).capacity(capacity)
+                .teacher(teacher).category(category).build()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requesters.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int enrollAtOpening() throws Exception {
+        return enrollAll(enrollmentService::enrollStudent);
+    }
+
+    @Benchmark
+    public int enrollAtOpeningWithRowLock() throws Exception {
+        return enrollAll((course, student) -> transaction.executeWithoutResult(status -> {
+            enrollmentRepository.saveAndFlush(Enrollment.builder()
+                    .course(entityManager.getReference(Course.class, course))
+                    .student(entityManager.getReference(User.class, student))
+                    .status(EnrollmentStatus.ACTIVE)
+                    .build());
+            int taken = entityManager.createQuery("""
+                            update Course c
+                            set c.enrollmentCount = c.enrollmentCount + 1
+                            where c.id = :courseId
+                              and (c.capacity is null or c.enrollmentCount + 1 <= c.capacity)
+                            """)
+                    .setParameter("courseId", course)
+                    .executeUpdate();
+            if (taken == 0) {
+                throw new IllegalStateException("Course is full: " + course);
+            }
+        }));
+    }
+
+    private int enrollAll(BiConsumer<Long, Long> enroll) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>(REQUESTERS);
+        for (Long studentId : studentIds) {
+            results.add(requesters.submit(() -> {
+                start.await();
+                try {
+                    enroll.accept(courseId, studentId);
+                    return true;
+                } catch (IllegalStateException full) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int enrolled = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                enrolled++;
+            }
+        }
+        if (enrolled != Math.min(capacity, REQUESTERS)) {
+            throw new IllegalStateException("Enrolled " + enrolled + " students into " + capacity + " seats");
+        }
+        return enrolled;
+    }
+}
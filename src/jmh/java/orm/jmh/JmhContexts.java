@@ -0,0 +1,27 @@
+package orm.jmh;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import orm.OrmApplication;
+
+/**
+ * Контекст приложения для бенчмарков: профиль test (H2 в памяти), без веб-сервера и SQL-логов.
+ */
+final class JmhContexts {
+
+    private JmhContexts() {
+    }
+
+    static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(OrmApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.root=warn")
+                .run();
+    }
+}
@@ -0,0 +1,101 @@
+package orm.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import orm.cache.AnswerKeyRow;
+import orm.cache.QuizAnswerKey;
+import orm.entity.AnswerOption;
+import orm.entity.Question;
+import orm.model.QuestionType;
+import orm.service.impl.QuizScorer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подсчёт результата теста без БД: сущности собраны в памяти так же, как их отдаёт Hibernate.
+ * answeredPercent — доля вопросов, на которые есть ответ в карте.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizScoringBenchmark {
+
+    @Param({"10", "50", "200"})
+    int questions;
+
+    @Param({"4", "8"})
+    int options;
+
+    @Param({"0", "50", "100"})
+    int answeredPercent;
+
+    private List<Question> quiz;
+    private QuizAnswerKey answerKey;
+    private Map<Long, List<Long>> answers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        quiz = new ArrayList<>(questions);
+        answers = new HashMap<>();
+        List<AnswerKeyRow> rows = new ArrayList<>();
+        long optionId = 1;
+
+        for (long q = 1; q <= questions; q++) {
+            boolean multiple = q % 3 == 0;
+            List<AnswerOption> questionOptions = new ArrayList<>(options);
+            List<Long> correct = new ArrayList<>();
+            for (int o = 0; o < options; o++) {
+                boolean isCorrect = o == 0 || (multiple && random.nextBoolean());
+                questionOptions.add(AnswerOption.builder().id(optionId).text("o").isCorrect(isCorrect).build());
+                rows.add(new AnswerKeyRow(q, optionId, isCorrect));
+                if (isCorrect) {
+                    correct.add(optionId);
+                }
+                optionId++;
+            }
+            quiz.add(Question.builder()
+                    .id(q)
+                    .text("q")
+                    .type(multiple ? QuestionType.MULTIPLE_CHOICE : QuestionType.SINGLE_CHOICE)
+                    .options(questionOptions)
+                    .build());
+
+            if (random.nextInt(100) < answeredPercent) {
+                // примерно половина ответов верная
+                answers.put(q, random.nextBoolean() ? correct : List.of(questionOptions.get(options - 1).getId()));
+            }
+        }
+        answerKey = QuizAnswerKey.compile(rows);
+    }
+
+    /**
+     * Исходный подсчёт по сущностям: HashSet правильных и выбранных id на каждый вопрос.
+     */
+    @Benchmark
+    public int scoreEntities() {
+        return QuizScorer.score(QuizScorer.countCorrect(quiz, answers), quiz.size());
+    }
+
+    @Benchmark
+    public int scoreCompiledKey() {
+        return QuizScorer.score(answerKey.countCorrect(answers), answerKey.questionCount());
+    }
+}
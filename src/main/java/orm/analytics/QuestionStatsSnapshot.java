@@ -0,0 +1,21 @@
+package orm.analytics;
+
+import java.util.List;
+
+/**
+ * Счётчики одного вопроса в сохранённом снимке (JSON в quiz_item_stats.questions).
+ * Суммы баллов — по числу верно отвеченных вопросов попытки; из них считается дискриминативность.
+ */
+public record QuestionStatsSnapshot(
+        Long questionId,
+        long seen,
+        long correct,
+        long scoreSum,
+        long scoreSquareSum,
+        long correctScoreSum,
+        List<OptionPicks> options
+) {
+
+    public record OptionPicks(Long optionId, long picks) {
+    }
+}
@@ -0,0 +1,421 @@
+package orm.analytics;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.cache.QuizAnswerKey;
+import orm.dto.QuizAnalyticsView;
+import orm.dto.ScoreCountRow;
+import orm.dto.ScoreDistributionView;
+import orm.entity.QuizItemStats;
+import orm.repository.QuizItemStatsRepository;
+import orm.repository.QuizSubmissionRepository;
+import orm.service.impl.QuizScorer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Аналитика вопросов тестов, накапливаемая при оценке попыток: доля верных ответов,
+ * распределение выбора вариантов и дискриминативность (точечно-бисериальная корреляция).
+ * <p>
+ * Все величины выводятся из аддитивных счётчиков (LongAdder — полосатые, без блокировок),
+ * поэтому таблица попыток не читается никогда. Счётчики периодически сохраняются снимком
+ * в quiz_item_stats и поднимаются из него при первом обращении к тесту после рестарта;
+ * при аварийной остановке теряется только прирост с последнего сохранения.
+ * Статистика вопросов отражает ключ ответов на момент оценки попытки; гистограмма баллов
+ * ({@link ScoreHistogram}) дополнительно поправляется при переоценке. Если снимка с гистограммой
+ * ещё нет (тест с попытками до появления аналитики), она один раз заполняется агрегатом
+ * по quiz_submissions и дальше живёт в снимке.
+ * <p>
+ * Снимок читается отдельным потоком, а не тем, кто первым обратился к тесту: запись попытки
+ * приходит из транзакции запроса и не должна ни ждать второго соединения, ни держать блокировку
+ * карты на время запроса к БД. Счётчики аддитивны, поэтому попытки учитываются сразу, а снимок
+ * прибавляется, когда загрузится; показ и сохранение ждут этой загрузки.
+ */
+@Slf4j
+@Component
+public class QuizItemAnalytics {
+
+    /**
+     * Сколько показ аналитики и сохранение ждут загрузки снимка.
+     */
+    private static final long LOAD_TIMEOUT_SECONDS = 10;
+
+    private final QuizItemStatsRepository quizItemStatsRepository;
+    private final QuizSubmissionRepository quizSubmissionRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Long, QuizCounters> quizzes = new ConcurrentHashMap<>();
+    private final ExecutorService loader;
+
+    public QuizItemAnalytics(QuizItemStatsRepository quizItemStatsRepository,
+                             QuizSubmissionRepository quizSubmissionRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.quizItemStatsRepository = quizItemStatsRepository;
+        this.quizSubmissionRepository = quizSubmissionRepository;
+        this.transactionManager = transactionManager;
+        this.loader = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "quiz-analytics-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class QuizCounters {
+
+        final LongAdder submissions = new LongAdder();
+        final ScoreHistogram scores = new ScoreHistogram();
+        final Map<Long, QuestionCounters> questions = new ConcurrentHashMap<>();
+        final AtomicBoolean dirty = new AtomicBoolean();
+        /**
+         * Загрузка снимка; завершилась с ошибкой — повторяется при следующем обращении.
+         */
+        final AtomicReference<CompletableFuture<Void>> load = new AtomicReference<>();
+    }
+
+    private static final class QuestionCounters {
+
+        final LongAdder seen = new LongAdder();
+        final LongAdder correct = new LongAdder();
+        final LongAdder scoreSum = new LongAdder();
+        final LongAdder scoreSquareSum = new LongAdder();
+        final LongAdder correctScoreSum = new LongAdder();
+        final Map<Long, LongAdder> picks = new ConcurrentHashMap<>();
+    }
+
+    // --- запись ---
+
+    /**
+     * Учитывает оценённую попытку.
+     *
+     * @param correctByQuestion результат по вопросам ключа, см. {@link QuizAnswerKey#grade}
+     * @param correctCount      число верно отвеченных вопросов — «итоговый балл» для дискриминативности
+     */
+    public void record(Long quizId, QuizAnswerKey answerKey, Map<Long, List<Long>> answersByQuestionId,
+                       boolean[] correctByQuestion, int correctCount) {
+        QuizCounters quiz = counters(quizId);
+        quiz.submissions.increment();
+        quiz.scores.add(QuizScorer.score(correctCount, answerKey.questionCount()));
+
+        long square = (long) correctCount * correctCount;
+        for (int q = 0; q < answerKey.questionCount(); q++) {
+            QuestionCounters question = quiz.questions.computeIfAbsent(answerKey.questionId(q),
+                    id -> new QuestionCounters());
+            question.seen.increment();
+            question.scoreSum.add(correctCount);
+            question.scoreSquareSum.add(square);
+            if (correctByQuestion[q]) {
+                question.correct.increment();
+                question.correctScoreSum.add(correctCount);
+            }
+        }
+
+        for (Map.Entry<Long, List<Long>> answer : answersByQuestionId.entrySet()) {
+            int q = answerKey.questionIndex(answer.getKey());
+            if (q < 0 || answer.getValue() == null) {
+                continue;
+            }
+            QuestionCounters question = quiz.questions.get(answerKey.questionId(q));
+            List<Long> selected = answer.getValue();
+            for (int i = 0; i < selected.size(); i++) {
+                Long optionId = selected.get(i);
+                // чужие варианты и повторы одного варианта не считаем
+                if (answerKey.optionPosition(q, optionId) >= 0 && selected.indexOf(optionId) == i) {
+                    question.picks.computeIfAbsent(optionId, id -> new LongAdder()).increment();
+                }
+            }
+        }
+        quiz.dirty.set(true);
+    }
+
+    /**
+     * Переоценка поменяла баллы попыток: oldScores[i] -> newScores[i].
+     */
+    public void recordRescored(Long quizId, int[] oldScores, int[] newScores) {
+        QuizCounters quiz = counters(quizId);
+        for (int i = 0; i < oldScores.length; i++) {
+            quiz.scores.move(oldScores[i], newScores[i]);
+        }
+        quiz.dirty.set(true);
+    }
+
+    // --- чтение ---
+
+    /**
+     * @param bucketWidth ширина корзины ответа в баллах (1..101)
+     */
+    public ScoreDistributionView distribution(Long quizId, int bucketWidth) {
+        long[] counts = loadedCounters(quizId).scores.snapshot();
+        long total = ScoreHistogram.total(counts);
+
+        List<ScoreDistributionView.Bucket> buckets = new ArrayList<>();
+        for (int from = 0; from < ScoreHistogram.BUCKETS; from += bucketWidth) {
+            int to = Math.min(from + bucketWidth, ScoreHistogram.BUCKETS) - 1;
+            long count = 0;
+            for (int score = from; score <= to; score++) {
+                count += counts[score];
+            }
+            buckets.add(new ScoreDistributionView.Bucket(from, to, count));
+        }
+
+        Double mean = null;
+        if (total > 0) {
+            long sum = 0;
+            for (int score = 0; score < counts.length; score++) {
+                sum += score * counts[score];
+            }
+            mean = Math.round(sum * 10.0 / total) / 10.0;
+        }
+        return new ScoreDistributionView(quizId, total, mean,
+                ScoreHistogram.percentile(counts, 0),
+                ScoreHistogram.percentile(counts, 25),
+                ScoreHistogram.percentile(counts, 50),
+                ScoreHistogram.percentile(counts, 75),
+                ScoreHistogram.percentile(counts, 90),
+                ScoreHistogram.percentile(counts, 100),
+                buckets);
+    }
+
+    /**
+     * Аналитика по вопросам и вариантам текущего ключа, в порядке их id.
+     */
+    public QuizAnalyticsView view(Long quizId, QuizAnswerKey answerKey) {
+        QuizCounters quiz = loadedCounters(quizId);
+        List<QuizAnalyticsView.QuestionAnalytics> questions = new ArrayList<>(answerKey.questionCount());
+
+        for (int q = 0; q < answerKey.questionCount(); q++) {
+            long questionId = answerKey.questionId(q);
+            QuestionCounters counters = quiz.questions.get(questionId);
+
+            long seen = counters == null ? 0 : counters.seen.sum();
+            long correct = counters == null ? 0 : counters.correct.sum();
+            List<QuizAnalyticsView.OptionAnalytics> options = new ArrayList<>();
+            for (long optionId : answerKey.optionIds(q)) {
+                LongAdder picks = counters == null ? null : counters.picks.get(optionId);
+                long count = picks == null ? 0 : picks.sum();
+                options.add(new QuizAnalyticsView.OptionAnalytics(optionId, count, percent(count, seen)));
+            }
+
+            questions.add(new QuizAnalyticsView.QuestionAnalytics(questionId, seen, correct,
+                    percent(correct, seen), counters == null ? null : discrimination(counters), options));
+        }
+        return new QuizAnalyticsView(quizId, quiz.submissions.sum(), questions);
+    }
+
+    private static Double percent(long part, long total) {
+        return total == 0 ? null : Math.round(part * 1000.0 / total) / 10.0;
+    }
+
+    /**
+     * r = (M1 - M0) / s * sqrt(p * (1 - p)), где M1 и M0 — средний балл ответивших верно и неверно,
+     * s — стандартное отклонение балла, p — доля верных ответов.
+     */
+    static Double discrimination(long seen, long correct, long scoreSum, long scoreSquareSum, long correctScoreSum) {
+        if (correct == 0 || correct == seen) {
+            return null;
+        }
+        double n = seen;
+        double mean = scoreSum / n;
+        double variance = scoreSquareSum / n - mean * mean;
+        if (variance <= 0) {
+            return null;
+        }
+        double meanCorrect = (double) correctScoreSum / correct;
+        double meanWrong = (double) (scoreSum - correctScoreSum) / (seen - correct);
+        double p = correct / n;
+        double r = (meanCorrect - meanWrong) / Math.sqrt(variance) * Math.sqrt(p * (1 - p));
+        return Math.round(r * 1000.0) / 1000.0;
+    }
+
+    private static Double discrimination(QuestionCounters counters) {
+        return discrimination(counters.seen.sum(), counters.correct.sum(), counters.scoreSum.sum(),
+                counters.scoreSquareSum.sum(), counters.correctScoreSum.sum());
+    }
+
+    // --- сохранение ---
+
+    @Scheduled(initialDelayString = "${orm.analytics.flush-interval:PT1M}",
+            fixedDelayString = "${orm.analytics.flush-interval:PT1M}")
+    public void flush() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        quizzes.forEach((quizId, quiz) -> {
+            if (!quiz.dirty.get()) {
+                return;
+            }
+            try {
+                awaitLoad(quizId, quiz);
+            } catch (IllegalStateException e) {
+                // без снимка сохранение затёрло бы накопленное до рестарта — прирост ждёт следующего раза
+                log.warn("Item analytics of quiz {} not saved: {}", quizId, e.getMessage());
+                return;
+            }
+            if (!quiz.dirty.getAndSet(false)) {
+                return;
+            }
+            try {
+                transaction.executeWithoutResult(status -> quizItemStatsRepository.save(snapshot(quizId, quiz)));
+            } catch (RuntimeException e) {
+                quiz.dirty.set(true);
+                log.error("Failed to save item analytics of quiz {}", quizId, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        loader.shutdownNow();
+    }
+
+    private static QuizItemStats snapshot(Long quizId, QuizCounters quiz) {
+        List<QuestionStatsSnapshot> questions = new ArrayList<>(quiz.questions.size());
+        quiz.questions.forEach((questionId, counters) -> {
+            List<QuestionStatsSnapshot.OptionPicks> options = new ArrayList<>(counters.picks.size());
+            counters.picks.forEach((optionId, picks) ->
+                    options.add(new QuestionStatsSnapshot.OptionPicks(optionId, picks.sum())));
+            questions.add(new QuestionStatsSnapshot(questionId, counters.seen.sum(), counters.correct.sum(),
+                    counters.scoreSum.sum(), counters.scoreSquareSum.sum(), counters.correctScoreSum.sum(),
+                    options));
+        });
+        return QuizItemStats.builder()
+                .quizId(quizId)
+                .submissions(quiz.submissions.sum())
+                .questions(questions)
+                .scoreCounts(quiz.scores.snapshot())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Счётчики теста для записи: снимок при первом обращении только заказывается, не ожидается.
+     */
+    private QuizCounters counters(Long quizId) {
+        QuizCounters quiz = quizzes.get(quizId);
+        if (quiz == null) {
+            // внутри computeIfAbsent — только создание пустых счётчиков, без обращения к БД
+            quiz = quizzes.computeIfAbsent(quizId, id -> new QuizCounters());
+        }
+        startLoad(quizId, quiz);
+        return quiz;
+    }
+
+    /**
+     * Счётчики теста со снимком — для показа.
+     */
+    private QuizCounters loadedCounters(Long quizId) {
+        QuizCounters quiz = counters(quizId);
+        awaitLoad(quizId, quiz);
+        return quiz;
+    }
+
+    private CompletableFuture<Void> startLoad(Long quizId, QuizCounters quiz) {
+        CompletableFuture<Void> current = quiz.load.get();
+        if (current != null && !current.isCompletedExceptionally()) {
+            return current;
+        }
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        if (!quiz.load.compareAndSet(current, next)) {
+            return quiz.load.get();
+        }
+        try {
+            loader.execute(() -> {
+                try {
+                    mergeSnapshot(quizId, quiz);
+                    next.complete(null);
+                } catch (RuntimeException e) {
+                    log.error("Failed to load item analytics of quiz {}", quizId, e);
+                    next.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // загрузчик уже остановлен
+            next.completeExceptionally(e);
+        }
+        return next;
+    }
+
+    private void awaitLoad(Long quizId, QuizCounters quiz) {
+        try {
+            startLoad(quizId, quiz).get(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading item analytics of quiz " + quizId, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Item analytics of quiz " + quizId + " are not loaded yet", e);
+        }
+    }
+
+    /**
+     * Прибавляет к счётчикам последний сохранённый снимок. Выполняется в потоке загрузчика —
+     * своя транзакция, чужая транзакция не приостанавливается.
+     */
+    private void mergeSnapshot(Long quizId, QuizCounters quiz) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        QuizItemStats stats = transaction.execute(status -> quizItemStatsRepository.findById(quizId).orElse(null));
+        if (stats == null || stats.getScoreCounts() == null) {
+            seedScores(quizId, quiz, transaction);
+        }
+        if (stats == null) {
+            return;
+        }
+        quiz.submissions.add(stats.getSubmissions());
+        if (stats.getScoreCounts() != null) {
+            quiz.scores.merge(stats.getScoreCounts());
+        }
+        for (QuestionStatsSnapshot snapshot : stats.getQuestions()) {
+            QuestionCounters counters = quiz.questions.computeIfAbsent(snapshot.questionId(),
+                    id -> new QuestionCounters());
+            counters.seen.add(snapshot.seen());
+            counters.correct.add(snapshot.correct());
+            counters.scoreSum.add(snapshot.scoreSum());
+            counters.scoreSquareSum.add(snapshot.scoreSquareSum());
+            counters.correctScoreSum.add(snapshot.correctScoreSum());
+            for (QuestionStatsSnapshot.OptionPicks option : snapshot.options()) {
+                counters.picks.computeIfAbsent(option.optionId(), id -> new LongAdder()).add(option.picks());
+            }
+        }
+    }
+
+    /**
+     * Гистограмма из уже записанных попыток. Агрегат содержит и попытки, учтённые с момента
+     * создания счётчиков (обычная сдача учитывается после коммита), поэтому он заменяет их,
+     * а не прибавляется; учтённые во время запроса остаются сверху. Неточность одна: попытки,
+     * которые в момент запроса ещё стояли в очереди фоновой записи, а часть теста уже была записана.
+     */
+    private void seedScores(Long quizId, QuizCounters quiz, TransactionTemplate transaction) {
+        long[] recorded = quiz.scores.snapshot();
+        List<ScoreCountRow> rows = transaction.execute(status -> quizSubmissionRepository.countByScore(quizId));
+        if (rows.isEmpty()) {
+            // записанных попыток нет — учтённые (в том числе ещё в очереди) и есть вся гистограмма
+            return;
+        }
+        long[] seed = new long[ScoreHistogram.BUCKETS];
+        for (ScoreCountRow row : rows) {
+            seed[Math.clamp(row.score(), 0, ScoreHistogram.BUCKETS - 1)] += row.count();
+        }
+        for (int score = 0; score < ScoreHistogram.BUCKETS; score++) {
+            seed[score] -= recorded[score];
+        }
+        quiz.scores.merge(seed);
+        // сохраняем, чтобы после рестарта не считать заново
+        quiz.dirty.set(true);
+    }
+}
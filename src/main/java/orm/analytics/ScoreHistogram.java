@@ -0,0 +1,79 @@
+package orm.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Распределение баллов теста: баллы — целые проценты, поэтому 101 корзина даёт точную гистограмму
+ * фиксированного размера. Обновление — один атомарный инкремент; перцентили считаются
+ * проходом по 101 корзине. Гистограммы складываются поэлементно (например, при восстановлении снимка).
+ */
+public final class ScoreHistogram {
+
+    public static final int BUCKETS = 101;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void add(int score) {
+        counts.incrementAndGet(bucket(score));
+    }
+
+    /**
+     * Перенос попытки из одной корзины в другую — после переоценки.
+     */
+    public void move(int fromScore, int toScore) {
+        if (fromScore == toScore) {
+            return;
+        }
+        counts.decrementAndGet(bucket(fromScore));
+        counts.incrementAndGet(bucket(toScore));
+    }
+
+    public void merge(long[] other) {
+        for (int i = 0; i < Math.min(other.length, BUCKETS); i++) {
+            if (other[i] != 0) {
+                counts.addAndGet(i, other[i]);
+            }
+        }
+    }
+
+    public long[] snapshot() {
+        long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            result[i] = counts.get(i);
+        }
+        return result;
+    }
+
+    public static long total(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Перцентиль по методу ближайшего ранга: наименьший балл, не ниже которого p% попыток.
+     *
+     * @return null для пустой гистограммы
+     */
+    public static Integer percentile(long[] counts, double p) {
+        long total = total(counts);
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+        long seen = 0;
+        for (int score = 0; score < counts.length; score++) {
+            seen += counts[score];
+            if (seen >= rank) {
+                return score;
+            }
+        }
+        return counts.length - 1;
+    }
+
+    private static int bucket(int score) {
+        return Math.clamp(score, 0, BUCKETS - 1);
+    }
+}
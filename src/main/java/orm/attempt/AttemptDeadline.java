@@ -0,0 +1,6 @@
+package orm.attempt;
+
+import java.time.LocalDateTime;
+
+public record AttemptDeadline(Long attemptId, LocalDateTime deadline) {
+}
@@ -0,0 +1,32 @@
+package orm.attempt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * tick и wheelSize — шаг и число корзин колеса таймеров (один оборот = tick * wheelSize);
+ * grace — запас после deadline на сетевые задержки: до его конца ответы ещё принимаются;
+ * expiryBatchSize — сколько истёкших попыток сдаётся одной транзакцией.
+ */
+@ConfigurationProperties(prefix = "orm.attempts")
+public record AttemptProperties(Duration tick, Integer wheelSize, Duration grace, Integer expiryBatchSize) {
+
+    public AttemptProperties {
+        if (tick == null) {
+            tick = Duration.ofSeconds(1);
+        }
+        if (wheelSize == null) {
+            wheelSize = 512;
+        }
+        if (grace == null) {
+            grace = Duration.ofSeconds(5);
+        }
+        if (expiryBatchSize == null) {
+            expiryBatchSize = 500;
+        }
+        if (tick.isZero() || tick.isNegative() || wheelSize < 1 || grace.isNegative() || expiryBatchSize < 1) {
+            throw new IllegalArgumentException("Invalid attempt timer settings");
+        }
+    }
+}
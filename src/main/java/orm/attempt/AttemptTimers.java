@@ -0,0 +1,137 @@
+package orm.attempt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.model.AttemptStatus;
+import orm.repository.QuizAttemptRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймеры открытых попыток с ограничением времени — одно колесо на все попытки узла
+ * вместо задачи планировщика на каждую. Истёкшие за тик попытки публикуются пачками
+ * {@link AttemptsExpiredEvent} из отдельного потока, чтобы запись в БД не задерживала колесо.
+ * <p>
+ * Состояние таймеров в памяти не сохраняется: при старте оно восстанавливается из открытых попыток,
+ * а просроченные за время простоя истекают на первом тике.
+ */
+@Slf4j
+@Component
+public class AttemptTimers implements SmartLifecycle {
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AttemptProperties properties;
+
+    private final HashedTimerWheel<Long> wheel;
+    private final Map<Long, HashedTimerWheel.Timeout<Long>> timeouts = new ConcurrentHashMap<>();
+    private ExecutorService expiry;
+    private volatile boolean running;
+
+    public AttemptTimers(QuizAttemptRepository quizAttemptRepository,
+                         PlatformTransactionManager transactionManager,
+                         ApplicationEventPublisher eventPublisher,
+                         AttemptProperties properties) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.transactionManager = transactionManager;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.wheel = new HashedTimerWheel<>(properties.tick().toNanos(), TimeUnit.NANOSECONDS,
+                properties.wheelSize(), this::onExpired);
+    }
+
+    /**
+     * Поставить (или переставить) таймер попытки; срабатывает через grace после deadline.
+     */
+    public void schedule(Long attemptId, LocalDateTime deadline) {
+        Duration delay = Duration.between(LocalDateTime.now(), deadline.plus(properties.grace()));
+        HashedTimerWheel.Timeout<Long> previous =
+                timeouts.put(attemptId, wheel.schedule(attemptId, delay.toNanos(), TimeUnit.NANOSECONDS));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public void cancel(Long attemptId) {
+        HashedTimerWheel.Timeout<Long> timeout = timeouts.remove(attemptId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    public long pending() {
+        return wheel.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        List<AttemptDeadline> open = transaction.execute(status ->
+                quizAttemptRepository.findDeadlinesByStatus(AttemptStatus.IN_PROGRESS));
+        open.forEach(attempt -> schedule(attempt.attemptId(), attempt.deadline()));
+    }
+
+    /**
+     * Вызывается потоком колеса — только передаёт работу дальше.
+     */
+    private void onExpired(List<Long> attemptIds) {
+        attemptIds.forEach(timeouts::remove);
+        expiry.execute(() -> {
+            int batchSize = properties.expiryBatchSize();
+            for (int from = 0; from < attemptIds.size(); from += batchSize) {
+                List<Long> batch = attemptIds.subList(from, Math.min(from + batchSize, attemptIds.size()));
+                try {
+                    eventPublisher.publishEvent(new AttemptsExpiredEvent(batch));
+                } catch (RuntimeException e) {
+                    // попытки остаются открытыми и истекут снова после рестарта
+                    log.error("Failed to expire quiz attempts {}", batch, e);
+                }
+            }
+        });
+    }
+
+    // --- жизненный цикл ---
+
+    @Override
+    public void start() {
+        expiry = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "attempt-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        wheel.start();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        wheel.stop();
+        expiry.shutdown();
+        try {
+            expiry.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,9 @@
+package orm.attempt;
+
+import java.util.List;
+
+/**
+ * Таймеры этих попыток истекли; публикуется вне транзакции из потока истечения таймеров.
+ */
+public record AttemptsExpiredEvent(List<Long> attemptIds) {
+}
@@ -0,0 +1,256 @@
+package orm.attempt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Хешированное колесо таймеров: wheelSize корзин по tick каждая, корзина — двусвязный список.
+ * <p>
+ * Постановка и отмена — O(1) и без блокировок: таймаут кладётся в очередь, а в корзину
+ * его переносит единственный поток колеса на ближайшем тике. За тик поток обходит одну корзину;
+ * таймауты дальше одного оборота ждут там нужное число оборотов (remainingRounds).
+ * Все истёкшие за тик значения передаются обработчику одним списком — удобно для пакетной записи.
+ * Точность — один тик; обработчик вызывается в потоке колеса и должен быть быстрым.
+ */
+public final class HashedTimerWheel<T> {
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickNanos;
+    private final Bucket<T>[] wheel;
+    private final int mask;
+    private final Consumer<List<T>> onExpired;
+
+    private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout<T>> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong scheduled = new AtomicLong();
+
+    private volatile long startTime;
+    private volatile boolean running;
+    private Thread worker;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimerWheel(long tick, TimeUnit unit, int wheelSize, Consumer<List<T>> onExpired) {
+        if (tick <= 0 || wheelSize < 1) {
+            throw new IllegalArgumentException("Invalid timer wheel tick/size: " + tick + "/" + wheelSize);
+        }
+        // степень двойки — номер корзины берётся маской
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket<>();
+        }
+        this.mask = size - 1;
+        this.onExpired = onExpired;
+        this.startTime = System.nanoTime();
+    }
+
+    public static final class Timeout<T> {
+
+        private final HashedTimerWheel<T> timer;
+        private final T value;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        // поля ниже трогает только поток колеса
+        private long remainingRounds;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(HashedTimerWheel<T> timer, T value, long deadline) {
+            this.timer = timer;
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        /**
+         * @return false, если таймаут уже истёк или был отменён
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            timer.cancelled.add(this);
+            return true;
+        }
+    }
+
+    /**
+     * Корзина — интрузивный двусвязный список; удаление по ссылке на таймаут O(1).
+     */
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout<T> remove(Timeout<T> timeout) {
+            Timeout<T> next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+    }
+
+    // --- API ---
+
+    public Timeout<T> schedule(T value, long delay, TimeUnit unit) {
+        long deadline = System.nanoTime() + Math.max(0, unit.toNanos(delay));
+        Timeout<T> timeout = new Timeout<>(this, value, deadline);
+        scheduled.incrementAndGet();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Число поставленных, но ещё не истёкших и не отменённых таймаутов.
+     */
+    public long size() {
+        return scheduled.get();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        startTime = System.nanoTime();
+        tick = 0;
+        worker = new Thread(this::run, "timer-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- поток колеса ---
+
+    private void run() {
+        List<T> expired = new ArrayList<>();
+        while (running) {
+            long now = waitForNextTick();
+            if (!running) {
+                return;
+            }
+            removeCancelled();
+            transferPending();
+
+            Bucket<T> bucket = wheel[(int) (tick & mask)];
+            expire(bucket, now, expired);
+            tick++;
+
+            if (!expired.isEmpty()) {
+                onExpired.accept(List.copyOf(expired));
+                expired.clear();
+            }
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = startTime + (tick + 1) * tickNanos;
+        while (running) {
+            long now = System.nanoTime();
+            if (now - deadline >= 0) {
+                return now;
+            }
+            LockSupport.parkNanos(this, deadline - now);
+        }
+        return System.nanoTime();
+    }
+
+    private void transferPending() {
+        Timeout<T> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state.get() == CANCELLED) {
+                continue;
+            }
+            long calculated = Math.max(0, (timeout.deadline - startTime) / tickNanos);
+            // уже просроченные уходят в текущую корзину и истекают на этом же тике
+            long ticks = Math.max(calculated, tick);
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout<T> timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            scheduled.decrementAndGet();
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void expire(Bucket<T> bucket, long now, List<T> expired) {
+        Timeout<T> timeout = bucket.head;
+        while (timeout != null) {
+            if (timeout.remainingRounds <= 0 && timeout.deadline - now <= 0) {
+                Timeout<T> next = bucket.remove(timeout);
+                if (timeout.state.compareAndSet(INIT, EXPIRED)) {
+                    scheduled.decrementAndGet();
+                    expired.add(timeout.value);
+                }
+                timeout = next;
+            } else {
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                timeout = timeout.next;
+            }
+        }
+    }
+}
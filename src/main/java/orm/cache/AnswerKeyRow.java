@@ -0,0 +1,7 @@
+package orm.cache;
+
+/**
+ * Строка загрузки ключа ответов: вопрос и один его вариант (optionId == null — у вопроса нет вариантов).
+ */
+public record AnswerKeyRow(Long questionId, Long optionId, Boolean correct) {
+}
@@ -0,0 +1,12 @@
+package orm.cache;
+
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long invalidations,
+        int size,
+        int maxSize,
+        double hitRate
+) {
+}
@@ -0,0 +1,17 @@
+package orm.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import orm.dto.CourseStructureSnapshot;
+
+/**
+ * Кэш снимков структуры курсов. Загрузчик получает версию записи — она попадает в снимок
+ * и служит ETag'ом. Вызывать {@link #invalidate} при любом изменении курса, модулей и уроков.
+ */
+@Component
+public class CourseStructureCache extends VersionedLruCache<Long, CourseStructureSnapshot> {
+
+    public CourseStructureCache(@Value("${orm.cache.course-structure.max-size:1000}") int maxSize) {
+        super(maxSize);
+    }
+}
@@ -0,0 +1,40 @@
+package orm.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Готовое к отправке тело ответа и его сильный ETag (SHA-256 от байтов, первые 128 бит).
+ * Массив не копируется и не должен меняться после создания.
+ */
+public record EncodedPayload(byte[] body, String etag) {
+
+    public static EncodedPayload of(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new EncodedPayload(body, '"' + HexFormat.of().formatHex(digest, 0, 16) + '"');
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Сравнение с If-None-Match: список тегов через запятую, слабые теги (W/) и «*» тоже подходят.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,376 @@
+package orm.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Скомпилированный ключ ответов теста — неизменяемый, только примитивные массивы.
+ * <p>
+ * Вопросы отсортированы по id; варианты каждого вопроса лежат подряд в optionIds, тоже по id.
+ * Правильные варианты вопроса — битовая маска над позициями его вариантов (слово на каждые 64 варианта).
+ * Вопрос засчитывается, если множество выбранных вариантов в точности равно множеству правильных —
+ * как и раньше при сравнении HashSet'ов.
+ * <p>
+ * Выбранные ответы хранятся в попытке в компактном виде ({@link #encodeSelection}) — по той же схеме
+ * позиций, поэтому после исправления ключа попытку можно переоценить без исходных id вариантов.
+ */
+public final class QuizAnswerKey {
+
+    private final long[] questionIds;
+    private final int[] optionStart;
+    private final long[] optionIds;
+    private final int[] wordStart;
+    private final long[] correctWords;
+    /**
+     * Вопросы без правильных вариантов: без ответа они засчитываются (пустое множество равно пустому).
+     */
+    private final int emptyKeyQuestions;
+
+    private QuizAnswerKey(long[] questionIds, int[] optionStart, long[] optionIds,
+                          int[] wordStart, long[] correctWords, int emptyKeyQuestions) {
+        this.questionIds = questionIds;
+        this.optionStart = optionStart;
+        this.optionIds = optionIds;
+        this.wordStart = wordStart;
+        this.correctWords = correctWords;
+        this.emptyKeyQuestions = emptyKeyQuestions;
+    }
+
+    /**
+     * @param rows строки, упорядоченные по (questionId, optionId)
+     */
+    public static QuizAnswerKey compile(List<AnswerKeyRow> rows) {
+        int questions = 0;
+        int options = 0;
+        Long previous = null;
+        for (AnswerKeyRow row : rows) {
+            if (!row.questionId().equals(previous)) {
+                questions++;
+                previous = row.questionId();
+            }
+            if (row.optionId() != null) {
+                options++;
+            }
+        }
+
+        long[] questionIds = new long[questions];
+        int[] optionStart = new int[questions + 1];
+        long[] optionIds = new long[options];
+        boolean[] correct = new boolean[options];
+
+        int q = -1;
+        int o = 0;
+        previous = null;
+        for (AnswerKeyRow row : rows) {
+            if (!row.questionId().equals(previous)) {
+                q++;
+                questionIds[q] = row.questionId();
+                optionStart[q] = o;
+                previous = row.questionId();
+            }
+            if (row.optionId() != null) {
+                optionIds[o] = row.optionId();
+                correct[o] = Boolean.TRUE.equals(row.correct());
+                o++;
+            }
+        }
+        optionStart[questions] = options;
+
+        int[] wordStart = new int[questions + 1];
+        for (int i = 0; i < questions; i++) {
+            wordStart[i + 1] = wordStart[i] + words(optionStart[i + 1] - optionStart[i]);
+        }
+        long[] correctWords = new long[wordStart[questions]];
+        int emptyKeyQuestions = 0;
+        for (int i = 0; i < questions; i++) {
+            boolean any = false;
+            for (int pos = 0; pos < optionStart[i + 1] - optionStart[i]; pos++) {
+                if (correct[optionStart[i] + pos]) {
+                    correctWords[wordStart[i] + (pos >>> 6)] |= 1L << pos;
+                    any = true;
+                }
+            }
+            if (!any) {
+                emptyKeyQuestions++;
+            }
+        }
+
+        return new QuizAnswerKey(questionIds, optionStart, optionIds, wordStart, correctWords, emptyKeyQuestions);
+    }
+
+    public int questionCount() {
+        return questionIds.length;
+    }
+
+    /**
+     * Число правильно отвеченных вопросов. Ответы на вопросы не из этого теста игнорируются.
+     */
+    public int countCorrect(Map<Long, List<Long>> answersByQuestionId) {
+        int correct = emptyKeyQuestions;
+        for (Map.Entry<Long, List<Long>> answer : answersByQuestionId.entrySet()) {
+            if (answer.getKey() == null) {
+                continue;
+            }
+            int q = Arrays.binarySearch(questionIds, answer.getKey());
+            if (q < 0) {
+                continue;
+            }
+            boolean emptyKey = isEmptyKey(q);
+            boolean matches = matches(q, answer.getValue() != null ? answer.getValue() : List.of());
+            // вопросы с пустым ключом уже посчитаны как верные — снимаем, если ответ непустой
+            if (emptyKey && !matches) {
+                correct--;
+            } else if (!emptyKey && matches) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+
+    /**
+     * Кодирует выбранные ответы: для каждого вопроса теста с непустым выбором, по возрастанию id —
+     * varint(разность id с предыдущим вопросом), varint(слов маски &lt;&lt; 1 | чужой вариант),
+     * затем слова битовой маски над позициями вариантов вопроса (varint каждое).
+     * <p>
+     * Пустой выбор не пишется — при оценке он неотличим от отсутствия ответа. Выбор с вариантом
+     * не из этого вопроса пишется только флагом: такой ответ неверен при любом ключе.
+     * Позиции устойчивы к смене правильных вариантов и к добавлению новых (id растут),
+     * но не к удалению вариантов.
+     */
+    public byte[] encodeSelection(Map<Long, List<Long>> answersByQuestionId) {
+        int[] answered = new int[answersByQuestionId.size()];
+        int count = 0;
+        for (Map.Entry<Long, List<Long>> answer : answersByQuestionId.entrySet()) {
+            if (answer.getKey() == null || answer.getValue() == null || answer.getValue().isEmpty()) {
+                continue;
+            }
+            int q = Arrays.binarySearch(questionIds, answer.getKey());
+            if (q >= 0) {
+                answered[count++] = q;
+            }
+        }
+        Arrays.sort(answered, 0, count);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 3);
+        long previousId = 0;
+        for (int i = 0; i < count; i++) {
+            int q = answered[i];
+            writeVarLong(out, questionIds[q] - previousId);
+            previousId = questionIds[q];
+
+            int from = optionStart[q];
+            int to = optionStart[q + 1];
+            long[] mask = new long[wordStart[q + 1] - wordStart[q]];
+            boolean foreign = false;
+            for (Long optionId : answersByQuestionId.get(questionIds[q])) {
+                int pos = position(from, to, optionId);
+                if (pos < 0) {
+                    foreign = true;
+                    break;
+                }
+                mask[pos >>> 6] |= 1L << pos;
+            }
+
+            if (foreign) {
+                writeVarLong(out, 1);
+            } else {
+                writeVarLong(out, (long) mask.length << 1);
+                for (long word : mask) {
+                    writeVarLong(out, word);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Число правильно отвеченных вопросов по ответам, закодированным {@link #encodeSelection}
+     * (возможно, ещё старой версией ключа). Ответы на удалённые вопросы игнорируются.
+     */
+    public int countCorrect(byte[] encodedSelection) {
+        int correct = emptyKeyQuestions;
+        VarLongReader in = new VarLongReader(encodedSelection);
+        long questionId = 0;
+        while (in.hasMore()) {
+            questionId += in.next();
+            long header = in.next();
+            int words = (int) (header >>> 1);
+            boolean foreign = (header & 1) != 0;
+
+            int q = Arrays.binarySearch(questionIds, questionId);
+            boolean matches = !foreign;
+            int keyFrom = q < 0 ? 0 : wordStart[q];
+            int keyWords = q < 0 ? 0 : wordStart[q + 1] - keyFrom;
+            for (int w = 0; w < Math.max(words, keyWords); w++) {
+                long selected = w < words ? in.next() : 0L;
+                long expected = w < keyWords ? correctWords[keyFrom + w] : 0L;
+                if (selected != expected) {
+                    matches = false;
+                }
+            }
+            if (q < 0) {
+                continue;
+            }
+
+            boolean emptyKey = isEmptyKey(q);
+            if (emptyKey && !matches) {
+                correct--;
+            } else if (!emptyKey && matches) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class VarLongReader {
+
+        private final byte[] data;
+        private int pos;
+
+        VarLongReader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasMore() {
+            return pos < data.length;
+        }
+
+        long next() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= data.length) {
+                    throw new IllegalArgumentException("Truncated answer encoding");
+                }
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed answer encoding");
+        }
+    }
+
+    /**
+     * То же, что {@link #countCorrect(Map)}, но дополнительно отмечает в correctByQuestion
+     * (длиной {@link #questionCount()}) результат по каждому вопросу — для аналитики вопросов.
+     */
+    public int grade(Map<Long, List<Long>> answersByQuestionId, boolean[] correctByQuestion) {
+        for (int q = 0; q < questionIds.length; q++) {
+            correctByQuestion[q] = isEmptyKey(q);
+        }
+        for (Map.Entry<Long, List<Long>> answer : answersByQuestionId.entrySet()) {
+            if (answer.getKey() == null) {
+                continue;
+            }
+            int q = Arrays.binarySearch(questionIds, answer.getKey());
+            if (q >= 0) {
+                correctByQuestion[q] = matches(q, answer.getValue() != null ? answer.getValue() : List.of());
+            }
+        }
+        int correct = 0;
+        for (int q = 0; q < questionIds.length; q++) {
+            if (correctByQuestion[q]) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+
+    /**
+     * @return позиция вопроса в ключе (по возрастанию id) или отрицательное число, если вопрос не из теста
+     */
+    public int questionIndex(Long questionId) {
+        return questionId == null ? -1 : Arrays.binarySearch(questionIds, questionId);
+    }
+
+    public long questionId(int q) {
+        return questionIds[q];
+    }
+
+    public long[] optionIds(int q) {
+        return Arrays.copyOfRange(optionIds, optionStart[q], optionStart[q + 1]);
+    }
+
+    /**
+     * @return позиция варианта среди вариантов вопроса q или -1, если это вариант другого вопроса
+     */
+    public int optionPosition(int q, Long optionId) {
+        return position(optionStart[q], optionStart[q + 1], optionId);
+    }
+
+    private boolean isEmptyKey(int q) {
+        for (int w = wordStart[q]; w < wordStart[q + 1]; w++) {
+            if (correctWords[w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(int q, List<Long> selected) {
+        int from = optionStart[q];
+        int to = optionStart[q + 1];
+        int words = wordStart[q + 1] - wordStart[q];
+
+        if (words <= 1) {
+            long mask = 0;
+            int size = selected.size();
+            if (selected instanceof RandomAccess) {
+                for (int i = 0; i < size; i++) {
+                    int pos = position(from, to, selected.get(i));
+                    if (pos < 0) {
+                        return false;
+                    }
+                    mask |= 1L << pos;
+                }
+            } else {
+                for (Long optionId : selected) {
+                    int pos = position(from, to, optionId);
+                    if (pos < 0) {
+                        return false;
+                    }
+                    mask |= 1L << pos;
+                }
+            }
+            return mask == (words == 0 ? 0L : correctWords[wordStart[q]]);
+        }
+
+        // больше 64 вариантов у вопроса — редкий случай, здесь допустима аллокация
+        long[] mask = new long[words];
+        for (Long optionId : selected) {
+            int pos = position(from, to, optionId);
+            if (pos < 0) {
+                return false;
+            }
+            mask[pos >>> 6] |= 1L << pos;
+        }
+        return Arrays.equals(mask, 0, words, correctWords, wordStart[q], wordStart[q + 1]);
+    }
+
+    /**
+     * @return позиция варианта среди вариантов вопроса или -1, если это чужой вариант
+     */
+    private int position(int from, int to, Long optionId) {
+        if (optionId == null) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(optionIds, from, to, optionId);
+        return index < 0 ? -1 : index - from;
+    }
+
+    private static int words(int options) {
+        return (options + 63) >>> 6;
+    }
+}
@@ -0,0 +1,16 @@
+package orm.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш скомпилированных ключей ответов тестов.
+ * Вызывать {@link #invalidate} при любом изменении вопросов и вариантов теста.
+ */
+@Component
+public class QuizAnswerKeyCache extends VersionedLruCache<Long, QuizAnswerKey> {
+
+    public QuizAnswerKeyCache(@Value("${orm.cache.quiz-answer-key.max-size:500}") int maxSize) {
+        super(maxSize);
+    }
+}
@@ -0,0 +1,17 @@
+package orm.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш уже сериализованного студенческого представления теста (JSON-байты и ETag).
+ * Попадание — поиск в карте без гидрации сущностей и без Jackson.
+ * Вызывать {@link #invalidate} при любом изменении теста, видимом студенту: заголовка, вопросов, вариантов.
+ */
+@Component
+public class StudentQuizPayloadCache extends VersionedLruCache<Long, EncodedPayload> {
+
+    public StudentQuizPayloadCache(@Value("${orm.cache.student-quiz.max-size:1000}") int maxSize) {
+        super(maxSize);
+    }
+}
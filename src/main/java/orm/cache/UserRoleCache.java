@@ -0,0 +1,18 @@
+package orm.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import orm.model.Role;
+
+/**
+ * Кэш ролей пользователей для проверок на горячих путях (запись на курс) без чтения строки пользователя.
+ * Загрузчик возвращает null для отсутствующего пользователя — такие ответы не кэшируются.
+ * Вызывать {@link #invalidate} при смене роли и удалении пользователя.
+ */
+@Component
+public class UserRoleCache extends VersionedLruCache<Long, Role> {
+
+    public UserRoleCache(@Value("${orm.cache.user-role.max-size:10000}") int maxSize) {
+        super(maxSize);
+    }
+}
@@ -0,0 +1,80 @@
+package orm.cache;
+
+import orm.util.TransactionCallbacks;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * LRU-кэш с версиями записей: загрузка, совпавшая с инвалидацией, не оставляет в кэше устаревшее значение.
+ * <p>
+ * Каждому ключу соответствует версия (счётчик из полосы, выбранной по хешу ключа),
+ * которая увеличивается при каждой инвалидации. Загруженное значение кладётся в кэш
+ * только если версия не изменилась за время загрузки. null от загрузчика не кэшируется.
+ */
+public class VersionedLruCache<K, V> {
+
+    private static final int VERSION_STRIPES = 256;
+
+    private final BoundedLruCache<K, V> entries;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public VersionedLruCache(int maxSize) {
+        this.entries = new BoundedLruCache<>(maxSize);
+    }
+
+    /**
+     * Загрузчик, которому нужна версия, под которой читается значение (например, для ETag).
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key, long version);
+    }
+
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        return getOrLoad(key, (k, version) -> loader.apply(k));
+    }
+
+    public V getOrLoad(K key, Loader<? super K, ? extends V> loader) {
+        V cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        int stripe = stripe(key);
+        long version = versions.get(stripe);
+        V loaded = loader.load(key, version);
+        if (loaded == null) {
+            return null;
+        }
+
+        entries.put(key, loaded);
+        // Если за время загрузки ключ инвалидировали — убираем свою вставку.
+        if (versions.get(stripe) != version) {
+            entries.remove(key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Удаляет запись сразу и ещё раз после завершения текущей транзакции,
+     * чтобы читатели, успевшие загрузить незакоммиченное состояние, не оставили его в кэше.
+     */
+    public void invalidate(K key) {
+        evict(key);
+        TransactionCallbacks.afterCompletion(() -> evict(key));
+    }
+
+    public CacheStats stats() {
+        return entries.stats();
+    }
+
+    private void evict(K key) {
+        versions.incrementAndGet(stripe(key));
+        entries.invalidate(key);
+    }
+
+    private static int stripe(Object key) {
+        return (key.hashCode() & 0x7fffffff) % VERSION_STRIPES;
+    }
+}
@@ -0,0 +1,32 @@
+package orm.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Размеры страниц для keyset-пагинации списков.
+ */
+@ConfigurationProperties(prefix = "orm.pagination")
+public record PaginationProperties(Integer defaultSize, Integer maxSize) {
+
+    public PaginationProperties {
+        if (defaultSize == null) {
+            defaultSize = 20;
+        }
+        if (maxSize == null) {
+            maxSize = 100;
+        }
+    }
+
+    /**
+     * Размер страницы с учётом значения по умолчанию и верхней границы.
+     */
+    public int resolve(Integer requested) {
+        if (requested == null) {
+            return Math.min(defaultSize, maxSize);
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + requested);
+        }
+        return Math.min(requested, maxSize);
+    }
+}
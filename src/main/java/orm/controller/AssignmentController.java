@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import orm.dto.AssignmentView;
 import orm.entity.Assignment;
 import orm.service.AssignmentService;
 
@@ -20,24 +21,24 @@ public class AssignmentController {
     private final AssignmentService assignmentService;
 
     @PostMapping("/lessons/{lessonId}")
-    public Assignment createAssignment(@PathVariable Long lessonId,
-                                       @Valid @RequestBody CreateAssignmentRequest request) {
+    public AssignmentView createAssignment(@PathVariable Long lessonId,
+                                           @Valid @RequestBody CreateAssignmentRequest request) {
         Assignment assignment = Assignment.builder()
                 .title(request.title())
                 .description(request.description())
                 .dueDate(request.dueDate())
                 .maxScore(request.maxScore())
                 .build();
-        return assignmentService.createAssignment(lessonId, assignment);
+        return AssignmentView.of(assignmentService.createAssignment(lessonId, assignment));
     }
 
     @GetMapping("/{id}")
-    public Assignment getAssignment(@PathVariable Long id) {
+    public AssignmentView getAssignment(@PathVariable Long id) {
         return assignmentService.getAssignment(id);
     }
 
     @GetMapping("/lessons/{lessonId}")
-    public List<Assignment> getAssignmentsForLesson(@PathVariable Long lessonId) {
+    public List<AssignmentView> getAssignmentsForLesson(@PathVariable Long lessonId) {
         return assignmentService.getAssignmentsByLesson(lessonId);
     }
 
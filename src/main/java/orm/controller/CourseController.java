@@ -3,20 +3,44 @@ package orm.controller;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import orm.cache.CacheStats;
+import orm.dto.BulkEnrollReport;
+import orm.dto.CatalogPage;
+import orm.dto.CourseStructureSnapshot;
+import orm.dto.CourseView;
+import orm.dto.CursorPage;
+import orm.dto.EnrollmentView;
+import orm.dto.ImportReport;
+import orm.dto.LessonView;
+import orm.dto.ModuleView;
+import orm.dto.RosterEntry;
 import orm.entity.Course;
-import orm.entity.Enrollment;
 import orm.entity.Lesson;
 import orm.entity.Module;
-import orm.entity.User;
+import orm.leaderboard.PopularCourse;
 import orm.model.CourseStatus;
+import orm.model.EnrollmentStatus;
+import orm.model.RosterSort;
+import orm.search.CourseSearchResult;
+import orm.search.FacetFilter;
+import orm.seats.SeatAvailability;
+import orm.service.BulkEnrollmentService;
+import orm.service.CourseImportService;
 import orm.service.CourseService;
 import orm.service.EnrollmentService;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -25,9 +49,11 @@ public class CourseController {
 
     private final CourseService courseService;
     private final EnrollmentService enrollmentService;
+    private final CourseImportService courseImportService;
+    private final BulkEnrollmentService bulkEnrollmentService;
 
     @PostMapping
-    public ResponseEntity<Course> createCourse(@Valid @RequestBody CourseCreateRequest request) {
+    public ResponseEntity<CourseView> createCourse(@Valid @RequestBody CourseCreateRequest request) {
         Course course = Course.builder()
                 .title(request.title())
                 .description(request.description())
@@ -35,6 +61,7 @@ public class CourseController {
                 .startDate(request.startDate())
                 .endDate(request.endDate())
                 .status(request.status() != null ? request.status() : CourseStatus.DRAFT)
+                .capacity(request.capacity())
                 .build();
 
         Course created = courseService.createCourse(
@@ -45,16 +72,54 @@ public class CourseController {
 
         return ResponseEntity
                 .created(URI.create("/api/courses/" + created.getId()))
-                .body(created);
+                .body(CourseView.of(created));
+    }
+
+    /**
+     * Массовый импорт: тело — NDJSON, по курсу (с модулями и уроками) на строку.
+     * Тело читается потоком, ошибки возвращаются по номерам строк.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importCourses(InputStream body) {
+        return courseImportService.importCourses(body);
     }
 
     @GetMapping("/{id}")
-    public Course getCourse(@PathVariable Long id) {
-        return courseService.getCourseWithStructure(id);
+    public CourseStructureSnapshot getCourse(@PathVariable Long id) {
+        return courseService.getCourseStructure(id);
+    }
+
+    @GetMapping("/search")
+    public CourseSearchResult searchCourses(@RequestParam("q") String query,
+                                             @RequestParam(required = false) Integer limit) {
+        return courseService.searchCourses(query, limit);
+    }
+
+    /**
+     * Пример: /api/courses/catalog?status=PUBLISHED&categoryId=1&tagId=3&tagId=5&page=0&size=20
+     */
+    @GetMapping("/catalog")
+    public CatalogPage browseCatalog(@RequestParam(name = "status", required = false) Set<CourseStatus> statuses,
+                                     @RequestParam(name = "categoryId", required = false) Set<Long> categoryIds,
+                                     @RequestParam(name = "tagId", required = false) Set<Long> tagIds,
+                                     @RequestParam(required = false) Integer page,
+                                     @RequestParam(required = false) Integer size) {
+        return courseService.browseCatalog(new FacetFilter(statuses, categoryIds, tagIds), page, size);
+    }
+
+    @GetMapping("/popular")
+    public List<PopularCourse> getPopularCourses(@RequestParam Long categoryId,
+                                                 @RequestParam(required = false) Integer limit) {
+        return courseService.getPopularCourses(categoryId, limit);
+    }
+
+    @GetMapping("/structure-cache/stats")
+    public CacheStats getStructureCacheStats() {
+        return courseService.getCourseStructureCacheStats();
     }
 
     @PutMapping("/{id}")
-    public Course updateCourse(@PathVariable Long id,
+    public CourseView updateCourse(@PathVariable Long id,
                                @Valid @RequestBody CourseUpdateRequest request) {
         Course updatedData = Course.builder()
                 .title(request.title())
@@ -63,9 +128,10 @@ public class CourseController {
                 .startDate(request.startDate())
                 .endDate(request.endDate())
                 .status(request.status())
+                .capacity(request.capacity())
                 .build();
 
-        return courseService.updateCourse(id, updatedData);
+        return CourseView.of(courseService.updateCourse(id, updatedData));
     }
 
     @DeleteMapping("/{id}")
@@ -74,31 +140,48 @@ public class CourseController {
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping("/{id}/capacity")
+    public ResponseEntity<Void> clearCourseCapacity(@PathVariable Long id) {
+        courseService.clearCapacity(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/{id}/tags")
+    public ResponseEntity<Void> updateCourseTags(@PathVariable Long id,
+                                                 @Valid @RequestBody CourseTagsRequest request) {
+        courseService.updateCourseTags(id, request.tagIds());
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/teacher/{teacherId}")
-    public List<Course> getCoursesByTeacher(@PathVariable Long teacherId) {
-        return courseService.getCoursesByTeacher(teacherId);
+    public CursorPage<CourseView> getCoursesByTeacher(@PathVariable Long teacherId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
+        return courseService.getCoursesByTeacher(teacherId, cursor, size);
     }
 
     @GetMapping("/category/{categoryId}")
-    public List<Course> getCoursesByCategory(@PathVariable Long categoryId) {
-        return courseService.getCoursesByCategory(categoryId);
+    public CursorPage<CourseView> getCoursesByCategory(@PathVariable Long categoryId,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size) {
+        return courseService.getCoursesByCategory(categoryId, cursor, size);
     }
 
     // --- Модули и уроки ---
 
     @PostMapping("/{courseId}/modules")
-    public Module addModule(@PathVariable Long courseId,
+    public ModuleView addModule(@PathVariable Long courseId,
                             @Valid @RequestBody ModuleCreateRequest request) {
         Module module = Module.builder()
                 .title(request.title())
                 .description(request.description())
                 .orderIndex(request.orderIndex())
                 .build();
-        return courseService.addModuleToCourse(courseId, module);
+        return ModuleView.of(courseService.addModuleToCourse(courseId, module));
     }
 
     @PostMapping("/modules/{moduleId}/lessons")
-    public Lesson addLesson(@PathVariable Long moduleId,
+    public LessonView addLesson(@PathVariable Long moduleId,
                             @Valid @RequestBody LessonCreateRequest request) {
         Lesson lesson = Lesson.builder()
                 .title(request.title())
@@ -106,15 +189,44 @@ public class CourseController {
                 .videoUrl(request.videoUrl())
                 .orderIndex(request.orderIndex())
                 .build();
-        return courseService.addLessonToModule(moduleId, lesson);
+        return LessonView.of(courseService.addLessonToModule(moduleId, lesson));
     }
 
     // --- Запись на курс ---
 
     @PostMapping("/{courseId}/enroll")
-    public Enrollment enrollStudent(@PathVariable Long courseId,
+    public EnrollmentView enrollStudent(@PathVariable Long courseId,
                                     @RequestParam @NotNull(message = "studentId is required") Long studentId) {
-        return enrollmentService.enrollStudent(courseId, studentId);
+        return EnrollmentView.of(enrollmentService.enrollStudent(courseId, studentId));
+    }
+
+    /**
+     * Запись когорты: id списком в JSON.
+     */
+    @PostMapping(value = "/{courseId}/enroll/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkEnrollReport enrollCohort(@PathVariable Long courseId,
+                                         @Valid @RequestBody BulkEnrollRequest request) {
+        return bulkEnrollmentService.enrollStudents(courseId, request.studentIds().iterator());
+    }
+
+    /**
+     * Запись когорты потоком: один id в строке, тело читается по мере записи порций.
+     * Нечисловая строка прерывает запись с 400 — уже записанные порции остаются.
+     */
+    @PostMapping(value = "/{courseId}/enroll/bulk", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public BulkEnrollReport enrollCohortStream(@PathVariable Long courseId, InputStream body) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return bulkEnrollmentService.enrollStudents(courseId, reader.lines()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty())
+                    .map(Long::valueOf)
+                    .iterator());
+        }
+    }
+
+    @GetMapping("/{courseId}/seats")
+    public SeatAvailability getSeatAvailability(@PathVariable Long courseId) {
+        return enrollmentService.getSeatAvailability(courseId);
     }
 
     @DeleteMapping("/{courseId}/enroll")
@@ -125,8 +237,12 @@ public class CourseController {
     }
 
     @GetMapping("/{courseId}/students")
-    public List<User> getStudentsForCourse(@PathVariable Long courseId) {
-        return enrollmentService.getStudentsForCourse(courseId);
+    public CursorPage<RosterEntry> getStudentsForCourse(@PathVariable Long courseId,
+                                                        @RequestParam(required = false) EnrollmentStatus status,
+                                                        @RequestParam(defaultValue = "NAME") RosterSort sort,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return enrollmentService.getStudentsForCourse(courseId, status, sort, cursor, size);
     }
 
     // --- DTO ---
@@ -150,6 +266,9 @@ public class CourseController {
 
             CourseStatus status,
 
+            @Positive(message = "Capacity must be positive")
+            Integer capacity,
+
             @NotNull(message = "Teacher ID is required")
             Long teacherId,
 
@@ -175,7 +294,17 @@ public class CourseController {
 
             LocalDate endDate,
 
-            CourseStatus status
+            CourseStatus status,
+
+            // null — ёмкость не меняется; снять ограничение — DELETE /api/courses/{id}/capacity
+            @Positive(message = "Capacity must be positive")
+            Integer capacity
+    ) {
+    }
+
+    public record CourseTagsRequest(
+            @NotNull(message = "Tag IDs are required")
+            Set<Long> tagIds
     ) {
     }
 
@@ -206,5 +335,10 @@ public class CourseController {
             Integer orderIndex
     ) {
     }
-}
 
+    public record BulkEnrollRequest(
+            @NotEmpty(message = "Student IDs are required")
+            List<Long> studentIds
+    ) {
+    }
+}
@@ -2,8 +2,12 @@ package orm.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
-import orm.entity.Course;
-import orm.entity.User;
+import orm.dto.CourseView;
+import orm.dto.CursorPage;
+import orm.dto.RosterEntry;
+import orm.membership.MembershipStats;
+import orm.model.EnrollmentStatus;
+import orm.model.RosterSort;
 import orm.service.EnrollmentService;
 
 import java.util.List;
@@ -16,13 +20,17 @@ public class EnrollmentController {
     private final EnrollmentService enrollmentService;
 
     @GetMapping("/students/{studentId}/courses")
-    public List<Course> getCoursesForStudent(@PathVariable Long studentId) {
+    public List<CourseView> getCoursesForStudent(@PathVariable Long studentId) {
         return enrollmentService.getCoursesForStudent(studentId);
     }
 
     @GetMapping("/courses/{courseId}/students")
-    public List<User> getStudentsForCourse(@PathVariable Long courseId) {
-        return enrollmentService.getStudentsForCourse(courseId);
+    public CursorPage<RosterEntry> getStudentsForCourse(@PathVariable Long courseId,
+                                                        @RequestParam(required = false) EnrollmentStatus status,
+                                                        @RequestParam(defaultValue = "NAME") RosterSort sort,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return enrollmentService.getStudentsForCourse(courseId, status, sort, cursor, size);
     }
 
     @GetMapping("/courses/{courseId}/students/{studentId}")
@@ -30,5 +38,10 @@ public class EnrollmentController {
                                      @PathVariable Long studentId) {
         return enrollmentService.isStudentEnrolled(courseId, studentId);
     }
+
+    @GetMapping("/membership-index/stats")
+    public MembershipStats getMembershipStats() {
+        return enrollmentService.getMembershipStats();
+    }
 }
 
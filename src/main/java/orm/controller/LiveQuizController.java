@@ -0,0 +1,92 @@
+package orm.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import orm.dto.LiveSessionResult;
+import orm.dto.LiveSessionView;
+import orm.service.LiveQuizService;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/live-sessions")
+@RequiredArgsConstructor
+public class LiveQuizController {
+
+    private final LiveQuizService liveQuizService;
+
+    @PostMapping
+    public LiveSessionView startSession(@Valid @RequestBody StartSessionRequest request) {
+        return liveQuizService.startSession(request.quizId());
+    }
+
+    @GetMapping("/{sessionId}")
+    public LiveSessionView getSession(@PathVariable UUID sessionId) {
+        return liveQuizService.getSession(sessionId);
+    }
+
+    /**
+     * Поток состояния сессии (text/event-stream): событие state при каждом изменении,
+     * но не чаще orm.live.broadcast-interval.
+     */
+    @GetMapping(value = "/{sessionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable UUID sessionId) {
+        return liveQuizService.subscribe(sessionId);
+    }
+
+    @PostMapping("/{sessionId}/participants")
+    public LiveSessionView joinSession(@PathVariable UUID sessionId,
+                                       @Valid @RequestBody JoinSessionRequest request) {
+        return liveQuizService.joinSession(sessionId, request.studentId());
+    }
+
+    /**
+     * 204 — ответ учтён; 409 — вопрос уже закрыт или ответ на него уже дан.
+     */
+    @PostMapping("/{sessionId}/answers")
+    public ResponseEntity<Void> answer(@PathVariable UUID sessionId,
+                                       @Valid @RequestBody LiveAnswerRequest request) {
+        liveQuizService.answer(sessionId, request.studentId(), request.questionId(), request.optionIds());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{sessionId}/next")
+    public LiveSessionView nextQuestion(@PathVariable UUID sessionId) {
+        return liveQuizService.nextQuestion(sessionId);
+    }
+
+    @PostMapping("/{sessionId}/end")
+    public LiveSessionResult endSession(@PathVariable UUID sessionId) {
+        return liveQuizService.endSession(sessionId);
+    }
+
+    public record StartSessionRequest(
+            @NotNull(message = "Quiz ID is required")
+            Long quizId
+    ) {
+    }
+
+    public record JoinSessionRequest(
+            @NotNull(message = "Student ID is required")
+            Long studentId
+    ) {
+    }
+
+    public record LiveAnswerRequest(
+            @NotNull(message = "Student ID is required")
+            Long studentId,
+
+            @NotNull(message = "Question ID is required")
+            Long questionId,
+
+            @NotNull(message = "Option IDs are required")
+            List<Long> optionIds
+    ) {
+    }
+}
@@ -5,16 +5,38 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import orm.cache.CacheStats;
+import orm.cache.EncodedPayload;
+import orm.draft.DraftStats;
+import orm.dto.QuizAnalyticsView;
+import orm.dto.QuizAttemptView;
+import orm.dto.QuizDetailsView;
+import orm.dto.QuizDraftView;
+import orm.dto.QuizImportReport;
+import orm.dto.QuizSubmissionView;
+import orm.dto.RegradeReport;
+import orm.dto.ScoreDistributionView;
+import orm.dto.SubmissionReceipt;
 import orm.entity.AnswerOption;
 import orm.entity.Question;
 import orm.entity.Quiz;
-import orm.entity.QuizSubmission;
+import orm.ingest.IngestStats;
 import orm.model.QuestionType;
+import orm.service.QuizAttemptService;
+import orm.service.QuizImportService;
+import orm.service.QuizRegradeService;
 import orm.service.QuizService;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/quizzes")
@@ -22,9 +44,12 @@ import java.util.Map;
 public class QuizController {
 
     private final QuizService quizService;
+    private final QuizRegradeService quizRegradeService;
+    private final QuizAttemptService quizAttemptService;
+    private final QuizImportService quizImportService;
 
     @PostMapping("/modules/{moduleId}")
-    public Quiz createQuizForModule(@PathVariable Long moduleId,
+    public QuizDetailsView createQuizForModule(@PathVariable Long moduleId,
                                     @Valid @RequestBody CreateQuizRequest request) {
         Quiz quiz = Quiz.builder()
                 .title(request.title())
@@ -54,31 +79,175 @@ public class QuizController {
             }
         }
 
-        return quizService.createQuizForModule(moduleId, quiz);
+        return QuizDetailsView.of(quizService.createQuizForModule(moduleId, quiz));
+    }
+
+    /**
+     * Банк вопросов потоком NDJSON (строка — {@link orm.dto.QuestionImportLine}): тело не собирается в один DTO,
+     * вопросы и варианты пишутся JDBC-пачками. Любая ошибочная строка отменяет весь импорт.
+     */
+    @PostMapping(value = "/modules/{moduleId}/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public QuizImportReport importQuiz(@PathVariable Long moduleId,
+                                       @RequestParam String title,
+                                       @RequestParam(required = false) Integer timeLimitMinutes,
+                                       InputStream body) {
+        return quizImportService.importQuiz(moduleId, title, timeLimitMinutes, body);
+    }
+
+    @PostMapping(value = "/{quizId}/questions/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public QuizImportReport importQuestions(@PathVariable Long quizId, InputStream body) {
+        return quizImportService.importQuestions(quizId, body);
     }
 
     @GetMapping("/{quizId}")
-    public Quiz getQuiz(@PathVariable Long quizId) {
+    public QuizDetailsView getQuiz(@PathVariable Long quizId) {
         return quizService.getQuiz(quizId);
     }
 
+    /**
+     * Тест для студента: готовые JSON-байты из кэша; при совпадении If-None-Match — 304 без тела.
+     */
+    @GetMapping(value = "/{quizId}/student-view", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getStudentQuiz(@PathVariable Long quizId,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String ifNoneMatch) {
+        EncodedPayload payload = quizService.getStudentQuizPayload(quizId);
+        if (payload.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(payload.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(payload.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(payload.body());
+    }
+
+    @GetMapping("/student-quiz-cache/stats")
+    public CacheStats getStudentQuizCacheStats() {
+        return quizService.getStudentQuizCacheStats();
+    }
+
     @PostMapping("/{quizId}/submit")
-    public QuizSubmission submitQuiz(@PathVariable Long quizId,
-                                     @Valid @RequestBody TakeQuizRequest request) {
-        return quizService.takeQuiz(
+    public QuizSubmissionView submitQuiz(@PathVariable Long quizId,
+                                         @Valid @RequestBody TakeQuizRequest request) {
+        return QuizSubmissionView.of(quizService.takeQuiz(
                 request.studentId(),
                 quizId,
                 request.answers()
-        );
+        ));
+    }
+
+    /**
+     * Режим для пиков (закрытие экзамена): результат возвращается сразу, запись — в фоне.
+     * 202 — попытка принята и будет сохранена; 503 с Retry-After — очередь заполнена.
+     */
+    @PostMapping("/{quizId}/submit-async")
+    public ResponseEntity<SubmissionReceipt> submitQuizAsync(@PathVariable Long quizId,
+                                                             @Valid @RequestBody TakeQuizRequest request) {
+        return ResponseEntity.accepted().body(quizService.submitQuizAsync(
+                request.studentId(),
+                quizId,
+                request.answers()
+        ));
+    }
+
+    /**
+     * Автосохранение ответов: 204 сразу, запись в БД — пачками с задержкой.
+     * Сдача с пустым answers берёт этот черновик.
+     */
+    @PutMapping("/{quizId}/drafts/{studentId}")
+    public ResponseEntity<Void> saveDraft(@PathVariable Long quizId,
+                                          @PathVariable Long studentId,
+                                          @Valid @RequestBody DraftRequest request) {
+        quizService.saveDraft(studentId, quizId, request.answers());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{quizId}/drafts/{studentId}")
+    public QuizDraftView getDraft(@PathVariable Long quizId, @PathVariable Long studentId) {
+        return quizService.getDraft(studentId, quizId);
+    }
+
+    @GetMapping("/drafts/stats")
+    public DraftStats getDraftStats() {
+        return quizService.getDraftStats();
+    }
+
+    @PutMapping("/{quizId}/questions/{questionId}/correct-options")
+    public ResponseEntity<Void> updateAnswerKey(@PathVariable Long quizId,
+                                                @PathVariable Long questionId,
+                                                @Valid @RequestBody AnswerKeyRequest request) {
+        quizService.updateAnswerKey(quizId, questionId, request.correctOptionIds());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Пересчитать баллы всех попыток теста по текущему ключу (после исправления ключа).
+     */
+    @PostMapping("/{quizId}/regrade")
+    public RegradeReport regradeQuiz(@PathVariable Long quizId) {
+        return quizRegradeService.regradeQuiz(quizId);
+    }
+
+    // --- попытки с ограничением времени ---
+
+    @PostMapping("/{quizId}/attempts")
+    public QuizAttemptView startAttempt(@PathVariable Long quizId,
+                                        @Valid @RequestBody StartAttemptRequest request) {
+        return quizAttemptService.startAttempt(quizId, request.studentId());
+    }
+
+    @GetMapping("/attempts/{attemptId}")
+    public QuizAttemptView getAttempt(@PathVariable Long attemptId) {
+        return quizAttemptService.getAttempt(attemptId);
+    }
+
+    @PutMapping("/attempts/{attemptId}/answers")
+    public QuizAttemptView saveAttemptAnswers(@PathVariable Long attemptId,
+                                              @Valid @RequestBody AttemptAnswersRequest request) {
+        return quizAttemptService.saveAnswers(attemptId, request.answers());
+    }
+
+    /**
+     * Тело необязательно: без него сдаются сохранённые ответы.
+     */
+    @PostMapping("/attempts/{attemptId}/submit")
+    public QuizAttemptView submitAttempt(@PathVariable Long attemptId,
+                                         @RequestBody(required = false) AttemptAnswersRequest request) {
+        return quizAttemptService.submitAttempt(attemptId, request != null ? request.answers() : null);
+    }
+
+    @GetMapping("/submission-ingest/stats")
+    public IngestStats getSubmissionIngestStats() {
+        return quizService.getSubmissionIngestStats();
+    }
+
+    @GetMapping("/answer-key-cache/stats")
+    public CacheStats getAnswerKeyCacheStats() {
+        return quizService.getAnswerKeyCacheStats();
+    }
+
+    @GetMapping("/{quizId}/analytics")
+    public QuizAnalyticsView getQuizAnalytics(@PathVariable Long quizId) {
+        return quizService.getQuizAnalytics(quizId);
+    }
+
+    @GetMapping("/{quizId}/score-distribution")
+    public ScoreDistributionView getScoreDistribution(@PathVariable Long quizId,
+                                                      @RequestParam(required = false) Integer bucketWidth) {
+        return quizService.getScoreDistribution(quizId, bucketWidth);
     }
 
     @GetMapping("/{quizId}/submissions")
-    public List<QuizSubmission> getSubmissionsForQuiz(@PathVariable Long quizId) {
+    public List<QuizSubmissionView> getSubmissionsForQuiz(@PathVariable Long quizId) {
         return quizService.getSubmissionsForQuiz(quizId);
     }
 
     @GetMapping("/students/{studentId}/submissions")
-    public List<QuizSubmission> getSubmissionsForStudent(@PathVariable Long studentId) {
+    public List<QuizSubmissionView> getSubmissionsForStudent(@PathVariable Long studentId) {
         return quizService.getSubmissionsForStudent(studentId);
     }
 
@@ -121,11 +290,35 @@ public class QuizController {
      * answers:
      *  key: questionId
      *  value: список выбранных optionId
+     *  null — сдать сохранённый черновик
      */
     public record TakeQuizRequest(
             @NotNull(message = "Student ID is required")
             Long studentId,
 
+            Map<Long, List<Long>> answers
+    ) {
+    }
+
+    public record DraftRequest(
+            @NotNull(message = "Answers are required")
+            Map<Long, List<Long>> answers
+    ) {
+    }
+
+    public record AnswerKeyRequest(
+            @NotNull(message = "Correct option IDs are required")
+            Set<Long> correctOptionIds
+    ) {
+    }
+
+    public record StartAttemptRequest(
+            @NotNull(message = "Student ID is required")
+            Long studentId
+    ) {
+    }
+
+    public record AttemptAnswersRequest(
             @NotNull(message = "Answers are required")
             Map<Long, List<Long>> answers
     ) {
@@ -6,7 +6,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
-import orm.entity.Submission;
+import orm.dto.SubmissionDetailsView;
+import orm.dto.SubmissionView;
 import orm.service.SubmissionService;
 
 import java.util.List;
@@ -19,37 +20,37 @@ public class SubmissionController {
     private final SubmissionService submissionService;
 
     @PostMapping("/assignments/{assignmentId}")
-    public Submission submitAssignment(@PathVariable Long assignmentId,
-                                       @Valid @RequestBody SubmitAssignmentRequest request) {
-        return submissionService.submitAssignment(
+    public SubmissionView submitAssignment(@PathVariable Long assignmentId,
+                                           @Valid @RequestBody SubmitAssignmentRequest request) {
+        return SubmissionView.of(submissionService.submitAssignment(
                 request.studentId(),
                 assignmentId,
                 request.content()
-        );
+        ));
     }
 
     @PostMapping("/{submissionId}/grade")
-    public Submission gradeSubmission(@PathVariable Long submissionId,
-                                      @Valid @RequestBody GradeSubmissionRequest request) {
-        return submissionService.gradeSubmission(
+    public SubmissionView gradeSubmission(@PathVariable Long submissionId,
+                                          @Valid @RequestBody GradeSubmissionRequest request) {
+        return SubmissionView.of(submissionService.gradeSubmission(
                 submissionId,
                 request.score(),
                 request.feedback()
-        );
+        ));
     }
 
     @GetMapping("/{submissionId}")
-    public Submission getSubmission(@PathVariable Long submissionId) {
+    public SubmissionDetailsView getSubmission(@PathVariable Long submissionId) {
         return submissionService.getSubmission(submissionId);
     }
 
     @GetMapping("/students/{studentId}")
-    public List<Submission> getSubmissionsForStudent(@PathVariable Long studentId) {
+    public List<SubmissionView> getSubmissionsForStudent(@PathVariable Long studentId) {
         return submissionService.getSubmissionsForStudent(studentId);
     }
 
     @GetMapping("/assignments/{assignmentId}")
-    public List<Submission> getSubmissionsForAssignment(@PathVariable Long assignmentId) {
+    public List<SubmissionView> getSubmissionsForAssignment(@PathVariable Long assignmentId) {
         return submissionService.getSubmissionsForAssignment(assignmentId);
     }
 
@@ -0,0 +1,15 @@
+package orm.draft;
+
+/**
+ * saves — принятых сохранений; written — строк, записанных в БД (разница — схлопнутые сохранения).
+ */
+public record DraftStats(
+        int size,
+        int dirty,
+        int maxSize,
+        long saves,
+        long written,
+        long deleted,
+        long rejected
+) {
+}
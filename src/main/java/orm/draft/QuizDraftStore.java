@@ -0,0 +1,251 @@
+package orm.draft;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.dto.QuizDraftView;
+import orm.entity.QuizDraft;
+import orm.entity.QuizDraftKey;
+import orm.exception.ServiceOverloadedException;
+import orm.repository.QuizDraftRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Черновики ответов с отложенной записью (write-behind).
+ * <p>
+ * Сохранение только заменяет черновик в памяти и помечает ключ грязным; повторные сохранения
+ * до сброса схлопываются в одну запись. Раз в flush-interval грязные черновики пишутся в quiz_drafts
+ * пачками: одна выборка существующих строк на пачку, затем вставки/обновления/удаления JDBC-пачками.
+ * <p>
+ * Память ограничена max-size: при заполнении вытесняются уже записанные (чистые) черновики;
+ * грязные не вытесняются никогда — если вытеснять нечего, сохранение получает 503. Чистым
+ * черновик считается, только когда записана именно его версия: пометка грязного снимается
+ * в начале сброса, и пока запись идёт (или если она не удалась), вытеснять его нельзя.
+ * Удаление черновика (после сдачи теста) — тоже отложенное: «надгробие» до ближайшего сброса.
+ */
+@Slf4j
+@Component
+public class QuizDraftStore {
+
+    private final QuizDraftRepository quizDraftRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final int maxSize;
+    private final int batchSize;
+
+    private final Map<QuizDraftKey, Draft> drafts = new ConcurrentHashMap<>();
+    private final Set<QuizDraftKey> dirty = ConcurrentHashMap.newKeySet();
+    /**
+     * Версия черновика, которая сейчас лежит в quiz_drafts; совпадает с версией в drafts — черновик чистый.
+     */
+    private final Map<QuizDraftKey, Long> writtenVersions = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    private final LongAdder saves = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public QuizDraftStore(QuizDraftRepository quizDraftRepository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${orm.drafts.max-size:100000}") int maxSize,
+                          @Value("${orm.drafts.batch-size:500}") int batchSize) {
+        this.quizDraftRepository = quizDraftRepository;
+        this.entityManager = entityManager;
+        this.transactionManager = transactionManager;
+        this.maxSize = maxSize;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * answers == null — черновик удалён и ждёт удаления строки.
+     * version — номер изменения, уникальный в пределах хранилища.
+     */
+    private record Draft(Map<Long, List<Long>> answers, LocalDateTime updatedAt, long version) {
+
+        boolean isDeleted() {
+            return answers == null;
+        }
+    }
+
+    // --- API ---
+
+    public void save(Long studentId, Long quizId, Map<Long, List<Long>> answersByQuestionId) {
+        QuizDraftKey key = new QuizDraftKey(studentId, quizId);
+        if (!drafts.containsKey(key) && drafts.size() >= maxSize && !evictClean()) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Draft store is full", 1);
+        }
+        drafts.put(key, new Draft(Collections.unmodifiableMap(new HashMap<>(answersByQuestionId)),
+                LocalDateTime.now(), versions.incrementAndGet()));
+        dirty.add(key);
+        saves.increment();
+    }
+
+    public Optional<QuizDraftView> find(Long studentId, Long quizId) {
+        QuizDraftKey key = new QuizDraftKey(studentId, quizId);
+        Draft draft = drafts.get(key);
+        if (draft == null) {
+            draft = load(key);
+            if (draft == null) {
+                return Optional.empty();
+            }
+            if (drafts.size() < maxSize) {
+                // параллельное сохранение или удаление новее прочитанного — не перетираем
+                Draft raced = drafts.putIfAbsent(key, draft);
+                if (raced != null) {
+                    draft = raced;
+                } else {
+                    // прочитанный из БД черновик уже записан
+                    writtenVersions.put(key, draft.version());
+                }
+            }
+        }
+        if (draft.isDeleted()) {
+            return Optional.empty();
+        }
+        return Optional.of(new QuizDraftView(studentId, quizId, draft.answers(), draft.updatedAt()));
+    }
+
+    public void discard(Long studentId, Long quizId) {
+        QuizDraftKey key = new QuizDraftKey(studentId, quizId);
+        drafts.put(key, new Draft(null, LocalDateTime.now(), versions.incrementAndGet()));
+        dirty.add(key);
+    }
+
+    public DraftStats stats() {
+        return new DraftStats(drafts.size(), dirty.size(), maxSize,
+                saves.sum(), written.sum(), deleted.sum(), rejected.sum());
+    }
+
+    // --- сброс в БД ---
+
+    @Scheduled(initialDelayString = "${orm.drafts.flush-interval:PT5S}",
+            fixedDelayString = "${orm.drafts.flush-interval:PT5S}")
+    @PreDestroy
+    public void flush() {
+        List<QuizDraftKey> batch = new ArrayList<>(batchSize);
+        Iterator<QuizDraftKey> keys = dirty.iterator();
+        while (keys.hasNext()) {
+            batch.add(keys.next());
+            // снимаем пометку до чтения черновика: сохранение после этого пометит ключ снова
+            keys.remove();
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<QuizDraftKey> keys) {
+        Map<QuizDraftKey, Draft> snapshot = new LinkedHashMap<>();
+        for (QuizDraftKey key : keys) {
+            Draft draft = drafts.get(key);
+            if (draft != null) {
+                snapshot.put(key, draft);
+            }
+        }
+
+        int[] changes = new int[2];
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Map<QuizDraftKey, QuizDraft> existing = quizDraftRepository.findAllById(snapshot.keySet()).stream()
+                        .collect(Collectors.toMap(QuizDraft::getId, Function.identity()));
+
+                snapshot.forEach((key, draft) -> {
+                    QuizDraft row = existing.get(key);
+                    if (draft.isDeleted()) {
+                        if (row != null) {
+                            entityManager.remove(row);
+                            changes[1]++;
+                        }
+                    } else if (row != null) {
+                        row.setAnswers(draft.answers());
+                        row.setUpdatedAt(draft.updatedAt());
+                        changes[0]++;
+                    } else {
+                        entityManager.persist(QuizDraft.builder()
+                                .id(key)
+                                .answers(draft.answers())
+                                .updatedAt(draft.updatedAt())
+                                .build());
+                        changes[0]++;
+                    }
+                });
+            });
+        } catch (RuntimeException e) {
+            // вернём пометки — попробуем на следующем сбросе
+            dirty.addAll(snapshot.keySet());
+            log.error("Failed to flush {} quiz drafts", snapshot.size(), e);
+            return;
+        }
+
+        written.add(changes[0]);
+        deleted.add(changes[1]);
+        snapshot.forEach((key, draft) -> {
+            if (draft.isDeleted()) {
+                // записанные надгробия больше не нужны, если их не сменило новое сохранение
+                if (drafts.remove(key, draft)) {
+                    writtenVersions.remove(key);
+                }
+            } else {
+                writtenVersions.put(key, draft.version());
+            }
+        });
+    }
+
+    private Draft load(QuizDraftKey key) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> quizDraftRepository.findById(key)
+                .map(row -> new Draft(row.getAnswers(), row.getUpdatedAt(), versions.incrementAndGet()))
+                .orElse(null));
+    }
+
+    /**
+     * Вытесняет до 1/16 ёмкости чистых черновиков.
+     *
+     * @return true, если место освободилось
+     */
+    private boolean evictClean() {
+        int target = Math.max(1, maxSize / 16);
+        int evicted = 0;
+        for (Map.Entry<QuizDraftKey, Draft> entry : drafts.entrySet()) {
+            if (evicted == target) {
+                break;
+            }
+            QuizDraftKey key = entry.getKey();
+            Draft draft = entry.getValue();
+            Long writtenVersion = writtenVersions.get(key);
+            if (writtenVersion != null && writtenVersion == draft.version() && drafts.remove(key, draft)) {
+                writtenVersions.remove(key, writtenVersion);
+                evicted++;
+            }
+        }
+        return evicted > 0;
+    }
+}
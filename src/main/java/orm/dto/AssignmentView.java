@@ -0,0 +1,26 @@
+package orm.dto;
+
+import orm.entity.Assignment;
+
+import java.time.LocalDateTime;
+
+public record AssignmentView(
+        Long id,
+        Long lessonId,
+        String title,
+        String description,
+        LocalDateTime dueDate,
+        Integer maxScore
+) {
+
+    public static AssignmentView of(Assignment assignment) {
+        return new AssignmentView(
+                assignment.getId(),
+                assignment.getLesson().getId(),
+                assignment.getTitle(),
+                assignment.getDescription(),
+                assignment.getDueDate(),
+                assignment.getMaxScore()
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package orm.dto;
+
+import java.util.List;
+
+/**
+ * Итог записи когорты: skipped — уже записанные на курс и повторы в запросе,
+ * rejected — несуществующие пользователи и не студенты.
+ */
+public record BulkEnrollReport(
+        Long courseId,
+        int requested,
+        List<Long> enrolled,
+        List<Long> skipped,
+        List<Rejection> rejected
+) {
+
+    public record Rejection(Long studentId, String reason) {
+    }
+}
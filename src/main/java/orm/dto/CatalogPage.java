@@ -0,0 +1,19 @@
+package orm.dto;
+
+import orm.search.FacetCount;
+
+import java.util.List;
+
+/**
+ * Страница фасетного каталога вместе со счётчиками всех фасетов — один ответ на один запрос.
+ */
+public record CatalogPage(
+        List<CourseView> items,
+        int total,
+        int page,
+        int size,
+        List<FacetCount> statuses,
+        List<FacetCount> categories,
+        List<FacetCount> tags
+) {
+}
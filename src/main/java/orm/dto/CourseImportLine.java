@@ -0,0 +1,74 @@
+package orm.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import orm.model.CourseStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Одна строка NDJSON-импорта: курс вместе с модулями и уроками.
+ */
+public record CourseImportLine(
+        @NotBlank(message = "Title is required")
+        @Size(max = 255, message = "Title must be at most 255 characters")
+        String title,
+
+        @NotBlank(message = "Description is required")
+        String description,
+
+        @NotNull(message = "Duration is required")
+        @Positive(message = "Duration must be positive")
+        Integer duration,
+
+        @NotNull(message = "Start date is required")
+        LocalDate startDate,
+
+        LocalDate endDate,
+
+        CourseStatus status,
+
+        @NotNull(message = "Teacher ID is required")
+        Long teacherId,
+
+        @NotNull(message = "Category ID is required")
+        Long categoryId,
+
+        List<@Valid ModuleLine> modules
+) {
+
+    public record ModuleLine(
+            @NotBlank(message = "Title is required")
+            String title,
+
+            @Size(max = 2000, message = "Description must be at most 2000 characters")
+            String description,
+
+            @NotNull(message = "Order index is required")
+            @Min(value = 0, message = "Order index must be >= 0")
+            Integer orderIndex,
+
+            List<@Valid LessonLine> lessons
+    ) {
+    }
+
+    public record LessonLine(
+            @NotBlank(message = "Title is required")
+            String title,
+
+            @NotBlank(message = "Content is required")
+            String content,
+
+            String videoUrl,
+
+            @NotNull(message = "Order index is required")
+            @Min(value = 0, message = "Order index must be >= 0")
+            Integer orderIndex
+    ) {
+    }
+}
@@ -0,0 +1,100 @@
+package orm.dto;
+
+import orm.entity.Course;
+import orm.entity.Lesson;
+import orm.entity.Module;
+import orm.model.CourseStatus;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Неизменяемый снимок структуры курса (курс → модули → уроки) для чтения и кэширования.
+ * Модули и уроки упорядочены по orderIndex.
+ */
+public record CourseStructureSnapshot(
+        Long id,
+        long version,
+        String title,
+        String description,
+        Integer duration,
+        LocalDate startDate,
+        LocalDate endDate,
+        CourseStatus status,
+        Long teacherId,
+        String teacherName,
+        Long categoryId,
+        String categoryName,
+        List<ModuleSnapshot> modules
+) implements Serializable {
+
+    private static final Comparator<Integer> ORDER_INDEX =
+            Comparator.nullsLast(Comparator.naturalOrder());
+
+    public record ModuleSnapshot(
+            Long id,
+            String title,
+            String description,
+            Integer orderIndex,
+            Long quizId,
+            String quizTitle,
+            List<LessonSnapshot> lessons
+    ) implements Serializable {
+    }
+
+    public record LessonSnapshot(
+            Long id,
+            String title,
+            String videoUrl,
+            Integer orderIndex
+    ) implements Serializable {
+    }
+
+    public static CourseStructureSnapshot of(Course course, long version) {
+        List<ModuleSnapshot> modules = course.getModules().stream()
+                .sorted(Comparator.comparing(Module::getOrderIndex, ORDER_INDEX)
+                        .thenComparing(Module::getId))
+                .map(CourseStructureSnapshot::toModule)
+                .toList();
+
+        return new CourseStructureSnapshot(
+                course.getId(),
+                version,
+                course.getTitle(),
+                course.getDescription(),
+                course.getDuration(),
+                course.getStartDate(),
+                course.getEndDate(),
+                course.getStatus(),
+                course.getTeacher() != null ? course.getTeacher().getId() : null,
+                course.getTeacher() != null ? course.getTeacher().getName() : null,
+                course.getCategory() != null ? course.getCategory().getId() : null,
+                course.getCategory() != null ? course.getCategory().getName() : null,
+                modules
+        );
+    }
+
+    private static ModuleSnapshot toModule(Module module) {
+        List<LessonSnapshot> lessons = module.getLessons().stream()
+                .sorted(Comparator.comparing(Lesson::getOrderIndex, ORDER_INDEX)
+                        .thenComparing(Lesson::getId))
+                .map(lesson -> new LessonSnapshot(
+                        lesson.getId(),
+                        lesson.getTitle(),
+                        lesson.getVideoUrl(),
+                        lesson.getOrderIndex()))
+                .toList();
+
+        return new ModuleSnapshot(
+                module.getId(),
+                module.getTitle(),
+                module.getDescription(),
+                module.getOrderIndex(),
+                module.getQuiz() != null ? module.getQuiz().getId() : null,
+                module.getQuiz() != null ? module.getQuiz().getTitle() : null,
+                lessons
+        );
+    }
+}
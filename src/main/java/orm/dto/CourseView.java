@@ -0,0 +1,34 @@
+package orm.dto;
+
+import orm.entity.Course;
+import orm.model.CourseStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Краткое представление курса для списков (без связей и длинных полей).
+ */
+public record CourseView(
+        Long id,
+        String title,
+        CourseStatus status,
+        Integer duration,
+        LocalDate startDate,
+        LocalDate endDate,
+        Long teacherId,
+        Long categoryId
+) {
+
+    public static CourseView of(Course course) {
+        return new CourseView(
+                course.getId(),
+                course.getTitle(),
+                course.getStatus(),
+                course.getDuration(),
+                course.getStartDate(),
+                course.getEndDate(),
+                course.getTeacher() != null ? course.getTeacher().getId() : null,
+                course.getCategory() != null ? course.getCategory().getId() : null
+        );
+    }
+}
@@ -0,0 +1,23 @@
+package orm.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница keyset-пагинации. nextCursor == null — страниц больше нет.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * @param rows  результат запроса с лимитом size + 1 (лишняя строка — признак следующей страницы)
+     * @param size  запрошенный размер страницы
+     * @param keyOf позиция строки в порядке сортировки
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> keyOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(List.copyOf(rows), null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, size));
+        return new CursorPage<>(items, keyOf.apply(items.get(size - 1)).encode());
+    }
+}
@@ -0,0 +1,27 @@
+package orm.dto;
+
+import orm.entity.Enrollment;
+import orm.model.EnrollmentStatus;
+
+import java.time.LocalDateTime;
+
+public record EnrollmentView(
+        Long id,
+        Long courseId,
+        Long studentId,
+        EnrollmentStatus status,
+        LocalDateTime enrolledAt,
+        Integer finalGrade
+) {
+
+    public static EnrollmentView of(Enrollment enrollment) {
+        return new EnrollmentView(
+                enrollment.getId(),
+                enrollment.getCourse().getId(),
+                enrollment.getStudent().getId(),
+                enrollment.getStatus(),
+                enrollment.getEnrolledAt(),
+                enrollment.getFinalGrade()
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package orm.dto;
+
+import java.util.List;
+
+/**
+ * Итог потокового импорта. В errors попадают только первые {@link #MAX_REPORTED_ERRORS} ошибок,
+ * failed считает все.
+ */
+public record ImportReport(
+        long processed,
+        long imported,
+        long failed,
+        List<LineError> errors
+) {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    public record LineError(long line, String message) {
+    }
+}
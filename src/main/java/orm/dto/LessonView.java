@@ -0,0 +1,22 @@
+package orm.dto;
+
+import orm.entity.Lesson;
+
+public record LessonView(
+        Long id,
+        Long moduleId,
+        String title,
+        String videoUrl,
+        Integer orderIndex
+) {
+
+    public static LessonView of(Lesson lesson) {
+        return new LessonView(
+                lesson.getId(),
+                lesson.getModule().getId(),
+                lesson.getTitle(),
+                lesson.getVideoUrl(),
+                lesson.getOrderIndex()
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package orm.dto;
+
+import java.util.UUID;
+
+/**
+ * Итог завершённой сессии: written — записанных попыток, failed — участников, чью попытку записать не удалось.
+ */
+public record LiveSessionResult(
+        UUID sessionId,
+        Long quizId,
+        int participants,
+        int written,
+        int failed
+) {
+}
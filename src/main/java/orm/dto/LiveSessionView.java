@@ -0,0 +1,29 @@
+package orm.dto;
+
+import orm.model.LiveSessionStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Состояние живой сессии — его же получают подписчики при каждой рассылке.
+ * questionIndex, questionId и options заполнены, пока вопрос открыт или после его закрытия последним.
+ */
+public record LiveSessionView(
+        UUID sessionId,
+        Long quizId,
+        LiveSessionStatus status,
+        int questionCount,
+        Integer questionIndex,
+        Long questionId,
+        int participants,
+        long answered,
+        List<OptionTally> options
+) {
+
+    public record OptionTally(
+            Long optionId,
+            long count
+    ) {
+    }
+}
@@ -0,0 +1,22 @@
+package orm.dto;
+
+import orm.entity.Module;
+
+public record ModuleView(
+        Long id,
+        Long courseId,
+        String title,
+        String description,
+        Integer orderIndex
+) {
+
+    public static ModuleView of(Module module) {
+        return new ModuleView(
+                module.getId(),
+                module.getCourse().getId(),
+                module.getTitle(),
+                module.getDescription(),
+                module.getOrderIndex()
+        );
+    }
+}
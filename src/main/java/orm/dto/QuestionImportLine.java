@@ -0,0 +1,32 @@
+package orm.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import orm.model.QuestionType;
+
+import java.util.List;
+
+/**
+ * Одна строка NDJSON-импорта банка вопросов: вопрос вместе с вариантами ответов.
+ */
+public record QuestionImportLine(
+        @NotBlank(message = "Question text is required")
+        String text,
+
+        @NotNull(message = "Question type is required")
+        QuestionType type,
+
+        @NotEmpty(message = "Answer options are required")
+        List<@Valid OptionLine> options
+) {
+
+    public record OptionLine(
+            @NotBlank(message = "Option text is required")
+            String text,
+
+            boolean correct
+    ) {
+    }
+}
@@ -0,0 +1,32 @@
+package orm.dto;
+
+import java.util.List;
+
+/**
+ * Аналитика вопросов теста.
+ * difficulty — доля верных ответов в процентах; discrimination — точечно-бисериальная корреляция
+ * верности ответа на вопрос с итоговым баллом попытки (null, пока её нельзя посчитать).
+ */
+public record QuizAnalyticsView(
+        Long quizId,
+        long submissions,
+        List<QuestionAnalytics> questions
+) {
+
+    public record QuestionAnalytics(
+            Long questionId,
+            long attempts,
+            long correct,
+            Double difficulty,
+            Double discrimination,
+            List<OptionAnalytics> options
+    ) {
+    }
+
+    public record OptionAnalytics(
+            Long optionId,
+            long picks,
+            Double pickRate
+    ) {
+    }
+}
@@ -0,0 +1,33 @@
+package orm.dto;
+
+import orm.entity.QuizAttempt;
+import orm.model.AttemptStatus;
+
+import java.time.LocalDateTime;
+
+public record QuizAttemptView(
+        Long id,
+        Long quizId,
+        Long studentId,
+        AttemptStatus status,
+        LocalDateTime startedAt,
+        LocalDateTime deadline,
+        LocalDateTime finishedAt,
+        Long submissionId,
+        Integer score
+) {
+
+    public static QuizAttemptView of(QuizAttempt attempt) {
+        return new QuizAttemptView(
+                attempt.getId(),
+                attempt.getQuiz().getId(),
+                attempt.getStudent().getId(),
+                attempt.getStatus(),
+                attempt.getStartedAt(),
+                attempt.getDeadline(),
+                attempt.getFinishedAt(),
+                attempt.getSubmission() != null ? attempt.getSubmission().getId() : null,
+                attempt.getSubmission() != null ? attempt.getSubmission().getScore() : null
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package orm.dto;
+
+import orm.entity.Quiz;
+import orm.model.QuestionType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тест с вопросами и вариантами ответов (представление для преподавателя — с признаком правильности).
+ */
+public record QuizDetailsView(
+        Long id,
+        Long moduleId,
+        String title,
+        Integer timeLimitMinutes,
+        List<QuestionView> questions
+) {
+
+    public record QuestionView(
+            Long id,
+            String text,
+            QuestionType type,
+            List<AnswerOptionView> options
+    ) {
+    }
+
+    public record AnswerOptionView(
+            Long id,
+            String text,
+            boolean correct
+    ) {
+    }
+
+    /**
+     * Собирает представление из заголовка и строк, отсортированных по (questionId, optionId).
+     */
+    public static QuizDetailsView of(QuizView quiz, List<QuizOptionRow> rows) {
+        Map<Long, QuizOptionRow> questionHeaders = new LinkedHashMap<>();
+        Map<Long, List<AnswerOptionView>> optionsByQuestion = new LinkedHashMap<>();
+
+        for (QuizOptionRow row : rows) {
+            questionHeaders.putIfAbsent(row.questionId(), row);
+            List<AnswerOptionView> options =
+                    optionsByQuestion.computeIfAbsent(row.questionId(), id -> new ArrayList<>());
+            if (row.optionId() != null) {
+                options.add(new AnswerOptionView(row.optionId(), row.optionText(),
+                        Boolean.TRUE.equals(row.optionCorrect())));
+            }
+        }
+
+        List<QuestionView> questions = questionHeaders.values().stream()
+                .map(header -> new QuestionView(
+                        header.questionId(),
+                        header.questionText(),
+                        header.questionType(),
+                        List.copyOf(optionsByQuestion.get(header.questionId()))))
+                .toList();
+
+        return new QuizDetailsView(quiz.id(), quiz.moduleId(), quiz.title(), quiz.timeLimitMinutes(), questions);
+    }
+
+    /**
+     * Представление только что созданного теста — граф уже в памяти, запросов не требуется.
+     */
+    public static QuizDetailsView of(Quiz quiz) {
+        List<QuestionView> questions = quiz.getQuestions().stream()
+                .map(question -> new QuestionView(
+                        question.getId(),
+                        question.getText(),
+                        question.getType(),
+                        question.getOptions().stream()
+                                .map(option -> new AnswerOptionView(option.getId(), option.getText(), option.isCorrect()))
+                                .toList()))
+                .toList();
+
+        return new QuizDetailsView(
+                quiz.getId(),
+                quiz.getModule() != null ? quiz.getModule().getId() : null,
+                quiz.getTitle(),
+                quiz.getTimeLimitMinutes(),
+                questions
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package orm.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public record QuizDraftView(
+        Long studentId,
+        Long quizId,
+        Map<Long, List<Long>> answers,
+        LocalDateTime updatedAt
+) {
+}
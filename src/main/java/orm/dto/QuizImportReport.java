@@ -0,0 +1,18 @@
+package orm.dto;
+
+import java.util.List;
+
+/**
+ * Итог импорта банка вопросов. Импорт атомарный: при failed &gt; 0 ничего не записано
+ * (quizId созданного теста тогда null), а errors содержит первые
+ * {@link ImportReport#MAX_REPORTED_ERRORS} ошибок.
+ */
+public record QuizImportReport(
+        Long quizId,
+        long processed,
+        long questions,
+        long options,
+        long failed,
+        List<ImportReport.LineError> errors
+) {
+}
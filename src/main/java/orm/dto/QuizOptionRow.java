@@ -0,0 +1,17 @@
+package orm.dto;
+
+import orm.model.QuestionType;
+
+/**
+ * Плоская строка "вопрос × вариант ответа" для сборки {@link QuizDetailsView} одним запросом.
+ * Поля варианта равны null, если у вопроса нет вариантов.
+ */
+public record QuizOptionRow(
+        Long questionId,
+        String questionText,
+        QuestionType questionType,
+        Long optionId,
+        String optionText,
+        Boolean optionCorrect
+) {
+}
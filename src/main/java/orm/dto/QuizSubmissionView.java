@@ -0,0 +1,26 @@
+package orm.dto;
+
+import orm.entity.QuizSubmission;
+
+import java.time.LocalDateTime;
+
+public record QuizSubmissionView(
+        Long id,
+        Long quizId,
+        Long studentId,
+        Integer score,
+        boolean passed,
+        LocalDateTime takenAt
+) {
+
+    public static QuizSubmissionView of(QuizSubmission submission) {
+        return new QuizSubmissionView(
+                submission.getId(),
+                submission.getQuiz().getId(),
+                submission.getStudent().getId(),
+                submission.getScore(),
+                submission.isPassed(),
+                submission.getTakenAt()
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package orm.dto;
+
+/**
+ * Заголовок теста без вопросов.
+ */
+public record QuizView(
+        Long id,
+        Long moduleId,
+        String title,
+        Integer timeLimitMinutes
+) {
+}
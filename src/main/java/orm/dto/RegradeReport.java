@@ -0,0 +1,14 @@
+package orm.dto;
+
+/**
+ * Итог переоценки теста: scanned — просмотрено попыток, rescored — изменился балл,
+ * skipped — попытки без сохранённых ответов (записаны до появления колонки answers).
+ */
+public record RegradeReport(
+        Long quizId,
+        long scanned,
+        long rescored,
+        long skipped,
+        int chunks
+) {
+}
@@ -0,0 +1,18 @@
+package orm.dto;
+
+import orm.model.EnrollmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка студентов курса: запись и публичные поля студента одним запросом.
+ */
+public record RosterEntry(
+        Long enrollmentId,
+        Long studentId,
+        String name,
+        String email,
+        EnrollmentStatus status,
+        LocalDateTime enrolledAt
+) {
+}
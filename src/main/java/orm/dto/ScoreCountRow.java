@@ -0,0 +1,7 @@
+package orm.dto;
+
+public record ScoreCountRow(
+        Integer score,
+        Long count
+) {
+}
@@ -0,0 +1,27 @@
+package orm.dto;
+
+import java.util.List;
+
+/**
+ * Распределение баллов теста. Размер ответа не зависит от числа попыток:
+ * не больше 101 корзины при ширине 1.
+ */
+public record ScoreDistributionView(
+        Long quizId,
+        long submissions,
+        Double mean,
+        Integer min,
+        Integer p25,
+        Integer median,
+        Integer p75,
+        Integer p90,
+        Integer max,
+        List<Bucket> buckets
+) {
+
+    /**
+     * Баллы from..to включительно.
+     */
+    public record Bucket(int from, int to, long count) {
+    }
+}
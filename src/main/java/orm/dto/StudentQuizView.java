@@ -0,0 +1,61 @@
+package orm.dto;
+
+import orm.model.QuestionType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тест для студента: вопросы и варианты без признака правильности.
+ */
+public record StudentQuizView(
+        Long id,
+        Long moduleId,
+        String title,
+        Integer timeLimitMinutes,
+        List<QuestionView> questions
+) {
+
+    public record QuestionView(
+            Long id,
+            String text,
+            QuestionType type,
+            List<OptionView> options
+    ) {
+    }
+
+    public record OptionView(
+            Long id,
+            String text
+    ) {
+    }
+
+    /**
+     * Собирает представление из заголовка и строк, отсортированных по (questionId, optionId);
+     * optionCorrect из строк не используется.
+     */
+    public static StudentQuizView of(QuizView quiz, List<QuizOptionRow> rows) {
+        Map<Long, QuizOptionRow> questionHeaders = new LinkedHashMap<>();
+        Map<Long, List<OptionView>> optionsByQuestion = new LinkedHashMap<>();
+
+        for (QuizOptionRow row : rows) {
+            questionHeaders.putIfAbsent(row.questionId(), row);
+            List<OptionView> options = optionsByQuestion.computeIfAbsent(row.questionId(), id -> new ArrayList<>());
+            if (row.optionId() != null) {
+                options.add(new OptionView(row.optionId(), row.optionText()));
+            }
+        }
+
+        List<QuestionView> questions = questionHeaders.values().stream()
+                .map(header -> new QuestionView(
+                        header.questionId(),
+                        header.questionText(),
+                        header.questionType(),
+                        List.copyOf(optionsByQuestion.get(header.questionId()))))
+                .toList();
+
+        return new StudentQuizView(quiz.id(), quiz.moduleId(), quiz.title(), quiz.timeLimitMinutes(), questions);
+    }
+}
@@ -0,0 +1,20 @@
+package orm.dto;
+
+import orm.model.SubmissionStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Решение задания вместе с текстом решения.
+ */
+public record SubmissionDetailsView(
+        Long id,
+        Long assignmentId,
+        Long studentId,
+        LocalDateTime submittedAt,
+        Integer score,
+        String feedback,
+        SubmissionStatus status,
+        String content
+) {
+}
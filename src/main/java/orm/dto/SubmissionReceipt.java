@@ -0,0 +1,30 @@
+package orm.dto;
+
+import orm.ingest.PendingSubmission;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Квитанция о принятой попытке: результат уже посчитан, запись в БД произойдёт в фоне.
+ */
+public record SubmissionReceipt(
+        UUID receiptId,
+        Long quizId,
+        Long studentId,
+        Integer score,
+        boolean passed,
+        LocalDateTime takenAt
+) {
+
+    public static SubmissionReceipt of(PendingSubmission submission) {
+        return new SubmissionReceipt(
+                submission.receiptId(),
+                submission.quizId(),
+                submission.studentId(),
+                submission.score(),
+                submission.passed(),
+                submission.takenAt()
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package orm.dto;
+
+import orm.entity.Submission;
+import orm.model.SubmissionStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Решение задания для списков — без текста решения.
+ */
+public record SubmissionView(
+        Long id,
+        Long assignmentId,
+        Long studentId,
+        LocalDateTime submittedAt,
+        Integer score,
+        String feedback,
+        SubmissionStatus status
+) {
+
+    public static SubmissionView of(Submission submission) {
+        return new SubmissionView(
+                submission.getId(),
+                submission.getAssignment().getId(),
+                submission.getStudent().getId(),
+                submission.getSubmittedAt(),
+                submission.getScore(),
+                submission.getFeedback(),
+                submission.getStatus()
+        );
+    }
+}
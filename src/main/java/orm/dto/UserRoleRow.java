@@ -0,0 +1,9 @@
+package orm.dto;
+
+import orm.model.Role;
+
+public record UserRoleRow(
+        Long id,
+        Role role
+) {
+}
@@ -2,13 +2,23 @@ package orm.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import orm.model.CourseStatus;
 
 import java.time.LocalDate;
 import java.util.*;
 
 @Entity
-@Table(name = "courses")
+@Table(
+        name = "courses",
+        indexes = {
+                // под keyset-пагинацию списков курсов преподавателя и категории
+                @Index(name = "idx_course_teacher_title", columnList = "teacher_id, title, id"),
+                @Index(name = "idx_course_category_title", columnList = "category_id, title, id"),
+                // под загрузку рейтинга популярных курсов категории
+                @Index(name = "idx_course_category_popularity", columnList = "category_id, enrollment_count, id")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,7 +27,8 @@ import java.util.*;
 public class Course {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courses_seq")
+    @SequenceGenerator(name = "courses_seq", sequenceName = "courses_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -36,6 +47,20 @@ public class Course {
     @Column(nullable = false, length = 20)
     private CourseStatus status;
 
+    /**
+     * Число активных (не отменённых) записей на курс. Меняется только атомарными
+     * update-запросами EnrollmentCountWriter, поэтому сохранение сущности его не трогает.
+     */
+    @Column(name = "enrollment_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long enrollmentCount = 0L;
+
+    /**
+     * Число мест; null — без ограничения. Проверяется счётчиком мест в памяти (CourseSeatLimiter).
+     */
+    private Integer capacity;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class CourseReview {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_reviews_seq")
+    @SequenceGenerator(name = "course_reviews_seq", sequenceName = "course_reviews_seq", allocationSize = 50)
     private Long id;
 
     private Integer rating;
@@ -11,9 +11,13 @@ import java.time.LocalDateTime;
         name = "enrollments",
         uniqueConstraints = {
                 @UniqueConstraint(
-                        name = "uk_enrollment_student_course",
+                        name = Enrollment.UNIQUE_STUDENT_COURSE,
                         columnNames = {"student_id", "course_id"}
                 )
+        },
+        indexes = {
+                // под keyset-пагинацию списка студентов курса по дате записи
+                @Index(name = "idx_enrollment_course_enrolled", columnList = "course_id, enrolled_at, id")
         }
 )
 @Getter
@@ -23,10 +27,17 @@ import java.time.LocalDateTime;
 @Builder
 public class Enrollment {
 
+    /**
+     * Повторная запись на курс отсекается этим ограничением, а не проверкой перед вставкой.
+     */
+    public static final String UNIQUE_STUDENT_COURSE = "uk_enrollment_student_course";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enrollments_seq")
+    @SequenceGenerator(name = "enrollments_seq", sequenceName = "enrollments_seq", allocationSize = 50)
     private Long id;
 
+    @Column(nullable = false)
     private LocalDateTime enrolledAt;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,75 @@
+package orm.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import orm.model.AttemptStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Начатая попытка прохождения теста. Для тестов с ограничением времени deadline задан,
+ * и по его истечении попытка сдаётся автоматически с сохранёнными ответами.
+ */
+@Entity
+@Table(
+        name = "quiz_attempts",
+        indexes = {
+                // под восстановление таймеров открытых попыток при старте
+                @Index(name = "idx_quiz_attempt_status_deadline", columnList = "status, deadline"),
+                @Index(name = "idx_quiz_attempt_student_quiz", columnList = "student_id, quiz_id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QuizAttempt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_attempts_seq")
+    @SequenceGenerator(name = "quiz_attempts_seq", sequenceName = "quiz_attempts_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "quiz_id", nullable = false)
+    private Quiz quiz;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AttemptStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    /**
+     * null — тест без ограничения времени.
+     */
+    private LocalDateTime deadline;
+
+    private LocalDateTime finishedAt;
+
+    /**
+     * Последние сохранённые ответы: questionId -> выбранные optionId.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<Long, List<Long>> answers;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "submission_id")
+    private QuizSubmission submission;
+
+    /**
+     * Ручная сдача и автоматическая по таймеру могут совпасть — выигрывает первая.
+     */
+    @Version
+    private Long version;
+}
@@ -0,0 +1,35 @@
+package orm.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Черновик ответов студента на тест. Пишется не на каждое сохранение, а пачками
+ * из {@link orm.draft.QuizDraftStore}; ссылки на студента и тест — без внешних ключей,
+ * чтобы запись пачкой не требовала их загрузки.
+ */
+@Entity
+@Table(name = "quiz_drafts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QuizDraft {
+
+    @EmbeddedId
+    private QuizDraftKey id;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Map<Long, List<Long>> answers;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package orm.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import orm.analytics.QuestionStatsSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Периодически сохраняемый снимок счётчиков аналитики вопросов теста.
+ * Ключ — id теста без внешнего ключа: снимок удалённого теста не мешает его удалению.
+ */
+@Entity
+@Table(name = "quiz_item_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QuizItemStats {
+
+    @Id
+    @Column(name = "quiz_id")
+    private Long quizId;
+
+    @Column(nullable = false)
+    private long submissions;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    @Builder.Default
+    private List<QuestionStatsSnapshot> questions = new ArrayList<>();
+
+    /**
+     * Гистограмма баллов: элемент i — число попыток с баллом i (0..100).
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "score_counts")
+    private long[] scoreCounts;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
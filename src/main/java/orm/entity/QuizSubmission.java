@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class QuizSubmission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_submissions_seq")
+    @SequenceGenerator(name = "quiz_submissions_seq", sequenceName = "quiz_submissions_seq", allocationSize = 50)
     private Long id;
 
     private Integer score;
@@ -24,6 +25,14 @@ public class QuizSubmission {
 
     private boolean passed;
 
+    /**
+     * Выбранные ответы в формате {@link orm.cache.QuizAnswerKey#encodeSelection}; null — попытка
+     * сохранена до появления колонки и переоценке не подлежит. После вставки не меняется,
+     * поэтому не попадает в UPDATE при переоценке.
+     */
+    @Column(name = "answers", updatable = false)
+    private byte[] answers;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "quiz_id", nullable = false)
     private Quiz quiz;
@@ -14,7 +14,8 @@ import orm.model.ResourceType;
 public class Resource {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lesson_resources_seq")
+    @SequenceGenerator(name = "lesson_resources_seq", sequenceName = "lesson_resources_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -4,6 +4,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -87,6 +89,17 @@ public class GlobalExceptionHandler {
         return buildSimpleError(HttpStatus.CONFLICT, "Invalid state", ex.getMessage(), request);
     }
 
+    // Перегрузка: клиент должен повторить запрос позже
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleOverloaded(ServiceOverloadedException ex,
+                                                     HttpServletRequest request) {
+        ResponseEntity<ApiError> response = buildSimpleError(HttpStatus.SERVICE_UNAVAILABLE, "Service overloaded",
+                ex.getMessage(), request);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
     // Ошибки БД: нарушение уникальности, FK и т.п.
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ApiError> handleDataIntegrity(DataIntegrityViolationException ex,
@@ -94,6 +107,13 @@ public class GlobalExceptionHandler {
         return buildSimpleError(HttpStatus.CONFLICT, "Data integrity violation", ex.getMostSpecificCause().getMessage(), request);
     }
 
+    // Параллельное изменение той же строки (@Version)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLock(OptimisticLockingFailureException ex,
+                                                         HttpServletRequest request) {
+        return buildSimpleError(HttpStatus.CONFLICT, "Concurrent modification", ex.getMessage(), request);
+    }
+
     // Фолбек: любая другая необработанная ошибка
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleAll(Exception ex,
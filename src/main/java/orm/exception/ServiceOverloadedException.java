@@ -0,0 +1,18 @@
+package orm.exception;
+
+import lombok.Getter;
+
+/**
+ * Сервис временно не принимает работу (очередь заполнена или идёт остановка).
+ * Отдаётся как 503 с заголовком Retry-After.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,12 @@
+package orm.ingest;
+
+public record IngestStats(int queued,
+                          int capacity,
+                          long accepted,
+                          long rejected,
+                          long written,
+                          long failed,
+                          long batches,
+                          long retried,
+                          long deadLettered) {
+}
@@ -0,0 +1,17 @@
+package orm.ingest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Оценённая попытка, ожидающая записи. takenAt фиксируется при приёме, а не при вставке;
+ * answers — выбранные ответы в формате {@link orm.cache.QuizAnswerKey#encodeSelection}.
+ */
+public record PendingSubmission(UUID receiptId,
+                                Long quizId,
+                                Long studentId,
+                                int score,
+                                boolean passed,
+                                byte[] answers,
+                                LocalDateTime takenAt) {
+}
@@ -0,0 +1,390 @@
+package orm.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.JDBCConnectionException;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.entity.Quiz;
+import orm.entity.QuizSubmission;
+import orm.entity.User;
+import orm.exception.ServiceOverloadedException;
+import orm.repository.QuizRepository;
+import orm.repository.QuizSubmissionRepository;
+import orm.repository.UserRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Фоновая запись попыток прохождения тестов пачками.
+ * <p>
+ * Запрос кладёт уже оценённую попытку в ограниченную очередь и сразу получает квитанцию;
+ * один поток-писатель забирает из очереди до batchSize попыток и вставляет их одной транзакцией
+ * (JDBC-пачками по hibernate.jdbc.batch_size). Если очередь полна дольше offerTimeout —
+ * {@link ServiceOverloadedException}, клиент повторяет позже.
+ * <p>
+ * Временные ошибки БД (нет соединения, таймаут, блокировка) не теряют попытки: пачка повторяется
+ * с нарастающей паузой, пока не запишется, а очередь тем временем заполняется и приём отвечает 503.
+ * Постоянная ошибка (внешний ключ, ограничение) — пачка пишется по одной, отбрасываются только виновные.
+ * <p>
+ * Остановка: сначала закрывается приём (под блокировкой, поэтому после неё в очередь никто
+ * не положит), затем писатель дописывает всё, что осталось, и только после этого контекст
+ * идёт дальше к закрытию пула соединений. Если БД недоступна дольше drainTimeout, остаток
+ * сбрасывается в файл ({@link SubmissionDeadLetter}) и дописывается при следующем старте.
+ * Фаза выбрана между мягкой остановкой веб-сервера (DEFAULT_PHASE - 1024) и его выключением
+ * (DEFAULT_PHASE - 2048): запросы, которые сервер дорабатывает, ещё успевают попасть в очередь.
+ */
+@Slf4j
+@Component
+public class QuizSubmissionIngestor implements SmartLifecycle {
+
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 1536;
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final QuizSubmissionRepository quizSubmissionRepository;
+    private final QuizRepository quizRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final SubmissionIngestProperties properties;
+
+    private final BlockingQueue<PendingSubmission> queue;
+    private final ReadWriteLock acceptance = new ReentrantReadWriteLock();
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private volatile CompletableFuture<Void> drained = CompletableFuture.completedFuture(null);
+    /**
+     * System.nanoTime(), после которого остановка перестаёт ждать недоступную БД.
+     */
+    private volatile long drainDeadline;
+    private final SubmissionDeadLetter deadLetter;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    public QuizSubmissionIngestor(QuizSubmissionRepository quizSubmissionRepository,
+                                  QuizRepository quizRepository,
+                                  UserRepository userRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  SubmissionIngestProperties properties) {
+        this.quizSubmissionRepository = quizSubmissionRepository;
+        this.quizRepository = quizRepository;
+        this.userRepository = userRepository;
+        this.transactionManager = transactionManager;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.deadLetter = new SubmissionDeadLetter(properties.deadLetterDirectory());
+    }
+
+    // --- приём ---
+
+    /**
+     * Ставит попытку в очередь. Вернувшийся без исключения вызов означает, что попытка будет записана.
+     */
+    public void accept(PendingSubmission submission) {
+        acceptance.readLock().lock();
+        try {
+            if (!accepting) {
+                rejected.increment();
+                throw new ServiceOverloadedException("Quiz submission ingestion is not accepting submissions",
+                        RETRY_AFTER_SECONDS);
+            }
+            if (!queue.offer(submission, properties.offerTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new ServiceOverloadedException("Quiz submission queue is full", RETRY_AFTER_SECONDS);
+            }
+            accepted.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new ServiceOverloadedException("Interrupted while queueing quiz submission", RETRY_AFTER_SECONDS);
+        } finally {
+            acceptance.readLock().unlock();
+        }
+    }
+
+    public IngestStats stats() {
+        return new IngestStats(queue.size(), properties.queueCapacity(),
+                accepted.sum(), rejected.sum(), written.sum(), failed.sum(), batches.sum(),
+                retried.sum(), deadLettered.sum());
+    }
+
+    // --- жизненный цикл ---
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        drained = done;
+        accepting = true;
+        running = true;
+
+        Thread writer = new Thread(() -> {
+            try {
+                replayDeadLetters();
+                drainLoop();
+            } finally {
+                done.complete(null);
+            }
+        }, "quiz-submission-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        closeAcceptance();
+        drained.join();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        closeAcceptance();
+        drained.whenComplete((result, error) -> callback.run());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void closeAcceptance() {
+        acceptance.writeLock().lock();
+        try {
+            drainDeadline = System.nanoTime() + properties.drainTimeout().toNanos();
+            accepting = false;
+            running = false;
+        } finally {
+            acceptance.writeLock().unlock();
+        }
+    }
+
+    // --- запись ---
+
+    private void drainLoop() {
+        int batchSize = properties.batchSize();
+        long pollMillis = properties.pollInterval().toMillis();
+        List<PendingSubmission> batch = new ArrayList<>(batchSize);
+
+        while (true) {
+            PendingSubmission first;
+            try {
+                first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // писатель не прерывают извне; выходить отсюда нельзя — в очереди могут быть принятые попытки
+                continue;
+            }
+            if (first == null) {
+                if (!accepting) {
+                    // приём закрыт, очередь пуста — дописывать больше нечего
+                    return;
+                }
+                continue;
+            }
+
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            List<PendingSubmission> unwritten = write(batch);
+            if (!unwritten.isEmpty()) {
+                // остановка не дождалась БД; приём уже закрыт, очередь больше не пополнится
+                List<PendingSubmission> rest = new ArrayList<>(unwritten);
+                queue.drainTo(rest);
+                spill(rest);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Попытки, сброшенные в файл при прошлой остановке, пишутся раньше новых.
+     */
+    private void replayDeadLetters() {
+        List<Path> files;
+        try {
+            files = deadLetter.files();
+        } catch (IOException e) {
+            log.error("Failed to list quiz submission dead letters in {}", properties.deadLetterDirectory(), e);
+            return;
+        }
+        for (Path file : files) {
+            List<PendingSubmission> submissions;
+            try {
+                submissions = deadLetter.read(file);
+            } catch (IOException e) {
+                log.error("Failed to read quiz submission dead letter {}", file, e);
+                continue;
+            }
+            log.info("Replaying {} quiz submissions from {}", submissions.size(), file);
+            for (int from = 0; from < submissions.size(); from += properties.batchSize()) {
+                List<PendingSubmission> batch =
+                        submissions.subList(from, Math.min(from + properties.batchSize(), submissions.size()));
+                List<PendingSubmission> unwritten = write(batch);
+                if (!unwritten.isEmpty()) {
+                    // остановились, так и не дождавшись БД: остаток — новым файлом вместо старого
+                    List<PendingSubmission> rest = new ArrayList<>(unwritten);
+                    rest.addAll(submissions.subList(from + batch.size(), submissions.size()));
+                    if (spill(rest)) {
+                        deleteDeadLetter(file);
+                    }
+                    return;
+                }
+            }
+            deleteDeadLetter(file);
+        }
+    }
+
+    /**
+     * @return попытки, которые не записаны, потому что остановка не дождалась БД; пусто — пачка обработана
+     */
+    private List<PendingSubmission> write(List<PendingSubmission> batch) {
+        batches.increment();
+        try {
+            if (!persistWithRetry(batch)) {
+                return batch;
+            }
+            written.add(batch.size());
+            return List.of();
+        } catch (RuntimeException batchFailure) {
+            // попытка для удалённого теста или студента откатила всю пачку — пишем по одной
+            for (int i = 0; i < batch.size(); i++) {
+                PendingSubmission submission = batch.get(i);
+                try {
+                    if (!persistWithRetry(List.of(submission))) {
+                        return batch.subList(i, batch.size());
+                    }
+                    written.increment();
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    log.error("Failed to write quiz submission {} (quiz {}, student {})",
+                            submission.receiptId(), submission.quizId(), submission.studentId(), e);
+                }
+            }
+            return List.of();
+        }
+    }
+
+    /**
+     * Повторяет запись, пока ошибка временная.
+     *
+     * @return false — приём закрыт, drainTimeout истёк, а БД всё ещё недоступна
+     * @throws RuntimeException постоянная ошибка записи
+     */
+    private boolean persistWithRetry(List<PendingSubmission> rows) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long backoff = properties.retryBackoff().toMillis();
+        while (true) {
+            try {
+                transaction.executeWithoutResult(status -> persist(rows));
+                return true;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    throw e;
+                }
+                if (!accepting && System.nanoTime() - drainDeadline > 0) {
+                    return false;
+                }
+                retried.increment();
+                log.warn("Quiz submission write failed, retrying {} submissions in {} ms", rows.size(), backoff, e);
+                pause(backoff);
+                backoff = Math.min(backoff * 2, properties.maxRetryBackoff().toMillis());
+            }
+        }
+    }
+
+    static boolean isTransient(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof JDBCConnectionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // писатель не прерывают извне; повтор всё равно нужен
+        }
+    }
+
+    private boolean spill(List<PendingSubmission> submissions) {
+        try {
+            Path file = deadLetter.write(submissions);
+            deadLettered.add(submissions.size());
+            log.warn("Database unavailable at shutdown: {} quiz submissions saved to {}", submissions.size(), file);
+            return true;
+        } catch (IOException e) {
+            failed.add(submissions.size());
+            log.error("Failed to save {} unwritten quiz submissions to {}; receipts: {}", submissions.size(),
+                    properties.deadLetterDirectory(), submissions.stream().map(PendingSubmission::receiptId).toList(), e);
+            return false;
+        }
+    }
+
+    private void deleteDeadLetter(Path file) {
+        try {
+            deadLetter.delete(file);
+        } catch (IOException e) {
+            // файл перечитается при следующем старте — попытки запишутся повторно
+            log.error("Failed to delete replayed quiz submission dead letter {}", file, e);
+        }
+    }
+
+    private void persist(List<PendingSubmission> batch) {
+        Map<Long, Quiz> quizzes = new HashMap<>();
+        Map<Long, User> students = new HashMap<>();
+        List<QuizSubmission> entities = new ArrayList<>(batch.size());
+
+        for (PendingSubmission submission : batch) {
+            entities.add(QuizSubmission.builder()
+                    // существование проверено при приёме — ссылки без SELECT
+                    .quiz(quizzes.computeIfAbsent(submission.quizId(), quizRepository::getReferenceById))
+                    .student(students.computeIfAbsent(submission.studentId(), userRepository::getReferenceById))
+                    .score(submission.score())
+                    .passed(submission.passed())
+                    .answers(submission.answers())
+                    .takenAt(submission.takenAt())
+                    .build());
+        }
+        quizSubmissionRepository.saveAll(entities);
+    }
+}
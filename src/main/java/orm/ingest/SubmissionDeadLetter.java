@@ -0,0 +1,96 @@
+package orm.ingest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Файлы с попытками, которые писатель не смог записать до остановки: БД была недоступна дольше drainTimeout.
+ * При следующем старте они дописываются первыми, файл удаляется после записи.
+ * Файл появляется атомарно (запись во временный и переименование) — наполовину записанный не прочитается.
+ */
+final class SubmissionDeadLetter {
+
+    private static final String SUFFIX = ".bin";
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+
+    SubmissionDeadLetter(Path directory) {
+        this.directory = directory;
+    }
+
+    Path write(List<PendingSubmission> submissions) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "submissions-", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(submissions.size());
+            for (PendingSubmission submission : submissions) {
+                out.writeLong(submission.receiptId().getMostSignificantBits());
+                out.writeLong(submission.receiptId().getLeastSignificantBits());
+                out.writeLong(submission.quizId());
+                out.writeLong(submission.studentId());
+                out.writeInt(submission.score());
+                out.writeBoolean(submission.passed());
+                byte[] answers = submission.answers();
+                out.writeInt(answers == null ? -1 : answers.length);
+                if (answers != null) {
+                    out.write(answers);
+                }
+                out.writeUTF(submission.takenAt().toString());
+            }
+        }
+        Path file = directory.resolve("submissions-" + System.currentTimeMillis() + "-" + UUID.randomUUID() + SUFFIX);
+        return Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    List<Path> files() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    List<PendingSubmission> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported dead-letter format " + version + ": " + file);
+            }
+            int count = in.readInt();
+            List<PendingSubmission> submissions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UUID receiptId = new UUID(in.readLong(), in.readLong());
+                long quizId = in.readLong();
+                long studentId = in.readLong();
+                int score = in.readInt();
+                boolean passed = in.readBoolean();
+                int length = in.readInt();
+                byte[] answers = length < 0 ? null : new byte[length];
+                if (answers != null) {
+                    in.readFully(answers);
+                }
+                LocalDateTime takenAt = LocalDateTime.parse(in.readUTF());
+                submissions.add(new PendingSubmission(receiptId, quizId, studentId, score, passed, answers, takenAt));
+            }
+            return submissions;
+        }
+    }
+
+    void delete(Path file) throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
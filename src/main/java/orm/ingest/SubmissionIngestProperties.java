@@ -0,0 +1,60 @@
+package orm.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * queueCapacity — сколько принятых, но ещё не записанных попыток держим в памяти;
+ * batchSize — сколько попыток пишет одна транзакция;
+ * offerTimeout — сколько запрос ждёт места в полной очереди, прежде чем получить 503;
+ * pollInterval — как часто писатель проверяет очередь, когда она пуста;
+ * retryBackoff / maxRetryBackoff — первая и наибольшая пауза между повторами при временной ошибке БД;
+ * drainTimeout — сколько остановка ждёт недоступную БД, прежде чем сбросить остаток в deadLetterDirectory
+ * (меньше spring.lifecycle.timeout-per-shutdown-phase).
+ */
+@ConfigurationProperties(prefix = "orm.ingest.quiz-submissions")
+public record SubmissionIngestProperties(Integer queueCapacity,
+                                         Integer batchSize,
+                                         Duration offerTimeout,
+                                         Duration pollInterval,
+                                         Duration retryBackoff,
+                                         Duration maxRetryBackoff,
+                                         Duration drainTimeout,
+                                         Path deadLetterDirectory) {
+
+    public SubmissionIngestProperties {
+        if (queueCapacity == null) {
+            queueCapacity = 10_000;
+        }
+        if (batchSize == null) {
+            batchSize = 500;
+        }
+        if (offerTimeout == null) {
+            offerTimeout = Duration.ofMillis(50);
+        }
+        if (pollInterval == null) {
+            pollInterval = Duration.ofMillis(200);
+        }
+        if (retryBackoff == null) {
+            retryBackoff = Duration.ofMillis(100);
+        }
+        if (maxRetryBackoff == null) {
+            maxRetryBackoff = Duration.ofSeconds(5);
+        }
+        if (drainTimeout == null) {
+            drainTimeout = Duration.ofSeconds(20);
+        }
+        if (deadLetterDirectory == null) {
+            deadLetterDirectory = Path.of("data", "quiz-submissions-dead-letter");
+        }
+        if (queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Invalid ingest queue capacity/batch size: "
+                    + queueCapacity + "/" + batchSize);
+        }
+        if (retryBackoff.isNegative() || maxRetryBackoff.compareTo(retryBackoff) < 0) {
+            throw new IllegalArgumentException("Invalid ingest retry backoff: " + retryBackoff + "/" + maxRetryBackoff);
+        }
+    }
+}
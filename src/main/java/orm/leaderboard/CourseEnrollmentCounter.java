@@ -0,0 +1,12 @@
+package orm.leaderboard;
+
+/**
+ * Текущее значение счётчика записей курса вместе с тем, что нужно рейтингу.
+ */
+public record CourseEnrollmentCounter(
+        Long courseId,
+        Long categoryId,
+        String title,
+        Long enrollmentCount
+) {
+}
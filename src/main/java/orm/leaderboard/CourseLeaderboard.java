@@ -0,0 +1,242 @@
+package orm.leaderboard;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import orm.repository.CourseRepository;
+import orm.search.CourseChangedEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Рейтинг самых популярных курсов по категориям.
+ * <p>
+ * На категорию держится упорядоченный набор из size + slack курсов с наибольшим
+ * enrollmentCount; изменение счётчика — O(log K). Для курсов вне набора запоминается
+ * «потолок» — лучшая позиция, которую мог бы занять любой из них. Пока K-й курс набора
+ * не ниже потолка, первые K курсов точны; иначе категория перечитывается из БД
+ * (по индексу idx_course_category_popularity). Курсы без записей в рейтинг не попадают.
+ */
+@Component
+public class CourseLeaderboard {
+
+    private static final Comparator<Entry> RANKING =
+            Comparator.comparingLong(Entry::count).reversed()
+                    .thenComparing(Comparator.comparingLong(Entry::courseId).reversed());
+
+    private final CourseRepository courseRepository;
+    private final LeaderboardProperties properties;
+
+    private final ConcurrentHashMap<Long, Board> boards = new ConcurrentHashMap<>();
+    /**
+     * Категории курсов, известные рейтингу: из загрузок категорий и событий изменения курса.
+     */
+    private final ConcurrentHashMap<Long, Long> categories = new ConcurrentHashMap<>();
+
+    public CourseLeaderboard(CourseRepository courseRepository, LeaderboardProperties properties) {
+        this.courseRepository = courseRepository;
+        this.properties = properties;
+    }
+
+    private record Entry(long courseId, long count, String title) {
+    }
+
+    // --- чтение ---
+
+    /**
+     * Должен вызываться внутри транзакции: при необходимости перечитывает категорию из БД.
+     */
+    public List<PopularCourse> top(Long categoryId, int limit) {
+        int size = properties.size();
+        Board board = boards.computeIfAbsent(categoryId, id -> new Board());
+        synchronized (board) {
+            if (!board.isExact(size)) {
+                List<CourseEnrollmentCounter> rows =
+                        courseRepository.findMostEnrolled(categoryId, PageRequest.ofSize(properties.capacity()));
+                rows.forEach(row -> categories.put(row.courseId(), categoryId));
+                board.load(rows, properties.capacity());
+            }
+            List<PopularCourse> result = new ArrayList<>(Math.min(limit, size));
+            for (Entry entry : board.ranking) {
+                if (result.size() == Math.min(limit, size)) {
+                    break;
+                }
+                result.add(new PopularCourse(entry.courseId(), entry.title(), entry.count()));
+            }
+            return result;
+        }
+    }
+
+    // --- запись ---
+
+    /**
+     * Счётчик курса изменился на delta; вызывается после коммита. Приращения коммутативны —
+     * порядок, в котором их применяют параллельные транзакции, не важен, а запись не перечитывает счётчик.
+     * Курсу вне набора без его счётчика место не назначить: вместо этого поднимается потолок категории,
+     * и она перечитается при чтении, только если курс мог войти в первые size.
+     */
+    public void onCountDelta(Long courseId, long delta) {
+        Long categoryId = categories.get(courseId);
+        if (categoryId != null) {
+            Board board = boards.get(categoryId);
+            if (board != null) {
+                synchronized (board) {
+                    board.adjust(courseId, delta, properties.capacity());
+                }
+            }
+            return;
+        }
+        if (delta <= 0) {
+            // курс вне всех наборов и так ниже них
+            return;
+        }
+        // категория курса неизвестна — он может оказаться в любой загруженной
+        for (Board board : boards.values()) {
+            synchronized (board) {
+                board.untrackedGrew(courseId, delta);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.isDeleted()) {
+            categories.remove(event.courseId());
+        } else if (event.document().categoryId() != null) {
+            categories.put(event.courseId(), event.document().categoryId());
+        }
+        for (Board board : boards.values()) {
+            synchronized (board) {
+                if (event.isDeleted()) {
+                    board.remove(event.courseId());
+                } else {
+                    board.rename(event.courseId(), event.document().title());
+                }
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает все рейтинги; каждый перечитается из БД при следующем запросе.
+     */
+    public void invalidateAll() {
+        boards.clear();
+    }
+
+    private static final class Board {
+
+        final TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+        final Map<Long, Entry> byCourse = new HashMap<>();
+        boolean loaded;
+        /**
+         * Ни один курс вне набора не стоит выше этой позиции; null — таких курсов нет.
+         */
+        Entry ceiling;
+
+        void load(List<CourseEnrollmentCounter> rows, int capacity) {
+            ranking.clear();
+            byCourse.clear();
+            for (CourseEnrollmentCounter row : rows) {
+                Entry entry = new Entry(row.courseId(), row.enrollmentCount(), row.title());
+                ranking.add(entry);
+                byCourse.put(entry.courseId(), entry);
+            }
+            ceiling = rows.size() < capacity ? null : ranking.last();
+            loaded = true;
+        }
+
+        boolean isExact(int size) {
+            if (!loaded) {
+                return false;
+            }
+            if (ceiling == null) {
+                return true;
+            }
+            if (ranking.size() < size) {
+                return false;
+            }
+            Iterator<Entry> it = ranking.iterator();
+            Entry kth = it.next();
+            for (int i = 1; i < size; i++) {
+                kth = it.next();
+            }
+            return RANKING.compare(kth, ceiling) <= 0;
+        }
+
+        void update(Entry entry, int capacity) {
+            if (!loaded) {
+                return;
+            }
+            remove(entry.courseId());
+            if (entry.count() <= 0) {
+                return;
+            }
+            if (ranking.size() < capacity) {
+                add(entry);
+                return;
+            }
+            Entry last = ranking.last();
+            if (RANKING.compare(entry, last) < 0) {
+                add(entry);
+                remove(last.courseId());
+                raiseCeiling(last);
+            } else {
+                raiseCeiling(entry);
+            }
+        }
+
+        void adjust(long courseId, long delta, int capacity) {
+            Entry entry = byCourse.get(courseId);
+            if (entry != null) {
+                update(new Entry(courseId, entry.count() + delta, entry.title()), capacity);
+            } else if (delta > 0) {
+                untrackedGrew(courseId, delta);
+            }
+        }
+
+        /**
+         * Счётчик курса вне набора вырос на delta: до этого он был не выше потолка
+         * (или нулевым, если потолка нет).
+         */
+        void untrackedGrew(long courseId, long delta) {
+            if (!loaded) {
+                return;
+            }
+            long before = ceiling == null ? 0 : ceiling.count();
+            raiseCeiling(new Entry(courseId, before + delta, ""));
+        }
+
+        void rename(long courseId, String title) {
+            Entry entry = byCourse.get(courseId);
+            if (entry != null && !entry.title().equals(title)) {
+                remove(courseId);
+                add(new Entry(courseId, entry.count(), title));
+            }
+        }
+
+        void remove(long courseId) {
+            Entry previous = byCourse.remove(courseId);
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+        }
+
+        private void add(Entry entry) {
+            ranking.add(entry);
+            byCourse.put(entry.courseId(), entry);
+        }
+
+        private void raiseCeiling(Entry untracked) {
+            if (ceiling == null || RANKING.compare(untracked, ceiling) < 0) {
+                ceiling = untracked;
+            }
+        }
+    }
+}
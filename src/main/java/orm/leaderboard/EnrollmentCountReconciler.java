@@ -0,0 +1,28 @@
+package orm.leaderboard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодически сверяет courses.enrollment_count с таблицей записей и сбрасывает рейтинги.
+ * Расхождения возможны после ручных правок БД, а рейтинг живёт приращениями из сброса счётчиков
+ * и может учесть приращение дважды, если категория перечитывалась одновременно с коммитом.
+ * Сверку выполняет {@link EnrollmentCountWriter} под замком сброса. Счётчики мест в памяти сверка
+ * не трогает — они считаются сами.
+ */
+@Component
+@RequiredArgsConstructor
+public class EnrollmentCountReconciler {
+
+    private final CourseLeaderboard courseLeaderboard;
+    private final EnrollmentCountWriter enrollmentCountWriter;
+
+    @Scheduled(initialDelayString = "${orm.leaderboard.reconcile-initial-delay:PT1M}",
+            fixedDelayString = "${orm.leaderboard.reconcile-interval:PT30M}")
+    public void reconcile() {
+        if (enrollmentCountWriter.reconcile()) {
+            courseLeaderboard.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package orm.leaderboard;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.model.EnrollmentStatus;
+import orm.repository.CourseRepository;
+import orm.util.TransactionCallbacks;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отложенная запись courses.enrollment_count.
+ * <p>
+ * Запросы записи не трогают строку курса: они оставляют здесь приращение, которое после коммита
+ * становится ожидающим, а раз в count-flush-interval накопленные приращения пишутся одним UPDATE на курс.
+ * Так при открытии записи на популярный курс запросы не выстраиваются в очередь за блокировкой его строки.
+ * Рейтинг получает приращения после коммита сброса и поэтому не опережает БД.
+ * Места считает {@link orm.seats.CourseSeatLimiter}, отставание счётчика на интервал сброса им не мешает.
+ * <p>
+ * Сверка с таблицей записей идёт под тем же замком, что и сброс, и не трогает курсы с незавершёнными
+ * транзакциями записи: иначе приращение транзакции, уже учтённой пересчётом, записалось бы повторно.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EnrollmentCountWriter {
+
+    /**
+     * Сколько раз сверка повторяется, если за время пересчёта началась запись на ещё не исключённый курс.
+     */
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final CourseRepository courseRepository;
+    private final CourseLeaderboard courseLeaderboard;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Приращения зафиксированных транзакций, ещё не записанные в БД.
+     */
+    private final ConcurrentHashMap<Long, Long> pending = new ConcurrentHashMap<>();
+    /**
+     * Незавершённые транзакции записи по курсам: такие курсы сверка пропускает.
+     */
+    private final ConcurrentHashMap<Long, Integer> inflight = new ConcurrentHashMap<>();
+
+    /**
+     * Изменение числа записей курса в текущей транзакции; учитывается, только если она зафиксирована.
+     */
+    public void add(Long courseId, long delta) {
+        inflight.merge(courseId, 1, Integer::sum);
+        // afterCommit всех синхронизаций выполняется раньше afterCompletion: курс перестаёт быть
+        // занятым, когда его приращение уже ожидает записи
+        TransactionCallbacks.afterCommit(() -> pending.merge(courseId, delta, Long::sum));
+        TransactionCallbacks.afterCompletion(() -> inflight.computeIfPresent(courseId,
+                (id, transactions) -> transactions == 1 ? null : transactions - 1));
+    }
+
+    @Scheduled(initialDelayString = "${orm.enrollment.count-flush-interval:PT1S}",
+            fixedDelayString = "${orm.enrollment.count-flush-interval:PT1S}")
+    @PreDestroy
+    public synchronized void flush() {
+        // TreeMap: строки курсов блокируются в одном порядке
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (Long courseId : pending.keySet()) {
+            // remove атомарен относительно merge: приращение после него начнёт новую запись
+            Long delta = pending.remove(courseId);
+            if (delta != null && delta != 0) {
+                deltas.put(courseId, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            separateTransaction().executeWithoutResult(status ->
+                    deltas.forEach(courseRepository::adjustEnrollmentCount));
+        } catch (RuntimeException e) {
+            // вернём приращения — попробуем на следующем сбросе
+            deltas.forEach((courseId, delta) -> pending.merge(courseId, delta, Long::sum));
+            log.error("Failed to flush enrollment counts of {} courses", deltas.size(), e);
+            return;
+        }
+        deltas.forEach(courseLeaderboard::onCountDelta);
+    }
+
+    /**
+     * Пересчитывает enrollment_count по таблице записей. Сброс на это время остановлен, поэтому приращение
+     * курса, на который за время пересчёта началась запись, остаётся в pending или inflight — такая сверка
+     * откатывается и повторяется без этих курсов; они сверятся в следующий раз.
+     *
+     * @return true, если пересчёт зафиксирован
+     */
+    public synchronized boolean reconcile() {
+        flush();
+        Set<Long> excluded = new HashSet<>(inflight.keySet());
+        for (int attempt = 0; attempt < RECONCILE_ATTEMPTS; attempt++) {
+            Set<Long> raced = separateTransaction().execute(status -> {
+                courseRepository.reconcileEnrollmentCounts(EnrollmentStatus.CANCELLED, excluded);
+                Set<Long> active = new HashSet<>(pending.keySet());
+                active.addAll(inflight.keySet());
+                active.removeAll(excluded);
+                if (!active.isEmpty()) {
+                    status.setRollbackOnly();
+                }
+                return active;
+            });
+            if (raced.isEmpty()) {
+                return true;
+            }
+            excluded.addAll(raced);
+        }
+        log.warn("Enrollment counts were not reconciled: enrollments kept changing during {} attempts",
+                RECONCILE_ATTEMPTS);
+        return false;
+    }
+
+    /**
+     * Своя транзакция: запись счётчиков не должна зависеть от исхода транзакции вызывающего.
+     */
+    private TransactionTemplate separateTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction;
+    }
+}
@@ -0,0 +1,28 @@
+package orm.leaderboard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * size — сколько курсов отдаёт рейтинг категории;
+ * slack — сколько курсов сверх size держим в памяти, чтобы уменьшение счётчика
+ * у лидера не требовало сразу перечитывать категорию из БД.
+ */
+@ConfigurationProperties(prefix = "orm.leaderboard")
+public record LeaderboardProperties(Integer size, Integer slack) {
+
+    public LeaderboardProperties {
+        if (size == null) {
+            size = 10;
+        }
+        if (slack == null) {
+            slack = 10;
+        }
+        if (size < 1 || slack < 0) {
+            throw new IllegalArgumentException("Invalid leaderboard size/slack: " + size + "/" + slack);
+        }
+    }
+
+    public int capacity() {
+        return size + slack;
+    }
+}
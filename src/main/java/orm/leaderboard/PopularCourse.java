@@ -0,0 +1,8 @@
+package orm.leaderboard;
+
+public record PopularCourse(
+        Long courseId,
+        String title,
+        long enrollmentCount
+) {
+}
@@ -0,0 +1,258 @@
+package orm.live;
+
+import orm.cache.QuizAnswerKey;
+import orm.dto.LiveSessionView;
+import orm.model.LiveSessionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Живая сессия теста: преподаватель открывает вопросы по очереди (по возрастанию id),
+ * участники отвечают на открытый вопрос.
+ * <p>
+ * Ответ не берёт блокировок: выбор участника фиксируется CAS в его ячейке вопроса
+ * (один ответ на вопрос), счётчики вариантов — {@link LongAdder}, чтобы тысячи одновременных
+ * ответов на один вариант не бились за одну ячейку. Ключ ответов фиксируется при создании
+ * сессии — им же оцениваются итоговые попытки.
+ */
+public final class LiveQuizSession {
+
+    private static final int ENDED = Integer.MIN_VALUE;
+
+    private final UUID id;
+    private final Long quizId;
+    private final QuizAnswerKey answerKey;
+    private final LocalDateTime startedAt;
+
+    /**
+     * Счётчики вариантов всех вопросов подряд; варианты вопроса q — с optionStart[q].
+     */
+    private final int[] optionStart;
+    private final LongAdder[] picks;
+    private final LongAdder[] answered;
+
+    private final Map<Long, AtomicReferenceArray<List<Long>>> participants = new ConcurrentHashMap<>();
+
+    /**
+     * Индекс открытого вопроса; -1 — вопросы ещё не открывались, ENDED — сессия завершена.
+     */
+    private final AtomicInteger currentQuestion = new AtomicInteger(-1);
+    private volatile int lastQuestion = -1;
+    private final AtomicBoolean changed = new AtomicBoolean();
+    /**
+     * System.nanoTime() последнего изменения, замеченного рассылкой. Горячий путь ответов его
+     * не пишет — хватает флага changed, который рассылка и так проверяет на каждом тике.
+     */
+    private volatile long lastActivity = System.nanoTime();
+
+    public LiveQuizSession(Long quizId, QuizAnswerKey answerKey) {
+        this.id = UUID.randomUUID();
+        this.quizId = quizId;
+        this.answerKey = answerKey;
+        this.startedAt = LocalDateTime.now();
+
+        int questions = answerKey.questionCount();
+        this.optionStart = new int[questions + 1];
+        for (int q = 0; q < questions; q++) {
+            optionStart[q + 1] = optionStart[q] + answerKey.optionIds(q).length;
+        }
+        this.picks = adders(optionStart[questions]);
+        this.answered = adders(questions);
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public QuizAnswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public boolean isEnded() {
+        return currentQuestion.get() == ENDED;
+    }
+
+    public int participantCount() {
+        return participants.size();
+    }
+
+    /**
+     * @return true, если участник присоединился впервые
+     */
+    public boolean join(Long studentId, int maxParticipants) {
+        if (isEnded()) {
+            throw new IllegalStateException("Live session " + id + " has ended");
+        }
+        if (participants.containsKey(studentId)) {
+            return false;
+        }
+        if (participants.size() >= maxParticipants) {
+            throw new IllegalStateException("Live session " + id + " is full");
+        }
+        boolean joined = participants.putIfAbsent(studentId,
+                new AtomicReferenceArray<>(answerKey.questionCount())) == null;
+        if (joined) {
+            changed.set(true);
+        }
+        return joined;
+    }
+
+    /**
+     * Ответ на открытый вопрос. questionId передаёт клиент — ответ, отправленный до перехода
+     * к следующему вопросу и дошедший после, отклоняется, а не засчитывается чужому вопросу.
+     */
+    public void answer(Long studentId, Long questionId, List<Long> optionIds) {
+        int q = currentQuestion.get();
+        if (q == ENDED) {
+            throw new IllegalStateException("Live session " + id + " has ended");
+        }
+        if (q < 0 || answerKey.questionIndex(questionId) != q) {
+            throw new IllegalStateException("Question " + questionId + " is not open in live session " + id);
+        }
+        AtomicReferenceArray<List<Long>> selections = participants.get(studentId);
+        if (selections == null) {
+            throw new IllegalArgumentException("Student " + studentId + " has not joined live session " + id);
+        }
+
+        List<Long> selection = List.copyOf(new LinkedHashSet<>(optionIds));
+        int[] positions = new int[selection.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = answerKey.optionPosition(q, selection.get(i));
+            if (positions[i] < 0) {
+                throw new IllegalArgumentException("Option " + selection.get(i) + " not found in question " + questionId);
+            }
+        }
+        if (!selections.compareAndSet(q, null, selection)) {
+            throw new IllegalStateException("Student " + studentId + " has already answered question " + questionId);
+        }
+
+        answered[q].increment();
+        for (int position : positions) {
+            picks[optionStart[q] + position].increment();
+        }
+        changed.set(true);
+    }
+
+    /**
+     * Открывает следующий вопрос; текущий закрывается.
+     *
+     * @return индекс открытого вопроса
+     */
+    public int nextQuestion() {
+        while (true) {
+            int q = currentQuestion.get();
+            if (q == ENDED) {
+                throw new IllegalStateException("Live session " + id + " has ended");
+            }
+            if (q + 1 >= answerKey.questionCount()) {
+                throw new IllegalStateException("No more questions in live session " + id);
+            }
+            if (currentQuestion.compareAndSet(q, q + 1)) {
+                lastQuestion = q + 1;
+                changed.set(true);
+                return q + 1;
+            }
+        }
+    }
+
+    /**
+     * Завершает сессию; ответы после этого не принимаются.
+     * Ответ, уже прошедший проверку в момент завершения, может не попасть в итоговые попытки.
+     *
+     * @return false, если сессия уже была завершена
+     */
+    public boolean end() {
+        int q = currentQuestion.get();
+        while (q != ENDED) {
+            if (currentQuestion.compareAndSet(q, ENDED)) {
+                changed.set(true);
+                return true;
+            }
+            q = currentQuestion.get();
+        }
+        return false;
+    }
+
+    /**
+     * Сбрасывает признак изменений с прошлой рассылки; было изменение — сессия считается активной.
+     */
+    public boolean takeChanged() {
+        if (!changed.getAndSet(false)) {
+            return false;
+        }
+        lastActivity = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Сколько наносекунд до now сессия не менялась (по последней рассылке).
+     */
+    public long idleNanos(long now) {
+        return now - lastActivity;
+    }
+
+    /**
+     * Ответы участников в формате takeQuiz: questionId -> выбранные варианты; вопросы без ответа не попадают.
+     */
+    public Map<Long, Map<Long, List<Long>>> answersByStudent() {
+        Map<Long, Map<Long, List<Long>>> result = new HashMap<>();
+        participants.forEach((studentId, selections) -> {
+            Map<Long, List<Long>> answers = new HashMap<>();
+            for (int q = 0; q < selections.length(); q++) {
+                List<Long> selection = selections.get(q);
+                if (selection != null) {
+                    answers.put(answerKey.questionId(q), selection);
+                }
+            }
+            result.put(studentId, answers);
+        });
+        return result;
+    }
+
+    public LiveSessionView view() {
+        int current = currentQuestion.get();
+        LiveSessionStatus status = current == ENDED ? LiveSessionStatus.ENDED
+                : current < 0 ? LiveSessionStatus.LOBBY : LiveSessionStatus.QUESTION_OPEN;
+        // после завершения показываем итог последнего открытого вопроса
+        int q = current == ENDED ? lastQuestion : current;
+        if (q < 0) {
+            return new LiveSessionView(id, quizId, status, answerKey.questionCount(),
+                    null, null, participants.size(), 0, List.of());
+        }
+
+        long[] optionIds = answerKey.optionIds(q);
+        List<LiveSessionView.OptionTally> options = new ArrayList<>(optionIds.length);
+        for (int i = 0; i < optionIds.length; i++) {
+            options.add(new LiveSessionView.OptionTally(optionIds[i], picks[optionStart[q] + i].sum()));
+        }
+        return new LiveSessionView(id, quizId, status, answerKey.questionCount(),
+                q, answerKey.questionId(q), participants.size(), answered[q].sum(), options);
+    }
+}
@@ -0,0 +1,46 @@
+package orm.live;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * broadcastInterval — не чаще скольких раз рассылается состояние сессии при потоке ответов;
+ * maxSessions и maxParticipants — ограничение памяти на узел; subscriberTimeout — время жизни SSE-подписки;
+ * writeBatchSize — сколько итоговых попыток пишется одной транзакцией при завершении сессии;
+ * idleTimeout — сессия без изменений дольше этого (ведущий ушёл, не завершив её) убирается из памяти.
+ */
+@ConfigurationProperties(prefix = "orm.live")
+public record LiveSessionProperties(Duration broadcastInterval,
+                                    Integer maxSessions,
+                                    Integer maxParticipants,
+                                    Duration subscriberTimeout,
+                                    Integer writeBatchSize,
+                                    Duration idleTimeout) {
+
+    public LiveSessionProperties {
+        if (broadcastInterval == null) {
+            broadcastInterval = Duration.ofMillis(250);
+        }
+        if (maxSessions == null) {
+            maxSessions = 200;
+        }
+        if (maxParticipants == null) {
+            maxParticipants = 5000;
+        }
+        if (subscriberTimeout == null) {
+            subscriberTimeout = Duration.ofHours(3);
+        }
+        if (writeBatchSize == null) {
+            writeBatchSize = 500;
+        }
+        if (idleTimeout == null) {
+            idleTimeout = Duration.ofHours(1);
+        }
+        if (broadcastInterval.isZero() || broadcastInterval.isNegative() || maxSessions < 1
+                || maxParticipants < 1 || subscriberTimeout.isNegative() || writeBatchSize < 1
+                || idleTimeout.isZero() || idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("Invalid live session settings");
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package orm.live;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import orm.dto.LiveSessionView;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Реестр живых сессий узла и рассылка их состояния подписчикам по SSE.
+ * <p>
+ * Поток ответов не вызывает рассылку: раз в broadcastInterval изменившиеся сессии рассылаются
+ * одним снимком, сколько бы ответов ни пришло за интервал. Переход к вопросу и завершение
+ * рассылаются сразу ({@link #publishNow}).
+ * <p>
+ * Каждому подписчику пишет свой виртуальный поток, и только последний снимок: если клиент
+ * не успел принять предыдущий, промежуточные снимки пропускаются — медленный клиент
+ * не задерживает остальных и не копит очередь.
+ * <p>
+ * Тот же тик убирает сессии, которые не менялись дольше idleTimeout: брошенная ведущим
+ * сессия иначе держала бы место в maxSessions и память участников до рестарта.
+ */
+@Slf4j
+@Component
+public class LiveSessions implements SmartLifecycle {
+
+    private final LiveSessionProperties properties;
+
+    private final Map<UUID, LiveQuizSession> sessions = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService senders;
+    private volatile boolean running;
+
+    public LiveSessions(LiveSessionProperties properties) {
+        this.properties = properties;
+    }
+
+    // --- реестр ---
+
+    public void register(LiveQuizSession session) {
+        if (sessions.size() >= properties.maxSessions()) {
+            throw new IllegalStateException("Too many live sessions: " + sessions.size());
+        }
+        sessions.put(session.getId(), session);
+    }
+
+    public LiveQuizSession get(UUID sessionId) {
+        LiveQuizSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new IllegalArgumentException("Live session not found: " + sessionId);
+        }
+        return session;
+    }
+
+    /**
+     * Убирает сессию; подписчики получают последний снимок, после чего поток закрывается.
+     */
+    public void remove(UUID sessionId) {
+        sessions.remove(sessionId);
+        Set<Subscriber> removed = subscribers.remove(sessionId);
+        if (removed != null) {
+            removed.forEach(Subscriber::close);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // --- рассылка ---
+
+    public SseEmitter subscribe(UUID sessionId) {
+        LiveQuizSession session = get(sessionId);
+        SseEmitter emitter = new SseEmitter(properties.subscriberTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(sessionId, emitter);
+        emitter.onCompletion(subscriber::detach);
+        emitter.onTimeout(subscriber::detach);
+        emitter.onError(e -> subscriber.detach());
+
+        subscribers.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.offer(session.view());
+        if (!sessions.containsKey(sessionId)) {
+            // сессию убрали, пока подписывались
+            subscriber.detach();
+            subscriber.close();
+        }
+        return emitter;
+    }
+
+    public void publishNow(LiveQuizSession session) {
+        session.takeChanged();
+        publish(session);
+    }
+
+    private void publish(LiveQuizSession session) {
+        Set<Subscriber> targets = subscribers.get(session.getId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        LiveSessionView view = session.view();
+        targets.forEach(subscriber -> subscriber.offer(view));
+    }
+
+    private void tick() {
+        for (LiveQuizSession session : sessions.values()) {
+            try {
+                if (session.takeChanged()) {
+                    publish(session);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to broadcast live session {}", session.getId(), e);
+            }
+        }
+        sweepIdle(System.nanoTime());
+    }
+
+    /**
+     * Убирает сессии без изменений дольше idleTimeout; ответы незавершённой сессии при этом теряются.
+     */
+    void sweepIdle(long now) {
+        long idleTimeout = properties.idleTimeout().toNanos();
+        for (LiveQuizSession session : sessions.values()) {
+            if (session.idleNanos(now) > idleTimeout) {
+                log.warn("Removing live session {} of quiz {}: idle for more than {}",
+                        session.getId(), session.getQuizId(), properties.idleTimeout());
+                remove(session.getId());
+            }
+        }
+    }
+
+    private final class Subscriber {
+
+        private final UUID sessionId;
+        private final SseEmitter emitter;
+        private final AtomicReference<LiveSessionView> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean closing;
+
+        Subscriber(UUID sessionId, SseEmitter emitter) {
+            this.sessionId = sessionId;
+            this.emitter = emitter;
+        }
+
+        void offer(LiveSessionView view) {
+            pending.set(view);
+            wake();
+        }
+
+        void close() {
+            closing = true;
+            wake();
+        }
+
+        void detach() {
+            Set<Subscriber> targets = subscribers.get(sessionId);
+            if (targets != null) {
+                targets.remove(this);
+            }
+        }
+
+        private void wake() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                LiveSessionView view;
+                while ((view = pending.getAndSet(null)) != null) {
+                    try {
+                        emitter.send(SseEmitter.event().name("state").data(view, MediaType.APPLICATION_JSON));
+                    } catch (IOException | IllegalStateException e) {
+                        // клиент отключился — поток больше не будим
+                        detach();
+                        return;
+                    }
+                }
+                if (closing) {
+                    emitter.complete();
+                    return;
+                }
+                sending.set(false);
+                // снимок мог прийти между последней проверкой и сбросом флага
+            } while ((pending.get() != null || closing) && sending.compareAndSet(false, true));
+        }
+    }
+
+    // --- жизненный цикл ---
+
+    @Override
+    public void start() {
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "live-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.broadcastInterval().toNanos();
+        ticker.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.NANOSECONDS);
+        running = true;
+    }
+
+    /**
+     * Останавливается раньше веб-сервера: открытые SSE-потоки закрываются и не держат его плавную остановку.
+     * Незавершённые сессии теряются — итоговые попытки пишутся только при завершении сессии.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        ticker.shutdownNow();
+        subscribers.values().forEach(targets -> targets.forEach(Subscriber::close));
+        subscribers.clear();
+        senders.shutdown();
+        try {
+            senders.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!sessions.isEmpty()) {
+            log.warn("Stopping with {} live sessions not ended", sessions.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,246 @@
+package orm.membership;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.repository.EnrollmentRepository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Индекс членства «студент записан на курс» для проверок доступа: для каждого студента —
+ * отсортированный массив id курсов. Запись есть в индексе, если есть строка enrollments в любом
+ * статусе — так же, как проверял existsByStudent_IdAndCourse_Id.
+ * <p>
+ * Массив студента неизменяем и заменяется целиком под блокировкой ключа карты, поэтому чтение —
+ * двоичный поиск без блокировок. Сервисы сообщают о записи и удалении после коммита.
+ * Пока индекс строится при старте, проверки уходят в БД, а изменения дополнительно
+ * пишутся в журнал и переигрываются поверх загруженного — загрузка не затирает их старым состоянием.
+ * Периодическая сверка с БД исправляет расхождения (ручные правки БД, каскадные удаления курсов).
+ */
+@Slf4j
+@Component
+public class EnrollmentMembershipIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final int pageSize;
+
+    private final Map<Long, long[]> coursesByStudent = new ConcurrentHashMap<>();
+    private final LongAdder memberships = new LongAdder();
+    private volatile boolean ready;
+
+    /**
+     * Последнее изменение каждой пары (студент, курс) за время построения; null — построение не идёт.
+     */
+    private volatile Map<MembershipKey, Boolean> journal;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder repaired = new LongAdder();
+
+    public EnrollmentMembershipIndex(EnrollmentRepository enrollmentRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${orm.membership.page-size:10000}") int pageSize) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.transactionManager = transactionManager;
+        this.pageSize = pageSize;
+    }
+
+    private record MembershipKey(long studentId, long courseId) {
+    }
+
+    // --- чтение ---
+
+    public boolean isEnrolled(Long studentId, Long courseId) {
+        if (!ready) {
+            fallbacks.increment();
+            return enrollmentRepository.existsByStudent_IdAndCourse_Id(studentId, courseId);
+        }
+        hits.increment();
+        return contains(studentId, courseId);
+    }
+
+    public MembershipStats stats() {
+        return new MembershipStats(ready, coursesByStudent.size(), memberships.sum(),
+                hits.sum(), fallbacks.sum(), repaired.sum());
+    }
+
+    private boolean contains(long studentId, long courseId) {
+        long[] courses = coursesByStudent.get(studentId);
+        return courses != null && Arrays.binarySearch(courses, courseId) >= 0;
+    }
+
+    // --- изменения (после коммита) ---
+
+    public void added(Long studentId, Long courseId) {
+        apply(studentId, courseId, true);
+    }
+
+    public void removed(Long studentId, Long courseId) {
+        apply(studentId, courseId, false);
+    }
+
+    private void apply(long studentId, long courseId, boolean present) {
+        coursesByStudent.compute(studentId, (id, courses) -> {
+            Map<MembershipKey, Boolean> changes = journal;
+            if (changes != null) {
+                changes.put(new MembershipKey(studentId, courseId), present);
+            }
+            return present ? with(courses, courseId) : without(courses, courseId);
+        });
+    }
+
+    /**
+     * @return новый массив с courseId или тот же, если курс уже есть
+     */
+    private long[] with(long[] courses, long courseId) {
+        long[] current = courses != null ? courses : NONE;
+        int position = Arrays.binarySearch(current, courseId);
+        if (position >= 0) {
+            return courses;
+        }
+        int insertAt = -position - 1;
+        long[] result = new long[current.length + 1];
+        System.arraycopy(current, 0, result, 0, insertAt);
+        result[insertAt] = courseId;
+        System.arraycopy(current, insertAt, result, insertAt + 1, current.length - insertAt);
+        memberships.increment();
+        return result;
+    }
+
+    /**
+     * @return новый массив без courseId; null — у студента не осталось курсов (ключ удаляется)
+     */
+    private long[] without(long[] courses, long courseId) {
+        if (courses == null) {
+            return null;
+        }
+        int position = Arrays.binarySearch(courses, courseId);
+        if (position < 0) {
+            return courses;
+        }
+        memberships.decrement();
+        if (courses.length == 1) {
+            return null;
+        }
+        long[] result = new long[courses.length - 1];
+        System.arraycopy(courses, 0, result, 0, position);
+        System.arraycopy(courses, position + 1, result, position, courses.length - position - 1);
+        return result;
+    }
+
+    // --- построение и сверка ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        ready = false;
+        Map<MembershipKey, Boolean> changes = new ConcurrentHashMap<>();
+        journal = changes;
+        try {
+            coursesByStudent.clear();
+            memberships.reset();
+            // загруженное в журнал не пишется: журнал — только изменения, пришедшие после коммитов
+            load((studentId, courseId) -> coursesByStudent.compute(studentId, (id, courses) -> with(courses, courseId)));
+
+            // изменения за время загрузки новее прочитанного — переигрываем их последнее состояние
+            changes.keySet().forEach(key -> coursesByStudent.compute(key.studentId(), (id, courses) ->
+                    changes.get(key) ? with(courses, key.courseId()) : without(courses, key.courseId())));
+            ready = true;
+            log.info("Enrollment membership index built: {} students, {} enrollments",
+                    coursesByStudent.size(), memberships.sum());
+        } finally {
+            journal = null;
+        }
+    }
+
+    /**
+     * Сверка с БД: расхождения перепроверяются точечным запросом (пара могла измениться во время сверки)
+     * и только потом исправляются.
+     *
+     * @return число исправленных расхождений
+     */
+    @Scheduled(initialDelayString = "${orm.membership.verify-initial-delay:PT10M}",
+            fixedDelayString = "${orm.membership.verify-interval:PT6H}")
+    public int verify() {
+        if (!ready) {
+            return 0;
+        }
+        Map<Long, long[]> fresh = new HashMap<>();
+        load((studentId, courseId) -> fresh.merge(studentId, new long[]{courseId}, (courses, single) -> {
+            long[] merged = Arrays.copyOf(courses, courses.length + 1);
+            merged[courses.length] = single[0];
+            return merged;
+        }));
+        fresh.values().forEach(Arrays::sort);
+
+        int fixed = 0;
+        for (Map.Entry<Long, long[]> entry : fresh.entrySet()) {
+            for (long courseId : entry.getValue()) {
+                if (!contains(entry.getKey(), courseId)) {
+                    fixed += repair(entry.getKey(), courseId);
+                }
+            }
+        }
+        for (Map.Entry<Long, long[]> entry : coursesByStudent.entrySet()) {
+            long[] expected = fresh.getOrDefault(entry.getKey(), NONE);
+            for (long courseId : entry.getValue()) {
+                if (Arrays.binarySearch(expected, courseId) < 0) {
+                    fixed += repair(entry.getKey(), courseId);
+                }
+            }
+        }
+        if (fixed > 0) {
+            log.warn("Enrollment membership index repaired {} entries", fixed);
+        }
+        return fixed;
+    }
+
+    private int repair(long studentId, long courseId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        boolean exists = Boolean.TRUE.equals(transaction.execute(status ->
+                enrollmentRepository.existsByStudent_IdAndCourse_Id(studentId, courseId)));
+        if (exists == contains(studentId, courseId)) {
+            return 0;
+        }
+        apply(studentId, courseId, exists);
+        repaired.increment();
+        return 1;
+    }
+
+    /**
+     * Все пары (студент, курс) постранично по id записи — без одной огромной выборки.
+     */
+    private void load(BiConsumer<Long, Long> sink) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<MembershipRow> page = transaction.execute(status ->
+                    enrollmentRepository.findMembershipRowsAfter(from, PageRequest.of(0, pageSize)));
+            for (MembershipRow row : page) {
+                sink.accept(row.studentId(), row.courseId());
+            }
+            if (page.size() < pageSize) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).enrollmentId();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package orm.membership;
+
+public record MembershipRow(Long enrollmentId, Long studentId, Long courseId) {
+}
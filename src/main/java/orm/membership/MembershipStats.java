@@ -0,0 +1,15 @@
+package orm.membership;
+
+/**
+ * hits — ответы из индекса; fallbacks — проверки, ушедшие в БД, пока индекс не построен;
+ * repaired — расхождений с БД, исправленных сверками с момента старта.
+ */
+public record MembershipStats(
+        boolean ready,
+        int students,
+        long memberships,
+        long hits,
+        long fallbacks,
+        long repaired
+) {
+}
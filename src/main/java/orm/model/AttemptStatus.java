@@ -0,0 +1,7 @@
+package orm.model;
+
+public enum AttemptStatus {
+    IN_PROGRESS,
+    SUBMITTED,
+    EXPIRED
+}
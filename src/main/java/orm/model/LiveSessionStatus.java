@@ -0,0 +1,7 @@
+package orm.model;
+
+public enum LiveSessionStatus {
+    LOBBY,
+    QUESTION_OPEN,
+    ENDED
+}
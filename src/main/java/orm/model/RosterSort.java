@@ -0,0 +1,9 @@
+package orm.model;
+
+/**
+ * Порядок списка студентов курса; при равных значениях порядок решает id записи.
+ */
+public enum RosterSort {
+    NAME,
+    ENROLLED_AT
+}
@@ -1,12 +1,30 @@
 package orm.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import orm.dto.AssignmentView;
 import orm.entity.Assignment;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
 
     List<Assignment> findByLesson_Id(Long lessonId);
-}
 
+    @Query("""
+            select new orm.dto.AssignmentView(a.id, a.lesson.id, a.title, a.description, a.dueDate, a.maxScore)
+            from Assignment a
+            where a.id = :assignmentId
+            """)
+    Optional<AssignmentView> findViewById(@Param("assignmentId") Long assignmentId);
+
+    @Query("""
+            select new orm.dto.AssignmentView(a.id, a.lesson.id, a.title, a.description, a.dueDate, a.maxScore)
+            from Assignment a
+            where a.lesson.id = :lessonId
+            order by a.id
+            """)
+    List<AssignmentView> findViewsByLessonId(@Param("lessonId") Long lessonId);
+}
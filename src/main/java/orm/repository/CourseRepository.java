@@ -1,14 +1,175 @@
 package orm.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import orm.dto.CourseView;
 import orm.entity.Course;
+import orm.leaderboard.CourseEnrollmentCounter;
+import orm.model.EnrollmentStatus;
+import orm.search.CourseFacetRow;
+import orm.search.CourseSearchRow;
+import orm.search.CourseTagRow;
+import orm.seats.CourseSeatRow;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CourseRepository extends JpaRepository<Course, Long> {
 
     List<Course> findByCategory_Id(Long categoryId);
 
     List<Course> findByTeacher_Id(Long teacherId);
-}
 
+    /**
+     * Первый шаг загрузки структуры курса: курс, преподаватель, категория,
+     * модули (по orderIndex) и тест каждого модуля — одним запросом.
+     * Уроки догружаются отдельным запросом {@link ModuleRepository#fetchLessonsByCourseId(Long)},
+     * т.к. два List-а (bag) нельзя join fetch-ить одновременно.
+     */
+    @Query("""
+            select c from Course c
+            left join fetch c.teacher
+            left join fetch c.category
+            left join fetch c.modules m
+            left join fetch m.quiz
+            where c.id = :courseId
+            order by m.orderIndex, m.id
+            """)
+    Optional<Course> findWithModulesById(@Param("courseId") Long courseId);
+
+    // --- keyset-пагинация списков: порядок (title, id), страница ограничивается через Pageable ---
+
+    @Query("""
+            select new orm.dto.CourseView(c.id, c.title, c.status, c.duration,
+                                          c.startDate, c.endDate, c.teacher.id, c.category.id)
+            from Course c
+            where c.teacher.id = :teacherId
+            order by c.title, c.id
+            """)
+    List<CourseView> findPageByTeacher(@Param("teacherId") Long teacherId, Pageable pageable);
+
+    @Query("""
+            select new orm.dto.CourseView(c.id, c.title, c.status, c.duration,
+                                          c.startDate, c.endDate, c.teacher.id, c.category.id)
+            from Course c
+            where c.teacher.id = :teacherId
+              and (c.title > :title or (c.title = :title and c.id > :id))
+            order by c.title, c.id
+            """)
+    List<CourseView> findPageByTeacherAfter(@Param("teacherId") Long teacherId,
+                                            @Param("title") String title,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
+    @Query("""
+            select new orm.dto.CourseView(c.id, c.title, c.status, c.duration,
+                                          c.startDate, c.endDate, c.teacher.id, c.category.id)
+            from Course c
+            where c.category.id = :categoryId
+            order by c.title, c.id
+            """)
+    List<CourseView> findPageByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query("""
+            select new orm.dto.CourseView(c.id, c.title, c.status, c.duration,
+                                          c.startDate, c.endDate, c.teacher.id, c.category.id)
+            from Course c
+            where c.category.id = :categoryId
+              and (c.title > :title or (c.title = :title and c.id > :id))
+            order by c.title, c.id
+            """)
+    List<CourseView> findPageByCategoryAfter(@Param("categoryId") Long categoryId,
+                                             @Param("title") String title,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    // --- первичная загрузка поискового индекса ---
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("""
+            select new orm.search.CourseSearchRow(c.id, c.title, c.description, c.status, cat.id, cat.name)
+            from Course c
+            left join c.category cat
+            order by c.id
+            """)
+    Stream<CourseSearchRow> streamSearchRows();
+
+    @Query("""
+            select new orm.search.CourseTagRow(c.id, t.id, t.name)
+            from Course c
+            join c.tags t
+            """)
+    List<CourseTagRow> findSearchTagRows();
+
+    // --- фасетный каталог ---
+
+    @Query("""
+            select new orm.search.CourseFacetRow(c.id, c.status, cat.id, cat.name)
+            from Course c
+            left join c.category cat
+            order by c.id
+            """)
+    List<CourseFacetRow> findFacetRows();
+
+    @Query("""
+            select new orm.dto.CourseView(c.id, c.title, c.status, c.duration,
+                                          c.startDate, c.endDate, c.teacher.id, c.category.id)
+            from Course c
+            where c.id in :ids
+            """)
+    List<CourseView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // --- счётчик записей и рейтинг популярности ---
+
+    @Modifying
+    @Query("update Course c set c.enrollmentCount = c.enrollmentCount + :delta where c.id = :courseId")
+    int adjustEnrollmentCount(@Param("courseId") Long courseId, @Param("delta") long delta);
+
+    /**
+     * Ёмкость и число записей по таблице enrollments, а не по courses.enrollment_count:
+     * счётчик в строке курса дописывается с задержкой.
+     */
+    @Query("""
+            select new orm.seats.CourseSeatRow(c.capacity,
+                   (select count(e) from Enrollment e where e.course = c and e.status <> :cancelled))
+            from Course c
+            where c.id = :courseId
+            """)
+    Optional<CourseSeatRow> findSeatRow(@Param("courseId") Long courseId,
+                                        @Param("cancelled") EnrollmentStatus cancelled);
+
+    /**
+     * Порядок совпадает с индексом idx_course_category_popularity при обратном проходе.
+     */
+    @Query("""
+            select new orm.leaderboard.CourseEnrollmentCounter(c.id, c.category.id, c.title, c.enrollmentCount)
+            from Course c
+            where c.category.id = :categoryId
+              and c.enrollmentCount > 0
+            order by c.enrollmentCount desc, c.id desc
+            """)
+    List<CourseEnrollmentCounter> findMostEnrolled(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    /**
+     * Сверка счётчиков с таблицей записей; возвращает число исправленных курсов.
+     * Курсы из excluded (может быть пустым) не трогаются.
+     */
+    @Modifying
+    @Query("""
+            update Course c
+            set c.enrollmentCount = (select count(e) from Enrollment e
+                                     where e.course = c and e.status <> :cancelled)
+            where c.enrollmentCount <> (select count(e) from Enrollment e
+                                        where e.course = c and e.status <> :cancelled)
+              and c.id not in :excluded
+            """)
+    int reconcileEnrollmentCounts(@Param("cancelled") EnrollmentStatus cancelled,
+                                  @Param("excluded") Collection<Long> excluded);
+}
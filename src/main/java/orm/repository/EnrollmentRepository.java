@@ -1,8 +1,17 @@
 package orm.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import orm.dto.CourseView;
+import orm.dto.RosterEntry;
 import orm.entity.Enrollment;
+import orm.membership.MembershipRow;
+import orm.model.EnrollmentStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +24,89 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     Optional<Enrollment> findByStudent_IdAndCourse_Id(Long studentId, Long courseId);
 
     boolean existsByStudent_IdAndCourse_Id(Long studentId, Long courseId);
+
+    /**
+     * Кто из studentIds уже записан на курс — в любом статусе (уникальность от статуса не зависит).
+     */
+    @Query("""
+            select e.student.id
+            from Enrollment e
+            where e.course.id = :courseId and e.student.id in :studentIds
+            """)
+    List<Long> findEnrolledStudentIds(@Param("courseId") Long courseId,
+                                      @Param("studentIds") Collection<Long> studentIds);
+
+    @Query("""
+            select new orm.membership.MembershipRow(e.id, e.student.id, e.course.id)
+            from Enrollment e
+            where e.id > :afterId
+            order by e.id
+            """)
+    List<MembershipRow> findMembershipRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+            select new orm.dto.CourseView(c.id, c.title, c.status, c.duration,
+                                          c.startDate, c.endDate, c.teacher.id, c.category.id)
+            from Enrollment e
+            join e.course c
+            where e.student.id = :studentId
+            order by c.title, c.id
+            """)
+    List<CourseView> findCourseViewsByStudentId(@Param("studentId") Long studentId);
+
+    // --- keyset-пагинация списка студентов курса: статус необязателен, страница ограничивается через Pageable ---
+
+    @Query("""
+            select new orm.dto.RosterEntry(e.id, u.id, u.name, u.email, e.status, e.enrolledAt)
+            from Enrollment e
+            join e.student u
+            where e.course.id = :courseId
+              and (:status is null or e.status = :status)
+            order by u.name, e.id
+            """)
+    List<RosterEntry> findRosterByName(@Param("courseId") Long courseId,
+                                       @Param("status") EnrollmentStatus status,
+                                       Pageable pageable);
+
+    @Query("""
+            select new orm.dto.RosterEntry(e.id, u.id, u.name, u.email, e.status, e.enrolledAt)
+            from Enrollment e
+            join e.student u
+            where e.course.id = :courseId
+              and (:status is null or e.status = :status)
+              and (u.name > :name or (u.name = :name and e.id > :id))
+            order by u.name, e.id
+            """)
+    List<RosterEntry> findRosterByNameAfter(@Param("courseId") Long courseId,
+                                            @Param("status") EnrollmentStatus status,
+                                            @Param("name") String name,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
+    @Query("""
+            select new orm.dto.RosterEntry(e.id, u.id, u.name, u.email, e.status, e.enrolledAt)
+            from Enrollment e
+            join e.student u
+            where e.course.id = :courseId
+              and (:status is null or e.status = :status)
+            order by e.enrolledAt, e.id
+            """)
+    List<RosterEntry> findRosterByEnrolledAt(@Param("courseId") Long courseId,
+                                             @Param("status") EnrollmentStatus status,
+                                             Pageable pageable);
+
+    @Query("""
+            select new orm.dto.RosterEntry(e.id, u.id, u.name, u.email, e.status, e.enrolledAt)
+            from Enrollment e
+            join e.student u
+            where e.course.id = :courseId
+              and (:status is null or e.status = :status)
+              and (e.enrolledAt > :enrolledAt or (e.enrolledAt = :enrolledAt and e.id > :id))
+            order by e.enrolledAt, e.id
+            """)
+    List<RosterEntry> findRosterByEnrolledAtAfter(@Param("courseId") Long courseId,
+                                                  @Param("status") EnrollmentStatus status,
+                                                  @Param("enrolledAt") LocalDateTime enrolledAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
 }
@@ -2,10 +2,26 @@ package orm.repository;
 
 import orm.entity.Module;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ModuleRepository extends JpaRepository<Module, Long> {
 
     List<Module> findByCourseId(Long courseId);
+
+    /**
+     * Догружает уроки всех модулей курса одним запросом.
+     * Модули уже находятся в persistence context (после
+     * {@link CourseRepository#findWithModulesById(Long)}), поэтому Hibernate
+     * просто инициализирует их коллекции lessons.
+     */
+    @Query("""
+            select m from Module m
+            left join fetch m.lessons l
+            where m.course.id = :courseId
+            order by m.orderIndex, m.id, l.orderIndex, l.id
+            """)
+    List<Module> fetchLessonsByCourseId(@Param("courseId") Long courseId);
 }
@@ -1,6 +1,10 @@
 package orm.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import orm.cache.AnswerKeyRow;
+import orm.dto.QuizOptionRow;
 import orm.entity.Question;
 
 import java.util.List;
@@ -8,4 +12,22 @@ import java.util.List;
 public interface QuestionRepository extends JpaRepository<Question, Long> {
 
     List<Question> findByQuiz_Id(Long quizId);
+
+    @Query("""
+            select new orm.dto.QuizOptionRow(q.id, q.text, q.type, o.id, o.text, o.isCorrect)
+            from Question q
+            left join q.options o
+            where q.quiz.id = :quizId
+            order by q.id, o.id
+            """)
+    List<QuizOptionRow> findOptionRowsByQuizId(@Param("quizId") Long quizId);
+
+    @Query("""
+            select new orm.cache.AnswerKeyRow(q.id, o.id, o.isCorrect)
+            from Question q
+            left join q.options o
+            where q.quiz.id = :quizId
+            order by q.id, o.id
+            """)
+    List<AnswerKeyRow> findAnswerKeyRows(@Param("quizId") Long quizId);
 }
@@ -0,0 +1,25 @@
+package orm.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import orm.attempt.AttemptDeadline;
+import orm.entity.QuizAttempt;
+import orm.model.AttemptStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
+
+    boolean existsByStudent_IdAndQuiz_IdAndStatus(Long studentId, Long quizId, AttemptStatus status);
+
+    List<QuizAttempt> findByIdInAndStatus(Collection<Long> ids, AttemptStatus status);
+
+    @Query("""
+            select new orm.attempt.AttemptDeadline(a.id, a.deadline)
+            from QuizAttempt a
+            where a.status = :status and a.deadline is not null
+            """)
+    List<AttemptDeadline> findDeadlinesByStatus(@Param("status") AttemptStatus status);
+}
@@ -0,0 +1,8 @@
+package orm.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import orm.entity.QuizDraft;
+import orm.entity.QuizDraftKey;
+
+public interface QuizDraftRepository extends JpaRepository<QuizDraft, QuizDraftKey> {
+}
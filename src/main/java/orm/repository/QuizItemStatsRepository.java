@@ -0,0 +1,7 @@
+package orm.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import orm.entity.QuizItemStats;
+
+public interface QuizItemStatsRepository extends JpaRepository<QuizItemStats, Long> {
+}
@@ -1,6 +1,9 @@
 package orm.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import orm.dto.QuizView;
 import orm.entity.Quiz;
 
 import java.util.Optional;
@@ -8,4 +11,11 @@ import java.util.Optional;
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
 
     Optional<Quiz> findByModule_Id(Long moduleId);
+
+    @Query("""
+            select new orm.dto.QuizView(q.id, q.module.id, q.title, q.timeLimitMinutes)
+            from Quiz q
+            where q.id = :quizId
+            """)
+    Optional<QuizView> findViewById(@Param("quizId") Long quizId);
 }
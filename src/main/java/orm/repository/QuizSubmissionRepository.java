@@ -1,6 +1,11 @@
 package orm.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import orm.dto.QuizSubmissionView;
+import orm.dto.ScoreCountRow;
 import orm.entity.QuizSubmission;
 
 import java.util.List;
@@ -15,4 +20,51 @@ public interface QuizSubmissionRepository extends JpaRepository<QuizSubmission,
     Optional<QuizSubmission> findByStudent_IdAndQuiz_Id(Long studentId, Long quizId);
 
     boolean existsByStudent_IdAndQuiz_Id(Long studentId, Long quizId);
+
+    @Query("""
+            select new orm.dto.QuizSubmissionView(s.id, s.quiz.id, s.student.id, s.score, s.passed, s.takenAt)
+            from QuizSubmission s
+            where s.quiz.id = :quizId
+            order by s.id
+            """)
+    List<QuizSubmissionView> findViewsByQuizId(@Param("quizId") Long quizId);
+
+    @Query("""
+            select new orm.dto.QuizSubmissionView(s.id, s.quiz.id, s.student.id, s.score, s.passed, s.takenAt)
+            from QuizSubmission s
+            where s.student.id = :studentId
+            order by s.id
+            """)
+    List<QuizSubmissionView> findViewsByStudentId(@Param("studentId") Long studentId);
+
+    /**
+     * Начальная гистограмма баллов теста — один агрегирующий запрос вместо чтения попыток.
+     */
+    @Query("""
+            select new orm.dto.ScoreCountRow(s.score, count(s))
+            from QuizSubmission s
+            where s.quiz.id = :quizId and s.score is not null
+            group by s.score
+            """)
+    List<ScoreCountRow> countByScore(@Param("quizId") Long quizId);
+
+    /**
+     * Границы порций переоценки: следующие id попыток теста после afterId.
+     */
+    @Query("""
+            select s.id
+            from QuizSubmission s
+            where s.quiz.id = :quizId and s.id > :afterId
+            order by s.id
+            """)
+    List<Long> findIdsByQuizIdAfter(@Param("quizId") Long quizId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+            select s
+            from QuizSubmission s
+            where s.quiz.id = :quizId and s.id between :fromId and :toId
+            """)
+    List<QuizSubmission> findByQuizIdAndIdRange(@Param("quizId") Long quizId,
+                                                @Param("fromId") Long fromId,
+                                                @Param("toId") Long toId);
 }
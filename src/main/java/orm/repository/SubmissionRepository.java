@@ -1,6 +1,10 @@
 package orm.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import orm.dto.SubmissionDetailsView;
+import orm.dto.SubmissionView;
 import orm.entity.Submission;
 
 import java.util.List;
@@ -15,4 +19,30 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     Optional<Submission> findByAssignment_IdAndStudent_Id(Long assignmentId, Long studentId);
 
     boolean existsByAssignment_IdAndStudent_Id(Long assignmentId, Long studentId);
+
+    @Query("""
+            select new orm.dto.SubmissionView(s.id, s.assignment.id, s.student.id, s.submittedAt,
+                                              s.score, s.feedback, s.status)
+            from Submission s
+            where s.assignment.id = :assignmentId
+            order by s.id
+            """)
+    List<SubmissionView> findViewsByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    @Query("""
+            select new orm.dto.SubmissionView(s.id, s.assignment.id, s.student.id, s.submittedAt,
+                                              s.score, s.feedback, s.status)
+            from Submission s
+            where s.student.id = :studentId
+            order by s.id
+            """)
+    List<SubmissionView> findViewsByStudentId(@Param("studentId") Long studentId);
+
+    @Query("""
+            select new orm.dto.SubmissionDetailsView(s.id, s.assignment.id, s.student.id, s.submittedAt,
+                                                     s.score, s.feedback, s.status, s.content)
+            from Submission s
+            where s.id = :submissionId
+            """)
+    Optional<SubmissionDetailsView> findDetailsById(@Param("submissionId") Long submissionId);
 }
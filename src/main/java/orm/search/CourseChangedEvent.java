@@ -0,0 +1,20 @@
+package orm.search;
+
+/**
+ * Публикуется сервисом курсов при создании, изменении и удалении курса.
+ * document == null означает, что курс удалён.
+ */
+public record CourseChangedEvent(Long courseId, CourseDocument document) {
+
+    public static CourseChangedEvent updated(CourseDocument document) {
+        return new CourseChangedEvent(document.id(), document);
+    }
+
+    public static CourseChangedEvent deleted(Long courseId) {
+        return new CourseChangedEvent(courseId, null);
+    }
+
+    public boolean isDeleted() {
+        return document == null;
+    }
+}
@@ -0,0 +1,44 @@
+package orm.search;
+
+import orm.entity.Course;
+import orm.model.CourseStatus;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Индексируемое содержимое курса — то, что нужно поиску и фасетам.
+ */
+public record CourseDocument(
+        Long id,
+        String title,
+        String description,
+        CourseStatus status,
+        Long categoryId,
+        String categoryName,
+        List<TagRef> tags
+) {
+
+    public record TagRef(Long id, String name) {
+    }
+
+    /**
+     * Должен вызываться внутри транзакции: читает ленивые category и tags.
+     */
+    public static CourseDocument of(Course course) {
+        List<TagRef> tags = course.getTags().stream()
+                .map(tag -> new TagRef(tag.getId(), tag.getName()))
+                .sorted(Comparator.comparing(TagRef::id))
+                .toList();
+
+        return new CourseDocument(
+                course.getId(),
+                course.getTitle(),
+                course.getDescription(),
+                course.getStatus(),
+                course.getCategory() != null ? course.getCategory().getId() : null,
+                course.getCategory() != null ? course.getCategory().getName() : null,
+                tags
+        );
+    }
+}
@@ -0,0 +1,313 @@
+package orm.search;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.model.CourseStatus;
+import orm.repository.CourseRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Фасетный индекс каталога: для каждого статуса, категории и тега — битовая карта курсов.
+ * <p>
+ * Курсу выдаётся порядковый номер (ordinal); номера растут вместе с id, поэтому обход битов
+ * идёт в порядке id. Фильтр — пересечение объединений карт, счётчики фасетов — мощность
+ * пересечения карты значения с остальными фильтрами. Без фильтров счётчики берутся готовыми:
+ * они поддерживаются при каждом изменении курса.
+ */
+@Component
+public class CourseFacetIndex {
+
+    private static final Comparator<FacetCount> BY_COUNT_DESC =
+            Comparator.comparingInt(FacetCount::count).reversed()
+                    .thenComparing(FacetCount::label, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(FacetCount::id);
+
+    private final CourseRepository courseRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] courseIds = new long[64];
+    private Entry[] entries = new Entry[64];
+    private int nextOrdinal;
+
+    private Bitmap live = new Bitmap();
+    private final EnumMap<CourseStatus, FacetValue> byStatus = new EnumMap<>(CourseStatus.class);
+    private final Map<Long, FacetValue> byCategory = new HashMap<>();
+    private final Map<Long, FacetValue> byTag = new HashMap<>();
+
+    public CourseFacetIndex(CourseRepository courseRepository, PlatformTransactionManager transactionManager) {
+        this.courseRepository = courseRepository;
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Текущие значения фасетов курса — нужны, чтобы снять его биты при изменении.
+     */
+    private record Entry(CourseStatus status, Long categoryId, long[] tagIds) {
+    }
+
+    private static final class FacetValue {
+
+        final Bitmap courses = new Bitmap();
+        String label;
+        int count;
+
+        FacetValue(String label) {
+            this.label = label;
+        }
+    }
+
+    // --- чтение ---
+
+    public FacetResult query(FacetFilter filter, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Bitmap statusMask = union(filter.statuses(), byStatus);
+            Bitmap categoryMask = union(filter.categoryIds(), byCategory);
+            Bitmap tagMask = union(filter.tagIds(), byTag);
+
+            Bitmap matches = restrict(statusMask, categoryMask, tagMask);
+            int total = matches == null ? live.cardinality() : matches.cardinality();
+
+            List<Long> page = new ArrayList<>(Math.min(limit, total));
+            Bitmap source = matches == null ? live : matches;
+            int skipped = 0;
+            for (int ordinal = source.nextSetBit(0);
+                 ordinal >= 0 && page.size() < limit;
+                 ordinal = source.nextSetBit(ordinal + 1)) {
+                if (skipped++ >= offset) {
+                    page.add(courseIds[ordinal]);
+                }
+            }
+
+            List<FacetCount> statuses = new ArrayList<>();
+            Bitmap statusBase = restrict(null, categoryMask, tagMask);
+            byStatus.forEach((status, value) -> {
+                int count = count(value, statusBase);
+                if (count > 0) {
+                    statuses.add(new FacetCount(null, status.name(), count));
+                }
+            });
+
+            return new FacetResult(page, total, statuses,
+                    counts(byCategory, restrict(statusMask, null, tagMask)),
+                    counts(byTag, restrict(statusMask, categoryMask, null)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return объединение карт выбранных значений; null — фасет не фильтруется
+     */
+    private static <K> Bitmap union(Collection<K> selected, Map<K, FacetValue> values) {
+        if (selected.isEmpty()) {
+            return null;
+        }
+        Bitmap result = new Bitmap();
+        for (K key : selected) {
+            FacetValue value = values.get(key);
+            if (value != null) {
+                result.or(value.courses);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return пересечение живых курсов с заданными масками; null — ни одной маски, то есть все курсы
+     */
+    private Bitmap restrict(Bitmap... masks) {
+        Bitmap result = null;
+        for (Bitmap mask : masks) {
+            if (mask != null) {
+                if (result == null) {
+                    result = live.copy();
+                }
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private static int count(FacetValue value, Bitmap base) {
+        return base == null ? value.count : value.courses.andCardinality(base);
+    }
+
+    private static List<FacetCount> counts(Map<Long, FacetValue> values, Bitmap base) {
+        List<FacetCount> result = new ArrayList<>();
+        values.forEach((id, value) -> {
+            int count = count(value, base);
+            if (count > 0) {
+                result.add(new FacetCount(id, value.label, count));
+            }
+        });
+        result.sort(BY_COUNT_DESC);
+        return result;
+    }
+
+    // --- запись ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.courseId());
+        } else {
+            index(event.document());
+        }
+    }
+
+    public void index(CourseDocument document) {
+        lock.writeLock().lock();
+        try {
+            doIndex(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long courseId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(courseId);
+            if (ordinal == null) {
+                return;
+            }
+            clear(ordinal);
+            live.clear(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Полная перестройка из БД при старте приложения: номера выдаются заново подряд, дыры от удалений исчезают.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        lock.writeLock().lock();
+        try {
+            transaction.executeWithoutResult(status -> {
+                Map<Long, List<CourseDocument.TagRef>> tagsByCourse = courseRepository.findSearchTagRows().stream()
+                        .collect(Collectors.groupingBy(CourseTagRow::courseId,
+                                Collectors.mapping(row -> new CourseDocument.TagRef(row.tagId(), row.tagName()),
+                                        Collectors.toList())));
+                List<CourseFacetRow> rows = courseRepository.findFacetRows();
+
+                ordinals.clear();
+                courseIds = new long[Math.max(rows.size(), 64)];
+                entries = new Entry[courseIds.length];
+                nextOrdinal = 0;
+                live = new Bitmap();
+                byStatus.clear();
+                byCategory.clear();
+                byTag.clear();
+
+                for (CourseFacetRow row : rows) {
+                    doIndex(new CourseDocument(row.id(), null, null, row.status(), row.categoryId(),
+                            row.categoryName(), tagsByCourse.getOrDefault(row.id(), List.of())));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void doIndex(CourseDocument document) {
+        Integer existing = ordinals.get(document.id());
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            clear(ordinal);
+        } else {
+            ordinal = nextOrdinal++;
+            if (ordinal == courseIds.length) {
+                courseIds = Arrays.copyOf(courseIds, ordinal * 2);
+                entries = Arrays.copyOf(entries, ordinal * 2);
+            }
+            ordinals.put(document.id(), ordinal);
+            courseIds[ordinal] = document.id();
+            live.set(ordinal);
+        }
+
+        long[] tagIds = new long[document.tags().size()];
+        for (int i = 0; i < tagIds.length; i++) {
+            CourseDocument.TagRef tag = document.tags().get(i);
+            tagIds[i] = tag.id();
+            add(byTag, tag.id(), tag.name(), ordinal);
+        }
+        if (document.status() != null) {
+            add(byStatus, document.status(), document.status().name(), ordinal);
+        }
+        if (document.categoryId() != null) {
+            add(byCategory, document.categoryId(), document.categoryName(), ordinal);
+        }
+        entries[ordinal] = new Entry(document.status(), document.categoryId(), tagIds);
+    }
+
+    private void clear(int ordinal) {
+        Entry entry = entries[ordinal];
+        if (entry == null) {
+            return;
+        }
+        if (entry.status() != null) {
+            drop(byStatus, entry.status(), ordinal);
+        }
+        if (entry.categoryId() != null) {
+            drop(byCategory, entry.categoryId(), ordinal);
+        }
+        for (long tagId : entry.tagIds()) {
+            drop(byTag, tagId, ordinal);
+        }
+        entries[ordinal] = null;
+    }
+
+    private static <K> void add(Map<K, FacetValue> values, K key, String label, int ordinal) {
+        FacetValue value = values.computeIfAbsent(key, k -> new FacetValue(label));
+        if (label != null) {
+            value.label = label;
+        }
+        value.courses.set(ordinal);
+        value.count++;
+    }
+
+    private static <K> void drop(Map<K, FacetValue> values, K key, int ordinal) {
+        FacetValue value = values.get(key);
+        if (value == null) {
+            return;
+        }
+        value.courses.clear(ordinal);
+        if (--value.count == 0) {
+            values.remove(key);
+        }
+    }
+}
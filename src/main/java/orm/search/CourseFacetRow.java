@@ -0,0 +1,14 @@
+package orm.search;
+
+import orm.model.CourseStatus;
+
+/**
+ * Строка первичной загрузки фасетного индекса.
+ */
+public record CourseFacetRow(
+        Long id,
+        CourseStatus status,
+        Long categoryId,
+        String categoryName
+) {
+}
@@ -0,0 +1,11 @@
+package orm.search;
+
+import orm.model.CourseStatus;
+
+public record CourseSearchHit(
+        Long id,
+        String title,
+        CourseStatus status,
+        double score
+) {
+}
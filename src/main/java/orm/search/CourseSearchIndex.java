@@ -0,0 +1,597 @@
+package orm.search;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.model.CourseStatus;
+import orm.repository.CourseRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс курсов в памяти: название, описание, категория и теги.
+ * <p>
+ * Словарь термов — отсортированная карта, поэтому префиксный поиск сводится к подкарте.
+ * У каждого курса внутренний порядковый номер; постинги — неизменяемые массивы (номер, вес),
+ * отсортированные по номеру. Запись заменяет массив целиком, чтение идёт без блокировок.
+ * Баллы запроса копятся в примитивных массивах, индексированных номером курса, — без упаковки
+ * и хеш-карт на каждый найденный курс.
+ * <p>
+ * Ранжирование: вес поля × (1 + ln tf) × idf терма, совпадение по префиксу весит меньше точного.
+ * Все слова запроса должны найтись в курсе (AND); пересечение начинается с самого редкого слова.
+ */
+@Component
+public class CourseSearchIndex {
+
+    private static final float TITLE_BOOST = 3.0f;
+    private static final float TAG_BOOST = 2.0f;
+    private static final float CATEGORY_BOOST = 1.5f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+
+    private static final float PREFIX_MATCH_FACTOR = 0.6f;
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final Comparator<CourseSearchHit> WORST_FIRST =
+            Comparator.comparingDouble(CourseSearchHit::score)
+                    .thenComparing(Comparator.<CourseSearchHit, Long>comparing(CourseSearchHit::id).reversed());
+    private static final Comparator<Map.Entry<String, Postings>> BY_DOCUMENT_FREQUENCY =
+            Comparator.comparingInt(entry -> entry.getValue().size());
+
+    private final CourseRepository courseRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot = new Snapshot(new ConcurrentSkipListMap<>(), new HashMap<>(), new IndexedCourse[64], 0);
+
+    /**
+     * Рабочие массивы запросов: по одному на одновременный запрос, переиспользуются между запросами.
+     */
+    private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    public CourseSearchIndex(CourseRepository courseRepository, PlatformTransactionManager transactionManager) {
+        this.courseRepository = courseRepository;
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Данные курса, нужные для выдачи результата и для удаления его термов из индекса.
+     */
+    private record IndexedCourse(long id, String title, CourseStatus status, String[] terms) {
+    }
+
+    /**
+     * Словарь и курсы по порядковым номерам. Перестройка заменяет снимок целиком; точечные изменения
+     * пишут в текущий снимок под writeLock, массив курсов при росте заменяется копией.
+     * Курс попадает в массив раньше, чем его номер — в постинги: читатель, нашедший номер, найдёт и курс.
+     */
+    private static final class Snapshot {
+
+        final ConcurrentSkipListMap<String, Postings> terms;
+        /**
+         * id курса → номер; только под writeLock.
+         */
+        final Map<Long, Integer> ordinals;
+        volatile IndexedCourse[] courses;
+        int nextOrdinal;
+        volatile int size;
+
+        Snapshot(ConcurrentSkipListMap<String, Postings> terms, Map<Long, Integer> ordinals,
+                 IndexedCourse[] courses, int nextOrdinal) {
+            this.terms = terms;
+            this.ordinals = ordinals;
+            this.courses = courses;
+            this.nextOrdinal = nextOrdinal;
+            this.size = ordinals.size();
+        }
+    }
+
+    /**
+     * Продолжения одного слова запроса: постинги, множитель веса (idf × точность совпадения)
+     * и суммарная длина постингов — оценка числа курсов со словом.
+     */
+    private record TokenMatch(Postings[] postings, float[] factors, long documentFrequency) {
+    }
+
+    // --- чтение ---
+
+    public CourseSearchResult search(String query, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty() || limit <= 0) {
+            return CourseSearchResult.EMPTY;
+        }
+
+        Snapshot state = snapshot;
+        IndexedCourse[] courses = state.courses;
+        int totalCourses = Math.max(state.size, 1);
+
+        List<String> truncated = new ArrayList<>();
+        TokenMatch[] matches = new TokenMatch[tokens.size()];
+        boolean missing = false;
+        for (int i = 0; i < matches.length; i++) {
+            String token = tokens.get(i);
+            matches[i] = expand(state.terms, token, totalCourses, truncated);
+            missing |= matches[i].postings().length == 0;
+        }
+        if (missing) {
+            return new CourseSearchResult(List.of(), List.copyOf(truncated));
+        }
+        // дальше проверяются только кандидаты самого редкого слова
+        Arrays.sort(matches, Comparator.comparingLong(TokenMatch::documentFrequency));
+
+        Scratch scratch = borrowScratch(courses.length, matches.length);
+        try {
+            int candidates = scratch.collect(matches[0], courses.length);
+            for (int i = 1; i < matches.length && candidates > 0; i++) {
+                candidates = scratch.intersect(matches[i], candidates, courses.length);
+            }
+            return new CourseSearchResult(scratch.top(candidates, limit, courses), List.copyOf(truncated));
+        } finally {
+            scratchPool.offer(scratch);
+        }
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    /**
+     * Точный терм и до {@link #MAX_PREFIX_EXPANSIONS} продолжений слова. Если продолжений больше,
+     * берутся самые частые — они покрывают больше курсов, — а слово попадает в truncated.
+     */
+    private static TokenMatch expand(NavigableMap<String, Postings> dictionary, String token, int totalCourses,
+                                     List<String> truncated) {
+        Postings exact = null;
+        int expansions = 0;
+        PriorityQueue<Map.Entry<String, Postings>> frequent = new PriorityQueue<>(BY_DOCUMENT_FREQUENCY);
+        for (Map.Entry<String, Postings> entry
+                : dictionary.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            if (entry.getKey().length() == token.length()) {
+                exact = entry.getValue();
+                continue;
+            }
+            expansions++;
+            frequent.offer(entry);
+            if (frequent.size() > MAX_PREFIX_EXPANSIONS) {
+                frequent.poll();
+            }
+        }
+        if (expansions > MAX_PREFIX_EXPANSIONS) {
+            truncated.add(token);
+        }
+
+        int count = frequent.size() + (exact != null ? 1 : 0);
+        Postings[] postings = new Postings[count];
+        float[] factors = new float[count];
+        long documentFrequency = 0;
+        int i = 0;
+        if (exact != null) {
+            postings[i] = exact;
+            factors[i++] = idf(exact.size(), totalCourses);
+            documentFrequency += exact.size();
+        }
+        for (Map.Entry<String, Postings> entry : frequent) {
+            Postings expansion = entry.getValue();
+            postings[i] = expansion;
+            factors[i++] = idf(expansion.size(), totalCourses) * PREFIX_MATCH_FACTOR;
+            documentFrequency += expansion.size();
+        }
+        return new TokenMatch(postings, factors, documentFrequency);
+    }
+
+    private static float idf(int documentFrequency, int totalCourses) {
+        return (float) Math.log(1.0 + (totalCourses - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private Scratch borrowScratch(int capacity, int tokens) {
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null || scratch.capacity() < capacity) {
+            // массивы растут с запасом: индекс растёт, и каждый новый курс не должен пересоздавать их
+            scratch = new Scratch(capacity + capacity / 4);
+        }
+        scratch.begin(tokens);
+        return scratch;
+    }
+
+    /**
+     * Баллы одного запроса по номерам курсов. Метки поколений заменяют очистку массивов:
+     * курс — кандидат, если marks[номер] равна текущей метке, иначе старое значение score не читается.
+     */
+    private static final class Scratch {
+
+        private final float[] scores;
+        private final int[] marks;
+        private final float[] tokenScores;
+        private final int[] tokenMarks;
+        private final int[] candidates;
+        private int mark;
+        private int current;
+
+        Scratch(int capacity) {
+            scores = new float[capacity];
+            marks = new int[capacity];
+            tokenScores = new float[capacity];
+            tokenMarks = new int[capacity];
+            candidates = new int[capacity];
+        }
+
+        int capacity() {
+            return scores.length;
+        }
+
+        /**
+         * Запрос берёт две метки на слово; если до переполнения их не хватит, массивы меток обнуляются.
+         */
+        void begin(int tokens) {
+            if (mark > Integer.MAX_VALUE - 2 * tokens - 2) {
+                Arrays.fill(marks, 0);
+                Arrays.fill(tokenMarks, 0);
+                mark = 0;
+            }
+        }
+
+        /**
+         * Кандидаты первого (самого редкого) слова; балл курса — лучшее из продолжений слова.
+         * Номера не меньше bound принадлежат курсам, добавленным после начала запроса, — они пропускаются.
+         */
+        int collect(TokenMatch match, int bound) {
+            current = ++mark;
+            int count = 0;
+            for (int e = 0; e < match.postings().length; e++) {
+                Postings postings = match.postings()[e];
+                float factor = match.factors()[e];
+                for (int i = 0; i < postings.ordinals.length; i++) {
+                    int ordinal = postings.ordinals[i];
+                    if (ordinal >= bound) {
+                        break;
+                    }
+                    float score = postings.weights[i] * factor;
+                    if (marks[ordinal] != current) {
+                        marks[ordinal] = current;
+                        scores[ordinal] = score;
+                        candidates[count++] = ordinal;
+                    } else if (score > scores[ordinal]) {
+                        scores[ordinal] = score;
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Оставляет кандидатов, у которых есть следующее слово. Когда кандидатов мало, их номера ищутся
+         * в постингах двоичным поиском; когда много — постинги слова просматриваются целиком.
+         */
+        int intersect(TokenMatch match, int count, int bound) {
+            int tokenMark = ++mark;
+            long probeCost = 0;
+            for (Postings postings : match.postings()) {
+                probeCost += (long) count * (32 - Integer.numberOfLeadingZeros(postings.size()));
+            }
+
+            if (probeCost < match.documentFrequency()) {
+                for (int c = 0; c < count; c++) {
+                    int ordinal = candidates[c];
+                    for (int e = 0; e < match.postings().length; e++) {
+                        Postings postings = match.postings()[e];
+                        int pos = Arrays.binarySearch(postings.ordinals, ordinal);
+                        if (pos >= 0) {
+                            offer(ordinal, postings.weights[pos] * match.factors()[e], tokenMark);
+                        }
+                    }
+                }
+            } else {
+                for (int e = 0; e < match.postings().length; e++) {
+                    Postings postings = match.postings()[e];
+                    float factor = match.factors()[e];
+                    for (int i = 0; i < postings.ordinals.length; i++) {
+                        int ordinal = postings.ordinals[i];
+                        if (ordinal >= bound) {
+                            break;
+                        }
+                        if (marks[ordinal] == current) {
+                            offer(ordinal, postings.weights[i] * factor, tokenMark);
+                        }
+                    }
+                }
+            }
+
+            int next = ++mark;
+            int kept = 0;
+            for (int c = 0; c < count; c++) {
+                int ordinal = candidates[c];
+                if (tokenMarks[ordinal] == tokenMark) {
+                    marks[ordinal] = next;
+                    scores[ordinal] += tokenScores[ordinal];
+                    candidates[kept++] = ordinal;
+                }
+            }
+            current = next;
+            return kept;
+        }
+
+        private void offer(int ordinal, float score, int tokenMark) {
+            if (tokenMarks[ordinal] != tokenMark) {
+                tokenMarks[ordinal] = tokenMark;
+                tokenScores[ordinal] = score;
+            } else if (score > tokenScores[ordinal]) {
+                tokenScores[ordinal] = score;
+            }
+        }
+
+        /**
+         * Лучшие limit кандидатов: больший балл, при равенстве — меньший id курса.
+         */
+        List<CourseSearchHit> top(int count, int limit, IndexedCourse[] courses) {
+            // в голове кучи худший из отобранных
+            PriorityQueue<CourseSearchHit> top = new PriorityQueue<>(Math.min(limit, count) + 1, WORST_FIRST);
+            for (int c = 0; c < count; c++) {
+                int ordinal = candidates[c];
+                float score = scores[ordinal];
+                if (top.size() == limit && score < top.peek().score()) {
+                    continue;
+                }
+                IndexedCourse course = courses[ordinal];
+                if (course == null) {
+                    // курс удалён во время запроса
+                    continue;
+                }
+                top.offer(new CourseSearchHit(course.id(), course.title(), course.status(), score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<CourseSearchHit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                hits.add(top.poll());
+            }
+            // очередь отдаёт от худшего к лучшему
+            Collections.reverse(hits);
+            return hits;
+        }
+    }
+
+    // --- запись ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.courseId());
+        } else {
+            index(event.document());
+        }
+    }
+
+    public void index(CourseDocument document) {
+        Map<String, Float> weights = weigh(document);
+        Long courseId = document.id();
+
+        synchronized (writeLock) {
+            Snapshot state = snapshot;
+            ConcurrentSkipListMap<String, Postings> dictionary = state.terms;
+
+            Integer existing = state.ordinals.get(courseId);
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                for (String term : state.courses[ordinal].terms()) {
+                    if (!weights.containsKey(term)) {
+                        dictionary.computeIfPresent(term, (key, postings) -> postings.without(ordinal));
+                    }
+                }
+            } else {
+                ordinal = state.nextOrdinal++;
+                state.ordinals.put(courseId, ordinal);
+                if (ordinal == state.courses.length) {
+                    state.courses = Arrays.copyOf(state.courses, ordinal * 2);
+                }
+            }
+
+            // термы курса нужны только записи, поэтому массив заполняется после публикации курса
+            String[] courseTerms = new String[weights.size()];
+            state.courses[ordinal] = new IndexedCourse(courseId, document.title(), document.status(), courseTerms);
+            int i = 0;
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                float weight = entry.getValue();
+                dictionary.compute(entry.getKey(),
+                        (key, postings) -> (postings == null ? Postings.EMPTY : postings).with(ordinal, weight));
+                // храним экземпляр строки из словаря, а не дубликат
+                courseTerms[i++] = dictionary.ceilingKey(entry.getKey());
+            }
+            state.size = state.ordinals.size();
+        }
+    }
+
+    /**
+     * Номер удалённого курса не переиспользуется до перестройки: в постингах его уже нет,
+     * а запрос, начатый раньше, пропустит пустую ячейку.
+     */
+    public void remove(Long courseId) {
+        synchronized (writeLock) {
+            Snapshot state = snapshot;
+            Integer ordinal = state.ordinals.remove(courseId);
+            if (ordinal == null) {
+                return;
+            }
+            for (String term : state.courses[ordinal].terms()) {
+                state.terms.computeIfPresent(term, (key, postings) -> postings.without(ordinal));
+            }
+            state.courses[ordinal] = null;
+            state.size = state.ordinals.size();
+        }
+    }
+
+    /**
+     * Полная перестройка индекса из БД при старте приложения; номера курсов выдаются заново, без дыр.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        synchronized (writeLock) {
+            transaction.executeWithoutResult(status -> {
+                Map<Long, List<CourseDocument.TagRef>> tagsByCourse = courseRepository.findSearchTagRows().stream()
+                        .collect(Collectors.groupingBy(CourseTagRow::courseId,
+                                Collectors.mapping(row -> new CourseDocument.TagRef(row.tagId(), row.tagName()),
+                                        Collectors.toList())));
+
+                Map<String, PostingsBuilder> builders = new HashMap<>();
+                Map<Long, Integer> ordinals = new HashMap<>();
+                List<IndexedCourse> indexed = new ArrayList<>();
+
+                // номера выдаются по порядку строк — постинги собираются уже отсортированными
+                try (Stream<CourseSearchRow> rows = courseRepository.streamSearchRows()) {
+                    rows.forEach(row -> {
+                        CourseDocument document = new CourseDocument(row.id(), row.title(), row.description(),
+                                row.status(), row.categoryId(), row.categoryName(),
+                                tagsByCourse.getOrDefault(row.id(), List.of()));
+
+                        int ordinal = indexed.size();
+                        Map<String, Float> weights = weigh(document);
+                        String[] courseTerms = new String[weights.size()];
+                        int i = 0;
+                        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                            PostingsBuilder builder = builders.computeIfAbsent(entry.getKey(), PostingsBuilder::new);
+                            builder.add(ordinal, entry.getValue());
+                            courseTerms[i++] = builder.term;
+                        }
+                        ordinals.put(row.id(), ordinal);
+                        indexed.add(new IndexedCourse(row.id(), row.title(), row.status(), courseTerms));
+                    });
+                }
+
+                ConcurrentSkipListMap<String, Postings> dictionary = new ConcurrentSkipListMap<>();
+                builders.forEach((term, builder) -> dictionary.put(term, builder.build()));
+
+                IndexedCourse[] courses = indexed.toArray(new IndexedCourse[Math.max(64, indexed.size() + indexed.size() / 4)]);
+                snapshot = new Snapshot(dictionary, ordinals, courses, indexed.size());
+            });
+        }
+    }
+
+    static Map<String, Float> weigh(CourseDocument document) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, document.title(), TITLE_BOOST);
+        addField(weights, document.description(), DESCRIPTION_BOOST);
+        addField(weights, document.categoryName(), CATEGORY_BOOST);
+        for (CourseDocument.TagRef tag : document.tags()) {
+            addField(weights, tag.name(), TAG_BOOST);
+        }
+        return weights;
+    }
+
+    /**
+     * Вклад поля: boost × (1 + ln tf) — повторы слова в длинном описании
+     * не перевешивают одно совпадение в названии.
+     */
+    private static void addField(Map<String, Float> weights, String text, float boost) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : Tokenizer.tokenize(text)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        frequencies.forEach((term, tf) ->
+                weights.merge(term, boost * (1.0f + (float) Math.log(tf)), Float::sum));
+    }
+
+    // --- постинги ---
+
+    static final class Postings {
+
+        static final Postings EMPTY = new Postings(new int[0], new float[0]);
+
+        final int[] ordinals;
+        final float[] weights;
+
+        Postings(int[] ordinals, float[] weights) {
+            this.ordinals = ordinals;
+            this.weights = weights;
+        }
+
+        int size() {
+            return ordinals.length;
+        }
+
+        Postings with(int ordinal, float weight) {
+            int pos = Arrays.binarySearch(ordinals, ordinal);
+            if (pos >= 0) {
+                float[] newWeights = weights.clone();
+                newWeights[pos] = weight;
+                return new Postings(ordinals, newWeights);
+            }
+
+            int insertAt = -pos - 1;
+            int[] newOrdinals = new int[ordinals.length + 1];
+            float[] newWeights = new float[weights.length + 1];
+            System.arraycopy(ordinals, 0, newOrdinals, 0, insertAt);
+            System.arraycopy(weights, 0, newWeights, 0, insertAt);
+            newOrdinals[insertAt] = ordinal;
+            newWeights[insertAt] = weight;
+            System.arraycopy(ordinals, insertAt, newOrdinals, insertAt + 1, ordinals.length - insertAt);
+            System.arraycopy(weights, insertAt, newWeights, insertAt + 1, weights.length - insertAt);
+            return new Postings(newOrdinals, newWeights);
+        }
+
+        /**
+         * @return постинги без курса или null, если список опустел (терм удаляется из словаря)
+         */
+        Postings without(int ordinal) {
+            int pos = Arrays.binarySearch(ordinals, ordinal);
+            if (pos < 0) {
+                return this;
+            }
+            if (ordinals.length == 1) {
+                return null;
+            }
+
+            int[] newOrdinals = new int[ordinals.length - 1];
+            float[] newWeights = new float[weights.length - 1];
+            System.arraycopy(ordinals, 0, newOrdinals, 0, pos);
+            System.arraycopy(weights, 0, newWeights, 0, pos);
+            System.arraycopy(ordinals, pos + 1, newOrdinals, pos, ordinals.length - pos - 1);
+            System.arraycopy(weights, pos + 1, newWeights, pos, weights.length - pos - 1);
+            return new Postings(newOrdinals, newWeights);
+        }
+    }
+
+    private static final class PostingsBuilder {
+
+        private final String term;
+        private int[] ordinals = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        PostingsBuilder(String term) {
+            this.term = term;
+        }
+
+        void add(int ordinal, float weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = weight;
+            size++;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(ordinals, size), Arrays.copyOf(weights, size));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package orm.search;
+
+import java.util.List;
+
+/**
+ * Результат поиска. truncatedPrefixes — слова запроса, у которых продолжений в словаре больше лимита:
+ * учтены только самые частые из них, поэтому часть подходящих курсов могла не попасть в выдачу.
+ */
+public record CourseSearchResult(
+        List<CourseSearchHit> hits,
+        List<String> truncatedPrefixes
+) {
+
+    public static final CourseSearchResult EMPTY = new CourseSearchResult(List.of(), List.of());
+}
@@ -0,0 +1,16 @@
+package orm.search;
+
+import orm.model.CourseStatus;
+
+/**
+ * Строка первичной загрузки индекса (без тегов).
+ */
+public record CourseSearchRow(
+        Long id,
+        String title,
+        String description,
+        CourseStatus status,
+        Long categoryId,
+        String categoryName
+) {
+}
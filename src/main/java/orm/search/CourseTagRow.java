@@ -0,0 +1,4 @@
+package orm.search;
+
+public record CourseTagRow(Long courseId, Long tagId, String tagName) {
+}
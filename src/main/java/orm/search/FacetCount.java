@@ -0,0 +1,7 @@
+package orm.search;
+
+/**
+ * Значение фасета и число курсов с ним. Для статуса id == null, label — имя статуса.
+ */
+public record FacetCount(Long id, String label, int count) {
+}
@@ -0,0 +1,22 @@
+package orm.search;
+
+import orm.model.CourseStatus;
+
+import java.util.Set;
+
+/**
+ * Фильтр каталога: внутри одного фасета значения объединяются (OR), между фасетами — пересечение (AND).
+ * Пустой набор — фасет не фильтруется.
+ */
+public record FacetFilter(
+        Set<CourseStatus> statuses,
+        Set<Long> categoryIds,
+        Set<Long> tagIds
+) {
+
+    public FacetFilter {
+        statuses = statuses == null ? Set.of() : Set.copyOf(statuses);
+        categoryIds = categoryIds == null ? Set.of() : Set.copyOf(categoryIds);
+        tagIds = tagIds == null ? Set.of() : Set.copyOf(tagIds);
+    }
+}
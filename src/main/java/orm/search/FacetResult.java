@@ -0,0 +1,16 @@
+package orm.search;
+
+import java.util.List;
+
+/**
+ * Результат фасетного запроса: id курсов текущей страницы, общее число совпадений и счётчики фасетов.
+ * Счётчик значения фасета учитывает фильтры всех остальных фасетов, но не свой собственный.
+ */
+public record FacetResult(
+        List<Long> courseIds,
+        int total,
+        List<FacetCount> statuses,
+        List<FacetCount> categories,
+        List<FacetCount> tags
+) {
+}
@@ -0,0 +1,43 @@
+package orm.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбивает текст на термы: нижний регистр, разделители — всё, кроме букв и цифр,
+ * "ё" приводится к "е", термы короче двух символов отбрасываются.
+ */
+public final class Tokenizer {
+
+    static final int MIN_TERM_LENGTH = 2;
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                char lower = Character.toLowerCase(ch);
+                current.append(lower == 'ё' ? 'е' : lower);
+            } else {
+                flush(current, tokens);
+            }
+        }
+        flush(current, tokens);
+        return tokens;
+    }
+
+    private static void flush(StringBuilder current, List<String> tokens) {
+        if (current.length() >= MIN_TERM_LENGTH) {
+            tokens.add(current.toString());
+        }
+        current.setLength(0);
+    }
+}
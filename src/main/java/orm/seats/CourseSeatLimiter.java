@@ -0,0 +1,122 @@
+package orm.seats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import orm.model.EnrollmentStatus;
+import orm.repository.CourseRepository;
+import orm.util.TransactionCallbacks;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчики мест курсов в памяти — единственная проверка ёмкости при записи.
+ * <p>
+ * Место занимается CAS-инкрементом счётчика курса и возвращается при откате транзакции,
+ * отмене или удалении записи. Запись на курс не блокирует его строку ни при выдаче места, ни при
+ * отказе: при открытии записи на популярный курс запросы не встают в очередь друг за другом,
+ * а courses.enrollment_count дописывается пачками ({@link orm.leaderboard.EnrollmentCountWriter}).
+ * Счётчик загружается один раз по таблице записей и дальше не перечитывается — приложение
+ * работает одним экземпляром, и второй экземпляр со своими счётчиками мог бы превысить ёмкость.
+ * Занятые места считаются и у курсов без ограничения: тогда ограничение можно ввести на ходу.
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseSeatLimiter {
+
+    private final CourseRepository courseRepository;
+
+    private final ConcurrentHashMap<Long, Seats> courses = new ConcurrentHashMap<>();
+
+    private static final class Seats {
+
+        /**
+         * null — без ограничения.
+         */
+        volatile Integer capacity;
+        final AtomicLong taken;
+
+        Seats(Integer capacity, long taken) {
+            this.capacity = capacity;
+            this.taken = new AtomicLong(taken);
+        }
+    }
+
+    public boolean tryAcquire(Long courseId) {
+        return tryAcquire(courseId, 1) == 1;
+    }
+
+    /**
+     * Занимает до requested мест до конца текущей транзакции; при откате они возвращаются.
+     *
+     * @return сколько мест выдано; для неизвестного курса — все (запись отсечёт внешний ключ)
+     */
+    public int tryAcquire(Long courseId, int requested) {
+        Seats seats = seats(courseId);
+        if (seats == null) {
+            return requested;
+        }
+
+        long taken;
+        int granted;
+        do {
+            taken = seats.taken.get();
+            Integer capacity = seats.capacity;
+            granted = capacity == null ? requested : (int) Math.min(requested, capacity - taken);
+            if (granted <= 0) {
+                return 0;
+            }
+        } while (!seats.taken.compareAndSet(taken, taken + granted));
+
+        int acquired = granted;
+        TransactionCallbacks.afterRollback(() -> seats.taken.addAndGet(-acquired));
+        return granted;
+    }
+
+    /**
+     * Места освобождены зафиксированной отменой или удалением записей.
+     */
+    public void released(Long courseId, int count) {
+        Seats seats = courses.get(courseId);
+        if (seats != null) {
+            seats.taken.updateAndGet(taken -> Math.max(0, taken - count));
+        }
+    }
+
+    /**
+     * Ёмкость курса изменилась. Счётчик не перечитывается: места, выданные незавершённым
+     * транзакциям, в таблице записей ещё не видны. Уменьшение ниже занятого не отзывает места,
+     * а только закрывает запись.
+     */
+    public void capacityChanged(Long courseId, Integer capacity) {
+        Seats seats = courses.get(courseId);
+        if (seats != null) {
+            seats.capacity = capacity;
+        }
+    }
+
+    /**
+     * Курс удалён.
+     */
+    public void invalidate(Long courseId) {
+        courses.remove(courseId);
+    }
+
+    private Seats seats(Long courseId) {
+        Seats seats = courses.get(courseId);
+        if (seats != null) {
+            return seats;
+        }
+        // загрузка вне computeIfAbsent: SELECT под замком корзины карты остановил бы и соседние курсы.
+        // Параллельные первые запросы читают курс каждый сам; места занимаются только в счётчике из карты,
+        // поэтому остаётся попавший туда первым, а остальные прочитанные отбрасываются
+        Seats loaded = courseRepository.findSeatRow(courseId, EnrollmentStatus.CANCELLED)
+                .map(row -> new Seats(row.capacity(), row.enrollmentCount()))
+                .orElse(null);
+        if (loaded == null) {
+            return null;
+        }
+        Seats winner = courses.putIfAbsent(courseId, loaded);
+        return winner != null ? winner : loaded;
+    }
+}
@@ -0,0 +1,7 @@
+package orm.seats;
+
+/**
+ * Ёмкость курса и число его записей без отменённых; capacity == null — без ограничения.
+ */
+public record CourseSeatRow(Integer capacity, Long enrollmentCount) {
+}
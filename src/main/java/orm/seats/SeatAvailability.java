@@ -0,0 +1,13 @@
+package orm.seats;
+
+/**
+ * Места на курсе; capacity и available == null — без ограничения.
+ */
+public record SeatAvailability(Long courseId, Integer capacity, long taken, Integer available) {
+
+    public static SeatAvailability of(Long courseId, CourseSeatRow row) {
+        long taken = row.enrollmentCount();
+        Integer available = row.capacity() == null ? null : (int) Math.max(0, row.capacity() - taken);
+        return new SeatAvailability(courseId, row.capacity(), taken, available);
+    }
+}
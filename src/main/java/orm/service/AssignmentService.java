@@ -1,5 +1,6 @@
 package orm.service;
 
+import orm.dto.AssignmentView;
 import orm.entity.Assignment;
 import orm.entity.Submission;
 import orm.model.SubmissionStatus;
@@ -14,9 +15,9 @@ public interface AssignmentService {
 
     void deleteAssignment(Long assignmentId);
 
-    Assignment getAssignment(Long assignmentId);
+    AssignmentView getAssignment(Long assignmentId);
 
-    List<Assignment> getAssignmentsByLesson(Long lessonId);
+    List<AssignmentView> getAssignmentsByLesson(Long lessonId);
 
 
     Submission submitAssignment(Long assignmentId, Long studentId, String content);
@@ -0,0 +1,15 @@
+package orm.service;
+
+import orm.dto.BulkEnrollReport;
+
+import java.util.Iterator;
+
+public interface BulkEnrollmentService {
+
+    /**
+     * Записать на курс когорту студентов. Id читаются из итератора порциями; на порцию —
+     * одна транзакция с двумя выборками по множеству (роли, уже существующие записи) и пачкой вставок.
+     * Ошибка отдельного id не отменяет запись остальных — она попадает в отчёт.
+     */
+    BulkEnrollReport enrollStudents(Long courseId, Iterator<Long> studentIds);
+}
@@ -0,0 +1,15 @@
+package orm.service;
+
+import orm.dto.ImportReport;
+
+import java.io.InputStream;
+
+public interface CourseImportService {
+
+    /**
+     * Импорт курсов из NDJSON-потока (одна строка — один {@link orm.dto.CourseImportLine}).
+     * Строки пишутся порциями в отдельных транзакциях; ошибочная строка попадает в отчёт
+     * и не отменяет остальные.
+     */
+    ImportReport importCourses(InputStream input);
+}
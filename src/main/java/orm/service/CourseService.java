@@ -1,17 +1,34 @@
 package orm.service;
 
+import orm.cache.CacheStats;
+import orm.dto.CatalogPage;
+import orm.dto.CourseStructureSnapshot;
+import orm.dto.CourseView;
+import orm.dto.CursorPage;
 import orm.entity.Course;
 import orm.entity.Lesson;
 import orm.entity.Module;
+import orm.leaderboard.PopularCourse;
+import orm.search.CourseSearchResult;
+import orm.search.FacetFilter;
 
 import java.util.List;
+import java.util.Set;
 
 public interface CourseService {
 
     Course createCourse(Course course, Long teacherId, Long categoryId);
 
+    /**
+     * capacity == null в updatedData оставляет ёмкость как есть; ограничение снимает {@link #clearCapacity(Long)}.
+     */
     Course updateCourse(Long courseId, Course updatedData);
 
+    /**
+     * Снимает ограничение мест на курсе.
+     */
+    void clearCapacity(Long courseId);
+
     void deleteCourse(Long courseId);
 
     Course getCourse(Long courseId);
@@ -20,12 +37,44 @@ public interface CourseService {
 
     Course getCourseWithStructure(Long courseId);
 
+    /**
+     * Снимок структуры курса из кэша; при промахе загружается через {@link #getCourseWithStructure(Long)}.
+     */
+    CourseStructureSnapshot getCourseStructure(Long courseId);
+
+    CacheStats getCourseStructureCacheStats();
+
     Module addModuleToCourse(Long courseId, Module module);
 
     Lesson addLessonToModule(Long moduleId, Lesson lesson);
 
-    List<Course> getCoursesByTeacher(Long teacherId);
+    /**
+     * Курсы преподавателя по (title, id). cursor — значение nextCursor предыдущей страницы или null.
+     */
+    CursorPage<CourseView> getCoursesByTeacher(Long teacherId, String cursor, Integer size);
 
-    List<Course> getCoursesByCategory(Long categoryId);
-}
+    CursorPage<CourseView> getCoursesByCategory(Long categoryId, String cursor, Integer size);
 
+    /**
+     * Полнотекстовый поиск по названию, описанию, категории и тегам (in-memory индекс).
+     * Слова запроса ищутся и целиком, и как префиксы; в результат попадают курсы, где нашлись все слова.
+     * Слова, у которых продолжений больше лимита, перечислены в {@link CourseSearchResult#truncatedPrefixes()}.
+     */
+    CourseSearchResult searchCourses(String query, Integer limit);
+
+    /**
+     * Каталог с фасетами (статус, категория, теги): страница курсов и счётчики значений фасетов.
+     * Внутри фасета выбранные значения объединяются, между фасетами — пересекаются.
+     */
+    CatalogPage browseCatalog(FacetFilter filter, Integer page, Integer size);
+
+    /**
+     * Заменяет набор тегов курса.
+     */
+    void updateCourseTags(Long courseId, Set<Long> tagIds);
+
+    /**
+     * Самые популярные курсы категории по числу активных записей (in-memory рейтинг).
+     */
+    List<PopularCourse> getPopularCourses(Long categoryId, Integer limit);
+}
@@ -1,8 +1,13 @@
 package orm.service;
 
-import orm.entity.Course;
+import orm.dto.CourseView;
+import orm.dto.CursorPage;
+import orm.dto.RosterEntry;
 import orm.entity.Enrollment;
-import orm.entity.User;
+import orm.membership.MembershipStats;
+import orm.model.EnrollmentStatus;
+import orm.model.RosterSort;
+import orm.seats.SeatAvailability;
 
 import java.util.List;
 
@@ -14,9 +19,21 @@ public interface EnrollmentService {
 
     void cancelEnrollment(Long enrollmentId);
 
+    /**
+     * Проверка по индексу членства в памяти; в БД — только пока индекс строится.
+     */
     boolean isStudentEnrolled(Long courseId, Long studentId);
 
-    List<Course> getCoursesForStudent(Long studentId);
+    MembershipStats getMembershipStats();
 
-    List<User> getStudentsForCourse(Long courseId);
+    SeatAvailability getSeatAvailability(Long courseId);
+
+    List<CourseView> getCoursesForStudent(Long studentId);
+
+    /**
+     * Студенты курса страницами: одна выборка с join по пользователю, без загрузки сущностей.
+     * status == null — в любом статусе; cursor — значение nextCursor предыдущей страницы с тем же sort или null.
+     */
+    CursorPage<RosterEntry> getStudentsForCourse(Long courseId, EnrollmentStatus status, RosterSort sort,
+                                                 String cursor, Integer size);
 }
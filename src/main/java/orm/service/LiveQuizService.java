@@ -0,0 +1,38 @@
+package orm.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import orm.dto.LiveSessionResult;
+import orm.dto.LiveSessionView;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Синхронные (живые) тесты в аудитории: сессия живёт в памяти узла,
+ * в БД пишутся только итоговые попытки при завершении.
+ */
+public interface LiveQuizService {
+
+    LiveSessionView startSession(Long quizId);
+
+    LiveSessionView joinSession(UUID sessionId, Long studentId);
+
+    /**
+     * Ответ на открытый вопрос; один ответ участника на вопрос.
+     */
+    void answer(UUID sessionId, Long studentId, Long questionId, List<Long> optionIds);
+
+    LiveSessionView nextQuestion(UUID sessionId);
+
+    LiveSessionView getSession(UUID sessionId);
+
+    /**
+     * Поток состояния сессии: событие state со снимком {@link LiveSessionView}, не чаще broadcast-interval.
+     */
+    SseEmitter subscribe(UUID sessionId);
+
+    /**
+     * Завершить сессию и записать попытку каждого участника в quiz_submissions пачками.
+     */
+    LiveSessionResult endSession(UUID sessionId);
+}
@@ -0,0 +1,27 @@
+package orm.service;
+
+import orm.dto.QuizAttemptView;
+
+import java.util.List;
+import java.util.Map;
+
+public interface QuizAttemptService {
+
+    /**
+     * Начать попытку; для теста с timeLimitMinutes ставится таймер автоматической сдачи.
+     * У студента может быть только одна открытая попытка на тест.
+     */
+    QuizAttemptView startAttempt(Long quizId, Long studentId);
+
+    QuizAttemptView getAttempt(Long attemptId);
+
+    /**
+     * Сохранить текущие ответы — именно они будут сданы, если время выйдет.
+     */
+    QuizAttemptView saveAnswers(Long attemptId, Map<Long, List<Long>> answersByQuestionId);
+
+    /**
+     * Сдать попытку. answersByQuestionId == null — сдаются сохранённые ответы.
+     */
+    QuizAttemptView submitAttempt(Long attemptId, Map<Long, List<Long>> answersByQuestionId);
+}
@@ -0,0 +1,20 @@
+package orm.service;
+
+import orm.dto.QuizImportReport;
+
+import java.io.InputStream;
+
+public interface QuizImportService {
+
+    /**
+     * Создать тест модуля из NDJSON-потока вопросов (одна строка — один {@link orm.dto.QuestionImportLine}).
+     * Поток читается построчно, вопросы и варианты пишутся JDBC-пачками; весь импорт — одна транзакция:
+     * если хоть одна строка не прошла проверку, тест не создаётся, а отчёт перечисляет ошибочные строки.
+     */
+    QuizImportReport importQuiz(Long moduleId, String title, Integer timeLimitMinutes, InputStream input);
+
+    /**
+     * Дописать вопросы из NDJSON-потока в существующий тест — с той же атомарностью.
+     */
+    QuizImportReport importQuestions(Long quizId, InputStream input);
+}
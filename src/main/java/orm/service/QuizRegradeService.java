@@ -0,0 +1,13 @@
+package orm.service;
+
+import orm.dto.RegradeReport;
+
+public interface QuizRegradeService {
+
+    /**
+     * Переоценка всех попыток теста по текущему ключу ответов.
+     * Попытки обрабатываются порциями параллельно, каждая порция — своя транзакция;
+     * при сбое уже записанные порции остаются, повторный запуск безопасен.
+     */
+    RegradeReport regradeQuiz(Long quizId);
+}
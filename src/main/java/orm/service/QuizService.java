@@ -1,26 +1,83 @@
 package orm.service;
 
+import orm.cache.CacheStats;
+import orm.cache.EncodedPayload;
+import orm.draft.DraftStats;
+import orm.dto.QuizAnalyticsView;
+import orm.dto.QuizDetailsView;
+import orm.dto.QuizDraftView;
+import orm.dto.QuizSubmissionView;
+import orm.dto.ScoreDistributionView;
+import orm.dto.SubmissionReceipt;
 import orm.entity.Quiz;
 import orm.entity.QuizSubmission;
+import orm.ingest.IngestStats;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface QuizService {
 
     Quiz createQuizForModule(Long moduleId, Quiz quiz);
 
-    Quiz getQuiz(Long quizId);
+    QuizDetailsView getQuiz(Long quizId);
+
+    /**
+     * Студенческое представление теста ({@link orm.dto.StudentQuizView}) — без правильных ответов,
+     * уже сериализованное в JSON и с ETag; кэшируется до изменения теста.
+     */
+    EncodedPayload getStudentQuizPayload(Long quizId);
 
     /**
      * answersByQuestionId:
      *   key: questionId
      *   value: список id выбранных вариантов ответов (AnswerOption.id)
+     * null — сдаётся сохранённый черновик ({@link #saveDraft}); после сдачи черновик удаляется.
      */
     QuizSubmission takeQuiz(Long studentId, Long quizId, Map<Long, List<Long>> answersByQuestionId);
 
-    List<QuizSubmission> getSubmissionsForQuiz(Long quizId);
+    /**
+     * То же, что {@link #takeQuiz}, но попытка только оценивается и ставится в очередь фоновой записи.
+     * Бросает {@link orm.exception.ServiceOverloadedException}, если очередь заполнена.
+     */
+    SubmissionReceipt submitQuizAsync(Long studentId, Long quizId, Map<Long, List<Long>> answersByQuestionId);
+
+    /**
+     * Исправление ключа: правильными становятся ровно варианты correctOptionIds вопроса.
+     * Набор вариантов не меняется — закодированные ответы попыток остаются валидными,
+     * и их можно переоценить через {@link QuizRegradeService}.
+     */
+    /**
+     * Автосохранение: черновик заменяется в памяти, в БД пишется пачками с задержкой.
+     * Бросает {@link orm.exception.ServiceOverloadedException}, если хранилище черновиков заполнено.
+     */
+    void saveDraft(Long studentId, Long quizId, Map<Long, List<Long>> answersByQuestionId);
+
+    QuizDraftView getDraft(Long studentId, Long quizId);
+
+    void updateAnswerKey(Long quizId, Long questionId, Set<Long> correctOptionIds);
+
+    /**
+     * Аналитика вопросов по накопленным счётчикам — таблица попыток не читается.
+     */
+    QuizAnalyticsView getQuizAnalytics(Long quizId);
+
+    /**
+     * Распределение баллов и перцентили из гистограммы теста; bucketWidth — ширина корзины ответа (по умолчанию 10).
+     */
+    ScoreDistributionView getScoreDistribution(Long quizId, Integer bucketWidth);
+
+    CacheStats getAnswerKeyCacheStats();
+
+    CacheStats getStudentQuizCacheStats();
+
+    IngestStats getSubmissionIngestStats();
+
+    DraftStats getDraftStats();
+
+    List<QuizSubmissionView> getSubmissionsForQuiz(Long quizId);
 
-    List<QuizSubmission> getSubmissionsForStudent(Long studentId);
+    List<QuizSubmissionView> getSubmissionsForStudent(Long studentId);
 }
 
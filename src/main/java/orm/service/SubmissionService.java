@@ -1,5 +1,7 @@
 package orm.service;
 
+import orm.dto.SubmissionDetailsView;
+import orm.dto.SubmissionView;
 import orm.entity.Submission;
 
 import java.util.List;
@@ -10,9 +12,9 @@ public interface SubmissionService {
 
     Submission gradeSubmission(Long submissionId, Integer score, String feedback);
 
-    List<Submission> getSubmissionsForAssignment(Long assignmentId);
+    List<SubmissionView> getSubmissionsForAssignment(Long assignmentId);
 
-    List<Submission> getSubmissionsForStudent(Long studentId);
+    List<SubmissionView> getSubmissionsForStudent(Long studentId);
 
-    Submission getSubmission(Long submissionId);
+    SubmissionDetailsView getSubmission(Long submissionId);
 }
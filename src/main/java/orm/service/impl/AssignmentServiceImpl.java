@@ -1,6 +1,7 @@
 package orm.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import orm.dto.AssignmentView;
 import orm.entity.Assignment;
 import orm.entity.Lesson;
 import orm.entity.Submission;
@@ -58,15 +59,15 @@ public class AssignmentServiceImpl implements AssignmentService {
 
     @Override
     @Transactional(readOnly = true)
-    public Assignment getAssignment(Long assignmentId) {
-        return assignmentRepository.findById(assignmentId)
+    public AssignmentView getAssignment(Long assignmentId) {
+        return assignmentRepository.findViewById(assignmentId)
                 .orElseThrow(() -> new IllegalArgumentException("Задание не найдено: " + assignmentId));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Assignment> getAssignmentsByLesson(Long lessonId) {
-        return assignmentRepository.findByLesson_Id(lessonId);
+    public List<AssignmentView> getAssignmentsByLesson(Long lessonId) {
+        return assignmentRepository.findViewsByLessonId(lessonId);
     }
 
     @Override
@@ -0,0 +1,201 @@
+package orm.service.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.dto.BulkEnrollReport;
+import orm.dto.UserRoleRow;
+import orm.entity.Course;
+import orm.entity.Enrollment;
+import orm.entity.User;
+import orm.leaderboard.EnrollmentCountWriter;
+import orm.membership.EnrollmentMembershipIndex;
+import orm.model.EnrollmentStatus;
+import orm.model.Role;
+import orm.repository.CourseRepository;
+import orm.repository.EnrollmentRepository;
+import orm.repository.UserRepository;
+import orm.seats.CourseSeatLimiter;
+import orm.service.BulkEnrollmentService;
+import orm.util.TransactionCallbacks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class BulkEnrollmentServiceImpl implements BulkEnrollmentService {
+
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentCountWriter enrollmentCounts;
+    private final EnrollmentMembershipIndex membershipIndex;
+    private final CourseSeatLimiter seatLimiter;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final int chunkSize;
+
+    public BulkEnrollmentServiceImpl(CourseRepository courseRepository,
+                                     UserRepository userRepository,
+                                     EnrollmentRepository enrollmentRepository,
+                                     EnrollmentCountWriter enrollmentCounts,
+                                     EnrollmentMembershipIndex membershipIndex,
+                                     CourseSeatLimiter seatLimiter,
+                                     EntityManager entityManager,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${orm.enrollment.bulk-chunk-size:1000}") int chunkSize) {
+        this.courseRepository = courseRepository;
+        this.userRepository = userRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.enrollmentCounts = enrollmentCounts;
+        this.membershipIndex = membershipIndex;
+        this.seatLimiter = seatLimiter;
+        this.entityManager = entityManager;
+        this.transactionManager = transactionManager;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Состояние одной записи когорты: повторы в запросе и накопленный отчёт.
+     */
+    private static final class EnrollRun {
+
+        final Set<Long> seen = new HashSet<>();
+        int requested;
+        final List<Long> enrolled = new ArrayList<>();
+        final List<Long> skipped = new ArrayList<>();
+        final List<BulkEnrollReport.Rejection> rejected = new ArrayList<>();
+
+        BulkEnrollReport report(Long courseId) {
+            return new BulkEnrollReport(courseId, requested, enrolled, skipped, rejected);
+        }
+    }
+
+    @Override
+    public BulkEnrollReport enrollStudents(Long courseId, Iterator<Long> studentIds) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new IllegalArgumentException("Course not found: " + courseId);
+        }
+
+        EnrollRun run = new EnrollRun();
+        List<Long> chunk = new ArrayList<>(chunkSize);
+        while (studentIds.hasNext()) {
+            Long studentId = studentIds.next();
+            run.requested++;
+            if (studentId == null) {
+                run.rejected.add(new BulkEnrollReport.Rejection(null, "Student ID is required"));
+                continue;
+            }
+            if (!run.seen.add(studentId)) {
+                run.skipped.add(studentId);
+                continue;
+            }
+            chunk.add(studentId);
+            if (chunk.size() == chunkSize) {
+                enrollChunk(courseId, chunk, run);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            enrollChunk(courseId, chunk, run);
+        }
+        return run.report(courseId);
+    }
+
+    /**
+     * Одиночная запись успела между проверкой и вставкой — уникальный индекс отверг порцию.
+     */
+    private static final class ConcurrentEnrollmentException extends IllegalStateException {
+
+        ConcurrentEnrollmentException(Long courseId, Throwable cause) {
+            super("Concurrent enrollment into course " + courseId, cause);
+        }
+    }
+
+    private record ChunkResult(List<Long> enrolled, List<Long> skipped, List<BulkEnrollReport.Rejection> rejected) {
+    }
+
+    private void enrollChunk(Long courseId, List<Long> chunk, EnrollRun run) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ChunkResult result;
+        try {
+            result = transaction.execute(status -> insertChunk(courseId, chunk));
+        } catch (ConcurrentEnrollmentException e) {
+            // порция откатилась — проверяем её заново, записанный параллельно студент уйдёт в skipped
+            result = transaction.execute(status -> insertChunk(courseId, chunk));
+        }
+        run.enrolled.addAll(result.enrolled());
+        run.skipped.addAll(result.skipped());
+        run.rejected.addAll(result.rejected());
+    }
+
+    private ChunkResult insertChunk(Long courseId, List<Long> chunk) {
+        Map<Long, Role> roles = userRepository.findRolesByIds(chunk).stream()
+                .collect(Collectors.toMap(UserRoleRow::id, UserRoleRow::role));
+        Set<Long> alreadyEnrolled = new HashSet<>(enrollmentRepository.findEnrolledStudentIds(courseId, chunk));
+
+        List<Long> enrolled = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+        List<BulkEnrollReport.Rejection> rejected = new ArrayList<>();
+
+        // ссылки без SELECT: существование проверено выборками выше
+        List<Long> eligible = new ArrayList<>();
+        for (Long studentId : chunk) {
+            Role role = roles.get(studentId);
+            if (role == null) {
+                rejected.add(new BulkEnrollReport.Rejection(studentId, "User not found"));
+            } else if (role != Role.STUDENT) {
+                rejected.add(new BulkEnrollReport.Rejection(studentId, "User is not a student"));
+            } else if (alreadyEnrolled.contains(studentId)) {
+                skipped.add(studentId);
+            } else {
+                eligible.add(studentId);
+            }
+        }
+
+        // места выдаются порции целиком; сверх ёмкости — отказ по порядку в запросе
+        int seats = eligible.isEmpty() ? 0 : seatLimiter.tryAcquire(courseId, eligible.size());
+        Course course = entityManager.getReference(Course.class, courseId);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < eligible.size(); i++) {
+            Long studentId = eligible.get(i);
+            if (i >= seats) {
+                rejected.add(new BulkEnrollReport.Rejection(studentId, "Course is full"));
+                continue;
+            }
+            entityManager.persist(Enrollment.builder()
+                    .course(course)
+                    .student(entityManager.getReference(User.class, studentId))
+                    .status(EnrollmentStatus.ACTIVE)
+                    .enrolledAt(now)
+                    .build());
+            enrolled.add(studentId);
+        }
+
+        if (!enrolled.isEmpty()) {
+            // вставки уходят пачками; счётчик записей курса дописывается после коммита.
+            // EntityManager не переводит исключения в DataAccessException — ловим JPA-исключение
+            try {
+                entityManager.flush();
+            } catch (PersistenceException e) {
+                if (EnrollmentServiceImpl.violates(e, Enrollment.UNIQUE_STUDENT_COURSE)) {
+                    throw new ConcurrentEnrollmentException(courseId, e);
+                }
+                throw e;
+            }
+            enrollmentCounts.add(courseId, enrolled.size());
+            TransactionCallbacks.afterCommit(() -> enrolled.forEach(studentId -> membershipIndex.added(studentId, courseId)));
+        }
+        entityManager.clear();
+        return new ChunkResult(enrolled, skipped, rejected);
+    }
+}
@@ -0,0 +1,278 @@
+package orm.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.dto.CourseImportLine;
+import orm.dto.ImportReport;
+import orm.entity.Category;
+import orm.entity.Course;
+import orm.entity.Lesson;
+import orm.entity.Module;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.repository.CategoryRepository;
+import orm.repository.UserRepository;
+import orm.search.CourseChangedEvent;
+import orm.search.CourseDocument;
+import orm.service.CourseImportService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class CourseImportServiceImpl implements CourseImportService {
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public CourseImportServiceImpl(UserRepository userRepository,
+                                   CategoryRepository categoryRepository,
+                                   EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   ObjectMapper objectMapper,
+                                   Validator validator,
+                                   @Value("${orm.import.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.entityManager = entityManager;
+        this.transactionManager = transactionManager;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    private record ParsedLine(long number, CourseImportLine course) {
+    }
+
+    /**
+     * Состояние одного импорта: справочники ссылок и счётчики отчёта.
+     */
+    private static final class ImportRun {
+
+        final Map<Long, String> categoryNames;
+        final Set<Long> knownTeachers = new HashSet<>();
+        final Set<Long> missingTeachers = new HashSet<>();
+
+        long processed;
+        long imported;
+        long failed;
+        final List<ImportReport.LineError> errors = new ArrayList<>();
+
+        ImportRun(Map<Long, String> categoryNames) {
+            this.categoryNames = categoryNames;
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < ImportReport.MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.LineError(line, message));
+            }
+        }
+
+        ImportReport report() {
+            return new ImportReport(processed, imported, failed, List.copyOf(errors));
+        }
+    }
+
+    @Override
+    public ImportReport importCourses(InputStream input) {
+        // категорий немного — справочник целиком; преподаватели подгружаются по мере появления новых id
+        ImportRun run = new ImportRun(categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName)));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<ParsedLine> chunk = new ArrayList<>(chunkSize);
+            long number = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                number++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                run.processed++;
+
+                CourseImportLine line = parse(number, text, run);
+                if (line != null) {
+                    chunk.add(new ParsedLine(number, line));
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, run);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import stream", e);
+        }
+        return run.report();
+    }
+
+    private CourseImportLine parse(long number, String text, ImportRun run) {
+        CourseImportLine line;
+        try {
+            line = objectMapper.readValue(text, CourseImportLine.class);
+        } catch (JsonProcessingException e) {
+            run.fail(number, "Malformed line: " + e.getOriginalMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<CourseImportLine>> violations = validator.validate(line);
+        if (!violations.isEmpty()) {
+            run.fail(number, violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return line;
+    }
+
+    private void writeChunk(List<ParsedLine> chunk, ImportRun run) {
+        resolveTeachers(chunk, run);
+
+        List<ParsedLine> valid = new ArrayList<>(chunk.size());
+        for (ParsedLine line : chunk) {
+            if (!run.knownTeachers.contains(line.course().teacherId())) {
+                run.fail(line.number(), "Teacher not found: " + line.course().teacherId());
+            } else if (!run.categoryNames.containsKey(line.course().categoryId())) {
+                run.fail(line.number(), "Category not found: " + line.course().categoryId());
+            } else {
+                valid.add(line);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> persist(valid, run));
+            run.imported += valid.size();
+        } catch (RuntimeException chunkFailure) {
+            // ошибка БД откатила всю порцию — повторяем построчно, чтобы найти виноватые строки
+            for (ParsedLine line : valid) {
+                try {
+                    transaction.executeWithoutResult(status -> persist(List.of(line), run));
+                    run.imported++;
+                } catch (RuntimeException e) {
+                    run.fail(line.number(), rootMessage(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Один запрос на порцию — только для id преподавателей, которых этот импорт ещё не видел.
+     */
+    private void resolveTeachers(List<ParsedLine> chunk, ImportRun run) {
+        Set<Long> unseen = new HashSet<>();
+        for (ParsedLine line : chunk) {
+            Long teacherId = line.course().teacherId();
+            if (!run.knownTeachers.contains(teacherId) && !run.missingTeachers.contains(teacherId)) {
+                unseen.add(teacherId);
+            }
+        }
+        if (unseen.isEmpty()) {
+            return;
+        }
+        List<Long> existing = userRepository.findExistingIds(unseen);
+        run.knownTeachers.addAll(existing);
+        existing.forEach(unseen::remove);
+        run.missingTeachers.addAll(unseen);
+    }
+
+    private void persist(List<ParsedLine> lines, ImportRun run) {
+        List<CourseDocument> documents = new ArrayList<>(lines.size());
+        Map<Long, User> teachers = new HashMap<>();
+        Map<Long, Category> categories = new HashMap<>();
+
+        for (ParsedLine parsed : lines) {
+            CourseImportLine line = parsed.course();
+            Course course = Course.builder()
+                    .title(line.title())
+                    .description(line.description())
+                    .duration(line.duration())
+                    .startDate(line.startDate())
+                    .endDate(line.endDate())
+                    .status(line.status() != null ? line.status() : CourseStatus.DRAFT)
+                    // ссылки без SELECT: существование уже проверено по справочникам импорта
+                    .teacher(teachers.computeIfAbsent(line.teacherId(),
+                            id -> entityManager.getReference(User.class, id)))
+                    .category(categories.computeIfAbsent(line.categoryId(),
+                            id -> entityManager.getReference(Category.class, id)))
+                    .build();
+
+            if (line.modules() != null) {
+                for (CourseImportLine.ModuleLine moduleLine : line.modules()) {
+                    Module module = Module.builder()
+                            .title(moduleLine.title())
+                            .description(moduleLine.description())
+                            .orderIndex(moduleLine.orderIndex())
+                            .course(course)
+                            .build();
+                    if (moduleLine.lessons() != null) {
+                        for (CourseImportLine.LessonLine lessonLine : moduleLine.lessons()) {
+                            module.getLessons().add(Lesson.builder()
+                                    .title(lessonLine.title())
+                                    .content(lessonLine.content())
+                                    .videoUrl(lessonLine.videoUrl())
+                                    .orderIndex(lessonLine.orderIndex())
+                                    .module(module)
+                                    .build());
+                        }
+                    }
+                    course.getModules().add(module);
+                }
+            }
+
+            // модули и уроки сохраняются каскадом
+            entityManager.persist(course);
+            documents.add(new CourseDocument(course.getId(), course.getTitle(), course.getDescription(),
+                    course.getStatus(), line.categoryId(), run.categoryNames.get(line.categoryId()), List.of()));
+        }
+
+        // отправляем накопленные вставки пачками и освобождаем контекст перед следующей порцией
+        entityManager.flush();
+        entityManager.clear();
+
+        // индексы поиска и фасетов получат события после коммита порции
+        documents.forEach(document -> eventPublisher.publishEvent(CourseChangedEvent.updated(document)));
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+}
@@ -1,22 +1,54 @@
 package orm.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.cache.CacheStats;
+import orm.cache.CourseStructureCache;
+import orm.config.PaginationProperties;
+import orm.dto.CatalogPage;
+import orm.dto.CourseStructureSnapshot;
+import orm.dto.CourseView;
+import orm.dto.CursorPage;
+import orm.dto.KeysetCursor;
 import orm.entity.Category;
 import orm.entity.Course;
 import orm.entity.Lesson;
 import orm.entity.Module;
+import orm.entity.Tag;
 import orm.entity.User;
+import orm.leaderboard.CourseLeaderboard;
+import orm.leaderboard.PopularCourse;
 import orm.model.CourseStatus;
 import orm.repository.CategoryRepository;
 import orm.repository.CourseRepository;
 import orm.repository.LessonRepository;
 import orm.repository.ModuleRepository;
+import orm.repository.TagRepository;
 import orm.repository.UserRepository;
+import orm.search.CourseChangedEvent;
+import orm.search.CourseDocument;
+import orm.search.CourseFacetIndex;
+import orm.search.CourseSearchIndex;
+import orm.search.CourseSearchResult;
+import orm.search.FacetFilter;
+import orm.search.FacetResult;
+import orm.seats.CourseSeatLimiter;
 import orm.service.CourseService;
+import orm.util.TransactionCallbacks;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +60,15 @@ public class CourseServiceImpl implements CourseService {
     private final CategoryRepository categoryRepository;
     private final ModuleRepository moduleRepository;
     private final LessonRepository lessonRepository;
+    private final TagRepository tagRepository;
+    private final CourseStructureCache courseStructureCache;
+    private final PlatformTransactionManager transactionManager;
+    private final PaginationProperties paginationProperties;
+    private final CourseSearchIndex courseSearchIndex;
+    private final CourseFacetIndex courseFacetIndex;
+    private final CourseLeaderboard courseLeaderboard;
+    private final CourseSeatLimiter courseSeatLimiter;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Course createCourse(Course course, Long teacherId, Long categoryId) {
@@ -44,7 +85,9 @@ public class CourseServiceImpl implements CourseService {
             course.setStatus(CourseStatus.DRAFT);
         }
 
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        eventPublisher.publishEvent(CourseChangedEvent.updated(CourseDocument.of(saved)));
+        return saved;
     }
 
     @Override
@@ -59,21 +102,49 @@ public class CourseServiceImpl implements CourseService {
         if (updatedData.getStatus() != null) {
             existing.setStatus(updatedData.getStatus());
         }
+        // null — ёмкость не меняется; ограничение снимает clearCapacity
+        if (updatedData.getCapacity() != null) {
+            changeCapacity(existing, updatedData.getCapacity());
+        }
+
+        courseStructureCache.invalidate(courseId);
+        Course saved = courseRepository.save(existing);
+        eventPublisher.publishEvent(CourseChangedEvent.updated(CourseDocument.of(saved)));
+        return saved;
+    }
+
+    @Override
+    public void clearCapacity(Long courseId) {
+        Course course = getCourse(courseId);
+        changeCapacity(course, null);
+        courseRepository.save(course);
+    }
 
-        return courseRepository.save(existing);
+    private void changeCapacity(Course course, Integer capacity) {
+        if (!Objects.equals(course.getCapacity(), capacity)) {
+            course.setCapacity(capacity);
+            Long courseId = course.getId();
+            TransactionCallbacks.afterCommit(() -> courseSeatLimiter.capacityChanged(courseId, capacity));
+        }
     }
 
     @Override
     public void deleteCourse(Long courseId) {
         Course course = getCourse(courseId);
         courseRepository.delete(course);
+        courseStructureCache.invalidate(courseId);
+        TransactionCallbacks.afterCommit(() -> courseSeatLimiter.invalidate(courseId));
+        eventPublisher.publishEvent(CourseChangedEvent.deleted(courseId));
     }
 
     @Override
     public Course publishCourse(Long courseId) {
         Course course = getCourse(courseId);
         course.setStatus(CourseStatus.PUBLISHED);
-        return courseRepository.save(course);
+        courseStructureCache.invalidate(courseId);
+        Course saved = courseRepository.save(course);
+        eventPublisher.publishEvent(CourseChangedEvent.updated(CourseDocument.of(saved)));
+        return saved;
     }
 
     @Override
@@ -86,18 +157,43 @@ public class CourseServiceImpl implements CourseService {
     @Override
     @Transactional(readOnly = true)
     public Course getCourseWithStructure(Long courseId) {
-        // Простой вариант: вернём курс, а модули/уроки загрузятся лениво в транзакции.
-        Course course = getCourse(courseId);
-        course.getModules().forEach(module -> module.getLessons().size());
+        // Два запроса независимо от размера курса:
+        // 1) курс + преподаватель + категория + модули + тесты модулей;
+        // 2) уроки всех модулей (ложатся в уже загруженные модули).
+        Course course = courseRepository.findWithModulesById(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
+        if (!course.getModules().isEmpty()) {
+            moduleRepository.fetchLessonsByCourseId(courseId);
+        }
         return course;
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CourseStructureSnapshot getCourseStructure(Long courseId) {
+        // При попадании в кэш транзакция и соединение с БД не нужны.
+        return courseStructureCache.getOrLoad(courseId, this::loadCourseStructure);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CacheStats getCourseStructureCacheStats() {
+        return courseStructureCache.stats();
+    }
+
+    private CourseStructureSnapshot loadCourseStructure(Long courseId, long version) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> CourseStructureSnapshot.of(getCourseWithStructure(courseId), version));
+    }
+
     @Override
     public Module addModuleToCourse(Long courseId, Module module) {
         Course course = getCourse(courseId);
         module.setCourse(course);
         moduleRepository.save(module);
         course.getModules().add(module);
+        courseStructureCache.invalidate(courseId);
         return module;
     }
 
@@ -108,18 +204,97 @@ public class CourseServiceImpl implements CourseService {
         lesson.setModule(module);
         lessonRepository.save(lesson);
         module.getLessons().add(lesson);
+        courseStructureCache.invalidate(module.getCourse().getId());
         return lesson;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Course> getCoursesByTeacher(Long teacherId) {
-        return courseRepository.findByTeacher_Id(teacherId);
+    public CursorPage<CourseView> getCoursesByTeacher(Long teacherId, String cursor, Integer size) {
+        int pageSize = paginationProperties.resolve(size);
+        // на одну строку больше — так узнаём, есть ли следующая страница, без count-запроса
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+
+        List<CourseView> rows;
+        if (cursor == null) {
+            rows = courseRepository.findPageByTeacher(teacherId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = courseRepository.findPageByTeacherAfter(teacherId, after.sortKey(), after.id(), limit);
+        }
+        return CursorPage.of(rows, pageSize, c -> new KeysetCursor(c.title(), c.id()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CourseView> getCoursesByCategory(Long categoryId, String cursor, Integer size) {
+        int pageSize = paginationProperties.resolve(size);
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+
+        List<CourseView> rows;
+        if (cursor == null) {
+            rows = courseRepository.findPageByCategory(categoryId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = courseRepository.findPageByCategoryAfter(categoryId, after.sortKey(), after.id(), limit);
+        }
+        return CursorPage.of(rows, pageSize, c -> new KeysetCursor(c.title(), c.id()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CourseSearchResult searchCourses(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        return courseSearchIndex.search(query, paginationProperties.resolve(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CatalogPage browseCatalog(FacetFilter filter, Integer page, Integer size) {
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page must be >= 0");
+        }
+        int pageSize = paginationProperties.resolve(size);
+
+        FacetResult result = courseFacetIndex.query(filter, pageNumber * pageSize, pageSize);
+
+        // один запрос на страницу; порядок задаёт индекс (по id курса)
+        Map<Long, CourseView> views = result.courseIds().isEmpty()
+                ? Map.of()
+                : courseRepository.findViewsByIdIn(result.courseIds()).stream()
+                        .collect(Collectors.toMap(CourseView::id, Function.identity()));
+        List<CourseView> items = result.courseIds().stream()
+                .map(views::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new CatalogPage(items, result.total(), pageNumber, pageSize,
+                result.statuses(), result.categories(), result.tags());
+    }
+
+    @Override
+    public void updateCourseTags(Long courseId, Set<Long> tagIds) {
+        Course course = getCourse(courseId);
+
+        List<Tag> tags = tagRepository.findAllById(tagIds);
+        if (tags.size() != tagIds.size()) {
+            Set<Long> missing = new HashSet<>(tagIds);
+            tags.forEach(tag -> missing.remove(tag.getId()));
+            throw new IllegalArgumentException("Tags not found: " + missing);
+        }
+
+        course.getTags().clear();
+        course.getTags().addAll(tags);
+        Course saved = courseRepository.save(course);
+        eventPublisher.publishEvent(CourseChangedEvent.updated(CourseDocument.of(saved)));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Course> getCoursesByCategory(Long categoryId) {
-        return courseRepository.findByCategory_Id(categoryId);
+    public List<PopularCourse> getPopularCourses(Long categoryId, Integer limit) {
+        return courseLeaderboard.top(categoryId, paginationProperties.resolve(limit));
     }
 }
@@ -1,20 +1,37 @@
 package orm.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import orm.entity.Course;
+import orm.cache.UserRoleCache;
+import orm.config.PaginationProperties;
+import orm.dto.CourseView;
+import orm.dto.CursorPage;
+import orm.dto.KeysetCursor;
+import orm.dto.RosterEntry;
 import orm.entity.Enrollment;
-import orm.entity.User;
+import orm.leaderboard.EnrollmentCountWriter;
+import orm.membership.EnrollmentMembershipIndex;
+import orm.membership.MembershipStats;
 import orm.model.EnrollmentStatus;
 import orm.model.Role;
+import orm.model.RosterSort;
 import orm.repository.CourseRepository;
 import orm.repository.EnrollmentRepository;
 import orm.repository.UserRepository;
+import orm.seats.CourseSeatLimiter;
+import orm.seats.SeatAvailability;
 import orm.service.EnrollmentService;
+import orm.util.TransactionCallbacks;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -24,30 +41,52 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     private final EnrollmentRepository enrollmentRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
-
+    private final EnrollmentCountWriter enrollmentCounts;
+    private final UserRoleCache userRoleCache;
+    private final EnrollmentMembershipIndex membershipIndex;
+    private final PaginationProperties paginationProperties;
+    private final CourseSeatLimiter seatLimiter;
+
+    /**
+     * Вставка без предварительных проверок: роль берётся из кэша, курс и студент — ссылками без SELECT.
+     * Повторную запись (в том числе параллельный двойной клик) отсекает уникальное ограничение,
+     * несуществующий курс — внешний ключ. Места выдаёт счётчик в памяти, и когда их нет, запрос
+     * отклоняется до вставки. Строка курса не обновляется: счётчик записей дописывается пачкой после коммита,
+     * так что запись — одна инструкция INSERT.
+     */
     @Override
     public Enrollment enrollStudent(Long courseId, Long studentId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-
-        User student = userRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + studentId));
-
-        if (student.getRole() != Role.STUDENT) {
+        Role role = userRoleCache.getOrLoad(studentId, id -> userRepository.findRoleById(id).orElse(null));
+        if (role == null) {
+            throw new IllegalArgumentException("User not found: " + studentId);
+        }
+        if (role != Role.STUDENT) {
             throw new IllegalStateException("User is not a student: " + studentId);
         }
-
-        if (enrollmentRepository.existsByStudent_IdAndCourse_Id(studentId, courseId)) {
-            throw new IllegalStateException("Student is already enrolled in the course");
+        if (!seatLimiter.tryAcquire(courseId)) {
+            throw new IllegalStateException("Course is full: " + courseId);
         }
 
         Enrollment enrollment = Enrollment.builder()
-                .course(course)
-                .student(student)
+                .course(courseRepository.getReferenceById(courseId))
+                .student(userRepository.getReferenceById(studentId))
                 .status(EnrollmentStatus.ACTIVE)
                 .build();
 
-        return enrollmentRepository.save(enrollment);
+        Enrollment saved;
+        try {
+            // flush сразу: нарушение ограничения должно проявиться здесь, а не при коммите
+            saved = enrollmentRepository.saveAndFlush(enrollment);
+        } catch (DataIntegrityViolationException e) {
+            if (violates(e, Enrollment.UNIQUE_STUDENT_COURSE)) {
+                throw new IllegalStateException("Student is already enrolled in the course");
+            }
+            // студент только что проверен по роли — остаётся внешний ключ курса
+            throw new IllegalArgumentException("Course not found: " + courseId);
+        }
+        enrollmentCounts.add(courseId, 1);
+        TransactionCallbacks.afterCommit(() -> membershipIndex.added(studentId, courseId));
+        return saved;
     }
 
     @Override
@@ -55,8 +94,12 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new IllegalArgumentException("Запись не найдена"));
 
+        if (enrollment.getStatus() == EnrollmentStatus.CANCELLED) {
+            return;
+        }
         enrollment.setStatus(EnrollmentStatus.CANCELLED);
         enrollmentRepository.save(enrollment);
+        releaseSeat(enrollment.getCourse().getId());
     }
 
 
@@ -66,27 +109,90 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 .orElseThrow(() -> new IllegalArgumentException("Enrollment not found"));
 
         enrollmentRepository.delete(enrollment);
+        if (enrollment.getStatus() != EnrollmentStatus.CANCELLED) {
+            releaseSeat(courseId);
+        }
+        TransactionCallbacks.afterCommit(() -> membershipIndex.removed(studentId, courseId));
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean isStudentEnrolled(Long courseId, Long studentId) {
-        return enrollmentRepository.existsByStudent_IdAndCourse_Id(studentId, courseId);
+        return membershipIndex.isEnrolled(studentId, courseId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public MembershipStats getMembershipStats() {
+        return membershipIndex.stats();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SeatAvailability getSeatAvailability(Long courseId) {
+        return courseRepository.findSeatRow(courseId, EnrollmentStatus.CANCELLED)
+                .map(row -> SeatAvailability.of(courseId, row))
+                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Course> getCoursesForStudent(Long studentId) {
-        return enrollmentRepository.findByStudent_Id(studentId).stream()
-                .map(Enrollment::getCourse)
-                .collect(Collectors.toList());
+    public List<CourseView> getCoursesForStudent(Long studentId) {
+        return enrollmentRepository.findCourseViewsByStudentId(studentId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<User> getStudentsForCourse(Long courseId) {
-        return enrollmentRepository.findByCourse_Id(courseId).stream()
-                .map(Enrollment::getStudent)
-                .collect(Collectors.toList());
+    public CursorPage<RosterEntry> getStudentsForCourse(Long courseId, EnrollmentStatus status, RosterSort sort,
+                                                        String cursor, Integer size) {
+        int pageSize = paginationProperties.resolve(size);
+        // на одну строку больше — так узнаём, есть ли следующая страница, без count-запроса
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+
+        if (sort == RosterSort.ENROLLED_AT) {
+            List<RosterEntry> rows = after == null
+                    ? enrollmentRepository.findRosterByEnrolledAt(courseId, status, limit)
+                    : enrollmentRepository.findRosterByEnrolledAtAfter(courseId, status,
+                            parseEnrolledAt(after), after.id(), limit);
+            return CursorPage.of(rows, pageSize, r -> new KeysetCursor(r.enrolledAt().toString(), r.enrollmentId()));
+        }
+        List<RosterEntry> rows = after == null
+                ? enrollmentRepository.findRosterByName(courseId, status, limit)
+                : enrollmentRepository.findRosterByNameAfter(courseId, status, after.sortKey(), after.id(), limit);
+        return CursorPage.of(rows, pageSize, r -> new KeysetCursor(r.name(), r.enrollmentId()));
+    }
+
+    private static LocalDateTime parseEnrolledAt(KeysetCursor cursor) {
+        try {
+            return LocalDateTime.parse(cursor.sortKey());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor for sort ENROLLED_AT: " + cursor.encode(), e);
+        }
+    }
+
+    /**
+     * Нарушено ли ограничение constraint. Принимает и переведённое Spring исключение,
+     * и исключение Hibernate/JPA из прямого EntityManager.flush().
+     */
+    static boolean violates(RuntimeException e, String constraint) {
+        Throwable mostSpecific = e;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint);
+            }
+            mostSpecific = cause;
+        }
+        // имя ограничения не извлечено диалектом — ищем его в сообщении драйвера
+        String message = mostSpecific.getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(constraint);
+    }
+
+    /**
+     * После коммита место возвращается счётчику в памяти, а счётчик записей курса получает приращение −1.
+     */
+    private void releaseSeat(Long courseId) {
+        enrollmentCounts.add(courseId, -1);
+        TransactionCallbacks.afterCommit(() -> seatLimiter.released(courseId, 1));
     }
 }
@@ -0,0 +1,175 @@
+package orm.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import orm.analytics.QuizItemAnalytics;
+import orm.cache.QuizAnswerKey;
+import orm.dto.LiveSessionResult;
+import orm.dto.LiveSessionView;
+import orm.entity.Quiz;
+import orm.entity.QuizSubmission;
+import orm.live.LiveQuizSession;
+import orm.live.LiveSessionProperties;
+import orm.live.LiveSessions;
+import orm.repository.QuizRepository;
+import orm.repository.QuizSubmissionRepository;
+import orm.repository.UserRepository;
+import orm.service.LiveQuizService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiveQuizServiceImpl implements LiveQuizService {
+
+    private final LiveSessions liveSessions;
+    private final LiveSessionProperties properties;
+    private final QuizAnswerKeyLoader quizAnswerKeyLoader;
+    private final QuizRepository quizRepository;
+    private final UserRepository userRepository;
+    private final QuizSubmissionRepository quizSubmissionRepository;
+    private final QuizItemAnalytics quizItemAnalytics;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Оценённая попытка участника; в БД превращается в {@link QuizSubmission}.
+     */
+    private record GradedAnswers(Long studentId, Map<Long, List<Long>> answers,
+                                 boolean[] correctByQuestion, int correctQuestions, int score) {
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LiveSessionView startSession(Long quizId) {
+        QuizAnswerKey answerKey = quizAnswerKeyLoader.get(quizId);
+        if (answerKey.questionCount() == 0) {
+            throw new IllegalArgumentException("Quiz has no questions: " + quizId);
+        }
+        LiveQuizSession session = new LiveQuizSession(quizId, answerKey);
+        liveSessions.register(session);
+        return session.view();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LiveSessionView joinSession(UUID sessionId, Long studentId) {
+        LiveQuizSession session = liveSessions.get(sessionId);
+        if (!userRepository.existsById(studentId)) {
+            throw new IllegalArgumentException("User not found: " + studentId);
+        }
+        session.join(studentId, properties.maxParticipants());
+        return session.view();
+    }
+
+    @Override
+    public void answer(UUID sessionId, Long studentId, Long questionId, List<Long> optionIds) {
+        // горячий путь: ни БД, ни блокировок — только счётчики сессии
+        liveSessions.get(sessionId).answer(studentId, questionId, optionIds);
+    }
+
+    @Override
+    public LiveSessionView nextQuestion(UUID sessionId) {
+        LiveQuizSession session = liveSessions.get(sessionId);
+        session.nextQuestion();
+        liveSessions.publishNow(session);
+        return session.view();
+    }
+
+    @Override
+    public LiveSessionView getSession(UUID sessionId) {
+        return liveSessions.get(sessionId).view();
+    }
+
+    @Override
+    public SseEmitter subscribe(UUID sessionId) {
+        return liveSessions.subscribe(sessionId);
+    }
+
+    @Override
+    public LiveSessionResult endSession(UUID sessionId) {
+        LiveQuizSession session = liveSessions.get(sessionId);
+        if (!session.end()) {
+            throw new IllegalStateException("Live session " + sessionId + " has already ended");
+        }
+        liveSessions.publishNow(session);
+
+        List<GradedAnswers> graded = grade(session);
+        int written = 0;
+        int batchSize = properties.writeBatchSize();
+        for (int from = 0; from < graded.size(); from += batchSize) {
+            written += write(session, graded.subList(from, Math.min(from + batchSize, graded.size())));
+        }
+
+        liveSessions.remove(sessionId);
+        return new LiveSessionResult(sessionId, session.getQuizId(), graded.size(), written, graded.size() - written);
+    }
+
+    private List<GradedAnswers> grade(LiveQuizSession session) {
+        QuizAnswerKey answerKey = session.getAnswerKey();
+        List<GradedAnswers> graded = new ArrayList<>(session.participantCount());
+        session.answersByStudent().forEach((studentId, answers) -> {
+            boolean[] correctByQuestion = new boolean[answerKey.questionCount()];
+            int correctQuestions = answerKey.grade(answers, correctByQuestion);
+            graded.add(new GradedAnswers(studentId, answers, correctByQuestion, correctQuestions,
+                    QuizScorer.score(correctQuestions, answerKey.questionCount())));
+        });
+        return graded;
+    }
+
+    /**
+     * @return сколько попыток записано; при ошибке пачки она повторяется по одной попытке
+     */
+    private int write(LiveQuizSession session, List<GradedAnswers> batch) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime takenAt = LocalDateTime.now();
+        try {
+            transaction.executeWithoutResult(status -> persist(session, batch, takenAt));
+            batch.forEach(answers -> record(session, answers));
+            return batch.size();
+        } catch (RuntimeException batchFailure) {
+            int written = 0;
+            for (GradedAnswers answers : batch) {
+                try {
+                    transaction.executeWithoutResult(status -> persist(session, List.of(answers), takenAt));
+                    record(session, answers);
+                    written++;
+                } catch (RuntimeException e) {
+                    log.error("Failed to write live session {} result for student {}",
+                            session.getId(), answers.studentId(), e);
+                }
+            }
+            return written;
+        }
+    }
+
+    private void persist(LiveQuizSession session, List<GradedAnswers> batch, LocalDateTime takenAt) {
+        Quiz quiz = quizRepository.getReferenceById(session.getQuizId());
+        List<QuizSubmission> submissions = new ArrayList<>(batch.size());
+        for (GradedAnswers answers : batch) {
+            submissions.add(QuizSubmission.builder()
+                    .quiz(quiz)
+                    .student(userRepository.getReferenceById(answers.studentId()))
+                    .score(answers.score())
+                    .passed(answers.score() >= QuizScorer.PASSING_SCORE)
+                    .answers(session.getAnswerKey().encodeSelection(answers.answers()))
+                    .takenAt(takenAt)
+                    .build());
+        }
+        quizSubmissionRepository.saveAll(submissions);
+    }
+
+    private void record(LiveQuizSession session, GradedAnswers answers) {
+        quizItemAnalytics.record(session.getQuizId(), session.getAnswerKey(), answers.answers(),
+                answers.correctByQuestion(), answers.correctQuestions());
+    }
+}
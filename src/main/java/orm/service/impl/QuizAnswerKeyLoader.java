@@ -0,0 +1,35 @@
+package orm.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import orm.cache.QuizAnswerKey;
+import orm.cache.QuizAnswerKeyCache;
+import orm.repository.QuestionRepository;
+import orm.repository.QuizRepository;
+
+/**
+ * Ключи ответов для проверки тестов — общий загрузчик для сдачи, live-сессий и переоценки.
+ * Вызывать внутри транзакции: при промахе читаются вопросы и варианты теста.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuizAnswerKeyLoader {
+
+    private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
+    private final QuizAnswerKeyCache quizAnswerKeyCache;
+
+    public QuizAnswerKey get(Long quizId) {
+        return quizAnswerKeyCache.getOrLoad(quizId, this::load);
+    }
+
+    /**
+     * Ключ прямо из БД, мимо кэша.
+     */
+    public QuizAnswerKey load(Long quizId) {
+        if (!quizRepository.existsById(quizId)) {
+            throw new IllegalArgumentException("Quiz not found: " + quizId);
+        }
+        return QuizAnswerKey.compile(questionRepository.findAnswerKeyRows(quizId));
+    }
+}
@@ -0,0 +1,172 @@
+package orm.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.attempt.AttemptProperties;
+import orm.attempt.AttemptTimers;
+import orm.attempt.AttemptsExpiredEvent;
+import orm.dto.QuizAttemptView;
+import orm.entity.Quiz;
+import orm.entity.QuizAttempt;
+import orm.entity.QuizSubmission;
+import orm.entity.User;
+import orm.model.AttemptStatus;
+import orm.repository.QuizAttemptRepository;
+import orm.repository.QuizRepository;
+import orm.repository.UserRepository;
+import orm.service.QuizAttemptService;
+import orm.service.QuizService;
+import orm.util.TransactionCallbacks;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuizAttemptServiceImpl implements QuizAttemptService {
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final QuizRepository quizRepository;
+    private final UserRepository userRepository;
+    private final QuizService quizService;
+    private final AttemptTimers attemptTimers;
+    private final PlatformTransactionManager transactionManager;
+    private final AttemptProperties attemptProperties;
+
+    @Override
+    @Transactional
+    public QuizAttemptView startAttempt(Long quizId, Long studentId) {
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new IllegalArgumentException("Quiz not found: " + quizId));
+        User student = userRepository.findById(studentId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + studentId));
+        if (quizAttemptRepository.existsByStudent_IdAndQuiz_IdAndStatus(studentId, quizId, AttemptStatus.IN_PROGRESS)) {
+            throw new IllegalStateException("Student " + studentId + " already has an open attempt for quiz " + quizId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        QuizAttempt attempt = quizAttemptRepository.save(QuizAttempt.builder()
+                .quiz(quiz)
+                .student(student)
+                .status(AttemptStatus.IN_PROGRESS)
+                .startedAt(now)
+                .deadline(quiz.getTimeLimitMinutes() != null ? now.plusMinutes(quiz.getTimeLimitMinutes()) : null)
+                .build());
+
+        if (attempt.getDeadline() != null) {
+            TransactionCallbacks.afterCommit(() -> attemptTimers.schedule(attempt.getId(), attempt.getDeadline()));
+        }
+        return QuizAttemptView.of(attempt);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public QuizAttemptView getAttempt(Long attemptId) {
+        return QuizAttemptView.of(findAttempt(attemptId));
+    }
+
+    @Override
+    @Transactional
+    public QuizAttemptView saveAnswers(Long attemptId, Map<Long, List<Long>> answersByQuestionId) {
+        QuizAttempt attempt = findAttempt(attemptId);
+        requireOpen(attempt);
+        attempt.setAnswers(new HashMap<>(answersByQuestionId));
+        return QuizAttemptView.of(attempt);
+    }
+
+    @Override
+    @Transactional
+    public QuizAttemptView submitAttempt(Long attemptId, Map<Long, List<Long>> answersByQuestionId) {
+        QuizAttempt attempt = findAttempt(attemptId);
+        requireOpen(attempt);
+        if (answersByQuestionId != null) {
+            attempt.setAnswers(new HashMap<>(answersByQuestionId));
+        }
+        finish(attempt, AttemptStatus.SUBMITTED, LocalDateTime.now());
+
+        TransactionCallbacks.afterCommit(() -> attemptTimers.cancel(attemptId));
+        return QuizAttemptView.of(attempt);
+    }
+
+    /**
+     * Автоматическая сдача истёкших попыток: одна транзакция на пачку, вставки попыток
+     * и обновления статусов уходят JDBC-пачками при коммите. Если пачка не записалась
+     * (например, попытку только что сдали вручную), повторяем по одной.
+     */
+    @EventListener
+    public void onAttemptsExpired(AttemptsExpiredEvent event) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> expire(event.attemptIds()));
+        } catch (RuntimeException batchFailure) {
+            for (Long attemptId : event.attemptIds()) {
+                try {
+                    transaction.executeWithoutResult(status -> expire(List.of(attemptId)));
+                } catch (RuntimeException e) {
+                    log.error("Failed to auto-submit quiz attempt {}", attemptId, e);
+                }
+            }
+        }
+    }
+
+    private void expire(List<Long> attemptIds) {
+        List<QuizAttempt> attempts = quizAttemptRepository.findByIdInAndStatus(attemptIds, AttemptStatus.IN_PROGRESS);
+        if (attempts.isEmpty()) {
+            return;
+        }
+        // студенты одним запросом — takeQuiz дальше находит их в контексте персистентности
+        userRepository.findAllById(attempts.stream()
+                .map(attempt -> attempt.getStudent().getId())
+                .collect(Collectors.toSet()));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (QuizAttempt attempt : attempts) {
+            if (attempt.getDeadline() == null) {
+                continue;
+            }
+            if (isWithinDeadline(attempt, now)) {
+                // таймер сработал раньше срока (тик колеса, расхождение часов) — он уже снят, ставим заново;
+                // schedule заменяет прежний таймер, так что повтор после отката пачки безопасен
+                attemptTimers.schedule(attempt.getId(), attempt.getDeadline());
+                continue;
+            }
+            finish(attempt, AttemptStatus.EXPIRED, now);
+        }
+    }
+
+    private void finish(QuizAttempt attempt, AttemptStatus status, LocalDateTime now) {
+        Map<Long, List<Long>> answers = attempt.getAnswers() != null ? attempt.getAnswers() : Map.of();
+        QuizSubmission submission = quizService.takeQuiz(attempt.getStudent().getId(), attempt.getQuiz().getId(), answers);
+
+        attempt.setStatus(status);
+        attempt.setFinishedAt(now);
+        attempt.setSubmission(submission);
+    }
+
+    private QuizAttempt findAttempt(Long attemptId) {
+        return quizAttemptRepository.findById(attemptId)
+                .orElseThrow(() -> new IllegalArgumentException("Attempt not found: " + attemptId));
+    }
+
+    private void requireOpen(QuizAttempt attempt) {
+        if (attempt.getStatus() != AttemptStatus.IN_PROGRESS) {
+            throw new IllegalStateException("Attempt " + attempt.getId() + " is already " + attempt.getStatus());
+        }
+        if (attempt.getDeadline() != null && !isWithinDeadline(attempt, LocalDateTime.now())) {
+            throw new IllegalStateException("Time is over for attempt " + attempt.getId());
+        }
+    }
+
+    private boolean isWithinDeadline(QuizAttempt attempt, LocalDateTime now) {
+        return !now.isAfter(attempt.getDeadline().plus(attemptProperties.grace()));
+    }
+}
@@ -0,0 +1,242 @@
+package orm.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.cache.CourseStructureCache;
+import orm.cache.QuizAnswerKeyCache;
+import orm.cache.StudentQuizPayloadCache;
+import orm.dto.ImportReport;
+import orm.dto.QuestionImportLine;
+import orm.dto.QuizImportReport;
+import orm.entity.AnswerOption;
+import orm.entity.Module;
+import orm.entity.Question;
+import orm.entity.Quiz;
+import orm.model.QuestionType;
+import orm.repository.ModuleRepository;
+import orm.repository.QuizRepository;
+import orm.service.QuizImportService;
+import orm.util.TransactionCallbacks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class QuizImportServiceImpl implements QuizImportService {
+
+    private final QuizRepository quizRepository;
+    private final ModuleRepository moduleRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final QuizAnswerKeyCache quizAnswerKeyCache;
+    private final StudentQuizPayloadCache studentQuizPayloadCache;
+    private final CourseStructureCache courseStructureCache;
+    private final int chunkSize;
+
+    public QuizImportServiceImpl(QuizRepository quizRepository,
+                                 ModuleRepository moduleRepository,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 QuizAnswerKeyCache quizAnswerKeyCache,
+                                 StudentQuizPayloadCache studentQuizPayloadCache,
+                                 CourseStructureCache courseStructureCache,
+                                 @Value("${orm.import.chunk-size:500}") int chunkSize) {
+        this.quizRepository = quizRepository;
+        this.moduleRepository = moduleRepository;
+        this.entityManager = entityManager;
+        this.transactionManager = transactionManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.quizAnswerKeyCache = quizAnswerKeyCache;
+        this.studentQuizPayloadCache = studentQuizPayloadCache;
+        this.courseStructureCache = courseStructureCache;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Состояние одного импорта: счётчики отчёта.
+     */
+    private static final class ImportRun {
+
+        long processed;
+        long questions;
+        long options;
+        long failed;
+        final List<ImportReport.LineError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < ImportReport.MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.LineError(line, message));
+            }
+        }
+
+        QuizImportReport report(Long quizId) {
+            if (failed > 0) {
+                return new QuizImportReport(quizId, processed, 0, 0, failed, List.copyOf(errors));
+            }
+            return new QuizImportReport(quizId, processed, questions, options, 0, List.of());
+        }
+    }
+
+    @Override
+    public QuizImportReport importQuiz(Long moduleId, String title, Integer timeLimitMinutes, InputStream input) {
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Module module = moduleRepository.findById(moduleId)
+                    .orElseThrow(() -> new IllegalArgumentException("Module not found: " + moduleId));
+            if (quizRepository.findByModule_Id(moduleId).isPresent()) {
+                throw new IllegalStateException("Module " + moduleId + " already has a quiz");
+            }
+
+            Quiz quiz = Quiz.builder()
+                    .title(title)
+                    .timeLimitMinutes(timeLimitMinutes)
+                    .module(module)
+                    .build();
+            entityManager.persist(quiz);
+            // новый тест виден в структуре курса; при откате импорта снимок остаётся верным
+            Long courseId = module.getCourse().getId();
+            TransactionCallbacks.afterCommit(() -> courseStructureCache.invalidate(courseId));
+
+            ImportRun run = importLines(quiz.getId(), input, status);
+            // тест откатился вместе с вопросами — его id в отчёт не попадает
+            return run.report(run.failed > 0 ? null : quiz.getId());
+        });
+    }
+
+    @Override
+    public QuizImportReport importQuestions(Long quizId, InputStream input) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            if (!quizRepository.existsById(quizId)) {
+                throw new IllegalArgumentException("Quiz not found: " + quizId);
+            }
+            ImportRun run = importLines(quizId, input, status);
+            if (run.failed == 0) {
+                quizAnswerKeyCache.invalidate(quizId);
+                studentQuizPayloadCache.invalidate(quizId);
+            }
+            return run.report(quizId);
+        });
+    }
+
+    /**
+     * Читает поток построчно; пока ошибок нет, вопросы пишутся порциями по chunkSize.
+     * После первой ошибки запись прекращается, но поток дочитывается, чтобы отчёт перечислил все ошибки,
+     * а транзакция помечается на откат.
+     */
+    private ImportRun importLines(Long quizId, InputStream input, TransactionStatus status) {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<QuestionImportLine> chunk = new ArrayList<>(chunkSize);
+            long number = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                number++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                run.processed++;
+
+                QuestionImportLine line = parse(number, text, run);
+                if (line == null || run.failed > 0) {
+                    chunk.clear();
+                    continue;
+                }
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    persist(quizId, chunk, run);
+                    chunk.clear();
+                }
+            }
+            if (run.failed == 0 && !chunk.isEmpty()) {
+                persist(quizId, chunk, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import stream", e);
+        }
+
+        if (run.processed == 0) {
+            run.fail(0, "Import contains no questions");
+        }
+        if (run.failed > 0) {
+            status.setRollbackOnly();
+        }
+        return run;
+    }
+
+    private QuestionImportLine parse(long number, String text, ImportRun run) {
+        QuestionImportLine line;
+        try {
+            line = objectMapper.readValue(text, QuestionImportLine.class);
+        } catch (JsonProcessingException e) {
+            run.fail(number, "Malformed line: " + e.getOriginalMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<QuestionImportLine>> violations = validator.validate(line);
+        if (!violations.isEmpty()) {
+            run.fail(number, violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+
+        long correct = line.options().stream().filter(QuestionImportLine.OptionLine::correct).count();
+        if (line.type() == QuestionType.SINGLE_CHOICE && correct != 1) {
+            run.fail(number, "Single choice question must have exactly one correct option, got " + correct);
+            return null;
+        }
+        return line;
+    }
+
+    private void persist(Long quizId, List<QuestionImportLine> lines, ImportRun run) {
+        // ссылка без SELECT; после clear() прежняя ссылка отсоединена, поэтому берётся на каждую порцию
+        Quiz quiz = entityManager.getReference(Quiz.class, quizId);
+        for (QuestionImportLine line : lines) {
+            Question question = Question.builder()
+                    .text(line.text())
+                    .type(line.type())
+                    .quiz(quiz)
+                    .build();
+            for (QuestionImportLine.OptionLine optionLine : line.options()) {
+                question.getOptions().add(AnswerOption.builder()
+                        .text(optionLine.text())
+                        .isCorrect(optionLine.correct())
+                        .question(question)
+                        .build());
+            }
+            // варианты сохраняются каскадом
+            entityManager.persist(question);
+            run.questions++;
+            run.options += line.options().size();
+        }
+
+        // отправляем накопленные вставки пачками и освобождаем контекст перед следующей порцией
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
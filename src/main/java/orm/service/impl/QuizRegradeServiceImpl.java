@@ -0,0 +1,149 @@
+package orm.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.analytics.QuizItemAnalytics;
+import orm.cache.QuizAnswerKey;
+import orm.dto.RegradeReport;
+import orm.entity.QuizSubmission;
+import orm.repository.QuizSubmissionRepository;
+import orm.service.QuizRegradeService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class QuizRegradeServiceImpl implements QuizRegradeService {
+
+    private final QuizAnswerKeyLoader quizAnswerKeyLoader;
+    private final QuizSubmissionRepository quizSubmissionRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final QuizItemAnalytics quizItemAnalytics;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public QuizRegradeServiceImpl(QuizAnswerKeyLoader quizAnswerKeyLoader,
+                                  QuizSubmissionRepository quizSubmissionRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  QuizItemAnalytics quizItemAnalytics,
+                                  @Value("${orm.regrade.chunk-size:1000}") int chunkSize,
+                                  @Value("${orm.regrade.parallelism:4}") int parallelism) {
+        this.quizAnswerKeyLoader = quizAnswerKeyLoader;
+        this.quizSubmissionRepository = quizSubmissionRepository;
+        this.transactionManager = transactionManager;
+        this.quizItemAnalytics = quizItemAnalytics;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    private record Counters(LongAdder scanned, LongAdder rescored, LongAdder skipped) {
+
+        Counters() {
+            this(new LongAdder(), new LongAdder(), new LongAdder());
+        }
+    }
+
+    @Override
+    public RegradeReport regradeQuiz(Long quizId) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // ключ читается из БД, а не из кэша: переоценку запускают сразу после исправления ключа
+        QuizAnswerKey answerKey = readOnly.execute(status -> quizAnswerKeyLoader.load(quizId));
+
+        Counters counters = new Counters();
+        List<Future<?>> chunks = new ArrayList<>();
+        // не даём читателю границ убежать далеко вперёд писателей
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                List<Long> ids = readOnly.execute(status -> quizSubmissionRepository
+                        .findIdsByQuizIdAfter(quizId, from, PageRequest.ofSize(chunkSize)));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Long firstId = ids.getFirst();
+                Long lastId = ids.getLast();
+
+                inFlight.acquireUninterruptibly();
+                chunks.add(executor.submit(() -> {
+                    try {
+                        regradeChunk(quizId, answerKey, firstId, lastId, counters);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                afterId = lastId;
+            }
+        }
+
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Regrade interrupted for quiz " + quizId, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Regrade failed for quiz " + quizId, e.getCause());
+            }
+        }
+
+        return new RegradeReport(quizId, counters.scanned().sum(), counters.rescored().sum(),
+                counters.skipped().sum(), chunks.size());
+    }
+
+    private void regradeChunk(Long quizId, QuizAnswerKey answerKey, Long fromId, Long toId, Counters counters) {
+        int[] scanned = new int[1];
+        int[] rescored = new int[1];
+        int[] skipped = new int[1];
+        List<int[]> moves = new ArrayList<>();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (QuizSubmission submission : quizSubmissionRepository.findByQuizIdAndIdRange(quizId, fromId, toId)) {
+                scanned[0]++;
+                if (submission.getAnswers() == null) {
+                    skipped[0]++;
+                    continue;
+                }
+                int score = QuizScorer.score(answerKey.countCorrect(submission.getAnswers()),
+                        answerKey.questionCount());
+                if (submission.getScore() == null || submission.getScore() != score) {
+                    if (submission.getScore() != null) {
+                        moves.add(new int[]{submission.getScore(), score});
+                    }
+                    submission.setScore(score);
+                    submission.setPassed(score >= QuizScorer.PASSING_SCORE);
+                    rescored[0]++;
+                }
+            }
+            // изменённые попытки уйдут при коммите UPDATE-пачками (hibernate.jdbc.batch_size)
+        });
+
+        // счётчики — только после успешного коммита порции
+        counters.scanned().add(scanned[0]);
+        counters.rescored().add(rescored[0]);
+        counters.skipped().add(skipped[0]);
+        // гистограмма баллов теста — тоже после коммита
+        quizItemAnalytics.recordRescored(quizId, moves.stream().mapToInt(move -> move[0]).toArray(),
+                moves.stream().mapToInt(move -> move[1]).toArray());
+    }
+}
@@ -0,0 +1,52 @@
+package orm.service.impl;
+
+import orm.entity.AnswerOption;
+import orm.entity.Question;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Подсчёт результата теста: вопрос засчитывается, если выбранные варианты в точности
+ * совпадают с правильными. Вынесен из сервиса, чтобы его можно было мерить отдельно от БД.
+ */
+public final class QuizScorer {
+
+    /**
+     * Порог прохождения: 50%+ правильных — «сдал».
+     */
+    public static final int PASSING_SCORE = 50;
+
+    private QuizScorer() {
+    }
+
+    public static int countCorrect(List<Question> questions, Map<Long, List<Long>> answersByQuestionId) {
+        int correctQuestions = 0;
+
+        for (Question question : questions) {
+            List<Long> selectedOptionIds = answersByQuestionId.getOrDefault(question.getId(), List.of());
+
+            Set<Long> correctOptionIds = question.getOptions().stream()
+                    .filter(AnswerOption::isCorrect)
+                    .map(AnswerOption::getId)
+                    .collect(Collectors.toSet());
+
+            Set<Long> selectedSet = new HashSet<>(selectedOptionIds);
+
+            if (selectedSet.equals(correctOptionIds)) {
+                correctQuestions++;
+            }
+        }
+        return correctQuestions;
+    }
+
+    /**
+     * Процент правильных ответов, округлённый до целого.
+     */
+    public static int score(int correctQuestions, int totalQuestions) {
+        return totalQuestions == 0 ? 0 : (int) Math.round((correctQuestions * 100.0) / totalQuestions);
+    }
+}
@@ -1,19 +1,47 @@
 package orm.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.analytics.QuizItemAnalytics;
+import orm.analytics.ScoreHistogram;
+import orm.cache.CacheStats;
+import orm.cache.CourseStructureCache;
+import orm.cache.EncodedPayload;
+import orm.cache.QuizAnswerKey;
+import orm.cache.QuizAnswerKeyCache;
+import orm.cache.StudentQuizPayloadCache;
+import orm.draft.DraftStats;
+import orm.draft.QuizDraftStore;
+import orm.dto.QuizAnalyticsView;
+import orm.dto.QuizDetailsView;
+import orm.dto.QuizDraftView;
+import orm.dto.QuizSubmissionView;
+import orm.dto.ScoreDistributionView;
+import orm.dto.StudentQuizView;
+import orm.dto.SubmissionReceipt;
+import orm.dto.QuizView;
 import orm.entity.*;
 import orm.entity.Module;
+import orm.ingest.IngestStats;
+import orm.ingest.PendingSubmission;
+import orm.ingest.QuizSubmissionIngestor;
 import orm.repository.AnswerOptionRepository;
 import orm.repository.ModuleRepository;
+import orm.repository.QuestionRepository;
 import orm.repository.QuizRepository;
 import orm.repository.QuizSubmissionRepository;
 import orm.repository.UserRepository;
 import orm.service.QuizService;
+import orm.util.TransactionCallbacks;
 
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +53,16 @@ public class QuizServiceImpl implements QuizService {
     private final UserRepository userRepository;
     private final QuizSubmissionRepository quizSubmissionRepository;
     private final AnswerOptionRepository answerOptionRepository;
+    private final QuestionRepository questionRepository;
+    private final QuizAnswerKeyCache quizAnswerKeyCache;
+    private final QuizAnswerKeyLoader quizAnswerKeyLoader;
+    private final QuizSubmissionIngestor quizSubmissionIngestor;
+    private final QuizItemAnalytics quizItemAnalytics;
+    private final StudentQuizPayloadCache studentQuizPayloadCache;
+    private final CourseStructureCache courseStructureCache;
+    private final QuizDraftStore quizDraftStore;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
 
     @Override
     public Quiz createQuizForModule(Long moduleId, Quiz quiz) {
@@ -43,14 +81,41 @@ public class QuizServiceImpl implements QuizService {
             });
         }
 
-        return quizRepository.save(quiz);
+        Quiz saved = quizRepository.save(quiz);
+        // тест виден в структуре курса — снимок сбрасывается после коммита, иначе его перечитали бы без теста
+        Long courseId = module.getCourse().getId();
+        TransactionCallbacks.afterCommit(() -> courseStructureCache.invalidate(courseId));
+        return saved;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Quiz getQuiz(Long quizId) {
-        return quizRepository.findById(quizId)
+    public QuizDetailsView getQuiz(Long quizId) {
+        QuizView quiz = quizRepository.findViewById(quizId)
                 .orElseThrow(() -> new IllegalArgumentException("Quiz not found: " + quizId));
+        return QuizDetailsView.of(quiz, questionRepository.findOptionRowsByQuizId(quizId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public EncodedPayload getStudentQuizPayload(Long quizId) {
+        // При попадании в кэш — ни транзакции, ни сериализации.
+        return studentQuizPayloadCache.getOrLoad(quizId, this::loadStudentQuizPayload);
+    }
+
+    private EncodedPayload loadStudentQuizPayload(long quizId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        StudentQuizView view = transaction.execute(status -> {
+            QuizView quiz = quizRepository.findViewById(quizId)
+                    .orElseThrow(() -> new IllegalArgumentException("Quiz not found: " + quizId));
+            return StudentQuizView.of(quiz, questionRepository.findOptionRowsByQuizId(quizId));
+        });
+        try {
+            return EncodedPayload.of(objectMapper.writeValueAsBytes(view));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize quiz " + quizId, e);
+        }
     }
 
     @Override
@@ -58,49 +123,168 @@ public class QuizServiceImpl implements QuizService {
         User student = userRepository.findById(studentId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + studentId));
 
-        Quiz quiz = quizRepository.findById(quizId)
-                .orElseThrow(() -> new IllegalArgumentException("Quiz not found: " + quizId));
-
-        int totalQuestions = quiz.getQuestions().size();
-        int correctQuestions = 0;
+        // вопросы и варианты теста не читаются — ключ ответов берётся из кэша
+        QuizAnswerKey answerKey = quizAnswerKeyLoader.get(quizId);
+        answersByQuestionId = answersOrDraft(studentId, quizId, answersByQuestionId);
+        boolean[] correctByQuestion = new boolean[answerKey.questionCount()];
+        int correctQuestions = answerKey.grade(answersByQuestionId, correctByQuestion);
 
-        for (Question question : quiz.getQuestions()) {
-            List<Long> selectedOptionIds = answersByQuestionId.getOrDefault(question.getId(), List.of());
+        int score = QuizScorer.score(correctQuestions, answerKey.questionCount());
+        boolean passed = score >= QuizScorer.PASSING_SCORE;
 
-            Set<Long> correctOptionIds = question.getOptions().stream()
-                    .filter(AnswerOption::isCorrect)
-                    .map(AnswerOption::getId)
-                    .collect(Collectors.toSet());
+        QuizSubmission submission = QuizSubmission.builder()
+                .quiz(quizRepository.getReferenceById(quizId))
+                .student(student)
+                .score(score)
+                .passed(passed)
+                // сохраняем выбор, чтобы попытку можно было переоценить после исправления ключа
+                .answers(answerKey.encodeSelection(answersByQuestionId))
+                .build();
 
-            Set<Long> selectedSet = new HashSet<>(selectedOptionIds);
+        QuizSubmission saved = quizSubmissionRepository.save(submission);
+        Map<Long, List<Long>> answers = answersByQuestionId;
+        TransactionCallbacks.afterCommit(() -> {
+            quizItemAnalytics.record(quizId, answerKey, answers, correctByQuestion, correctQuestions);
+            quizDraftStore.discard(studentId, quizId);
+        });
+        return saved;
+    }
 
-            if (selectedSet.equals(correctOptionIds)) {
-                correctQuestions++;
+    /**
+     * Проверка — в короткой читающей транзакции, постановка в очередь — уже без неё: при перегрузке
+     * accept ждёт места до offer-timeout, и занятое на это время соединение нужно потоку записи очереди.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SubmissionReceipt submitQuizAsync(Long studentId, Long quizId, Map<Long, List<Long>> answersByQuestionId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        GradedSubmission graded = transaction.execute(status -> {
+            if (!userRepository.existsById(studentId)) {
+                throw new IllegalArgumentException("User not found: " + studentId);
             }
+            QuizAnswerKey answerKey = quizAnswerKeyLoader.get(quizId);
+            Map<Long, List<Long>> answers = answersOrDraft(studentId, quizId, answersByQuestionId);
+            boolean[] correctByQuestion = new boolean[answerKey.questionCount()];
+            int correctQuestions = answerKey.grade(answers, correctByQuestion);
+            return new GradedSubmission(answerKey, answers, correctByQuestion, correctQuestions);
+        });
+
+        int score = QuizScorer.score(graded.correctQuestions(), graded.answerKey().questionCount());
+        PendingSubmission submission = new PendingSubmission(UUID.randomUUID(), quizId, studentId,
+                score, score >= QuizScorer.PASSING_SCORE, graded.answerKey().encodeSelection(graded.answers()),
+                LocalDateTime.now());
+        quizSubmissionIngestor.accept(submission);
+        // принятая попытка будет записана — учитываем её сразу
+        quizItemAnalytics.record(quizId, graded.answerKey(), graded.answers(), graded.correctByQuestion(),
+                graded.correctQuestions());
+        quizDraftStore.discard(studentId, quizId);
+        return SubmissionReceipt.of(submission);
+    }
+
+    private record GradedSubmission(QuizAnswerKey answerKey, Map<Long, List<Long>> answers,
+                                    boolean[] correctByQuestion, int correctQuestions) {
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void saveDraft(Long studentId, Long quizId, Map<Long, List<Long>> answersByQuestionId) {
+        // существование теста проверяется по кэшу ключа — автосохранение не ходит в БД
+        quizAnswerKeyLoader.get(quizId);
+        quizDraftStore.save(studentId, quizId, answersByQuestionId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public QuizDraftView getDraft(Long studentId, Long quizId) {
+        return quizDraftStore.find(studentId, quizId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Draft not found for student " + studentId + " in quiz " + quizId));
+    }
+
+    /**
+     * Без ответов в запросе сдаётся сохранённый черновик.
+     */
+    private Map<Long, List<Long>> answersOrDraft(Long studentId, Long quizId, Map<Long, List<Long>> answersByQuestionId) {
+        if (answersByQuestionId != null) {
+            return answersByQuestionId;
         }
+        return quizDraftStore.find(studentId, quizId)
+                .map(QuizDraftView::answers)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No answers given and no saved draft for student " + studentId + " in quiz " + quizId));
+    }
 
-        int score = totalQuestions == 0 ? 0 : (int) Math.round((correctQuestions * 100.0) / totalQuestions);
-        boolean passed = score >= 50; // условно: 50%+ правильных — "сдал"
+    @Override
+    public void updateAnswerKey(Long quizId, Long questionId, Set<Long> correctOptionIds) {
+        Question question = questionRepository.findById(questionId)
+                .filter(q -> q.getQuiz().getId().equals(quizId))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Question " + questionId + " not found in quiz " + quizId));
 
-        QuizSubmission submission = QuizSubmission.builder()
-                .quiz(quiz)
-                .student(student)
-                .score(score)
-                .passed(passed)
-                .build();
+        List<AnswerOption> options = answerOptionRepository.findByQuestion_Id(question.getId());
+        Set<Long> unknown = new HashSet<>(correctOptionIds);
+        options.forEach(option -> unknown.remove(option.getId()));
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Options not found in question " + questionId + ": " + unknown);
+        }
+
+        options.forEach(option -> option.setCorrect(correctOptionIds.contains(option.getId())));
+        quizAnswerKeyCache.invalidate(quizId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public QuizAnalyticsView getQuizAnalytics(Long quizId) {
+        // без своей транзакции: ожидание снимка аналитики не должно держать соединение
+        return quizItemAnalytics.view(quizId, quizAnswerKeyLoader.get(quizId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ScoreDistributionView getScoreDistribution(Long quizId, Integer bucketWidth) {
+        int width = bucketWidth != null ? bucketWidth : 10;
+        if (width < 1 || width > ScoreHistogram.BUCKETS) {
+            throw new IllegalArgumentException("Bucket width must be between 1 and " + ScoreHistogram.BUCKETS);
+        }
+        // ключ из кэша — заодно проверка, что тест существует
+        quizAnswerKeyLoader.get(quizId);
+        return quizItemAnalytics.distribution(quizId, width);
+    }
 
-        return quizSubmissionRepository.save(submission);
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CacheStats getAnswerKeyCacheStats() {
+        return quizAnswerKeyCache.stats();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CacheStats getStudentQuizCacheStats() {
+        return studentQuizPayloadCache.stats();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public IngestStats getSubmissionIngestStats() {
+        return quizSubmissionIngestor.stats();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public DraftStats getDraftStats() {
+        return quizDraftStore.stats();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<QuizSubmission> getSubmissionsForQuiz(Long quizId) {
-        return quizSubmissionRepository.findByQuiz_Id(quizId);
+    public List<QuizSubmissionView> getSubmissionsForQuiz(Long quizId) {
+        return quizSubmissionRepository.findViewsByQuizId(quizId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<QuizSubmission> getSubmissionsForStudent(Long studentId) {
-        return quizSubmissionRepository.findByStudent_Id(studentId);
+    public List<QuizSubmissionView> getSubmissionsForStudent(Long studentId) {
+        return quizSubmissionRepository.findViewsByStudentId(studentId);
     }
 }
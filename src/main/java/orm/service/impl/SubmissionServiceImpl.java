@@ -3,12 +3,14 @@ package orm.service.impl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import orm.dto.SubmissionDetailsView;
+import orm.dto.SubmissionView;
 import orm.entity.Assignment;
 import orm.entity.Submission;
 import orm.entity.User;
+import orm.membership.EnrollmentMembershipIndex;
 import orm.model.SubmissionStatus;
 import orm.repository.AssignmentRepository;
-import orm.repository.EnrollmentRepository;
 import orm.repository.SubmissionRepository;
 import orm.repository.UserRepository;
 import orm.service.SubmissionService;
@@ -23,7 +25,7 @@ public class SubmissionServiceImpl implements SubmissionService {
     private final SubmissionRepository submissionRepository;
     private final AssignmentRepository assignmentRepository;
     private final UserRepository userRepository;
-    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentMembershipIndex membershipIndex;
 
     @Override
     public Submission submitAssignment(Long studentId, Long assignmentId, String content) {
@@ -34,7 +36,7 @@ public class SubmissionServiceImpl implements SubmissionService {
                 .orElseThrow(() -> new IllegalArgumentException("Assignment not found: " + assignmentId));
 
         Long courseId = assignment.getLesson().getModule().getCourse().getId();
-        if (!enrollmentRepository.existsByStudent_IdAndCourse_Id(studentId, courseId)) {
+        if (!membershipIndex.isEnrolled(studentId, courseId)) {
             throw new IllegalStateException("Student is not enrolled in the course");
         }
 
@@ -66,20 +68,20 @@ public class SubmissionServiceImpl implements SubmissionService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Submission> getSubmissionsForAssignment(Long assignmentId) {
-        return submissionRepository.findByAssignment_Id(assignmentId);
+    public List<SubmissionView> getSubmissionsForAssignment(Long assignmentId) {
+        return submissionRepository.findViewsByAssignmentId(assignmentId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Submission> getSubmissionsForStudent(Long studentId) {
-        return submissionRepository.findByStudent_Id(studentId);
+    public List<SubmissionView> getSubmissionsForStudent(Long studentId) {
+        return submissionRepository.findViewsByStudentId(studentId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Submission getSubmission(Long submissionId) {
-        return submissionRepository.findById(submissionId)
+    public SubmissionDetailsView getSubmission(Long submissionId) {
+        return submissionRepository.findDetailsById(submissionId)
                 .orElseThrow(() -> new IllegalArgumentException("Submission not found: " + submissionId));
     }
 }
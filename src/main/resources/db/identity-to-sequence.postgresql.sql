@@ -0,0 +1,28 @@
+-- Перевод существующей PostgreSQL-базы с IDENTITY-колонок на последовательности
+-- с шагом 50 (pooled-оптимизатор Hibernate, allocationSize = 50 в сущностях).
+--
+-- Запускать один раз до старта новой версии приложения:
+--   psql -d orm_db -f src/main/resources/db/identity-to-sequence.postgresql.sql
+-- Скрипт идемпотентен: повторный запуск лишь заново выставит последовательности по max(id).
+--
+-- Pooled-оптимизатор считает значение последовательности верхней границей блока:
+-- nextval = N выдаёт id N-49..N. Поэтому первый nextval должен вернуть max(id) + 50.
+
+DO $$
+DECLARE
+    t text;
+BEGIN
+    FOREACH t IN ARRAY ARRAY[
+        'answer_options', 'assignments', 'categories', 'course_reviews', 'courses',
+        'enrollments', 'lesson_resources', 'lessons', 'modules', 'notifications',
+        'profiles', 'questions', 'quiz_submissions', 'quizzes', 'submissions',
+        'tags', 'users'
+    ]
+    LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', t);
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', t || '_seq');
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', t || '_seq');
+        EXECUTE format('SELECT setval(%L, (SELECT coalesce(max(id), 0) + 50 FROM %I), false)', t || '_seq', t);
+    END LOOP;
+END $$;
@@ -0,0 +1,164 @@
+package orm.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import orm.cache.AnswerKeyRow;
+import orm.cache.QuizAnswerKey;
+import orm.dto.QuizAnalyticsView;
+import orm.dto.ScoreCountRow;
+import orm.dto.ScoreDistributionView;
+import orm.entity.QuizItemStats;
+import orm.repository.QuizItemStatsRepository;
+import orm.repository.QuizSubmissionRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class QuizItemAnalyticsTest {
+
+    private static final Long QUIZ = 5L;
+
+    private final QuizItemStatsRepository repository = mock(QuizItemStatsRepository.class);
+    private final QuizSubmissionRepository submissions = mock(QuizSubmissionRepository.class);
+    private final QuizItemAnalytics analytics =
+            new QuizItemAnalytics(repository, submissions, mock(PlatformTransactionManager.class));
+
+    private final QuizAnswerKey key = QuizAnswerKey.compile(List.of(
+            new AnswerKeyRow(1L, 10L, true), new AnswerKeyRow(1L, 11L, false),
+            new AnswerKeyRow(2L, 20L, false), new AnswerKeyRow(2L, 21L, true)));
+
+    private void submit(QuizItemAnalytics target, Map<Long, List<Long>> answers) {
+        boolean[] correct = new boolean[key.questionCount()];
+        int count = key.grade(answers, correct);
+        target.record(QUIZ, key, answers, correct, count);
+    }
+
+    @Test
+    void tracksDifficultyAndOptionPicks() {
+        when(repository.findById(QUIZ)).thenReturn(Optional.empty());
+
+        submit(analytics, Map.of(1L, List.of(10L), 2L, List.of(21L)));
+        submit(analytics, Map.of(1L, List.of(10L, 10L), 2L, List.of(20L)));
+        submit(analytics, Map.of(1L, List.of(11L, 99L)));
+        submit(analytics, Map.of());
+
+        QuizAnalyticsView view = analytics.view(QUIZ, key);
+        assertThat(view.submissions()).isEqualTo(4);
+
+        QuizAnalyticsView.QuestionAnalytics first = view.questions().get(0);
+        assertThat(first.attempts()).isEqualTo(4);
+        assertThat(first.correct()).isEqualTo(2);
+        assertThat(first.difficulty()).isEqualTo(50.0);
+        // повтор варианта и чужой вариант не считаются
+        assertThat(first.options()).extracting(QuizAnalyticsView.OptionAnalytics::picks).containsExactly(2L, 1L);
+
+        QuizAnalyticsView.QuestionAnalytics second = view.questions().get(1);
+        assertThat(second.correct()).isEqualTo(1);
+        assertThat(second.difficulty()).isEqualTo(25.0);
+    }
+
+    @Test
+    void discriminationMatchesDirectComputation() {
+        // баллы 2, 1, 0, 1; верность вопроса — 1, 1, 0, 0
+        double[] scores = {2, 1, 0, 1};
+        double[] item = {1, 1, 0, 0};
+        double mean = 1;
+        double variance = 0;
+        for (double score : scores) {
+            variance += (score - mean) * (score - mean) / scores.length;
+        }
+        double meanCorrect = (2 + 1) / 2.0;
+        double meanWrong = (0 + 1) / 2.0;
+        double expected = (meanCorrect - meanWrong) / Math.sqrt(variance) * Math.sqrt(0.5 * 0.5);
+
+        double covariance = 0;
+        for (int i = 0; i < scores.length; i++) {
+            covariance += (scores[i] - mean) * (item[i] - 0.5) / scores.length;
+        }
+        // та же величина, что и пирсоновская корреляция с 0/1-признаком
+        assertThat(expected).isCloseTo(covariance / Math.sqrt(variance * 0.25), within(1e-9));
+
+        assertThat(QuizItemAnalytics.discrimination(4, 2, 4, 6, 3)).isCloseTo(expected, within(1e-3));
+        assertThat(QuizItemAnalytics.discrimination(4, 0, 4, 6, 0)).isNull();
+        assertThat(QuizItemAnalytics.discrimination(4, 4, 4, 6, 4)).isNull();
+    }
+
+    @Test
+    void flushSavesSnapshotThatRestoresCounters() {
+        when(repository.findById(QUIZ)).thenReturn(Optional.empty());
+        submit(analytics, Map.of(1L, List.of(10L), 2L, List.of(21L)));
+        submit(analytics, Map.of(1L, List.of(11L)));
+
+        analytics.flush();
+        ArgumentCaptor<QuizItemStats> saved = ArgumentCaptor.forClass(QuizItemStats.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getSubmissions()).isEqualTo(2);
+
+        // без новых попыток сохранять нечего
+        analytics.flush();
+        verify(repository, times(1)).save(any());
+
+        QuizItemAnalytics restarted = new QuizItemAnalytics(repository, submissions, mock(PlatformTransactionManager.class));
+        when(repository.findById(QUIZ)).thenReturn(Optional.of(saved.getValue()));
+        submit(restarted, Map.of(1L, List.of(10L)));
+
+        QuizAnalyticsView view = restarted.view(QUIZ, key);
+        assertThat(view.submissions()).isEqualTo(3);
+        assertThat(view.questions().get(0).correct()).isEqualTo(2);
+        assertThat(view.questions().get(0).options())
+                .extracting(QuizAnalyticsView.OptionAnalytics::picks).containsExactly(2L, 1L);
+        assertThat(view.questions().get(1).attempts()).isEqualTo(3);
+        assertThat(view.questions().get(1).correct()).isEqualTo(1);
+    }
+
+    @Test
+    void recordingDoesNotWaitForSnapshotLoad() throws InterruptedException {
+        QuizItemStats stored = QuizItemStats.builder().quizId(QUIZ).submissions(5).questions(List.of()).build();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> loadingThread = new AtomicReference<>();
+        when(repository.findById(QUIZ)).thenAnswer(invocation -> {
+            loadingThread.set(Thread.currentThread().getName());
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(stored);
+        });
+
+        // снимок ещё грузится, а попытки уже учитываются — без ожидания в потоке запроса
+        submit(analytics, Map.of(1L, List.of(10L)));
+        submit(analytics, Map.of(1L, List.of(11L)));
+        release.countDown();
+
+        assertThat(analytics.view(QUIZ, key).submissions()).isEqualTo(7);
+        assertThat(loadingThread.get()).isEqualTo("quiz-analytics-loader");
+        verify(repository, times(1)).findById(QUIZ);
+    }
+
+    @Test
+    void seedsScoreHistogramOnceWhenThereIsNoSnapshot() {
+        when(repository.findById(QUIZ)).thenReturn(Optional.empty());
+        when(submissions.countByScore(QUIZ)).thenReturn(List.of(new ScoreCountRow(100, 3L), new ScoreCountRow(50, 1L)));
+
+        ScoreDistributionView distribution = analytics.distribution(QUIZ, 101);
+        assertThat(distribution.submissions()).isEqualTo(4);
+        assertThat(distribution.median()).isEqualTo(100);
+
+        submit(analytics, Map.of(1L, List.of(11L)));
+        assertThat(analytics.distribution(QUIZ, 101).submissions()).isEqualTo(5);
+        verify(submissions, times(1)).countByScore(QUIZ);
+
+        // засеянная гистограмма уходит в снимок — после рестарта агрегат не нужен
+        analytics.flush();
+        ArgumentCaptor<QuizItemStats> saved = ArgumentCaptor.forClass(QuizItemStats.class);
+        verify(repository).save(saved.capture());
+        assertThat(ScoreHistogram.total(saved.getValue().getScoreCounts())).isEqualTo(5);
+    }
+}
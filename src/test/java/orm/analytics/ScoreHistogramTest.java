@@ -0,0 +1,55 @@
+package orm.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoreHistogramTest {
+
+    @Test
+    void percentilesMatchSortedScores() {
+        Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            ScoreHistogram histogram = new ScoreHistogram();
+            int[] scores = new int[1 + random.nextInt(500)];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = random.nextInt(101);
+                histogram.add(scores[i]);
+            }
+            Arrays.sort(scores);
+
+            long[] counts = histogram.snapshot();
+            assertThat(ScoreHistogram.total(counts)).isEqualTo(scores.length);
+            for (double p : new double[]{0, 25, 50, 75, 90, 100}) {
+                int rank = Math.max(1, (int) Math.ceil(p / 100.0 * scores.length));
+                assertThat(ScoreHistogram.percentile(counts, p)).as("p%s", p).isEqualTo(scores[rank - 1]);
+            }
+        }
+    }
+
+    @Test
+    void emptyHistogramHasNoPercentiles() {
+        assertThat(ScoreHistogram.percentile(new ScoreHistogram().snapshot(), 50)).isNull();
+    }
+
+    @Test
+    void moveAndMergeKeepCounts() {
+        ScoreHistogram histogram = new ScoreHistogram();
+        histogram.add(40);
+        histogram.add(40);
+        histogram.move(40, 80);
+
+        ScoreHistogram restored = new ScoreHistogram();
+        restored.merge(histogram.snapshot());
+        restored.add(100);
+
+        long[] counts = restored.snapshot();
+        assertThat(counts[40]).isEqualTo(1);
+        assertThat(counts[80]).isEqualTo(1);
+        assertThat(counts[100]).isEqualTo(1);
+        assertThat(ScoreHistogram.percentile(counts, 50)).isEqualTo(80);
+    }
+}
@@ -0,0 +1,81 @@
+package orm.attempt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimerWheelTest {
+
+    private final BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+    private final List<Integer> expired = new CopyOnWriteArrayList<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    // 8 корзин по 10 мс: оборот 80 мс, таймауты дальше ждут несколько оборотов
+    private final HashedTimerWheel<Integer> wheel = new HashedTimerWheel<>(10, TimeUnit.MILLISECONDS, 8, batch -> {
+        expired.addAll(batch);
+        batchSizes.add(batch.size());
+        batches.add(batch);
+    });
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    private void awaitExpired(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (expired.size() < count && System.nanoTime() < deadline) {
+            batches.poll(50, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    void expiresTimeoutsNoEarlierThanTheirDelay() throws InterruptedException {
+        wheel.start();
+        long started = System.nanoTime();
+        wheel.schedule(1, 250, TimeUnit.MILLISECONDS);
+        wheel.schedule(2, 30, TimeUnit.MILLISECONDS);
+
+        awaitExpired(1);
+        assertThat(expired).containsExactly(2);
+
+        awaitExpired(2);
+        assertThat(expired).containsExactly(2, 1);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(250);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledTimeoutsDoNotFire() throws InterruptedException {
+        wheel.start();
+        HashedTimerWheel.Timeout<Integer> cancelled = wheel.schedule(1, 40, TimeUnit.MILLISECONDS);
+        wheel.schedule(2, 60, TimeUnit.MILLISECONDS);
+
+        assertThat(cancelled.cancel()).isTrue();
+        assertThat(cancelled.cancel()).isFalse();
+
+        awaitExpired(1);
+        Thread.sleep(50);
+        assertThat(expired).containsExactly(2);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void timeoutsOfOneTickExpireInOneBatch() throws InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            wheel.schedule(i, 0, TimeUnit.MILLISECONDS);
+        }
+        wheel.start();
+
+        awaitExpired(1000);
+        assertThat(expired).hasSize(1000).doesNotHaveDuplicates();
+        assertThat(batchSizes).containsExactly(1000);
+    }
+}
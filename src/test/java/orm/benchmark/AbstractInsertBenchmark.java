@@ -0,0 +1,222 @@
+package orm.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.entity.AnswerOption;
+import orm.entity.Assignment;
+import orm.entity.Category;
+import orm.entity.Course;
+import orm.entity.Enrollment;
+import orm.entity.Lesson;
+import orm.entity.Module;
+import orm.entity.Question;
+import orm.entity.Quiz;
+import orm.entity.Submission;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.model.EnrollmentStatus;
+import orm.model.QuestionType;
+import orm.model.Role;
+import orm.model.SubmissionStatus;
+import orm.repository.AssignmentRepository;
+import orm.repository.CategoryRepository;
+import orm.repository.CourseRepository;
+import orm.repository.EnrollmentRepository;
+import orm.repository.LessonRepository;
+import orm.repository.ModuleRepository;
+import orm.repository.SubmissionRepository;
+import orm.repository.UserRepository;
+import orm.service.QuizService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Пропускная способность вставки тестов (50 вопросов × 4 варианта), записей на курс и решений.
+ * Наследники задают настройки Hibernate; результат печатается одной строкой на сценарий.
+ * Запуск: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@ActiveProfiles("test")
+abstract class AbstractInsertBenchmark {
+
+    static final int QUIZZES = 20;
+    static final int QUESTIONS = 50;
+    static final int OPTIONS = 4;
+    static final int STUDENTS = 2000;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    record Result(String scenario, long rows, long statements, long millis) {
+
+        double rowsPerSecond() {
+            return rows * 1000.0 / Math.max(millis, 1);
+        }
+    }
+
+    private record Fixture(Long courseId, List<Long> moduleIds, Long assignmentId, List<Long> studentIds) {
+    }
+
+    /**
+     * Подпись прогона в отчёте.
+     */
+    abstract String label();
+
+    /**
+     * Проверки, специфичные для настроек наследника.
+     */
+    abstract void check(Result quizzes, Result enrollments, Result submissions);
+
+    @Test
+    void insertThroughput() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Fixture fixture = transaction.execute(status -> createFixture());
+
+        Result quizzes = measure(statistics, "quizzes", QUIZZES * (1L + QUESTIONS + QUESTIONS * OPTIONS), () ->
+                fixture.moduleIds().forEach(moduleId -> quizService.createQuizForModule(moduleId, quiz())));
+
+        Result enrollments = measure(statistics, "enrollments", STUDENTS, () ->
+                transaction.executeWithoutResult(status -> {
+                    Course course = courseRepository.getReferenceById(fixture.courseId());
+                    enrollmentRepository.saveAll(fixture.studentIds().stream()
+                            .map(studentId -> Enrollment.builder()
+                                    .course(course)
+                                    .student(userRepository.getReferenceById(studentId))
+                                    .status(EnrollmentStatus.ACTIVE)
+                                    .build())
+                            .toList());
+                }));
+
+        Result submissions = measure(statistics, "submissions", STUDENTS, () ->
+                transaction.executeWithoutResult(status -> {
+                    Assignment assignment = assignmentRepository.getReferenceById(fixture.assignmentId());
+                    submissionRepository.saveAll(fixture.studentIds().stream()
+                            .map(studentId -> Submission.builder()
+                                    .assignment(assignment)
+                                    .student(userRepository.getReferenceById(studentId))
+                                    .content("answer")
+                                    .status(SubmissionStatus.SUBMITTED)
+                                    .build())
+                            .toList());
+                }));
+
+        for (Result result : List.of(quizzes, enrollments, submissions)) {
+            System.out.printf("[insert-benchmark] %-10s %-11s rows=%6d statements=%6d time=%6d ms  %9.0f rows/s%n",
+                    label(), result.scenario(), result.rows(), result.statements(), result.millis(),
+                    result.rowsPerSecond());
+        }
+
+        assertThat(enrollmentRepository.findByCourse_Id(fixture.courseId())).hasSize(STUDENTS);
+        check(quizzes, enrollments, submissions);
+    }
+
+    private static Result measure(Statistics statistics, String scenario, long rows, Runnable work) {
+        statistics.clear();
+        long start = System.nanoTime();
+        work.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(scenario, rows, statistics.getPrepareStatementCount(), millis);
+    }
+
+    private Fixture createFixture() {
+        String run = label() + "-" + System.nanoTime();
+        User teacher = userRepository.save(User.builder()
+                .name("Bench Teacher")
+                .email("bench.teacher." + run + "@example.com")
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+        Category category = categoryRepository.save(Category.builder().name("Bench " + run).build());
+        Course course = courseRepository.save(Course.builder()
+                .title("Bench course")
+                .status(CourseStatus.PUBLISHED)
+                .teacher(teacher)
+                .category(category)
+                .build());
+
+        List<Module> modules = moduleRepository.saveAll(IntStream.range(0, QUIZZES)
+                .mapToObj(i -> Module.builder().title("Module " + i).orderIndex(i).course(course).build())
+                .toList());
+        Lesson lesson = lessonRepository.save(Lesson.builder()
+                .title("Lesson")
+                .orderIndex(0)
+                .module(modules.get(0))
+                .build());
+        Assignment assignment = assignmentRepository.save(Assignment.builder()
+                .title("Assignment")
+                .lesson(lesson)
+                .build());
+
+        List<User> students = userRepository.saveAll(IntStream.range(0, STUDENTS)
+                .mapToObj(i -> User.builder()
+                        .name("Bench Student " + i)
+                        .email("bench.student." + i + "." + run + "@example.com")
+                        .password("secret")
+                        .role(Role.STUDENT)
+                        .build())
+                .toList());
+
+        return new Fixture(course.getId(),
+                modules.stream().map(Module::getId).toList(),
+                assignment.getId(),
+                students.stream().map(User::getId).toList());
+    }
+
+    private static Quiz quiz() {
+        List<Question> questions = new ArrayList<>(QUESTIONS);
+        for (int q = 0; q < QUESTIONS; q++) {
+            List<AnswerOption> options = new ArrayList<>(OPTIONS);
+            for (int o = 0; o < OPTIONS; o++) {
+                options.add(AnswerOption.builder().text("Option " + o).isCorrect(o == 0).build());
+            }
+            questions.add(Question.builder()
+                    .text("Question " + q)
+                    .type(QuestionType.SINGLE_CHOICE)
+                    .options(options)
+                    .build());
+        }
+        return Quiz.builder().title("Bench quiz").timeLimitMinutes(30).questions(questions).build();
+    }
+}
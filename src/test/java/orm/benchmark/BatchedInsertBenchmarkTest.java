@@ -0,0 +1,29 @@
+package orm.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Текущие настройки: id из последовательностей (allocationSize = 50) и JDBC-пачки по 50.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bench-batched;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+class BatchedInsertBenchmarkTest extends AbstractInsertBenchmark {
+
+    @Override
+    String label() {
+        return "batched";
+    }
+
+    @Override
+    void check(Result quizzes, Result enrollments, Result submissions) {
+        // пачка на 50 строк плюс nextval на каждые 50 id — на порядок меньше обращений, чем строк
+        assertThat(quizzes.statements()).isLessThan(quizzes.rows() / 10);
+        assertThat(enrollments.statements()).isLessThan(enrollments.rows() / 10);
+        assertThat(submissions.statements()).isLessThan(submissions.rows() / 10);
+    }
+}
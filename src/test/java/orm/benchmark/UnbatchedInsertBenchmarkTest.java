@@ -0,0 +1,26 @@
+package orm.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Базовая линия «как при IDENTITY»: каждая строка — отдельный INSERT и отдельное обращение к БД.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bench-unbatched;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=1"
+})
+class UnbatchedInsertBenchmarkTest extends AbstractInsertBenchmark {
+
+    @Override
+    String label() {
+        return "per-row";
+    }
+
+    @Override
+    void check(Result quizzes, Result enrollments, Result submissions) {
+        assertThat(quizzes.statements()).isGreaterThanOrEqualTo(quizzes.rows());
+        assertThat(enrollments.statements()).isGreaterThanOrEqualTo(enrollments.rows());
+    }
+}
@@ -0,0 +1,84 @@
+package orm.cache;
+
+import org.junit.jupiter.api.Test;
+import orm.dto.CourseStructureSnapshot;
+import orm.model.CourseStatus;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourseStructureCacheTest {
+
+    private static CourseStructureSnapshot snapshot(Long courseId, long version) {
+        return new CourseStructureSnapshot(courseId, version, "Course " + courseId, null, null,
+                null, null, CourseStatus.DRAFT, null, null, null, null, List.of());
+    }
+
+    @Test
+    void secondReadIsServedFromCache() {
+        CourseStructureCache cache = new CourseStructureCache(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(1L, (id, version) -> {
+            loads.incrementAndGet();
+            return snapshot(id, version);
+        });
+        CourseStructureSnapshot second = cache.getOrLoad(1L, (id, version) -> {
+            loads.incrementAndGet();
+            return snapshot(id, version);
+        });
+
+        assertThat(second.id()).isEqualTo(1L);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateForcesReloadWithNewVersion() {
+        CourseStructureCache cache = new CourseStructureCache(10);
+
+        CourseStructureSnapshot first = cache.getOrLoad(1L, CourseStructureCacheTest::snapshot);
+        cache.invalidate(1L);
+        CourseStructureSnapshot second = cache.getOrLoad(1L, CourseStructureCacheTest::snapshot);
+
+        assertThat(second.version()).isGreaterThan(first.version());
+        assertThat(cache.stats().invalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void snapshotLoadedDuringInvalidationIsNotCached() {
+        CourseStructureCache cache = new CourseStructureCache(10);
+
+        cache.getOrLoad(1L, (id, version) -> {
+            // запись в курс произошла, пока мы читали старое состояние
+            cache.invalidate(id);
+            return snapshot(id, version);
+        });
+
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        CourseStructureCache cache = new CourseStructureCache(2);
+
+        cache.getOrLoad(1L, CourseStructureCacheTest::snapshot);
+        cache.getOrLoad(2L, CourseStructureCacheTest::snapshot);
+        cache.getOrLoad(1L, CourseStructureCacheTest::snapshot);
+        cache.getOrLoad(3L, CourseStructureCacheTest::snapshot);
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.size()).isEqualTo(2);
+        assertThat(stats.evictions()).isEqualTo(1);
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.getOrLoad(1L, (id, version) -> {
+            loads.incrementAndGet();
+            return snapshot(id, version);
+        });
+        assertThat(loads).hasValue(0);
+    }
+}
@@ -0,0 +1,53 @@
+package orm.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import orm.dto.QuizOptionRow;
+import orm.dto.QuizView;
+import orm.dto.StudentQuizView;
+import orm.model.QuestionType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncodedPayloadTest {
+
+    @Test
+    void etagIsStableAndContentDependent() {
+        EncodedPayload first = EncodedPayload.of("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        EncodedPayload same = EncodedPayload.of("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        EncodedPayload other = EncodedPayload.of("{\"a\":2}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(first.etag()).isEqualTo(same.etag()).startsWith("\"").endsWith("\"").hasSize(34);
+        assertThat(first.etag()).isNotEqualTo(other.etag());
+    }
+
+    @Test
+    void ifNoneMatchAcceptsListsWeakTagsAndWildcard() {
+        EncodedPayload payload = EncodedPayload.of(new byte[]{1, 2, 3});
+
+        assertThat(payload.matches(null)).isFalse();
+        assertThat(payload.matches("\"other\"")).isFalse();
+        assertThat(payload.matches(payload.etag())).isTrue();
+        assertThat(payload.matches("\"other\", W/" + payload.etag())).isTrue();
+        assertThat(payload.matches("*")).isTrue();
+    }
+
+    @Test
+    void studentViewDoesNotExposeCorrectAnswers() throws Exception {
+        StudentQuizView view = StudentQuizView.of(new QuizView(1L, 2L, "Quiz", 30), List.of(
+                new QuizOptionRow(10L, "Q1", QuestionType.SINGLE_CHOICE, 100L, "right", true),
+                new QuizOptionRow(10L, "Q1", QuestionType.SINGLE_CHOICE, 101L, "wrong", false),
+                new QuizOptionRow(11L, "Q2", QuestionType.SINGLE_CHOICE, null, null, null)));
+
+        String json = new String(new ObjectMapper().writeValueAsBytes(view), StandardCharsets.UTF_8);
+
+        assertThat(view.questions()).hasSize(2);
+        assertThat(view.questions().get(0).options()).extracting(StudentQuizView.OptionView::id)
+                .containsExactly(100L, 101L);
+        assertThat(view.questions().get(1).options()).isEmpty();
+        assertThat(json).doesNotContain("correct");
+    }
+}
@@ -0,0 +1,167 @@
+package orm.cache;
+
+import org.junit.jupiter.api.Test;
+import orm.entity.AnswerOption;
+import orm.entity.Question;
+import orm.service.impl.QuizScorer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuizAnswerKeyTest {
+
+    private static AnswerKeyRow row(long questionId, Long optionId, boolean correct) {
+        return new AnswerKeyRow(questionId, optionId, correct);
+    }
+
+    @Test
+    void exactSetOfCorrectOptionsIsRequired() {
+        QuizAnswerKey key = QuizAnswerKey.compile(List.of(
+                row(1, 10L, true), row(1, 11L, false), row(1, 12L, true),
+                row(2, 20L, false), row(2, 21L, true)));
+
+        assertThat(key.questionCount()).isEqualTo(2);
+        assertThat(key.countCorrect(Map.of(1L, List.of(12L, 10L), 2L, List.of(21L)))).isEqualTo(2);
+        // дубликаты не мешают, как и в множестве
+        assertThat(key.countCorrect(Map.of(1L, List.of(10L, 10L, 12L)))).isEqualTo(1);
+        // неполный ответ, лишний вариант, вариант чужого вопроса
+        assertThat(key.countCorrect(Map.of(1L, List.of(10L)))).isZero();
+        assertThat(key.countCorrect(Map.of(1L, List.of(10L, 11L, 12L)))).isZero();
+        assertThat(key.countCorrect(Map.of(2L, List.of(10L)))).isZero();
+        // ответ на вопрос не из теста игнорируется
+        assertThat(key.countCorrect(Map.of(99L, List.of(21L)))).isZero();
+    }
+
+    @Test
+    void questionWithoutCorrectOptionsCountsWhenLeftBlank() {
+        QuizAnswerKey key = QuizAnswerKey.compile(List.of(
+                row(1, 10L, false), row(1, 11L, false),
+                row(2, null, false)));
+
+        assertThat(key.countCorrect(Map.of())).isEqualTo(2);
+        assertThat(key.countCorrect(Map.of(1L, List.of()))).isEqualTo(2);
+        assertThat(key.countCorrect(Map.of(1L, List.of(10L)))).isEqualTo(1);
+    }
+
+    @Test
+    void questionsWithMoreThan64OptionsAreSupported() {
+        List<AnswerKeyRow> rows = new ArrayList<>();
+        for (long o = 0; o < 130; o++) {
+            rows.add(row(1, 1000 + o, o == 3 || o == 64 || o == 129));
+        }
+        QuizAnswerKey key = QuizAnswerKey.compile(rows);
+
+        assertThat(key.countCorrect(Map.of(1L, List.of(1129L, 1003L, 1064L)))).isEqualTo(1);
+        assertThat(key.countCorrect(Map.of(1L, List.of(1129L, 1003L)))).isZero();
+    }
+
+    @Test
+    void agreesWithEntityBasedScoringOnRandomQuizzes() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<Question> questions = new ArrayList<>();
+            List<AnswerKeyRow> rows = new ArrayList<>();
+            Map<Long, List<Long>> answers = new HashMap<>();
+            long optionId = 1;
+
+            int questionCount = 1 + random.nextInt(20);
+            for (long q = 1; q <= questionCount; q++) {
+                List<AnswerOption> options = new ArrayList<>();
+                int optionCount = random.nextInt(6);
+                for (int o = 0; o < optionCount; o++) {
+                    boolean correct = random.nextInt(3) == 0;
+                    options.add(AnswerOption.builder().id(optionId).isCorrect(correct).build());
+                    rows.add(row(q, optionId, correct));
+                    optionId++;
+                }
+                if (optionCount == 0) {
+                    rows.add(row(q, null, false));
+                }
+                questions.add(Question.builder().id(q).options(options).build());
+
+                if (random.nextBoolean()) {
+                    List<Long> selected = new ArrayList<>();
+                    for (AnswerOption option : options) {
+                        if (random.nextBoolean() == option.isCorrect() || random.nextInt(5) == 0) {
+                            selected.add(option.getId());
+                        }
+                    }
+                    if (random.nextInt(10) == 0) {
+                        selected.add(optionId + 1000);
+                    }
+                    answers.put(q, selected);
+                }
+            }
+
+            int expected = QuizScorer.countCorrect(questions, answers);
+            QuizAnswerKey key = QuizAnswerKey.compile(rows);
+            assertThat(key.countCorrect(answers))
+                    .as("round %d, answers %s", round, answers)
+                    .isEqualTo(expected);
+            assertThat(key.countCorrect(key.encodeSelection(answers)))
+                    .as("round %d, encoded answers %s", round, answers)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void encodedSelectionIsRescoredAgainstFixedKey() {
+        List<AnswerKeyRow> original = List.of(
+                row(1, 10L, true), row(1, 11L, false),
+                row(2, 20L, false), row(2, 21L, true), row(2, 22L, true));
+        // преподаватель исправил ключ: в вопросе 1 верен второй вариант, в вопросе 2 — только 21
+        List<AnswerKeyRow> fixed = List.of(
+                row(1, 10L, false), row(1, 11L, true),
+                row(2, 20L, false), row(2, 21L, true), row(2, 22L, false));
+        Map<Long, List<Long>> answers = Map.of(1L, List.of(11L), 2L, List.of(21L));
+
+        byte[] encoded = QuizAnswerKey.compile(original).encodeSelection(answers);
+
+        assertThat(QuizAnswerKey.compile(original).countCorrect(encoded)).isZero();
+        assertThat(QuizAnswerKey.compile(fixed).countCorrect(encoded)).isEqualTo(2);
+    }
+
+    @Test
+    void encodingIsCompactAndSkipsForeignQuestions() {
+        QuizAnswerKey key = QuizAnswerKey.compile(List.of(
+                row(100, 1000L, true), row(100, 1001L, false),
+                row(101, 1010L, true), row(101, 1011L, false)));
+
+        // по три байта на вопрос: разность id, заголовок, маска
+        assertThat(key.encodeSelection(Map.of(100L, List.of(1000L), 101L, List.of(1011L)))).hasSize(6);
+        // пустой выбор и вопросы не из теста не пишутся
+        assertThat(key.encodeSelection(Map.of(100L, List.of(), 999L, List.of(1000L)))).isEmpty();
+        // вариант чужого вопроса — флаг без маски, такой ответ неверен при любом ключе
+        byte[] foreign = key.encodeSelection(Map.of(101L, List.of(1000L)));
+        assertThat(foreign).hasSize(2);
+        assertThat(key.countCorrect(foreign)).isZero();
+    }
+
+    @Test
+    void questionsAddedOrRemovedAfterEncodingAreHandled() {
+        Map<Long, List<Long>> answers = Map.of(1L, List.of(10L), 2L, List.of(20L));
+        byte[] encoded = QuizAnswerKey.compile(List.of(row(1, 10L, true), row(2, 20L, true)))
+                .encodeSelection(answers);
+
+        // вопрос 2 удалён, добавлен вопрос 3 без правильных вариантов
+        QuizAnswerKey changed = QuizAnswerKey.compile(List.of(
+                row(1, 10L, true), row(3, 30L, false)));
+        assertThat(changed.countCorrect(encoded)).isEqualTo(2);
+    }
+
+    @Test
+    void truncatedEncodingIsRejected() {
+        QuizAnswerKey key = QuizAnswerKey.compile(List.of(row(1, 10L, true)));
+        byte[] encoded = key.encodeSelection(Map.of(1L, List.of(10L)));
+
+        assertThatThrownBy(() -> key.countCorrect(Arrays.copyOf(encoded, encoded.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
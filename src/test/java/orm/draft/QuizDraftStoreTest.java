@@ -0,0 +1,127 @@
+package orm.draft;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import orm.entity.QuizDraft;
+import orm.entity.QuizDraftKey;
+import orm.exception.ServiceOverloadedException;
+import orm.repository.QuizDraftRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class QuizDraftStoreTest {
+
+    private static final Long QUIZ = 5L;
+
+    private final QuizDraftRepository repository = mock(QuizDraftRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final QuizDraftStore store =
+            new QuizDraftStore(repository, entityManager, mock(PlatformTransactionManager.class), 2, 100);
+
+    @Test
+    void coalescesSavesIntoOneWrite() {
+        store.save(1L, QUIZ, Map.of(1L, List.of(10L)));
+        store.save(1L, QUIZ, Map.of(1L, List.of(11L)));
+
+        store.flush();
+
+        ArgumentCaptor<QuizDraft> persisted = ArgumentCaptor.forClass(QuizDraft.class);
+        verify(entityManager, times(1)).persist(persisted.capture());
+        assertThat(persisted.getValue().getAnswers()).isEqualTo(Map.of(1L, List.of(11L)));
+        assertThat(store.stats().saves()).isEqualTo(2);
+        assertThat(store.stats().written()).isEqualTo(1);
+        assertThat(store.stats().dirty()).isZero();
+
+        // чистый черновик повторно не пишется
+        store.flush();
+        verify(repository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void updatesExistingRowAndDeletesDiscarded() {
+        QuizDraftKey key = new QuizDraftKey(1L, QUIZ);
+        QuizDraft row = new QuizDraft(key, Map.of(1L, List.of(10L)), LocalDateTime.now());
+        when(repository.findAllById(any())).thenReturn(List.of(row));
+
+        store.save(1L, QUIZ, Map.of(1L, List.of(11L)));
+        store.flush();
+        assertThat(row.getAnswers()).isEqualTo(Map.of(1L, List.of(11L)));
+        verify(entityManager, never()).persist(any());
+
+        store.discard(1L, QUIZ);
+        assertThat(store.find(1L, QUIZ)).isEmpty();
+        store.flush();
+        verify(entityManager).remove(row);
+        assertThat(store.stats().size()).isZero();
+    }
+
+    @Test
+    void rejectsWhenFullOfUnflushedDraftsAndEvictsCleanOnes() {
+        store.save(1L, QUIZ, Map.of());
+        store.save(2L, QUIZ, Map.of());
+
+        assertThatThrownBy(() -> store.save(3L, QUIZ, Map.of()))
+                .isInstanceOf(ServiceOverloadedException.class);
+        // уже хранимый черновик перезаписывается и при заполненном хранилище
+        store.save(1L, QUIZ, Map.of(1L, List.of(10L)));
+
+        store.flush();
+        store.save(3L, QUIZ, Map.of());
+        assertThat(store.stats().size()).isEqualTo(2);
+        assertThat(store.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void failedFlushKeepsDraftsDirty() {
+        when(repository.findAllById(any())).thenThrow(new IllegalStateException("db down"));
+        store.save(1L, QUIZ, Map.of(1L, List.of(10L)));
+
+        store.flush();
+
+        assertThat(store.stats().dirty()).isEqualTo(1);
+        assertThat(store.find(1L, QUIZ)).hasValueSatisfying(
+                draft -> assertThat(draft.answers()).isEqualTo(Map.of(1L, List.of(10L))));
+    }
+
+    @Test
+    void loadsFlushedDraftFromDatabase() {
+        QuizDraftKey key = new QuizDraftKey(1L, QUIZ);
+        when(repository.findById(key))
+                .thenReturn(Optional.of(new QuizDraft(key, Map.of(2L, List.of(20L)), LocalDateTime.now())));
+
+        assertThat(store.find(1L, QUIZ)).hasValueSatisfying(
+                draft -> assertThat(draft.answers()).isEqualTo(Map.of(2L, List.of(20L))));
+        assertThat(store.find(2L, QUIZ)).isEmpty();
+    }
+
+    @Test
+    void draftsBeingFlushedAreNotEvicted() {
+        store.save(1L, QUIZ, Map.of(1L, List.of(10L)));
+        store.save(2L, QUIZ, Map.of(2L, List.of(20L)));
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            // пометка уже снята, но запись ещё не закончилась — место освобождать нельзя
+            assertThatThrownBy(() -> store.save(3L, QUIZ, Map.of()))
+                    .isInstanceOf(ServiceOverloadedException.class);
+            throw new IllegalStateException("db down");
+        });
+
+        store.flush();
+
+        assertThat(store.stats().dirty()).isEqualTo(2);
+        assertThat(store.find(1L, QUIZ)).hasValueSatisfying(
+                draft -> assertThat(draft.answers()).isEqualTo(Map.of(1L, List.of(10L))));
+        assertThat(store.find(2L, QUIZ)).hasValueSatisfying(
+                draft -> assertThat(draft.answers()).isEqualTo(Map.of(2L, List.of(20L))));
+        verify(repository, never()).findById(any());
+    }
+}
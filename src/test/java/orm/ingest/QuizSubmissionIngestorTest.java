@@ -0,0 +1,218 @@
+package orm.ingest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import orm.entity.QuizSubmission;
+import orm.exception.ServiceOverloadedException;
+import orm.repository.QuizRepository;
+import orm.repository.QuizSubmissionRepository;
+import orm.repository.UserRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class QuizSubmissionIngestorTest {
+
+    private final QuizSubmissionRepository quizSubmissionRepository = mock(QuizSubmissionRepository.class);
+    private final List<Integer> writtenScores = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    Path deadLetterDirectory;
+
+    private QuizSubmissionIngestor ingestor;
+
+    private QuizSubmissionIngestor ingestor(int capacity, int batchSize) {
+        return ingestor(capacity, batchSize, Duration.ofSeconds(20));
+    }
+
+    private QuizSubmissionIngestor ingestor(int capacity, int batchSize, Duration drainTimeout) {
+        ingestor = new QuizSubmissionIngestor(quizSubmissionRepository, mock(QuizRepository.class),
+                mock(UserRepository.class), mock(PlatformTransactionManager.class),
+                new SubmissionIngestProperties(capacity, batchSize, Duration.ofMillis(10), Duration.ofMillis(10),
+                        Duration.ofMillis(5), Duration.ofMillis(20), drainTimeout, deadLetterDirectory));
+        return ingestor;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (ingestor != null && ingestor.isRunning()) {
+            ingestor.stop();
+        }
+    }
+
+    private static PendingSubmission submission(int score) {
+        return new PendingSubmission(UUID.randomUUID(), 1L, 2L, score, score >= 50, new byte[0], LocalDateTime.now());
+    }
+
+    private void recordSaves() {
+        doAnswer(invocation -> {
+            List<QuizSubmission> batch = invocation.getArgument(0);
+            batch.forEach(s -> writtenScores.add(s.getScore()));
+            return batch;
+        }).when(quizSubmissionRepository).saveAll(anyList());
+    }
+
+    @Test
+    void stopWritesEverythingAccepted() throws InterruptedException {
+        recordSaves();
+        QuizSubmissionIngestor ingestor = ingestor(1000, 7);
+        ingestor.start();
+
+        for (int i = 0; i < 100; i++) {
+            ingestor.accept(submission(i));
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        ingestor.stop(stopped::countDown);
+        assertThat(stopped.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(writtenScores).hasSize(100).doesNotHaveDuplicates();
+        IngestStats stats = ingestor.stats();
+        assertThat(stats.accepted()).isEqualTo(100);
+        assertThat(stats.written()).isEqualTo(100);
+        assertThat(stats.queued()).isZero();
+    }
+
+    @Test
+    void rejectsAfterStop() {
+        QuizSubmissionIngestor ingestor = ingestor(10, 10);
+        ingestor.start();
+        ingestor.stop();
+
+        assertThatThrownBy(() -> ingestor.accept(submission(1)))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThat(ingestor.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        }).when(quizSubmissionRepository).saveAll(anyList());
+
+        QuizSubmissionIngestor ingestor = ingestor(2, 1);
+        ingestor.start();
+
+        // первая попытка забрана писателем и «висит» в БД, очередь заполняют ещё две
+        ingestor.accept(submission(1));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        ingestor.accept(submission(2));
+        ingestor.accept(submission(3));
+
+        assertThatThrownBy(() -> ingestor.accept(submission(4)))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .hasMessageContaining("full");
+
+        release.countDown();
+        ingestor.stop();
+        assertThat(ingestor.stats().written()).isEqualTo(3);
+    }
+
+    @Test
+    void failingSubmissionDoesNotDropItsBatch() {
+        doAnswer(invocation -> {
+            List<QuizSubmission> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(s -> s.getScore() == 13)) {
+                throw new IllegalStateException("FK violation");
+            }
+            batch.forEach(s -> writtenScores.add(s.getScore()));
+            return batch;
+        }).when(quizSubmissionRepository).saveAll(anyList());
+
+        QuizSubmissionIngestor ingestor = ingestor(100, 100);
+        ingestor.start();
+        for (int i = 10; i < 20; i++) {
+            ingestor.accept(submission(i));
+        }
+        ingestor.stop();
+
+        assertThat(writtenScores).containsExactlyInAnyOrder(10, 11, 12, 14, 15, 16, 17, 18, 19);
+        assertThat(ingestor.stats().failed()).isEqualTo(1);
+        assertThat(ingestor.stats().written()).isEqualTo(9);
+    }
+
+    @Test
+    void transientFailuresAreRetriedUntilWritten() {
+        AtomicInteger outages = new AtomicInteger(3);
+        doAnswer(invocation -> {
+            if (outages.getAndDecrement() > 0) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            List<QuizSubmission> batch = invocation.getArgument(0);
+            batch.forEach(s -> writtenScores.add(s.getScore()));
+            return batch;
+        }).when(quizSubmissionRepository).saveAll(anyList());
+
+        QuizSubmissionIngestor ingestor = ingestor(100, 100);
+        ingestor.start();
+        for (int i = 0; i < 10; i++) {
+            ingestor.accept(submission(i));
+        }
+        ingestor.stop();
+
+        assertThat(writtenScores).hasSize(10);
+        IngestStats stats = ingestor.stats();
+        assertThat(stats.written()).isEqualTo(10);
+        assertThat(stats.failed()).isZero();
+        assertThat(stats.retried()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void submissionsUnwrittenAtShutdownAreDeadLetteredAndReplayedOnStart() throws Exception {
+        AtomicBoolean databaseDown = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (databaseDown.get()) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            List<QuizSubmission> batch = invocation.getArgument(0);
+            batch.forEach(s -> writtenScores.add(s.getScore()));
+            return batch;
+        }).when(quizSubmissionRepository).saveAll(anyList());
+
+        QuizSubmissionIngestor first = ingestor(100, 3, Duration.ofMillis(50));
+        first.start();
+        for (int i = 0; i < 8; i++) {
+            first.accept(submission(i));
+        }
+        first.stop();
+
+        assertThat(writtenScores).isEmpty();
+        assertThat(first.stats().deadLettered()).isEqualTo(8);
+        try (var files = Files.list(deadLetterDirectory)) {
+            assertThat(files).hasSize(1);
+        }
+
+        databaseDown.set(false);
+        QuizSubmissionIngestor second = ingestor(100, 3);
+        second.start();
+        second.stop();
+
+        assertThat(writtenScores).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7);
+        assertThat(second.stats().written()).isEqualTo(8);
+        try (var files = Files.list(deadLetterDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package orm.it;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import orm.dto.BulkEnrollReport;
+import orm.entity.Course;
+import orm.entity.User;
+import orm.leaderboard.EnrollmentCountWriter;
+import orm.model.CourseStatus;
+import orm.model.Role;
+import orm.model.RosterSort;
+import orm.repository.CourseRepository;
+import orm.repository.UserRepository;
+import orm.seats.CourseSeatLimiter;
+import orm.seats.SeatAvailability;
+import orm.service.BulkEnrollmentService;
+import orm.service.EnrollmentService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+// отдельная БД: свой контекст с create-drop не должен пересоздавать схему общего тестового контекста
+@SpringBootTest(properties = {
+        "orm.enrollment.bulk-chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:cohort-enrollment;DB_CLOSE_DELAY=-1;MODE=PostgreSQL"
+})
+@ActiveProfiles("test")
+class CohortEnrollmentIT {
+
+    @Autowired
+    private BulkEnrollmentService bulkEnrollmentService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentCountWriter enrollmentCountWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private CourseSeatLimiter seatLimiter;
+
+    private User user(String name, Role role) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .email(name.toLowerCase() + "@cohort.example.com")
+                .password("secret")
+                .role(role)
+                .build());
+    }
+
+    @Test
+    void enrollsNewStudentsAndReportsTheRest() {
+        User teacher = user("CohortTeacher", Role.TEACHER);
+        Course course = courseRepository.save(Course.builder()
+                .title("Cohort course")
+                .description("d")
+                .duration(10)
+                .startDate(LocalDate.now())
+                .status(CourseStatus.PUBLISHED)
+                .teacher(teacher)
+                .build());
+        User enrolled = user("CohortEnrolled", Role.STUDENT);
+        User first = user("CohortFirst", Role.STUDENT);
+        User second = user("CohortSecond", Role.STUDENT);
+        User third = user("CohortThird", Role.STUDENT);
+        enrollmentService.enrollStudent(course.getId(), enrolled.getId());
+
+        List<Long> ids = List.of(first.getId(), enrolled.getId(), teacher.getId(), second.getId(),
+                first.getId(), 999_999L, third.getId());
+        BulkEnrollReport report = bulkEnrollmentService.enrollStudents(course.getId(), ids.iterator());
+
+        assertThat(report.requested()).isEqualTo(7);
+        assertThat(report.enrolled()).containsExactly(first.getId(), second.getId(), third.getId());
+        assertThat(report.skipped()).containsExactlyInAnyOrder(enrolled.getId(), first.getId());
+        assertThat(report.rejected()).containsExactlyInAnyOrder(
+                new BulkEnrollReport.Rejection(teacher.getId(), "User is not a student"),
+                new BulkEnrollReport.Rejection(999_999L, "User not found"));
+
+        assertThat(enrollmentService.getStudentsForCourse(course.getId(), null, RosterSort.NAME, null, 10).items())
+                .hasSize(4);
+        // счётчик в строке курса дописывается отложенно
+        enrollmentCountWriter.flush();
+        assertThat(courseRepository.findById(course.getId()))
+                .hasValueSatisfying(saved -> assertThat(saved.getEnrollmentCount()).isEqualTo(4L));
+    }
+
+    @Test
+    void capacityLimitsBulkAndSingleEnrollment() {
+        User teacher = user("SeatsTeacher", Role.TEACHER);
+        Course course = courseRepository.save(Course.builder()
+                .title("Seats course")
+                .description("d")
+                .duration(10)
+                .startDate(LocalDate.now())
+                .status(CourseStatus.PUBLISHED)
+                .capacity(2)
+                .teacher(teacher)
+                .build());
+        User first = user("SeatsFirst", Role.STUDENT);
+        User second = user("SeatsSecond", Role.STUDENT);
+        User third = user("SeatsThird", Role.STUDENT);
+
+        BulkEnrollReport report = bulkEnrollmentService.enrollStudents(course.getId(),
+                List.of(first.getId(), second.getId(), third.getId()).iterator());
+
+        assertThat(report.enrolled()).containsExactly(first.getId(), second.getId());
+        assertThat(report.rejected()).containsExactly(new BulkEnrollReport.Rejection(third.getId(), "Course is full"));
+        assertThatThrownBy(() -> enrollmentService.enrollStudent(course.getId(), third.getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Course is full");
+
+        enrollmentService.unenrollStudent(course.getId(), first.getId());
+        enrollmentService.enrollStudent(course.getId(), third.getId());
+
+        assertThat(enrollmentService.getSeatAvailability(course.getId()))
+                .isEqualTo(new SeatAvailability(course.getId(), 2, 2, 0));
+    }
+
+    @Test
+    void chunkIsRetriedWhenSingleEnrollmentWinsBetweenCheckAndInsert() {
+        User teacher = user("RaceTeacher", Role.TEACHER);
+        Course course = courseRepository.save(Course.builder()
+                .title("Race course")
+                .description("d")
+                .duration(10)
+                .startDate(LocalDate.now())
+                .status(CourseStatus.PUBLISHED)
+                .teacher(teacher)
+                .build());
+        User first = user("RaceFirst", Role.STUDENT);
+        User second = user("RaceSecond", Role.STUDENT);
+
+        // места выдаются после проверки уже записанных — в этот момент успевает одиночная запись second
+        TransactionTemplate separate = new TransactionTemplate(transactionManager);
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicBoolean raced = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (raced.compareAndSet(false, true)) {
+                separate.executeWithoutResult(status -> enrollmentService.enrollStudent(course.getId(), second.getId()));
+            }
+            return invocation.callRealMethod();
+        }).when(seatLimiter).tryAcquire(eq(course.getId()), anyInt());
+
+        BulkEnrollReport report = bulkEnrollmentService.enrollStudents(course.getId(),
+                List.of(first.getId(), second.getId()).iterator());
+
+        assertThat(raced).isTrue();
+        assertThat(report.enrolled()).containsExactly(first.getId());
+        assertThat(report.skipped()).containsExactly(second.getId());
+        assertThat(report.rejected()).isEmpty();
+        enrollmentCountWriter.flush();
+        assertThat(courseRepository.findById(course.getId()))
+                .hasValueSatisfying(saved -> assertThat(saved.getEnrollmentCount()).isEqualTo(2L));
+    }
+}
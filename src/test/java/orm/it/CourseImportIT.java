@@ -0,0 +1,84 @@
+package orm.it;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import orm.dto.CourseStructureSnapshot;
+import orm.dto.CourseView;
+import orm.dto.ImportReport;
+import orm.entity.Category;
+import orm.entity.User;
+import orm.model.Role;
+import orm.repository.CategoryRepository;
+import orm.repository.UserRepository;
+import orm.service.CourseImportService;
+import orm.service.CourseService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// отдельная БД: свой контекст с create-drop не должен пересоздавать схему общего тестового контекста
+@SpringBootTest(properties = {
+        "orm.import.chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:course-import;DB_CLOSE_DELAY=-1;MODE=PostgreSQL"
+})
+@ActiveProfiles("test")
+class CourseImportIT {
+
+    @Autowired
+    private CourseImportService courseImportService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void importsValidLinesAndReportsBrokenOnes() {
+        User teacher = userRepository.save(User.builder()
+                .name("Import Teacher")
+                .email("import.teacher@example.com")
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+        Category category = categoryRepository.save(Category.builder()
+                .name("Imported")
+                .build());
+
+        String course = """
+                {"title":"%s","description":"d","duration":10,"startDate":"2025-09-01",\
+                "teacherId":%d,"categoryId":%d,"modules":[{"title":"M1","orderIndex":0,\
+                "lessons":[{"title":"L1","content":"c","orderIndex":0},{"title":"L2","content":"c","orderIndex":1}]}]}""";
+        String ndjson = String.join("\n",
+                course.formatted("Import A", teacher.getId(), category.getId()),
+                "{not json",
+                course.formatted("Import B", 999_999L, category.getId()),
+                "",
+                course.formatted("", teacher.getId(), category.getId()),
+                course.formatted("Import C", teacher.getId(), category.getId()));
+
+        ImportReport report = courseImportService.importCourses(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.processed()).isEqualTo(5);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(3);
+        assertThat(report.errors()).extracting(ImportReport.LineError::line).containsExactly(2L, 3L, 5L);
+        assertThat(report.errors().get(1).message()).contains("Teacher not found");
+
+        List<CourseView> imported = courseService.getCoursesByCategory(category.getId(), null, 10).items();
+        assertThat(imported).extracting(CourseView::title).containsExactly("Import A", "Import C");
+
+        CourseStructureSnapshot structure = courseService.getCourseStructure(imported.get(0).id());
+        assertThat(structure.modules()).hasSize(1);
+        assertThat(structure.modules().get(0).lessons()).hasSize(2);
+    }
+}
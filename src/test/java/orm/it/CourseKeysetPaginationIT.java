@@ -0,0 +1,91 @@
+package orm.it;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import orm.dto.CourseView;
+import orm.dto.CursorPage;
+import orm.entity.Category;
+import orm.entity.Course;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.model.Role;
+import orm.repository.CategoryRepository;
+import orm.repository.CourseRepository;
+import orm.repository.UserRepository;
+import orm.service.CourseService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CourseKeysetPaginationIT {
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Test
+    @Transactional
+    void categoryListingIsWalkedPageByPageInTitleOrder() {
+        User teacher = userRepository.save(User.builder()
+                .name("Paging Teacher")
+                .email("paging.teacher@example.com")
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+
+        Category category = categoryRepository.save(Category.builder()
+                .name("Paging")
+                .build());
+
+        // два курса с одинаковым названием — порядок между ними решает id
+        for (String title : List.of("Delta", "Alpha", "Charlie", "Bravo", "Alpha")) {
+            courseRepository.save(Course.builder()
+                    .title(title)
+                    .status(CourseStatus.PUBLISHED)
+                    .teacher(teacher)
+                    .category(category)
+                    .build());
+        }
+
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<CourseView> page = courseService.getCoursesByCategory(category.getId(), cursor, 2);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(2);
+            page.items().forEach(c -> titles.add(c.title()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(titles).containsExactly("Alpha", "Alpha", "Bravo", "Charlie", "Delta");
+
+        CursorPage<CourseView> byTeacher = courseService.getCoursesByTeacher(teacher.getId(), null, 10);
+        assertThat(byTeacher.items()).hasSize(5);
+        assertThat(byTeacher.nextCursor()).isNull();
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> courseService.getCoursesByCategory(1L, "not a cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+}
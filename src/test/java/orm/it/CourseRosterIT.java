@@ -0,0 +1,124 @@
+package orm.it;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import orm.dto.CursorPage;
+import orm.dto.KeysetCursor;
+import orm.dto.RosterEntry;
+import orm.entity.Course;
+import orm.entity.Enrollment;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.model.EnrollmentStatus;
+import orm.model.Role;
+import orm.model.RosterSort;
+import orm.repository.CourseRepository;
+import orm.repository.UserRepository;
+import orm.service.EnrollmentService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// отдельная БД: свой контекст с create-drop не должен пересоздавать схему общего тестового контекста
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:course-roster;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@ActiveProfiles("test")
+class CourseRosterIT {
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user(String name, String email, Role role) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .email(email + "@roster.example.com")
+                .password("secret")
+                .role(role)
+                .build());
+    }
+
+    private List<RosterEntry> walk(Long courseId, EnrollmentStatus status, RosterSort sort) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<RosterEntry> entries = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            CursorPage<RosterEntry> page = enrollmentService.getStudentsForCourse(courseId, status, sort, cursor, 2);
+            assertThat(statistics.getPrepareStatementCount())
+                    .as("Страница списка студентов — один запрос")
+                    .isEqualTo(1);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(2);
+            entries.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return entries;
+    }
+
+    @Test
+    void rosterIsWalkedPageByPageWithStatusFilter() {
+        User teacher = user("Roster Teacher", "teacher", Role.TEACHER);
+        Course course = courseRepository.save(Course.builder()
+                .title("Roster course")
+                .description("d")
+                .duration(10)
+                .startDate(LocalDate.now())
+                .status(CourseStatus.PUBLISHED)
+                .teacher(teacher)
+                .build());
+
+        // два студента с одинаковым именем — порядок между ними решает id записи
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (String[] student : List.of(new String[]{"Dora", "dora"}, new String[]{"Alex", "alex1"},
+                new String[]{"Cleo", "cleo"}, new String[]{"Alex", "alex2"}, new String[]{"Bea", "bea"})) {
+            User user = user(student[0], student[1], Role.STUDENT);
+            enrollments.add(enrollmentService.enrollStudent(course.getId(), user.getId()));
+        }
+        enrollmentService.cancelEnrollment(enrollments.get(2).getId());
+
+        assertThat(walk(course.getId(), null, RosterSort.NAME))
+                .extracting(RosterEntry::email)
+                .containsExactly("alex1@roster.example.com", "alex2@roster.example.com", "bea@roster.example.com",
+                        "cleo@roster.example.com", "dora@roster.example.com");
+
+        assertThat(walk(course.getId(), EnrollmentStatus.ACTIVE, RosterSort.NAME))
+                .extracting(RosterEntry::name)
+                .containsExactly("Alex", "Alex", "Bea", "Dora");
+
+        assertThat(walk(course.getId(), null, RosterSort.ENROLLED_AT))
+                .extracting(RosterEntry::enrollmentId)
+                .containsExactlyElementsOf(enrollments.stream().map(Enrollment::getId).toList());
+
+        assertThat(walk(course.getId(), EnrollmentStatus.CANCELLED, RosterSort.ENROLLED_AT))
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.name()).isEqualTo("Cleo");
+                    assertThat(entry.status()).isEqualTo(EnrollmentStatus.CANCELLED);
+                });
+    }
+
+    @Test
+    void cursorOfAnotherSortIsRejected() {
+        String byName = new KeysetCursor("Alex", 1L).encode();
+
+        assertThatThrownBy(() -> enrollmentService.getStudentsForCourse(1L, null, RosterSort.ENROLLED_AT, byName, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+}
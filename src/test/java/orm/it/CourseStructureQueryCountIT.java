@@ -0,0 +1,180 @@
+package orm.it;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import orm.entity.Category;
+import orm.entity.Course;
+import orm.entity.Lesson;
+import orm.entity.Module;
+import orm.entity.Quiz;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.model.Role;
+import orm.repository.CategoryRepository;
+import orm.repository.CourseRepository;
+import orm.repository.LessonRepository;
+import orm.repository.ModuleRepository;
+import orm.repository.QuizRepository;
+import orm.repository.UserRepository;
+import orm.dto.CourseStructureSnapshot;
+import orm.service.CourseService;
+import orm.service.QuizService;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CourseStructureQueryCountIT {
+
+    private static final int MODULES = 12;
+    private static final int LESSONS_PER_MODULE = 3;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Transactional
+    void courseStructureIsLoadedWithConstantNumberOfStatements() {
+        User teacher = userRepository.save(User.builder()
+                .name("Structure Teacher")
+                .email("structure.teacher@example.com")
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+
+        Category category = categoryRepository.save(Category.builder()
+                .name("Structure")
+                .build());
+
+        Course course = courseRepository.save(Course.builder()
+                .title("Big course")
+                .description("Course with many modules")
+                .status(CourseStatus.PUBLISHED)
+                .startDate(LocalDate.now())
+                .teacher(teacher)
+                .category(category)
+                .build());
+
+        // модули сохраняем в обратном порядке, чтобы проверить сортировку по orderIndex
+        for (int m = MODULES; m >= 1; m--) {
+            Module module = moduleRepository.save(Module.builder()
+                    .title("Module " + m)
+                    .orderIndex(m)
+                    .course(course)
+                    .build());
+
+            for (int l = LESSONS_PER_MODULE; l >= 1; l--) {
+                lessonRepository.save(Lesson.builder()
+                        .title("Lesson " + m + "." + l)
+                        .content("content")
+                        .orderIndex(l)
+                        .module(module)
+                        .build());
+            }
+
+            if (m % 2 == 0) {
+                quizRepository.save(Quiz.builder()
+                        .title("Quiz " + m)
+                        .module(module)
+                        .build());
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Course loaded = courseService.getCourseWithStructure(course.getId());
+
+        // обходим весь граф так же, как это делает сериализация ответа
+        assertThat(loaded.getTeacher().getName()).isEqualTo("Structure Teacher");
+        assertThat(loaded.getCategory().getName()).isEqualTo("Structure");
+        assertThat(loaded.getModules()).hasSize(MODULES);
+        assertThat(loaded.getModules().get(0).getOrderIndex()).isEqualTo(1);
+
+        for (Module module : loaded.getModules()) {
+            assertThat(module.getLessons()).hasSize(LESSONS_PER_MODULE);
+            assertThat(module.getLessons().get(0).getOrderIndex()).isEqualTo(1);
+            if (module.getOrderIndex() % 2 == 0) {
+                assertThat(module.getQuiz()).isNotNull();
+                assertThat(module.getQuiz().getTitle()).isEqualTo("Quiz " + module.getOrderIndex());
+            } else {
+                assertThat(module.getQuiz()).isNull();
+            }
+        }
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Структура курса должна загружаться фиксированным числом запросов")
+                .isEqualTo(2);
+    }
+
+    @Test
+    void quizAddedAfterFirstReadIsShownInCachedStructure() {
+        User teacher = userRepository.save(User.builder()
+                .name("Late Quiz Teacher")
+                .email("late.quiz.teacher@example.com")
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+        Course course = courseRepository.save(Course.builder()
+                .title("Course without quiz")
+                .status(CourseStatus.PUBLISHED)
+                .startDate(LocalDate.now())
+                .teacher(teacher)
+                .build());
+        Module module = courseService.addModuleToCourse(course.getId(), Module.builder()
+                .title("Module 1")
+                .orderIndex(1)
+                .build());
+
+        assertThat(courseService.getCourseStructure(course.getId()).modules())
+                .singleElement()
+                .satisfies(snapshot -> assertThat(snapshot.quizId()).isNull());
+
+        Quiz quiz = quizService.createQuizForModule(module.getId(), Quiz.builder().title("Late quiz").build());
+
+        CourseStructureSnapshot structure = courseService.getCourseStructure(course.getId());
+        assertThat(structure.modules()).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.quizId()).isEqualTo(quiz.getId());
+            assertThat(snapshot.quizTitle()).isEqualTo("Late quiz");
+        });
+    }
+}
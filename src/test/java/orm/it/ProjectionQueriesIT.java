@@ -0,0 +1,207 @@
+package orm.it;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import orm.dto.QuizDetailsView;
+import orm.dto.QuizSubmissionView;
+import orm.dto.RosterEntry;
+import orm.dto.SubmissionDetailsView;
+import orm.dto.SubmissionView;
+import orm.entity.AnswerOption;
+import orm.entity.Assignment;
+import orm.entity.Course;
+import orm.entity.Lesson;
+import orm.entity.Module;
+import orm.entity.Question;
+import orm.entity.Quiz;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.model.QuestionType;
+import orm.model.Role;
+import orm.model.RosterSort;
+import orm.repository.AssignmentRepository;
+import orm.repository.CourseRepository;
+import orm.repository.LessonRepository;
+import orm.repository.ModuleRepository;
+import orm.repository.UserRepository;
+import orm.service.EnrollmentService;
+import orm.service.QuizService;
+import orm.service.SubmissionService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Запросы-проекции для ответов контроллеров: состав полей и то, чего в ответе быть не должно.
+ */
+// отдельная БД: свой контекст с create-drop не должен пересоздавать схему общего тестового контекста
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:projection-queries;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@ActiveProfiles("test")
+class ProjectionQueriesIT {
+
+    private static final String PASSWORD = "projection-secret";
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private SubmissionService submissionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user(String name, Role role) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .email(name.toLowerCase() + "@projection.example.com")
+                .password(PASSWORD)
+                .role(role)
+                .build());
+    }
+
+    private Course course(User teacher) {
+        return courseRepository.save(Course.builder()
+                .title("Projection course")
+                .description("d")
+                .duration(10)
+                .startDate(LocalDate.now())
+                .status(CourseStatus.PUBLISHED)
+                .teacher(teacher)
+                .build());
+    }
+
+    private Module module(Course course) {
+        return moduleRepository.save(Module.builder()
+                .title("Projection module")
+                .orderIndex(1)
+                .course(course)
+                .build());
+    }
+
+    @Test
+    void rosterAndStudentCoursesDoNotExposeUserSecrets() throws Exception {
+        User teacher = user("RosterTeacher", Role.TEACHER);
+        User student = user("RosterStudent", Role.STUDENT);
+        Course course = course(teacher);
+        enrollmentService.enrollStudent(course.getId(), student.getId());
+
+        List<RosterEntry> roster = enrollmentService
+                .getStudentsForCourse(course.getId(), null, RosterSort.NAME, null, 10).items();
+
+        assertThat(roster).singleElement().satisfies(entry -> {
+            assertThat(entry.studentId()).isEqualTo(student.getId());
+            assertThat(entry.email()).isEqualTo("rosterstudent@projection.example.com");
+        });
+        String json = objectMapper.writeValueAsString(roster);
+        assertThat(json).doesNotContain("password").doesNotContain(PASSWORD);
+
+        assertThat(enrollmentService.getCoursesForStudent(student.getId()))
+                .singleElement()
+                .satisfies(view -> {
+                    assertThat(view.id()).isEqualTo(course.getId());
+                    assertThat(view.teacherId()).isEqualTo(teacher.getId());
+                });
+    }
+
+    @Test
+    void quizDetailsCarryCorrectFlagsButStudentViewDoesNot() throws Exception {
+        User teacher = user("QuizTeacher", Role.TEACHER);
+        Module module = module(course(teacher));
+
+        Question question = Question.builder().text("2 + 2?").type(QuestionType.SINGLE_CHOICE).build();
+        question.getOptions().add(AnswerOption.builder().text("4").isCorrect(true).build());
+        question.getOptions().add(AnswerOption.builder().text("5").isCorrect(false).build());
+        Quiz quiz = Quiz.builder().title("Projection quiz").timeLimitMinutes(5).build();
+        quiz.getQuestions().add(question);
+        Long quizId = quizService.createQuizForModule(module.getId(), quiz).getId();
+
+        QuizDetailsView details = quizService.getQuiz(quizId);
+
+        assertThat(details.moduleId()).isEqualTo(module.getId());
+        assertThat(details.questions()).singleElement().satisfies(q -> {
+            assertThat(q.type()).isEqualTo(QuestionType.SINGLE_CHOICE);
+            assertThat(q.options())
+                    .extracting(QuizDetailsView.AnswerOptionView::text, QuizDetailsView.AnswerOptionView::correct)
+                    .containsExactly(
+                            tuple("4", true),
+                            tuple("5", false));
+        });
+
+        String studentJson = new String(quizService.getStudentQuizPayload(quizId).body());
+        assertThat(studentJson).contains("2 + 2?").contains("\"5\"").doesNotContain("correct");
+    }
+
+    @Test
+    void submissionViewsMatchStoredRowsWithoutUserSecrets() throws Exception {
+        User teacher = user("SubmissionTeacher", Role.TEACHER);
+        User student = user("SubmissionStudent", Role.STUDENT);
+        Course course = course(teacher);
+        Module module = module(course);
+        enrollmentService.enrollStudent(course.getId(), student.getId());
+
+        Question question = Question.builder().text("Capital of France?").type(QuestionType.SINGLE_CHOICE).build();
+        AnswerOption paris = AnswerOption.builder().text("Paris").isCorrect(true).build();
+        question.getOptions().add(paris);
+        question.getOptions().add(AnswerOption.builder().text("Lyon").isCorrect(false).build());
+        Quiz quiz = Quiz.builder().title("Submission quiz").build();
+        quiz.getQuestions().add(question);
+        Long quizId = quizService.createQuizForModule(module.getId(), quiz).getId();
+        Long questionId = question.getId();
+        Long parisId = paris.getId();
+
+        Long quizSubmissionId = quizService.takeQuiz(student.getId(), quizId, Map.of(questionId, List.of(parisId))).getId();
+
+        List<QuizSubmissionView> byQuiz = quizService.getSubmissionsForQuiz(quizId);
+        assertThat(byQuiz).singleElement().satisfies(view -> {
+            assertThat(view.id()).isEqualTo(quizSubmissionId);
+            assertThat(view.studentId()).isEqualTo(student.getId());
+            assertThat(view.score()).isEqualTo(100);
+            assertThat(view.passed()).isTrue();
+        });
+        assertThat(quizService.getSubmissionsForStudent(student.getId())).isEqualTo(byQuiz);
+
+        Lesson lesson = lessonRepository.save(Lesson.builder().title("Lesson").orderIndex(1).module(module).build());
+        Assignment assignment = assignmentRepository.save(Assignment.builder()
+                .title("Essay").maxScore(10).lesson(lesson).build());
+        Long submissionId = submissionService.submitAssignment(student.getId(), assignment.getId(), "My essay").getId();
+
+        List<SubmissionView> byAssignment = submissionService.getSubmissionsForAssignment(assignment.getId());
+        assertThat(byAssignment).singleElement().satisfies(view -> {
+            assertThat(view.id()).isEqualTo(submissionId);
+            assertThat(view.assignmentId()).isEqualTo(assignment.getId());
+            assertThat(view.studentId()).isEqualTo(student.getId());
+        });
+        assertThat(submissionService.getSubmissionsForStudent(student.getId())).isEqualTo(byAssignment);
+
+        SubmissionDetailsView details = submissionService.getSubmission(submissionId);
+        assertThat(details.content()).isEqualTo("My essay");
+
+        String json = objectMapper.writeValueAsString(List.of(byQuiz, byAssignment, details));
+        assertThat(json).doesNotContain("password").doesNotContain(PASSWORD).doesNotContain("answers");
+    }
+}
@@ -0,0 +1,138 @@
+package orm.it;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import orm.dto.ImportReport;
+import orm.dto.QuizDetailsView;
+import orm.dto.QuizImportReport;
+import orm.entity.Course;
+import orm.entity.Module;
+import orm.entity.User;
+import orm.model.CourseStatus;
+import orm.model.Role;
+import orm.repository.CourseRepository;
+import orm.repository.ModuleRepository;
+import orm.repository.QuizRepository;
+import orm.repository.UserRepository;
+import orm.service.CourseService;
+import orm.service.QuizImportService;
+import orm.service.QuizService;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// отдельная БД: свой контекст с create-drop не должен пересоздавать схему общего тестового контекста
+@SpringBootTest(properties = {
+        "orm.import.chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:quiz-import;DB_CLOSE_DELAY=-1;MODE=PostgreSQL"
+})
+@ActiveProfiles("test")
+class QuizImportIT {
+
+    private static final String SINGLE = """
+            {"text":"%s","type":"SINGLE_CHOICE","options":[{"text":"yes","correct":true},{"text":"no"}]}""";
+    private static final String MULTIPLE = """
+            {"text":"%s","type":"MULTIPLE_CHOICE","options":[{"text":"a","correct":true},\
+            {"text":"b","correct":true},{"text":"c"}]}""";
+
+    @Autowired
+    private QuizImportService quizImportService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Module module(String title) {
+        User teacher = userRepository.save(User.builder()
+                .name("Quiz Import Teacher " + title)
+                .email("quiz.import." + title.toLowerCase() + "@example.com")
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+        Course course = courseRepository.save(Course.builder()
+                .title("Quiz import " + title)
+                .description("d")
+                .duration(10)
+                .startDate(LocalDate.now())
+                .status(CourseStatus.DRAFT)
+                .teacher(teacher)
+                .build());
+        return moduleRepository.save(Module.builder()
+                .title(title)
+                .orderIndex(0)
+                .course(course)
+                .build());
+    }
+
+    @Test
+    void importsQuestionBankInChunks() {
+        Module module = module("Bank");
+        Long courseId = module.getCourse().getId();
+        // структура курса уже в кэше — импорт должен её сбросить
+        assertThat(courseService.getCourseStructure(courseId).modules())
+                .singleElement()
+                .satisfies(snapshot -> assertThat(snapshot.quizId()).isNull());
+
+        QuizImportReport report = quizImportService.importQuiz(module.getId(), "Bank quiz", 15, ndjson(
+                SINGLE.formatted("Q1"), MULTIPLE.formatted("Q2"), "", SINGLE.formatted("Q3")));
+
+        assertThat(report.failed()).isZero();
+        assertThat(report.questions()).isEqualTo(3);
+        assertThat(report.options()).isEqualTo(7);
+
+        QuizDetailsView quiz = quizService.getQuiz(report.quizId());
+        assertThat(quiz.moduleId()).isEqualTo(module.getId());
+        assertThat(quiz.questions()).hasSize(3);
+        assertThat(courseService.getCourseStructure(courseId).modules())
+                .singleElement()
+                .satisfies(snapshot -> assertThat(snapshot.quizId()).isEqualTo(report.quizId()));
+
+        QuizImportReport appended = quizImportService.importQuestions(report.quizId(), ndjson(MULTIPLE.formatted("Q4")));
+        assertThat(appended.questions()).isEqualTo(1);
+        assertThat(quizService.getQuiz(report.quizId()).questions()).hasSize(4);
+    }
+
+    @Test
+    void anyBrokenLineCancelsTheWholeImport() {
+        Module module = module("Broken");
+
+        QuizImportReport report = quizImportService.importQuiz(module.getId(), "Broken quiz", null, ndjson(
+                SINGLE.formatted("Q1"), SINGLE.formatted("Q2"), SINGLE.formatted("Q3"),
+                "{not json",
+                """
+                        {"text":"Q5","type":"SINGLE_CHOICE","options":[{"text":"a","correct":true},{"text":"b","correct":true}]}""",
+                SINGLE.formatted("")));
+
+        assertThat(report.quizId()).isNull();
+        assertThat(report.processed()).isEqualTo(6);
+        assertThat(report.questions()).isZero();
+        assertThat(report.failed()).isEqualTo(3);
+        assertThat(report.errors()).extracting(ImportReport.LineError::line).containsExactly(4L, 5L, 6L);
+        // первая порция уже ушла в БД, но откатилась вместе с тестом
+        assertThat(quizRepository.findByModule_Id(module.getId())).isEmpty();
+    }
+}
@@ -0,0 +1,147 @@
+package orm.it;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import orm.dto.QuizSubmissionView;
+import orm.dto.RegradeReport;
+import orm.entity.AnswerOption;
+import orm.entity.Question;
+import orm.entity.Quiz;
+import orm.entity.QuizSubmission;
+import orm.entity.User;
+import orm.model.QuestionType;
+import orm.model.Role;
+import orm.repository.AnswerOptionRepository;
+import orm.repository.QuestionRepository;
+import orm.repository.QuizRepository;
+import orm.repository.QuizSubmissionRepository;
+import orm.repository.UserRepository;
+import orm.service.QuizRegradeService;
+import orm.service.QuizService;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// отдельная БД: свой контекст с create-drop не должен пересоздавать схему общего тестового контекста
+@SpringBootTest(properties = {
+        "orm.regrade.chunk-size=3",
+        "orm.regrade.parallelism=3",
+        "spring.datasource.url=jdbc:h2:mem:quiz-regrade;DB_CLOSE_DELAY=-1;MODE=PostgreSQL"
+})
+@ActiveProfiles("test")
+class QuizRegradeIT {
+
+    @Autowired
+    private QuizRegradeService quizRegradeService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerOptionRepository answerOptionRepository;
+
+    @Autowired
+    private QuizSubmissionRepository quizSubmissionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private int students;
+
+    private User student() {
+        students++;
+        return userRepository.save(User.builder()
+                .name("Regrade Student " + students)
+                .email("regrade.student" + students + "@example.com")
+                .password("secret")
+                .role(Role.STUDENT)
+                .build());
+    }
+
+    private Question question(Quiz quiz, String text) {
+        return questionRepository.save(Question.builder()
+                .quiz(quiz)
+                .text(text)
+                .type(QuestionType.SINGLE_CHOICE)
+                .build());
+    }
+
+    private AnswerOption option(Question question, String text, boolean correct) {
+        return answerOptionRepository.save(AnswerOption.builder()
+                .question(question)
+                .text(text)
+                .isCorrect(correct)
+                .build());
+    }
+
+    @Test
+    void regradesAllChunksInParallelAfterAnswerKeyFix() {
+        Quiz quiz = quizRepository.save(Quiz.builder().title("Regrade quiz").timeLimitMinutes(10).build());
+        Question first = question(quiz, "Q1");
+        AnswerOption firstRight = option(first, "right", true);
+        AnswerOption firstWrong = option(first, "wrong", false);
+        Question second = question(quiz, "Q2");
+        AnswerOption secondRight = option(second, "right", true);
+        AnswerOption secondWrong = option(second, "wrong", false);
+
+        // до исправления: 100, 50, 0 и 0 баллов
+        Map<Long, List<Long>> bothRight = Map.of(first.getId(), List.of(firstRight.getId()),
+                second.getId(), List.of(secondRight.getId()));
+        Map<Long, List<Long>> firstWrongSecondRight = Map.of(first.getId(), List.of(firstWrong.getId()),
+                second.getId(), List.of(secondRight.getId()));
+        Map<Long, List<Long>> bothWrong = Map.of(first.getId(), List.of(firstWrong.getId()),
+                second.getId(), List.of(secondWrong.getId()));
+        Map<Long, List<Long>> firstRightSecondWrong = Map.of(first.getId(), List.of(firstRight.getId()),
+                second.getId(), List.of(secondWrong.getId()));
+
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            expected.put(quizService.takeQuiz(student().getId(), quiz.getId(), bothRight).getId(), 50);
+            expected.put(quizService.takeQuiz(student().getId(), quiz.getId(), firstWrongSecondRight).getId(), 100);
+        }
+        expected.put(quizService.takeQuiz(student().getId(), quiz.getId(), bothWrong).getId(), 50);
+        // ответ «right» на Q1 после исправления тоже неверный — балл не меняется
+        expected.put(quizService.takeQuiz(student().getId(), quiz.getId(), firstRightSecondWrong).getId(), 0);
+        // попытка до появления колонки answers — пропускается, балл остаётся прежним
+        expected.put(quizSubmissionRepository.save(QuizSubmission.builder()
+                .quiz(quiz)
+                .student(student())
+                .score(40)
+                .passed(false)
+                .takenAt(LocalDateTime.now())
+                .build()).getId(), 40);
+
+        quizService.updateAnswerKey(quiz.getId(), first.getId(), Set.of(firstWrong.getId()));
+        RegradeReport report = quizRegradeService.regradeQuiz(quiz.getId());
+
+        assertThat(report.scanned()).isEqualTo(9);
+        assertThat(report.rescored()).isEqualTo(7);
+        assertThat(report.skipped()).isEqualTo(1);
+        assertThat(report.chunks()).isEqualTo(3);
+
+        List<QuizSubmissionView> submissions = quizService.getSubmissionsForQuiz(quiz.getId());
+        assertThat(submissions.stream().collect(Collectors.toMap(QuizSubmissionView::id, QuizSubmissionView::score)))
+                .isEqualTo(expected);
+        assertThat(submissions).allSatisfy(submission ->
+                assertThat(submission.passed()).isEqualTo(submission.score() >= 50));
+
+        // повторный запуск ничего не меняет
+        RegradeReport again = quizRegradeService.regradeQuiz(quiz.getId());
+        assertThat(again.scanned()).isEqualTo(9);
+        assertThat(again.rescored()).isZero();
+    }
+}
@@ -0,0 +1,92 @@
+package orm.leaderboard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import orm.repository.CourseRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CourseLeaderboardTest {
+
+    private static final Long CATEGORY = 7L;
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final CourseLeaderboard leaderboard =
+            new CourseLeaderboard(courseRepository, new LeaderboardProperties(2, 1));
+
+    private static CourseEnrollmentCounter counter(long courseId, long count) {
+        return new CourseEnrollmentCounter(courseId, CATEGORY, "Course " + courseId, count);
+    }
+
+    @Test
+    void incrementsReorderWithoutReloading() {
+        when(courseRepository.findMostEnrolled(eq(CATEGORY), any(Pageable.class)))
+                .thenReturn(List.of(counter(1L, 5), counter(2L, 3)));
+
+        assertThat(leaderboard.top(CATEGORY, 10)).extracting(PopularCourse::courseId).containsExactly(1L, 2L);
+
+        // курс 3 вне набора: его счётчик — только потолок категории
+        leaderboard.onCountDelta(3L, 4);
+        leaderboard.onCountDelta(2L, 3);
+
+        assertThat(leaderboard.top(CATEGORY, 10))
+                .containsExactly(new PopularCourse(2L, "Course 2", 6), new PopularCourse(1L, "Course 1", 5));
+        verify(courseRepository, times(1)).findMostEnrolled(eq(CATEGORY), any(Pageable.class));
+    }
+
+    @Test
+    void reloadsWhenLeaderDropsBelowUntrackedCourses() {
+        // ёмкость 3: курс 4 в память не попал
+        when(courseRepository.findMostEnrolled(eq(CATEGORY), any(Pageable.class)))
+                .thenReturn(List.of(counter(1L, 10), counter(2L, 9), counter(3L, 8)))
+                .thenReturn(List.of(counter(2L, 9), counter(4L, 7), counter(1L, 2)));
+
+        leaderboard.top(CATEGORY, 2);
+
+        leaderboard.onCountDelta(1L, -2);
+        // при равном счётчике выше курс с большим id
+        assertThat(leaderboard.top(CATEGORY, 2)).extracting(PopularCourse::courseId).containsExactly(2L, 3L);
+
+        leaderboard.onCountDelta(1L, -6);
+        leaderboard.onCountDelta(3L, -7);
+        // K-й курс набора (1 со счётчиком 2) ниже потолка — курс 4 мог его обогнать, категория перечитывается
+        assertThat(leaderboard.top(CATEGORY, 2)).extracting(PopularCourse::courseId).containsExactly(2L, 4L);
+        verify(courseRepository, times(2)).findMostEnrolled(eq(CATEGORY), any(Pageable.class));
+    }
+
+    @Test
+    void coursesWithoutEnrollmentsLeaveTheBoard() {
+        when(courseRepository.findMostEnrolled(eq(CATEGORY), any(Pageable.class)))
+                .thenReturn(List.of(counter(1L, 1)));
+
+        leaderboard.top(CATEGORY, 10);
+        leaderboard.onCountDelta(1L, -1);
+
+        assertThat(leaderboard.top(CATEGORY, 10)).isEmpty();
+    }
+
+    @Test
+    void deltasReorderTrackedCoursesAndReloadOnlyWhenUntrackedCourseCouldEnter() {
+        when(courseRepository.findMostEnrolled(eq(CATEGORY), any(Pageable.class)))
+                .thenReturn(List.of(counter(1L, 10), counter(2L, 9), counter(3L, 8)))
+                .thenReturn(List.of(counter(5L, 13), counter(2L, 11), counter(1L, 10)));
+
+        leaderboard.top(CATEGORY, 2);
+
+        leaderboard.onCountDelta(2L, 2);
+        // курс 9 вне набора: до записи не выше потолка (8), после — не выше 9, первые два курса не меняются
+        leaderboard.onCountDelta(9L, 1);
+        assertThat(leaderboard.top(CATEGORY, 2))
+                .containsExactly(new PopularCourse(2L, "Course 2", 11), new PopularCourse(1L, "Course 1", 10));
+
+        // курс 5 мог подняться до 13 — выше второго места, категория перечитывается
+        leaderboard.onCountDelta(5L, 4);
+        assertThat(leaderboard.top(CATEGORY, 2)).extracting(PopularCourse::courseId).containsExactly(5L, 2L);
+        verify(courseRepository, times(2)).findMostEnrolled(eq(CATEGORY), any(Pageable.class));
+    }
+}
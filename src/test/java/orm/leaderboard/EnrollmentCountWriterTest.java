@@ -0,0 +1,91 @@
+package orm.leaderboard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import orm.model.EnrollmentStatus;
+import orm.repository.CourseRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class EnrollmentCountWriterTest {
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final CourseLeaderboard courseLeaderboard = mock(CourseLeaderboard.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final EnrollmentCountWriter writer =
+            new EnrollmentCountWriter(courseRepository, courseLeaderboard, transactionManager);
+
+    @Test
+    void coalescesDeltasIntoOneUpdatePerCourse() {
+        writer.add(1L, 1);
+        writer.add(1L, 1);
+        writer.add(1L, 3);
+        writer.add(2L, 1);
+        writer.add(2L, -1);
+
+        writer.flush();
+
+        verify(courseRepository).adjustEnrollmentCount(1L, 5);
+        // взаимно погасившиеся приращения строку курса не трогают
+        verify(courseRepository, never()).adjustEnrollmentCount(eq(2L), anyLong());
+        verify(courseLeaderboard).onCountDelta(1L, 5);
+
+        writer.flush();
+        verifyNoMoreInteractions(courseRepository, courseLeaderboard);
+    }
+
+    @Test
+    void failedFlushKeepsDeltas() {
+        when(courseRepository.adjustEnrollmentCount(1L, 2))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(1);
+        writer.add(1L, 2);
+
+        writer.flush();
+        verify(courseLeaderboard, never()).onCountDelta(anyLong(), anyLong());
+
+        writer.flush();
+        verify(courseRepository, times(2)).adjustEnrollmentCount(1L, 2);
+        verify(courseLeaderboard).onCountDelta(1L, 2);
+    }
+
+    @Test
+    void reconcileSkipsCoursesWithOpenTransactionsAndRetriesWhenEnrollmentStarts() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        List<Set<Long>> excluded = new ArrayList<>();
+        when(courseRepository.reconcileEnrollmentCounts(eq(EnrollmentStatus.CANCELLED), anyCollection()))
+                .thenAnswer(invocation -> {
+                    excluded.add(Set.copyOf(invocation.<Collection<Long>>getArgument(1)));
+                    if (excluded.size() == 1) {
+                        // запись на курс 2 началась, пока шёл пересчёт, — он мог её учесть, а мог и нет
+                        writer.add(2L, 1);
+                    }
+                    return 0;
+                });
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // транзакция записи на курс 1 ещё не завершена
+            writer.add(1L, 1);
+
+            assertThat(writer.reconcile()).isTrue();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(excluded).containsExactly(Set.of(1L), Set.of(1L, 2L));
+        // незафиксированные приращения не пишутся
+        verify(courseRepository, never()).adjustEnrollmentCount(anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,96 @@
+package orm.live;
+
+import org.junit.jupiter.api.Test;
+import orm.cache.AnswerKeyRow;
+import orm.cache.QuizAnswerKey;
+import orm.dto.LiveSessionView;
+import orm.model.LiveSessionStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LiveQuizSessionTest {
+
+    private final QuizAnswerKey key = QuizAnswerKey.compile(List.of(
+            new AnswerKeyRow(1L, 10L, true), new AnswerKeyRow(1L, 11L, false),
+            new AnswerKeyRow(2L, 20L, false), new AnswerKeyRow(2L, 21L, true)));
+
+    private final LiveQuizSession session = new LiveQuizSession(5L, key);
+
+    @Test
+    void countsConcurrentAnswersWithoutLosingUpdates() throws InterruptedException {
+        int students = 2000;
+        for (long student = 0; student < students; student++) {
+            session.join(student, students);
+        }
+        session.nextQuestion();
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long student = 0; student < students; student++) {
+                long id = student;
+                pool.execute(() -> session.answer(id, 1L, List.of(id % 4 == 0 ? 11L : 10L)));
+            }
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        LiveSessionView view = session.view();
+        assertThat(view.answered()).isEqualTo(students);
+        assertThat(view.options()).containsExactly(
+                new LiveSessionView.OptionTally(10L, 1500), new LiveSessionView.OptionTally(11L, 500));
+    }
+
+    @Test
+    void acceptsOneAnswerPerQuestionAndOnlyForTheOpenOne() {
+        session.join(1L, 10);
+        assertThatThrownBy(() -> session.answer(1L, 1L, List.of(10L))).isInstanceOf(IllegalStateException.class);
+
+        session.nextQuestion();
+        assertThatThrownBy(() -> session.answer(1L, 1L, List.of(20L))).isInstanceOf(IllegalArgumentException.class);
+        session.answer(1L, 1L, List.of(10L));
+        assertThatThrownBy(() -> session.answer(1L, 1L, List.of(11L))).isInstanceOf(IllegalStateException.class);
+
+        session.nextQuestion();
+        // ответ на уже закрытый вопрос
+        assertThatThrownBy(() -> session.answer(1L, 1L, List.of(10L))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> session.answer(2L, 2L, List.of(21L))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(session::nextQuestion).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void endCollectsAnswersAndRejectsLateOnes() {
+        session.join(1L, 10);
+        session.join(2L, 10);
+        session.nextQuestion();
+        session.answer(1L, 1L, List.of(10L));
+        session.nextQuestion();
+        session.answer(1L, 2L, List.of(21L));
+
+        assertThat(session.end()).isTrue();
+        assertThat(session.end()).isFalse();
+        assertThatThrownBy(() -> session.answer(2L, 2L, List.of(21L))).isInstanceOf(IllegalStateException.class);
+
+        assertThat(session.answersByStudent()).isEqualTo(Map.of(
+                1L, Map.of(1L, List.of(10L), 2L, List.of(21L)),
+                2L, Map.of()));
+        LiveSessionView view = session.view();
+        assertThat(view.status()).isEqualTo(LiveSessionStatus.ENDED);
+        assertThat(view.questionId()).isEqualTo(2L);
+        assertThat(view.answered()).isEqualTo(1);
+    }
+
+    @Test
+    void changesAreReportedOncePerBroadcast() {
+        assertThat(session.takeChanged()).isFalse();
+        session.join(1L, 10);
+        session.nextQuestion();
+        assertThat(session.takeChanged()).isTrue();
+        assertThat(session.takeChanged()).isFalse();
+    }
+}
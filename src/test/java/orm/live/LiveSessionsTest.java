@@ -0,0 +1,40 @@
+package orm.live;
+
+import org.junit.jupiter.api.Test;
+import orm.cache.AnswerKeyRow;
+import orm.cache.QuizAnswerKey;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LiveSessionsTest {
+
+    private final QuizAnswerKey key = QuizAnswerKey.compile(List.of(
+            new AnswerKeyRow(1L, 10L, true), new AnswerKeyRow(1L, 11L, false)));
+
+    private final LiveSessions liveSessions = new LiveSessions(
+            new LiveSessionProperties(null, null, null, null, null, Duration.ofMinutes(10)));
+
+    @Test
+    void sweepRemovesOnlySessionsIdleLongerThanTimeout() throws InterruptedException {
+        LiveQuizSession abandoned = new LiveQuizSession(5L, key);
+        liveSessions.register(abandoned);
+        Thread.sleep(5);
+        LiveQuizSession active = new LiveQuizSession(5L, key);
+        liveSessions.register(active);
+        active.join(1L, 10);
+        active.takeChanged();
+
+        // ровно idleTimeout после последнего изменения активной сессии: она ещё остаётся, брошенная — нет
+        long now = System.nanoTime();
+        liveSessions.sweepIdle(now - active.idleNanos(now) + Duration.ofMinutes(10).toNanos());
+
+        assertThat(liveSessions.size()).isEqualTo(1);
+        assertThat(liveSessions.get(active.getId())).isSameAs(active);
+        assertThatThrownBy(() -> liveSessions.get(abandoned.getId()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
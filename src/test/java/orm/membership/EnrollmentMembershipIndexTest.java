@@ -0,0 +1,82 @@
+package orm.membership;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import orm.repository.EnrollmentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EnrollmentMembershipIndexTest {
+
+    private final EnrollmentRepository repository = mock(EnrollmentRepository.class);
+    private final EnrollmentMembershipIndex index =
+            new EnrollmentMembershipIndex(repository, mock(PlatformTransactionManager.class), 2);
+
+    @Test
+    void fallsBackToDatabaseUntilBuilt() {
+        when(repository.existsByStudent_IdAndCourse_Id(1L, 10L)).thenReturn(true);
+
+        assertThat(index.isEnrolled(1L, 10L)).isTrue();
+        assertThat(index.stats().fallbacks()).isEqualTo(1);
+    }
+
+    @Test
+    void buildsFromPagesAndAnswersFromMemory() {
+        when(repository.findMembershipRowsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new MembershipRow(1L, 1L, 30L), new MembershipRow(2L, 1L, 10L)));
+        when(repository.findMembershipRowsAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(new MembershipRow(3L, 2L, 10L)));
+
+        index.rebuild();
+
+        assertThat(index.isEnrolled(1L, 10L)).isTrue();
+        assertThat(index.isEnrolled(1L, 30L)).isTrue();
+        assertThat(index.isEnrolled(1L, 20L)).isFalse();
+        assertThat(index.isEnrolled(2L, 10L)).isTrue();
+        assertThat(index.stats().memberships()).isEqualTo(3);
+        verify(repository, never()).existsByStudent_IdAndCourse_Id(anyLong(), anyLong());
+    }
+
+    @Test
+    void changesDuringBuildWinOverLoadedRows() {
+        // студента 1 отчислили с курса 10 уже после того, как его строка была прочитана
+        when(repository.findMembershipRowsAfter(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            index.removed(1L, 10L);
+            index.added(3L, 10L);
+            return List.of(new MembershipRow(1L, 1L, 10L));
+        });
+
+        index.rebuild();
+
+        assertThat(index.isEnrolled(1L, 10L)).isFalse();
+        assertThat(index.isEnrolled(3L, 10L)).isTrue();
+    }
+
+    @Test
+    void updatesAndRepairsDrift() {
+        when(repository.findMembershipRowsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new MembershipRow(1L, 1L, 10L)));
+        index.rebuild();
+
+        index.added(1L, 20L);
+        index.removed(1L, 10L);
+        assertThat(index.isEnrolled(1L, 20L)).isTrue();
+        assertThat(index.isEnrolled(1L, 10L)).isFalse();
+
+        // в БД по-прежнему только (1, 10): добавление 20 «потерялось», удаление 10 не закоммитилось
+        when(repository.existsByStudent_IdAndCourse_Id(1L, 10L)).thenReturn(true);
+        when(repository.existsByStudent_IdAndCourse_Id(1L, 20L)).thenReturn(false);
+
+        assertThat(index.verify()).isEqualTo(2);
+        assertThat(index.isEnrolled(1L, 10L)).isTrue();
+        assertThat(index.isEnrolled(1L, 20L)).isFalse();
+        assertThat(index.stats().repaired()).isEqualTo(2);
+    }
+}
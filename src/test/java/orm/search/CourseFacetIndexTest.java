@@ -0,0 +1,103 @@
+package orm.search;
+
+import org.junit.jupiter.api.Test;
+import orm.model.CourseStatus;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourseFacetIndexTest {
+
+    private final CourseFacetIndex index = new CourseFacetIndex(null, null);
+
+    private static CourseDocument course(long id, CourseStatus status, long categoryId, long... tagIds) {
+        List<CourseDocument.TagRef> tags = Arrays.stream(tagIds)
+                .mapToObj(tagId -> new CourseDocument.TagRef(tagId, "tag-" + tagId))
+                .toList();
+        return new CourseDocument(id, "Course " + id, null, status, categoryId, "category-" + categoryId, tags);
+    }
+
+    private static FacetFilter filter(Set<CourseStatus> statuses, Set<Long> categoryIds, Set<Long> tagIds) {
+        return new FacetFilter(statuses, categoryIds, tagIds);
+    }
+
+    @Test
+    void countsWithoutFiltersComeFromWholeCatalog() {
+        index.index(course(1L, CourseStatus.PUBLISHED, 10L, 100L));
+        index.index(course(2L, CourseStatus.PUBLISHED, 10L, 100L, 200L));
+        index.index(course(3L, CourseStatus.DRAFT, 20L));
+
+        FacetResult result = index.query(filter(null, null, null), 0, 10);
+
+        assertThat(result.courseIds()).containsExactly(1L, 2L, 3L);
+        assertThat(result.total()).isEqualTo(3);
+        assertThat(result.statuses()).containsExactly(
+                new FacetCount(null, "DRAFT", 1), new FacetCount(null, "PUBLISHED", 2));
+        assertThat(result.categories()).containsExactly(
+                new FacetCount(10L, "category-10", 2), new FacetCount(20L, "category-20", 1));
+        assertThat(result.tags()).containsExactly(
+                new FacetCount(100L, "tag-100", 2), new FacetCount(200L, "tag-200", 1));
+    }
+
+    @Test
+    void facetCountIgnoresItsOwnSelectionButAppliesOthers() {
+        index.index(course(1L, CourseStatus.PUBLISHED, 10L, 100L));
+        index.index(course(2L, CourseStatus.DRAFT, 10L, 100L));
+        index.index(course(3L, CourseStatus.PUBLISHED, 20L, 200L));
+
+        FacetResult result = index.query(filter(Set.of(CourseStatus.PUBLISHED), Set.of(10L), null), 0, 10);
+
+        assertThat(result.courseIds()).containsExactly(1L);
+        // статус считается по категории 10 — видны оба статуса
+        assertThat(result.statuses()).extracting(FacetCount::label).containsExactly("DRAFT", "PUBLISHED");
+        // категории считаются по статусу PUBLISHED — видны обе категории
+        assertThat(result.categories()).extracting(FacetCount::id).containsExactlyInAnyOrder(10L, 20L);
+        // теги считаются по обоим фильтрам
+        assertThat(result.tags()).containsExactly(new FacetCount(100L, "tag-100", 1));
+    }
+
+    @Test
+    void valuesInsideFacetAreCombinedWithOr() {
+        index.index(course(1L, CourseStatus.PUBLISHED, 10L, 100L));
+        index.index(course(2L, CourseStatus.PUBLISHED, 10L, 200L));
+        index.index(course(3L, CourseStatus.PUBLISHED, 10L, 300L));
+
+        FacetResult result = index.query(filter(null, null, Set.of(100L, 300L, 999L)), 0, 10);
+
+        assertThat(result.courseIds()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void reindexMovesCourseBetweenValuesAndRemoveDropsEmptyValues() {
+        index.index(course(1L, CourseStatus.DRAFT, 10L, 100L));
+        index.index(course(1L, CourseStatus.PUBLISHED, 20L));
+
+        FacetResult result = index.query(filter(null, null, null), 0, 10);
+        assertThat(result.statuses()).containsExactly(new FacetCount(null, "PUBLISHED", 1));
+        assertThat(result.categories()).containsExactly(new FacetCount(20L, "category-20", 1));
+        assertThat(result.tags()).isEmpty();
+
+        index.remove(1L);
+
+        result = index.query(filter(Set.of(CourseStatus.PUBLISHED), null, null), 0, 10);
+        assertThat(result.total()).isZero();
+        assertThat(result.statuses()).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void pagingWalksMatchesInIdOrder() {
+        for (long id = 1; id <= 200; id++) {
+            index.index(course(id, id % 2 == 0 ? CourseStatus.PUBLISHED : CourseStatus.DRAFT, 10L));
+        }
+
+        FacetResult page = index.query(filter(Set.of(CourseStatus.PUBLISHED), null, null), 40, 20);
+
+        assertThat(page.total()).isEqualTo(100);
+        assertThat(page.courseIds()).hasSize(20).first().isEqualTo(82L);
+        assertThat(page.courseIds()).last().isEqualTo(120L);
+    }
+}
@@ -0,0 +1,104 @@
+package orm.search;
+
+import org.junit.jupiter.api.Test;
+import orm.model.CourseStatus;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourseSearchIndexTest {
+
+    private final CourseSearchIndex index = new CourseSearchIndex(null, null);
+
+    private static CourseDocument course(long id, String title, String description, String category, String... tags) {
+        List<CourseDocument.TagRef> tagRefs = Arrays.stream(tags)
+                .map(name -> new CourseDocument.TagRef((long) name.hashCode(), name))
+                .toList();
+        return new CourseDocument(id, title, description, CourseStatus.PUBLISHED, 1L, category, tagRefs);
+    }
+
+    @Test
+    void titleMatchRanksAboveDescriptionMatch() {
+        index.index(course(1L, "Spring Boot", "Learn Java web development", "Programming"));
+        index.index(course(2L, "Java Basics", "Intro course", "Programming"));
+
+        List<CourseSearchHit> hits = index.search("java", 10).hits();
+
+        assertThat(hits).extracting(CourseSearchHit::id).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void prefixMatchesAndAllWordsAreRequired() {
+        index.index(course(1L, "Hibernate в деталях", "ORM и JPA", "Базы данных", "jpa"));
+        index.index(course(2L, "Hibernate for beginners", "Entities", "Databases"));
+
+        assertThat(index.search("hiber", 10).hits()).extracting(CourseSearchHit::id).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("hibernate дет", 10).hits()).extracting(CourseSearchHit::id).containsExactly(1L);
+        assertThat(index.search("базы", 10).hits()).extracting(CourseSearchHit::id).containsExactly(1L);
+        assertThat(index.search("hibernate kotlin", 10).hits()).isEmpty();
+    }
+
+    @Test
+    void reindexAndRemoveKeepIndexCurrent() {
+        index.index(course(1L, "Kotlin", "Coroutines", "Programming"));
+        index.index(course(1L, "Scala", "Effects", "Programming"));
+
+        assertThat(index.search("kotlin", 10).hits()).isEmpty();
+        assertThat(index.search("scala", 10).hits()).extracting(CourseSearchHit::title).containsExactly("Scala");
+
+        index.remove(1L);
+
+        assertThat(index.search("scala", 10).hits()).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void limitKeepsBestHits() {
+        for (long id = 1; id <= 50; id++) {
+            index.index(course(id, "Course " + id, id % 2 == 0 ? "python" : "python python python", "Programming"));
+        }
+        index.index(course(100L, "Python Master Class", "", "Programming"));
+
+        List<CourseSearchHit> hits = index.search("python", 5).hits();
+
+        assertThat(hits).hasSize(5);
+        assertThat(hits.get(0).id()).isEqualTo(100L);
+    }
+
+    @Test
+    void intersectionDoesNotDependOnWordOrder() {
+        for (long id = 1; id <= 300; id++) {
+            index.index(course(id, "Java course " + id, id % 100 == 0 ? "kotlin interop" : "plain java", "Programming"));
+        }
+
+        // редкое слово первым и последним: кандидатов мало, остальные слова проверяются поиском по постингам
+        CourseSearchResult rareLast = index.search("java kotlin", 10);
+        CourseSearchResult rareFirst = index.search("kotlin java", 10);
+        // оба слова частые: постинги второго слова просматриваются целиком
+        CourseSearchResult common = index.search("java course", 300);
+
+        assertThat(rareLast.hits()).extracting(CourseSearchHit::id).containsExactly(100L, 200L, 300L);
+        assertThat(rareFirst.hits()).isEqualTo(rareLast.hits());
+        assertThat(common.hits()).hasSize(300);
+    }
+
+    @Test
+    void tooManyExpansionsKeepMostFrequentAndAreReported() {
+        for (long id = 1; id <= CourseSearchIndex.MAX_PREFIX_EXPANSIONS + 10; id++) {
+            index.index(course(id, "Course " + id, "prog" + id, "Misc"));
+        }
+        for (long id = 1_000; id < 1_003; id++) {
+            index.index(course(id, "Course " + id, "programming", "Misc"));
+        }
+
+        CourseSearchResult result = index.search("prog", 100);
+
+        assertThat(result.truncatedPrefixes()).containsExactly("prog");
+        assertThat(result.hits()).extracting(CourseSearchHit::id).contains(1_000L, 1_001L, 1_002L);
+        // "programming" и ещё 63 продолжения из 74 одиночных
+        assertThat(result.hits()).hasSize(3 + CourseSearchIndex.MAX_PREFIX_EXPANSIONS - 1);
+        assertThat(index.search("programming", 100).truncatedPrefixes()).isEmpty();
+    }
+}
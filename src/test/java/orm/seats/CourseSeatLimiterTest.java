@@ -0,0 +1,111 @@
+package orm.seats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import orm.model.EnrollmentStatus;
+import orm.repository.CourseRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CourseSeatLimiterTest {
+
+    private static final Long COURSE = 1L;
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final CourseSeatLimiter limiter = new CourseSeatLimiter(courseRepository);
+
+    @Test
+    void concurrentRequestersNeverExceedCapacity() throws Exception {
+        when(courseRepository.findSeatRow(COURSE, EnrollmentStatus.CANCELLED)).thenReturn(Optional.of(new CourseSeatRow(100, 0L)));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService requesters = Executors.newFixedThreadPool(50)) {
+            for (int i = 0; i < 500; i++) {
+                results.add(requesters.submit(() -> {
+                    start.await();
+                    return limiter.tryAcquire(COURSE);
+                }));
+            }
+            start.countDown();
+        }
+
+        long granted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                granted++;
+            }
+        }
+        // курс могли прочитать несколько первых запросов, но места выдаёт один счётчик
+        assertThat(granted).isEqualTo(100);
+    }
+
+    @Test
+    void grantsPartOfBulkRequestAndReturnsSeatsOnRollback() {
+        when(courseRepository.findSeatRow(COURSE, EnrollmentStatus.CANCELLED)).thenReturn(Optional.of(new CourseSeatRow(10, 7L)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(limiter.tryAcquire(COURSE, 5)).isEqualTo(3);
+            assertThat(limiter.tryAcquire(COURSE)).isFalse();
+
+            // откат транзакции возвращает выданные места
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(limiter.tryAcquire(COURSE, 5)).isEqualTo(3);
+    }
+
+    @Test
+    void releasedSeatsCanBeTakenAgain() {
+        when(courseRepository.findSeatRow(COURSE, EnrollmentStatus.CANCELLED)).thenReturn(Optional.of(new CourseSeatRow(2, 2L)));
+
+        assertThat(limiter.tryAcquire(COURSE)).isFalse();
+        limiter.released(COURSE, 1);
+
+        assertThat(limiter.tryAcquire(COURSE)).isTrue();
+        assertThat(limiter.tryAcquire(COURSE)).isFalse();
+    }
+
+    @Test
+    void capacityChangeKeepsSeatsHeldByOpenTransactions() {
+        when(courseRepository.findSeatRow(COURSE, EnrollmentStatus.CANCELLED))
+                .thenReturn(Optional.of(new CourseSeatRow(null, 3L)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // место выдано незавершённой транзакции — в таблице записей его ещё нет
+            assertThat(limiter.tryAcquire(COURSE)).isTrue();
+            limiter.capacityChanged(COURSE, 5);
+
+            assertThat(limiter.tryAcquire(COURSE, 5)).isEqualTo(1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(courseRepository, times(1)).findSeatRow(COURSE, EnrollmentStatus.CANCELLED);
+    }
+
+    @Test
+    void unlimitedAndUnknownCoursesAreNotLimited() {
+        when(courseRepository.findSeatRow(COURSE, EnrollmentStatus.CANCELLED))
+                .thenReturn(Optional.of(new CourseSeatRow(null, 1_000L)));
+        when(courseRepository.findSeatRow(2L, EnrollmentStatus.CANCELLED)).thenReturn(Optional.empty());
+
+        assertThat(limiter.tryAcquire(COURSE, 1_000)).isEqualTo(1_000);
+        assertThat(limiter.tryAcquire(2L)).isTrue();
+    }
+}
@@ -1,5 +1,6 @@
 package orm.service;
 
+import orm.cache.CourseStructureCache;
 import orm.entity.Category;
 import orm.entity.Course;
 import orm.entity.User;
@@ -8,12 +9,14 @@ import orm.model.Role;
 import orm.repository.CategoryRepository;
 import orm.repository.CourseRepository;
 import orm.repository.UserRepository;
+import orm.seats.CourseSeatLimiter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import orm.service.impl.CourseServiceImpl;
 
 import java.util.Optional;
@@ -35,6 +38,15 @@ class CourseServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CourseStructureCache courseStructureCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CourseSeatLimiter courseSeatLimiter;
+
     @InjectMocks
     private CourseServiceImpl courseService;
 
@@ -132,5 +144,45 @@ class CourseServiceTest {
 
         assertThat(published.getStatus()).isEqualTo(CourseStatus.PUBLISHED);
         verify(courseRepository, times(1)).save(course);
+        verify(courseStructureCache).invalidate(courseId);
+    }
+
+    @Test
+    void updateCourse_keepsCapacityWhenOmitted() {
+        Long courseId = 5L;
+
+        Course course = Course.builder()
+                .id(courseId)
+                .title("Java")
+                .capacity(30)
+                .build();
+
+        when(courseRepository.findById(courseId)).thenReturn(Optional.of(course));
+        when(courseRepository.save(any(Course.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Course updated = courseService.updateCourse(courseId, Course.builder().title("Java 2").build());
+
+        assertThat(updated.getTitle()).isEqualTo("Java 2");
+        assertThat(updated.getCapacity()).isEqualTo(30);
+        verify(courseSeatLimiter, never()).capacityChanged(any(), any());
+    }
+
+    @Test
+    void clearCapacity_removesSeatLimit() {
+        Long courseId = 5L;
+
+        Course course = Course.builder()
+                .id(courseId)
+                .title("Java")
+                .capacity(30)
+                .build();
+
+        when(courseRepository.findById(courseId)).thenReturn(Optional.of(course));
+
+        courseService.clearCapacity(courseId);
+
+        assertThat(course.getCapacity()).isNull();
+        verify(courseRepository).save(course);
+        verify(courseSeatLimiter).capacityChanged(courseId, null);
     }
 }
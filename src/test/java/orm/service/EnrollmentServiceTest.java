@@ -1,20 +1,29 @@
 package orm.service;
 
+import orm.cache.UserRoleCache;
 import orm.entity.Course;
 import orm.entity.Enrollment;
 import orm.entity.User;
+import orm.leaderboard.EnrollmentCountWriter;
+import orm.membership.EnrollmentMembershipIndex;
 import orm.model.EnrollmentStatus;
 import orm.model.Role;
 import orm.repository.CourseRepository;
 import orm.repository.EnrollmentRepository;
 import orm.repository.UserRepository;
+import orm.seats.CourseSeatLimiter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import orm.service.impl.EnrollmentServiceImpl;
 
+import java.sql.SQLException;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -34,9 +43,26 @@ class EnrollmentServiceTest {
     @Mock
     private CourseRepository courseRepository;
 
+    @Mock
+    private EnrollmentCountWriter enrollmentCounts;
+
+    @Mock
+    private EnrollmentMembershipIndex membershipIndex;
+
+    @Mock
+    private CourseSeatLimiter seatLimiter;
+
+    @Spy
+    private UserRoleCache userRoleCache = new UserRoleCache(100);
+
     @InjectMocks
     private EnrollmentServiceImpl enrollmentService;
 
+    @BeforeEach
+    void seatsAvailable() {
+        lenient().when(seatLimiter.tryAcquire(anyLong())).thenReturn(true);
+    }
+
     @Test
     void enrollStudent_createsEnrollmentIfNotExists() {
         Long courseId = 1L;
@@ -55,11 +81,11 @@ class EnrollmentServiceTest {
                 .title("Java")
                 .build();
 
-        when(userRepository.findById(studentId)).thenReturn(Optional.of(student));
-        when(courseRepository.findById(courseId)).thenReturn(Optional.of(course));
-        when(enrollmentRepository.existsByStudent_IdAndCourse_Id(studentId, courseId)).thenReturn(false);
+        when(userRepository.findRoleById(studentId)).thenReturn(Optional.of(Role.STUDENT));
+        when(userRepository.getReferenceById(studentId)).thenReturn(student);
+        when(courseRepository.getReferenceById(courseId)).thenReturn(course);
 
-        when(enrollmentRepository.save(any(Enrollment.class))).thenAnswer(invocation -> {
+        when(enrollmentRepository.saveAndFlush(any(Enrollment.class))).thenAnswer(invocation -> {
             Enrollment e = invocation.getArgument(0);
             e.setId(100L);
             return e;
@@ -72,7 +98,14 @@ class EnrollmentServiceTest {
         assertThat(enrollment.getStudent()).isEqualTo(student);
         assertThat(enrollment.getStatus()).isEqualTo(EnrollmentStatus.ACTIVE);
 
-        verify(enrollmentRepository, times(1)).save(any(Enrollment.class));
+        // вставка без предварительных проверок
+        verify(enrollmentRepository, times(1)).saveAndFlush(any(Enrollment.class));
+        verify(enrollmentRepository, never()).existsByStudent_IdAndCourse_Id(anyLong(), anyLong());
+        verify(courseRepository, never()).findById(any());
+        // строка курса не обновляется — счётчик записей получает приращение
+        verify(courseRepository, never()).adjustEnrollmentCount(anyLong(), anyLong());
+        verify(enrollmentCounts).add(courseId, 1);
+        verify(membershipIndex).added(studentId, courseId);
     }
 
     @Test
@@ -80,30 +113,32 @@ class EnrollmentServiceTest {
         Long courseId = 1L;
         Long studentId = 2L;
 
-        Course course = Course.builder()
-                .id(courseId)
-                .title("Java")
-                .build();
-
-        User student = User.builder()
-                .id(studentId)
-                .name("Student")
-                .role(Role.STUDENT)
-                .build();
-
-        when(courseRepository.findById(courseId)).thenReturn(Optional.of(course));
-        when(userRepository.findById(studentId)).thenReturn(Optional.of(student));
+        when(userRepository.findRoleById(studentId)).thenReturn(Optional.of(Role.STUDENT));
 
-        // ВАЖНО: порядок аргументов как в сервисе: (studentId, courseId)
-        when(enrollmentRepository.existsByStudent_IdAndCourse_Id(studentId, courseId))
-                .thenReturn(true);
+        // уникальное ограничение срабатывает на вставке
+        when(enrollmentRepository.saveAndFlush(any(Enrollment.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate", new ConstraintViolationException("duplicate", new SQLException(),
+                        Enrollment.UNIQUE_STUDENT_COURSE)));
 
         assertThatThrownBy(() ->
                 enrollmentService.enrollStudent(courseId, studentId)
         ).isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Student is already enrolled in the course");
+    }
 
-        verify(enrollmentRepository, never()).save(any());
+    @Test
+    void enrollStudent_throwsIfCourseDoesNotExist() {
+        Long courseId = 1L;
+        Long studentId = 2L;
+
+        when(userRepository.findRoleById(studentId)).thenReturn(Optional.of(Role.STUDENT));
+        when(enrollmentRepository.saveAndFlush(any(Enrollment.class))).thenThrow(new DataIntegrityViolationException(
+                "fk", new ConstraintViolationException("fk", new SQLException(), "fk_enrollments_course")));
+
+        assertThatThrownBy(() ->
+                enrollmentService.enrollStudent(courseId, studentId)
+        ).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Course not found");
     }
 
     @Test
@@ -111,29 +146,44 @@ class EnrollmentServiceTest {
         Long courseId = 1L;
         Long userId = 2L;
 
-        Course course = Course.builder()
-                .id(courseId)
-                .title("Java")
-                .build();
-
-        User notStudent = User.builder()
-                .id(userId)
-                .name("Teacher")
-                .role(Role.TEACHER)
-                .build();
-
-        when(courseRepository.findById(courseId)).thenReturn(Optional.of(course));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(notStudent));
+        when(userRepository.findRoleById(userId)).thenReturn(Optional.of(Role.TEACHER));
 
         assertThatThrownBy(() ->
                 enrollmentService.enrollStudent(courseId, userId)
         ).isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("User is not a student");
 
-        verify(enrollmentRepository, never()).existsByStudent_IdAndCourse_Id(anyLong(), anyLong());
-        verify(enrollmentRepository, never()).save(any());
+        verify(enrollmentRepository, never()).saveAndFlush(any());
     }
 
+    @Test
+    void enrollStudent_readsRoleOnce() {
+        Long studentId = 2L;
+
+        when(userRepository.findRoleById(studentId)).thenReturn(Optional.of(Role.STUDENT));
+        when(enrollmentRepository.saveAndFlush(any(Enrollment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        enrollmentService.enrollStudent(1L, studentId);
+        enrollmentService.enrollStudent(3L, studentId);
+
+        verify(userRepository, times(1)).findRoleById(studentId);
+    }
+
+    @Test
+    void enrollStudent_rejectsFullCourseWithoutTouchingDatabase() {
+        Long studentId = 2L;
+
+        when(userRepository.findRoleById(studentId)).thenReturn(Optional.of(Role.STUDENT));
+        when(seatLimiter.tryAcquire(1L)).thenReturn(false);
+
+        assertThatThrownBy(() ->
+                enrollmentService.enrollStudent(1L, studentId)
+        ).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Course is full");
+
+        verify(enrollmentRepository, never()).saveAndFlush(any());
+        verify(enrollmentCounts, never()).add(anyLong(), anyLong());
+    }
 
     @Test
     void cancelEnrollment_setsStatusCancelled() {
@@ -142,6 +192,7 @@ class EnrollmentServiceTest {
         Enrollment enrollment = Enrollment.builder()
                 .id(enrollmentId)
                 .status(EnrollmentStatus.ACTIVE)
+                .course(Course.builder().id(1L).build())
                 .build();
 
         when(enrollmentRepository.findById(enrollmentId)).thenReturn(Optional.of(enrollment));
@@ -150,5 +201,25 @@ class EnrollmentServiceTest {
 
         assertThat(enrollment.getStatus()).isEqualTo(EnrollmentStatus.CANCELLED);
         verify(enrollmentRepository, times(1)).save(enrollment);
+        verify(seatLimiter).released(1L, 1);
+        verify(enrollmentCounts).add(1L, -1);
+    }
+
+    @Test
+    void cancelEnrollment_isNoOpForCancelledEnrollment() {
+        Long enrollmentId = 10L;
+
+        Enrollment enrollment = Enrollment.builder()
+                .id(enrollmentId)
+                .status(EnrollmentStatus.CANCELLED)
+                .build();
+
+        when(enrollmentRepository.findById(enrollmentId)).thenReturn(Optional.of(enrollment));
+
+        enrollmentService.cancelEnrollment(enrollmentId);
+
+        verify(enrollmentRepository, never()).save(any());
+        verify(seatLimiter, never()).released(anyLong(), anyInt());
+        verify(enrollmentCounts, never()).add(anyLong(), anyLong());
     }
 }
@@ -0,0 +1,55 @@
+package orm.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import orm.attempt.AttemptProperties;
+import orm.attempt.AttemptTimers;
+import orm.attempt.AttemptsExpiredEvent;
+import orm.entity.Quiz;
+import orm.entity.QuizAttempt;
+import orm.entity.User;
+import orm.model.AttemptStatus;
+import orm.repository.QuizAttemptRepository;
+import orm.repository.QuizRepository;
+import orm.repository.UserRepository;
+import orm.service.impl.QuizAttemptServiceImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class QuizAttemptServiceTest {
+
+    private final QuizAttemptRepository quizAttemptRepository = mock(QuizAttemptRepository.class);
+    private final QuizService quizService = mock(QuizService.class);
+    private final AttemptTimers attemptTimers = mock(AttemptTimers.class);
+
+    private final QuizAttemptServiceImpl quizAttemptService = new QuizAttemptServiceImpl(quizAttemptRepository,
+            mock(QuizRepository.class), mock(UserRepository.class), quizService, attemptTimers,
+            mock(PlatformTransactionManager.class), new AttemptProperties(null, null, Duration.ofSeconds(5), null));
+
+    @Test
+    void earlyTimerIsRescheduledInsteadOfDropped() {
+        LocalDateTime deadline = LocalDateTime.now().plusMinutes(1);
+        QuizAttempt attempt = QuizAttempt.builder()
+                .id(1L)
+                .quiz(Quiz.builder().id(10L).build())
+                .student(User.builder().id(20L).build())
+                .status(AttemptStatus.IN_PROGRESS)
+                .deadline(deadline)
+                .build();
+        when(quizAttemptRepository.findByIdInAndStatus(List.of(1L), AttemptStatus.IN_PROGRESS))
+                .thenReturn(List.of(attempt));
+
+        quizAttemptService.onAttemptsExpired(new AttemptsExpiredEvent(List.of(1L)));
+
+        verify(attemptTimers).schedule(1L, deadline);
+        verify(quizService, never()).takeQuiz(anyLong(), anyLong(), any());
+        assertThat(attempt.getStatus()).isEqualTo(AttemptStatus.IN_PROGRESS);
+    }
+}